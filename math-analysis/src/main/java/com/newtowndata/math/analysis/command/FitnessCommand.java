@@ -63,6 +63,8 @@ public class FitnessCommand implements Command {
     Configuration configuration = new Configuration();
     configuration.setMaxNodes(Integer.MAX_VALUE);
     configuration.setModelSizeImportance(0);
+    // the single model is scored over the whole input, compile it right away
+    configuration.setCompileThreshold(1);
 
     Evaluator evaluator = new Evaluator(configuration, new DataInput(input));
     RankedModel rankedModel = evaluator.evaluate(model);
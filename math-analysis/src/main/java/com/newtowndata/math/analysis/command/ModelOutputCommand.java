@@ -13,6 +13,7 @@
  */
 package com.newtowndata.math.analysis.command;
 
+import com.newtowndata.math.input.DataInput;
 import com.newtowndata.math.input.DataRow;
 import com.newtowndata.math.input.DataRowsFileLoader;
 import com.newtowndata.math.model.Model;
@@ -56,9 +57,12 @@ public class ModelOutputCommand implements Command {
   }
 
   private void computeModelOutput(Model model, List<DataRow> input) {
-    for (DataRow row : input) {
-      double y = model.evaluate(row);
-      System.out.println(y + "\t" + row.getY() + "\t" + xValuesToOutput(row.getX()));
+    double[] output = new double[input.size()];
+    model.evaluate(new DataInput(input).getColumnarData(), output);
+
+    for (int i = 0; i < output.length; i++) {
+      DataRow row = input.get(i);
+      System.out.println(output[i] + "\t" + row.getY() + "\t" + xValuesToOutput(row.getX()));
     }
   }
 
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.analysis.command;
+
+import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.evolution.Evaluator;
+import com.newtowndata.math.genetics.MutationContextImpl;
+import com.newtowndata.math.genetics.NodeFactory;
+import com.newtowndata.math.genetics.NodeFactoryImpl;
+import com.newtowndata.math.genetics.Random;
+import com.newtowndata.math.genetics.RandomImpl;
+import com.newtowndata.math.genetics.nodes.core.Node;
+import com.newtowndata.math.genetics.program.LinearGenome;
+import com.newtowndata.math.input.DataInput;
+import com.newtowndata.math.input.DataRowsFileLoader;
+import com.newtowndata.math.model.Model;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compares the tree and the linear representation on the same random population - retained
+ * heap, offspring creation and evaluation time.
+ */
+public class RepresentationBenchmarkCommand implements Command {
+
+  private static final long SEED = 0;
+  private static final int DEFAULT_POPULATION_SIZE = 10000;
+  private static final int DEFAULT_MODEL_SIZE = 30;
+
+  @Override
+  public String name() {
+    return "representation_benchmark";
+  }
+
+  @Override
+  public void execute(String[] args) {
+    if (args.length < 1) {
+      throw new IllegalArgumentException(
+          "Missing arguments: <input path> [population size] [model size]");
+    }
+
+    String inputPath = args[0];
+    int populationSize = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_POPULATION_SIZE;
+    int modelSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MODEL_SIZE;
+    if (populationSize < 1 || modelSize < 1) {
+      throw new IllegalArgumentException("Population size and model size must be positive");
+    }
+
+    DataInput dataInput = new DataInput(DataRowsFileLoader.loadInputFile(inputPath));
+    for (String representation : List.of("tree", "linear")) {
+      benchmark(representation, dataInput, populationSize, modelSize);
+    }
+  }
+
+  private void benchmark(String representation, DataInput dataInput, int populationSize,
+      int modelSize) {
+    Configuration configuration = new Configuration();
+    configuration.setRepresentation(representation);
+    configuration.setMaxNodes(Integer.MAX_VALUE);
+    configuration.setFitnessCacheSize(0);
+    boolean linear = "linear".equals(representation);
+
+    // the same seed gives both representations the same models
+    Random random = new RandomImpl(new java.util.Random(SEED));
+    MutationContextImpl mutationContext = new MutationContextImpl(dataInput.getXLength(),
+        dataInput.computeGroups(), () -> random);
+    NodeFactory nodeFactory = new NodeFactoryImpl(mutationContext, configuration);
+
+    long heapBefore = usedHeap();
+    long start = System.nanoTime();
+    List<Model> population = new ArrayList<>(populationSize);
+    for (int i = 0; i < populationSize; i++) {
+      Node root = nodeFactory.createLeafNode();
+      while (root.getSize() < modelSize) {
+        root = nodeFactory.createAggregateNode(root, nodeFactory.createLeafNode());
+      }
+      population.add(linear ? new Model(LinearGenome.encode(root)) : new Model(root));
+    }
+    long createTime = System.nanoTime() - start;
+    long heap = usedHeap() - heapBefore;
+
+    start = System.nanoTime();
+    List<Model> offspring = new ArrayList<>(populationSize);
+    for (int i = 0; i < populationSize; i++) {
+      Model model = population.get(i);
+      Model otherModel = population.get(random.nextInt(0, populationSize - 1));
+      Node otherNode = otherModel.extractNode(random.nextInt(0, otherModel.getSize() - 1));
+      offspring.add(model.replaceNode(random.nextInt(0, model.getSize() - 1),
+          node -> nodeFactory.createAggregateNode(node, otherNode), otherModel));
+    }
+    long crossoverTime = System.nanoTime() - start;
+
+    Evaluator evaluator = new Evaluator(configuration, dataInput);
+    start = System.nanoTime();
+    for (Model model : offspring) {
+      evaluator.evaluate(model);
+    }
+    long evaluationTime = System.nanoTime() - start;
+
+    System.out.println(String.format(Locale.ENGLISH,
+        "%s: heap %.1f MB (%.0f B/model), creation %d ms, crossover %d ms, evaluation %d ms",
+        representation, heap / 1024.0 / 1024.0, heap / (double) populationSize,
+        createTime / 1_000_000, crossoverTime / 1_000_000, evaluationTime / 1_000_000));
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
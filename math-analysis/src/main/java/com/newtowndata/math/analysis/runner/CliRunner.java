@@ -16,6 +16,7 @@ package com.newtowndata.math.analysis.runner;
 import com.newtowndata.math.analysis.command.Command;
 import com.newtowndata.math.analysis.command.FitnessCommand;
 import com.newtowndata.math.analysis.command.ModelOutputCommand;
+import com.newtowndata.math.analysis.command.RepresentationBenchmarkCommand;
 import java.util.Arrays;
 import java.util.List;
 import org.springframework.boot.CommandLineRunner;
@@ -26,7 +27,8 @@ public class CliRunner implements CommandLineRunner {
 
   private static final List<Command> COMMANDS = List.of(
       new ModelOutputCommand(),
-      new FitnessCommand()
+      new FitnessCommand(),
+      new RepresentationBenchmarkCommand()
   );
 
   @Override
@@ -25,4 +25,10 @@ public class AnalyzeTest {
     Analyze.main(
         new String[] {"model_output", getTestPath("example.model"), getTestPath("example.csv")});
   }
+
+  @Test
+  void testRepresentationBenchmark() {
+    Analyze.main(
+        new String[] {"representation_benchmark", getTestPath("example.csv"), "100", "10"});
+  }
 }
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.distributed;
+
+import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.config.ConfigurationLoader;
+import com.newtowndata.math.input.DataInput;
+import com.newtowndata.math.input.DataRow;
+import com.newtowndata.math.model.Model;
+import com.newtowndata.math.serialization.ModelSerializer;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * TCP connection between the coordinator and a worker. Messages are sent in the background by
+ * any thread, a failed send closes the connection, so the receiving thread ends and the peer is
+ * dropped.
+ */
+public class Connection implements Closeable {
+
+  private static final Logger LOG = Logger.getLogger(Connection.class.getName());
+
+  private static final int MAX_PENDING_MIGRANTS = 4;
+
+  private final Socket socket;
+  private final String name;
+  private final DataInputStream input;
+  private final DataOutputStream output;
+  private final ModelSerializer serializer = new ModelSerializer();
+
+  // messages are written by a single thread, so a slow peer never blocks the sending thread
+  private final ExecutorService sender;
+  private final AtomicInteger pendingMessages = new AtomicInteger();
+
+  public Connection(Socket socket) throws IOException {
+    this.socket = socket;
+    this.name = String.valueOf(socket.getRemoteSocketAddress());
+    socket.setTcpNoDelay(true);
+    this.input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    this.output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    this.sender = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "sender-" + name);
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Parses {@code host:port} without resolving the host.
+   */
+  static InetSocketAddress parseAddress(String address) {
+    int separator = address.lastIndexOf(':');
+    if (separator <= 0) {
+      throw new IllegalArgumentException("Invalid address " + address);
+    }
+    try {
+      return InetSocketAddress.createUnresolved(address.substring(0, separator),
+          Integer.parseInt(address.substring(separator + 1)));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid address " + address, e);
+    }
+  }
+
+  public void sendJob(Job job) {
+    send(Message.JOB, job.getJobId(), () -> {
+      ByteArrayOutputStream configBytes = new ByteArrayOutputStream();
+      ConfigurationLoader.toStream(job.getConfig(), configBytes);
+      output.writeInt(configBytes.size());
+      configBytes.writeTo(output);
+      writeDataInput(job.getDataInput());
+      output.writeDouble(job.getYRange());
+    });
+  }
+
+  /**
+   * Sends the migrants unless the peer is still behind with the previous messages, migrants
+   * are not worth waiting for.
+   */
+  public void sendMigrants(int jobId, List<Model> models) {
+    if (pendingMessages.get() < MAX_PENDING_MIGRANTS) {
+      send(Message.MIGRANTS, jobId, () -> writeModels(models));
+    }
+  }
+
+  public void sendStop(int jobId) {
+    send(Message.STOP, jobId, () -> {
+    });
+  }
+
+  public void sendResult(int jobId, List<Model> models) {
+    send(Message.RESULT, jobId, () -> writeModels(models));
+  }
+
+  public void sendEvaluate(int batchId, double threshold, List<Model> models) {
+    send(Message.EVALUATE, batchId, () -> {
+      writeValues(new double[] {threshold});
+      writeModels(models);
+    });
+  }
+
+  public void sendFitness(int batchId, double[] values) {
+    send(Message.FITNESS, batchId, () -> writeValues(values));
+  }
+
+  /**
+   * Waits until the messages sent so far are written or the connection fails.
+   */
+  public void flush() throws InterruptedException {
+    try {
+      sender.submit(() -> {
+      }).get();
+    } catch (ExecutionException | RejectedExecutionException e) {
+      // the connection is closed already
+    }
+  }
+
+  private void send(int type, int jobId, PayloadWriter payloadWriter) {
+    pendingMessages.incrementAndGet();
+    try {
+      sender.execute(() -> {
+        try {
+          output.writeByte(type);
+          output.writeInt(jobId);
+          payloadWriter.write();
+          output.flush();
+        } catch (IOException e) {
+          LOG.info("Cannot send to " + name + ": " + e.getMessage());
+          close();
+        } finally {
+          pendingMessages.decrementAndGet();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      pendingMessages.decrementAndGet();
+    }
+  }
+
+  /**
+   * Waits for the next message, only one thread may receive.
+   *
+   * @throws IOException when the connection is closed
+   */
+  public Message receive() throws IOException {
+    int type = input.readUnsignedByte();
+    int jobId = input.readInt();
+    switch (type) {
+      case Message.JOB:
+        byte[] configBytes = new byte[input.readInt()];
+        input.readFully(configBytes);
+        Configuration config = ConfigurationLoader.fromStream(
+            new ByteArrayInputStream(configBytes));
+        DataInput dataInput = readDataInput();
+        return new Message(type, jobId, new Job(jobId, config, dataInput, input.readDouble()),
+            null);
+      case Message.MIGRANTS:
+      case Message.RESULT:
+        return new Message(type, jobId, null, readModels());
+      case Message.STOP:
+        return new Message(type, jobId, null, null);
+      case Message.EVALUATE:
+        double[] threshold = readValues();
+        return new Message(type, jobId, null, readModels(), threshold);
+      case Message.FITNESS:
+        return new Message(type, jobId, null, null, readValues());
+      default:
+        throw new IOException("Unknown message type " + type);
+    }
+  }
+
+  private void writeModels(List<Model> models) throws IOException {
+    output.writeInt(models.size());
+    for (Model model : models) {
+      serializer.write(model, output);
+    }
+  }
+
+  private List<Model> readModels() throws IOException {
+    int size = input.readInt();
+    List<Model> models = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      try {
+        models.add(serializer.read(input));
+      } catch (IllegalArgumentException e) {
+        // the rest of the stream cannot be parsed anymore
+        throw new IOException("Cannot read model", e);
+      }
+    }
+    return models;
+  }
+
+  private void writeValues(double[] values) throws IOException {
+    output.writeInt(values.length);
+    for (double value : values) {
+      output.writeDouble(value);
+    }
+  }
+
+  private double[] readValues() throws IOException {
+    double[] values = new double[input.readInt()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = input.readDouble();
+    }
+    return values;
+  }
+
+  private void writeDataInput(DataInput dataInput) throws IOException {
+    List<DataRow> rows = dataInput.getRows();
+    output.writeInt(rows.size());
+    output.writeInt(dataInput.getXLength());
+    for (DataRow row : rows) {
+      output.writeDouble(row.getY());
+      output.writeBoolean(row.getGroup() != null);
+      if (row.getGroup() != null) {
+        output.writeUTF(row.getGroup());
+      }
+      for (double x : row.getX()) {
+        output.writeDouble(x);
+      }
+    }
+  }
+
+  private DataInput readDataInput() throws IOException {
+    int size = input.readInt();
+    int xLength = input.readInt();
+    List<DataRow> rows = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      double y = input.readDouble();
+      String group = input.readBoolean() ? input.readUTF() : null;
+      double[] x = new double[xLength];
+      for (int j = 0; j < xLength; j++) {
+        x[j] = input.readDouble();
+      }
+      rows.add(new DataRow(y, group, x));
+    }
+    return new DataInput(rows);
+  }
+
+  @Override
+  public void close() {
+    sender.shutdownNow();
+    try {
+      socket.close();
+    } catch (IOException e) {
+      LOG.info("Cannot close connection to " + name + ": " + e.getMessage());
+    }
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+
+  @FunctionalInterface
+  private interface PayloadWriter {
+
+    void write() throws IOException;
+  }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.distributed;
+
+import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.input.DataInput;
+import com.newtowndata.math.model.Model;
+import com.newtowndata.math.model.RankedModel;
+import com.newtowndata.math.runner.MigrantExchange;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+/**
+ * Hub of the distributed island model. Workers may connect at any time and get the current job
+ * with the remaining duration. Migrants of every worker are kept for the local islands and
+ * relayed to the next worker, so the processes form a ring through the coordinator.
+ *
+ * <p>A worker leaving is only logged, nothing waits for it except {@link #finish(List)}, which
+ * waits at most {@link #RESULT_TIMEOUT_MS} for the results of the workers still connected.
+ */
+public class Coordinator implements MigrantExchange, Closeable {
+
+  private static final Logger LOG = Logger.getLogger(Coordinator.class.getName());
+
+  static final long RESULT_TIMEOUT_MS = 30000;
+
+  private final ServerSocket serverSocket;
+  private final Clock clock;
+  private final List<Connection> connections = new CopyOnWriteArrayList<>();
+  private final Queue<Model> immigrants = new ConcurrentLinkedQueue<>();
+
+  // guarded by this
+  private Job job;
+  private long jobEndMillis;
+  private int lastJobId = 0;
+  private final Set<Connection> pendingResults = new HashSet<>();
+  private final Map<Connection, List<Model>> results = new HashMap<>();
+
+  public Coordinator(int port, Clock clock) throws IOException {
+    this.serverSocket = new ServerSocket(port);
+    this.clock = clock;
+
+    Thread acceptor = new Thread(this::acceptWorkers, "coordinator");
+    acceptor.setDaemon(true);
+    acceptor.start();
+    LOG.info("Coordinator listening on port " + getPort());
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  int getWorkerCount() {
+    return connections.size();
+  }
+
+  private void acceptWorkers() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Connection connection = new Connection(serverSocket.accept());
+        LOG.info("Worker " + connection + " connected");
+
+        // a job started meanwhile is sent either here or by startJob, never twice
+        synchronized (this) {
+          connections.add(connection);
+          if (job != null) {
+            sendJob(connection);
+          }
+        }
+
+        Thread reader = new Thread(() -> readWorker(connection), "coordinator-" + connection);
+        reader.setDaemon(true);
+        reader.start();
+      } catch (IOException e) {
+        if (!serverSocket.isClosed()) {
+          LOG.warning("Cannot accept worker: " + e.getMessage());
+        }
+      }
+    }
+  }
+
+  private void readWorker(Connection connection) {
+    try {
+      while (true) {
+        Message message = connection.receive();
+        switch (message.getType()) {
+          case Message.MIGRANTS:
+            receiveMigrants(connection, message);
+            break;
+          case Message.RESULT:
+            receiveResult(connection, message);
+            break;
+          default:
+            throw new IOException("Unexpected message type " + message.getType());
+        }
+      }
+    } catch (IOException e) {
+      LOG.info("Worker " + connection + " disconnected: " + e);
+    } finally {
+      connections.remove(connection);
+      connection.close();
+      synchronized (this) {
+        pendingResults.remove(connection);
+        notifyAll();
+      }
+    }
+  }
+
+  private void receiveMigrants(Connection connection, Message message) {
+    if (message.getJobId() != getJobId()) {
+      return;
+    }
+    immigrants.addAll(message.getModels());
+
+    int index = connections.indexOf(connection);
+    if (index >= 0 && connections.size() > 1) {
+      Connection next = connections.get((index + 1) % connections.size());
+      next.sendMigrants(message.getJobId(), message.getModels());
+    }
+  }
+
+  private synchronized void receiveResult(Connection connection, Message message) {
+    if (job != null && message.getJobId() == job.getJobId()) {
+      results.put(connection, message.getModels());
+      pendingResults.remove(connection);
+      notifyAll();
+    }
+  }
+
+  private synchronized int getJobId() {
+    return job == null ? 0 : job.getJobId();
+  }
+
+  /**
+   * Sends the job to all connected workers and to the workers connecting until it finishes.
+   */
+  public synchronized void startJob(Configuration config, DataInput dataInput) {
+    job = new Job(++lastJobId, config, dataInput);
+    jobEndMillis = clock.millis() + config.getMaxDurationInSec() * 1000L;
+    pendingResults.clear();
+    results.clear();
+    immigrants.clear();
+
+    for (Connection connection : connections) {
+      sendJob(connection);
+    }
+  }
+
+  private void sendJob(Connection connection) {
+    long remainingSec = (jobEndMillis - clock.millis()) / 1000;
+    if (remainingSec < 1) {
+      return;
+    }
+    // a late worker has less time, so that all processes finish together
+    Configuration config = job.getConfig().copy();
+    config.setMaxDurationInSec((int) Math.min(remainingSec, config.getMaxDurationInSec()));
+    connection.sendJob(new Job(job.getJobId(), config, job.getDataInput()));
+    if (connections.contains(connection)) {
+      pendingResults.add(connection);
+    }
+  }
+
+  @Override
+  public List<Model> exchange(List<RankedModel> emigrants) {
+    int jobId = getJobId();
+    List<Model> models = toModels(emigrants);
+    for (Connection connection : connections) {
+      connection.sendMigrants(jobId, models);
+    }
+
+    List<Model> received = new ArrayList<>();
+    Model model;
+    while ((model = immigrants.poll()) != null) {
+      received.add(model);
+    }
+    return received;
+  }
+
+  @Override
+  public boolean isStopped() {
+    return false;
+  }
+
+  /**
+   * Stops the workers and waits for their results.
+   */
+  @Override
+  public synchronized List<Model> finish(List<RankedModel> localResults) {
+    if (job == null) {
+      return List.of();
+    }
+    for (Connection connection : new ArrayList<>(pendingResults)) {
+      connection.sendStop(job.getJobId());
+    }
+
+    long deadline = clock.millis() + RESULT_TIMEOUT_MS;
+    try {
+      long remaining;
+      while (!pendingResults.isEmpty() && (remaining = deadline - clock.millis()) > 0) {
+        wait(remaining);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (!pendingResults.isEmpty()) {
+      LOG.warning("No result of " + pendingResults.size() + " workers");
+    }
+
+    List<Model> models = new ArrayList<>();
+    results.values().forEach(models::addAll);
+    LOG.info("Results of " + results.size() + " workers");
+    job = null;
+    return models;
+  }
+
+  static List<Model> toModels(List<RankedModel> rankedModels) {
+    List<Model> models = new ArrayList<>(rankedModels.size());
+    for (RankedModel rankedModel : rankedModels) {
+      models.add(rankedModel.getModel());
+    }
+    return models;
+  }
+
+  @Override
+  public void close() {
+    try {
+      serverSocket.close();
+    } catch (IOException e) {
+      LOG.info("Cannot close coordinator: " + e.getMessage());
+    }
+    for (Connection connection : connections) {
+      connection.close();
+    }
+  }
+}
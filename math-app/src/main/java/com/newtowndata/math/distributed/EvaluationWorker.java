@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.distributed;
+
+import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.evolution.Evaluator;
+import com.newtowndata.math.model.Model;
+import com.newtowndata.math.model.RankedModel;
+import com.newtowndata.math.runner.CoreRuntime;
+import com.newtowndata.math.runner.CoreRuntimeImpl;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Logger;
+
+/**
+ * Process evaluating the models of a {@link RemoteCoreRuntime}, until the runtime closes the
+ * connection.
+ */
+public class EvaluationWorker {
+
+  private static final Logger LOG = Logger.getLogger(EvaluationWorker.class.getName());
+
+  private final String host;
+  private final int port;
+  private final int threadCount;
+
+  /**
+   * @param threadCount threads of this process, 0 = CPU
+   */
+  public EvaluationWorker(String host, int port, int threadCount) {
+    this.host = host;
+    this.port = port;
+    this.threadCount = threadCount;
+  }
+
+  /**
+   * Parses {@code host:port} of the runtime.
+   */
+  public static EvaluationWorker of(String address, int threadCount) {
+    InetSocketAddress socketAddress = Connection.parseAddress(address);
+    return new EvaluationWorker(socketAddress.getHostString(), socketAddress.getPort(),
+        threadCount);
+  }
+
+  public void run() throws IOException, ExecutionException, InterruptedException {
+    Configuration runtimeConfig = new Configuration();
+    runtimeConfig.setThreadCount(threadCount);
+
+    try (Connection connection = new Connection(new Socket(host, port));
+        CoreRuntime coreRuntime = new CoreRuntimeImpl(runtimeConfig)) {
+      LOG.info("Connected to " + connection);
+
+      Evaluator evaluator = null;
+      boolean rowSharding = false;
+      while (true) {
+        Message message;
+        try {
+          message = connection.receive();
+        } catch (IOException e) {
+          LOG.info("Runtime disconnected: " + e);
+          break;
+        }
+
+        switch (message.getType()) {
+          case Message.JOB:
+            Job job = message.getJob();
+            evaluator = new Evaluator(job.getConfig(), job.getDataInput(), job.getYRange());
+            rowSharding = "rows".equals(job.getConfig().getEvaluationSharding());
+            LOG.info("Evaluating " + job.getDataInput().getRows().size() + " rows");
+            break;
+          case Message.EVALUATE:
+            if (evaluator == null) {
+              throw new IOException("Models received before rows");
+            }
+            connection.sendFitness(message.getJobId(), evaluate(coreRuntime, evaluator,
+                rowSharding, message.getModels(), message.getValues()[0]));
+            break;
+          default:
+            throw new IOException("Unexpected message type " + message.getType());
+        }
+      }
+      connection.flush();
+    }
+  }
+
+  /**
+   * Returns the fitness of every model, {@link Double#NaN} for a pruned model, or the similarity
+   * sums of the rows when sharded by rows.
+   */
+  static double[] evaluate(CoreRuntime coreRuntime, Evaluator evaluator, boolean rowSharding,
+      List<Model> models, double threshold) throws ExecutionException, InterruptedException {
+    List<Double> values = coreRuntime.runBatch(models.size(), i -> {
+      if (rowSharding) {
+        return evaluator.evaluateSimilaritySum(models.get(i));
+      }
+      RankedModel rankedModel = evaluator.evaluate(models.get(i), threshold);
+      return rankedModel.isPruned() ? Double.NaN : rankedModel.getFitness();
+    });
+    return values.stream().mapToDouble(Double::doubleValue).toArray();
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.distributed;
+
+import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.input.DataInput;
+
+/**
+ * Evolution run by all the processes.
+ */
+public class Job {
+
+  private final int jobId;
+  private final Configuration config;
+  private final DataInput dataInput;
+  private final double yRange;
+
+  public Job(int jobId, Configuration config, DataInput dataInput) {
+    this(jobId, config, dataInput, Double.NaN);
+  }
+
+  /**
+   * @param yRange range of {@code y} over all rows when {@code dataInput} is only a part of them,
+   *     {@link Double#NaN} to compute it from {@code dataInput}
+   */
+  public Job(int jobId, Configuration config, DataInput dataInput, double yRange) {
+    this.jobId = jobId;
+    this.config = config;
+    this.dataInput = dataInput;
+    this.yRange = yRange;
+  }
+
+  public int getJobId() {
+    return jobId;
+  }
+
+  public Configuration getConfig() {
+    return config;
+  }
+
+  public DataInput getDataInput() {
+    return dataInput;
+  }
+
+  public double getYRange() {
+    return yRange;
+  }
+}
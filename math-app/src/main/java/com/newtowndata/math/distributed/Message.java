@@ -0,0 +1,78 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.distributed;
+
+import com.newtowndata.math.model.Model;
+import java.util.List;
+
+/**
+ * Message between the coordinator and a worker.
+ */
+public class Message {
+
+  public static final int JOB = 1;
+  public static final int MIGRANTS = 2;
+  public static final int STOP = 3;
+  public static final int RESULT = 4;
+  public static final int EVALUATE = 5;
+  public static final int FITNESS = 6;
+
+  private final int type;
+  private final int jobId;
+  private final Job job;
+  private final List<Model> models;
+  private final double[] values;
+
+  Message(int type, int jobId, Job job, List<Model> models) {
+    this(type, jobId, job, models, null);
+  }
+
+  Message(int type, int jobId, Job job, List<Model> models, double[] values) {
+    this.type = type;
+    this.jobId = jobId;
+    this.job = job;
+    this.models = models;
+    this.values = values;
+  }
+
+  public int getType() {
+    return type;
+  }
+
+  public int getJobId() {
+    return jobId;
+  }
+
+  /**
+   * Returns the job of a {@link #JOB} message.
+   */
+  public Job getJob() {
+    return job;
+  }
+
+  /**
+   * Returns the models of a {@link #MIGRANTS}, {@link #RESULT} or {@link #EVALUATE} message.
+   */
+  public List<Model> getModels() {
+    return models;
+  }
+
+  /**
+   * Returns the threshold of an {@link #EVALUATE} message as a single value, or the values of
+   * the evaluated models of a {@link #FITNESS} message.
+   */
+  public double[] getValues() {
+    return values;
+  }
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.distributed;
+
+import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.evolution.Evaluator;
+import com.newtowndata.math.genetics.Random;
+import com.newtowndata.math.input.DataInput;
+import com.newtowndata.math.input.DataRow;
+import com.newtowndata.math.model.Model;
+import com.newtowndata.math.model.RankedModel;
+import com.newtowndata.math.runner.CoreRuntime;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntFunction;
+import java.util.logging.Logger;
+
+/**
+ * Runtime evaluating the models of every batch by the evaluation workers connected to its port.
+ * The models are created by the local threads, which also evaluate a part of them.
+ *
+ * <p>Sharded by {@code models}, every worker keeps all rows and evaluates a part of the models.
+ * Sharded by {@code rows}, every worker keeps a part of the rows and returns the similarity sums
+ * of all models, which are added up here.
+ *
+ * <p>A worker failing or not answering within {@link #EVALUATION_TIMEOUT_MS} is dropped and its
+ * models are evaluated locally.
+ */
+public class RemoteCoreRuntime implements CoreRuntime {
+
+  private static final Logger LOG = Logger.getLogger(RemoteCoreRuntime.class.getName());
+
+  static final long EVALUATION_TIMEOUT_MS = 60000;
+
+  private final CoreRuntime local;
+  private final boolean rowSharding;
+  private final ServerSocket serverSocket;
+  private final List<Peer> peers = new CopyOnWriteArrayList<>();
+
+  // guarded by this
+  private Evaluator setupEvaluator;
+  private List<Peer> setupPeers = List.of();
+  private int setupId = 0;
+  private int batchId = 0;
+
+  /**
+   * @param local runtime creating the models and evaluating the models of no worker
+   * @param evaluationSharding {@code models} or {@code rows}
+   */
+  public RemoteCoreRuntime(CoreRuntime local, int port, String evaluationSharding)
+      throws IOException {
+    switch (evaluationSharding) {
+      case "models":
+        this.rowSharding = false;
+        break;
+      case "rows":
+        this.rowSharding = true;
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown evaluation sharding " + evaluationSharding);
+    }
+    this.local = local;
+    this.serverSocket = new ServerSocket(port);
+
+    Thread acceptor = new Thread(this::acceptWorkers, "evaluation");
+    acceptor.setDaemon(true);
+    acceptor.start();
+    LOG.info("Evaluation listening on port " + getPort());
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  int getWorkerCount() {
+    return peers.size();
+  }
+
+  /**
+   * Waits until at least {@code count} evaluation workers are connected.
+   */
+  public void awaitWorkers(int count) throws InterruptedException {
+    synchronized (peers) {
+      while (peers.size() < count) {
+        LOG.info("Waiting for evaluation workers, " + peers.size() + " of " + count
+            + " connected");
+        peers.wait();
+      }
+    }
+  }
+
+  private void acceptWorkers() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Peer peer = new Peer(new Connection(serverSocket.accept()));
+        LOG.info("Evaluation worker " + peer + " connected");
+
+        Thread reader = new Thread(() -> readWorker(peer), "evaluation-" + peer);
+        reader.setDaemon(true);
+        reader.start();
+
+        synchronized (peers) {
+          peers.add(peer);
+          peers.notifyAll();
+        }
+      } catch (IOException e) {
+        if (!serverSocket.isClosed()) {
+          LOG.warning("Cannot accept evaluation worker: " + e.getMessage());
+        }
+      }
+    }
+  }
+
+  private void readWorker(Peer peer) {
+    try {
+      while (true) {
+        Message message = peer.connection.receive();
+        if (message.getType() != Message.FITNESS) {
+          throw new IOException("Unexpected message type " + message.getType());
+        }
+        CompletableFuture<double[]> result = peer.pending.remove(message.getJobId());
+        if (result != null) {
+          result.complete(message.getValues());
+        }
+      }
+    } catch (IOException e) {
+      LOG.info("Evaluation worker " + peer + " disconnected: " + e);
+    } finally {
+      remove(peer);
+    }
+  }
+
+  private void remove(Peer peer) {
+    peer.failed = true;
+    peers.remove(peer);
+    peer.connection.close();
+    peer.pending.values().forEach(result -> result.completeExceptionally(
+        new IOException("Evaluation worker disconnected")));
+  }
+
+  @Override
+  public synchronized List<RankedModel> evaluateBatch(int count, IntFunction<Model> modelTask,
+      Evaluator evaluator, double threshold) throws ExecutionException, InterruptedException {
+    List<Model> models = local.runBatch(count, modelTask);
+    RankedModel[] results = new RankedModel[count];
+
+    List<Integer> unknown = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      if (models.get(i) == null) {
+        // skipped by the task, the result stays null
+        continue;
+      }
+      results[i] = evaluator.evaluateKnown(models.get(i), threshold);
+      if (results[i] == null) {
+        unknown.add(i);
+      }
+    }
+
+    List<Peer> currentPeers = new ArrayList<>(peers);
+    int rowCount = evaluator.getDataInput().getRows().size();
+    if (rowSharding && currentPeers.size() > rowCount) {
+      // every worker keeps at least one row
+      currentPeers = new ArrayList<>(currentPeers.subList(0, rowCount));
+    }
+    if (unknown.isEmpty()) {
+      // nothing to evaluate
+    } else if (currentPeers.isEmpty()) {
+      evaluateLocally(models, unknown, evaluator, threshold, results);
+    } else {
+      setUp(evaluator, currentPeers);
+      if (rowSharding) {
+        evaluateByRows(models, unknown, currentPeers, evaluator, threshold, results);
+      } else {
+        evaluateByModels(models, unknown, currentPeers, evaluator, threshold, results);
+      }
+    }
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Sends the rows to the workers without the rows of the current evaluator, by rows to all
+   * workers whenever the workers change.
+   */
+  private void setUp(Evaluator evaluator, List<Peer> currentPeers) {
+    if (evaluator != setupEvaluator || (rowSharding && !currentPeers.equals(setupPeers))) {
+      setupEvaluator = evaluator;
+      setupPeers = currentPeers;
+      setupId++;
+    }
+
+    Configuration config = evaluator.getConfiguration().copy();
+    config.setEvaluationSharding(rowSharding ? "rows" : "models");
+    List<DataRow> rows = evaluator.getDataInput().getRows();
+    for (int i = 0; i < currentPeers.size(); i++) {
+      Peer peer = currentPeers.get(i);
+      if (peer.setupId == setupId) {
+        continue;
+      }
+      DataInput dataInput = evaluator.getDataInput();
+      if (rowSharding) {
+        dataInput = new DataInput(new ArrayList<>(rows.subList(
+            rows.size() * i / currentPeers.size(), rows.size() * (i + 1) / currentPeers.size())));
+      }
+      peer.connection.sendJob(new Job(setupId, config, dataInput, evaluator.getYRange()));
+      peer.setupId = setupId;
+    }
+  }
+
+  private void evaluateByModels(List<Model> models, List<Integer> unknown, List<Peer> currentPeers,
+      Evaluator evaluator, double threshold, RankedModel[] results)
+      throws ExecutionException, InterruptedException {
+    // the last part is evaluated locally while the workers evaluate theirs
+    int partCount = currentPeers.size() + 1;
+    List<List<Integer>> parts = new ArrayList<>(partCount);
+    for (int i = 0; i < partCount; i++) {
+      parts.add(unknown.subList(unknown.size() * i / partCount,
+          unknown.size() * (i + 1) / partCount));
+    }
+
+    List<CompletableFuture<double[]>> values = new ArrayList<>(currentPeers.size());
+    for (int i = 0; i < currentPeers.size(); i++) {
+      values.add(send(currentPeers.get(i), models, parts.get(i), threshold));
+    }
+    evaluateLocally(models, parts.get(currentPeers.size()), evaluator, threshold, results);
+
+    for (int i = 0; i < currentPeers.size(); i++) {
+      List<Integer> part = parts.get(i);
+      double[] fitness = await(currentPeers.get(i), values.get(i), part.size());
+      if (fitness == null) {
+        evaluateLocally(models, part, evaluator, threshold, results);
+        continue;
+      }
+      for (int j = 0; j < part.size(); j++) {
+        int index = part.get(j);
+        results[index] = evaluator.rank(models.get(index), fitness[j]);
+      }
+    }
+  }
+
+  private void evaluateByRows(List<Model> models, List<Integer> unknown, List<Peer> currentPeers,
+      Evaluator evaluator, double threshold, RankedModel[] results)
+      throws ExecutionException, InterruptedException {
+    List<CompletableFuture<double[]>> values = new ArrayList<>(currentPeers.size());
+    for (Peer peer : currentPeers) {
+      values.add(send(peer, models, unknown, threshold));
+    }
+
+    double[] sums = new double[unknown.size()];
+    boolean complete = true;
+    for (int i = 0; i < currentPeers.size(); i++) {
+      double[] shardSums = await(currentPeers.get(i), values.get(i), unknown.size());
+      if (shardSums == null) {
+        complete = false;
+        continue;
+      }
+      for (int j = 0; j < sums.length; j++) {
+        sums[j] += shardSums[j];
+      }
+    }
+
+    if (!complete) {
+      // rows of a failed worker are missing, the next batch shards the rows again
+      evaluateLocally(models, unknown, evaluator, threshold, results);
+      return;
+    }
+    for (int j = 0; j < sums.length; j++) {
+      int index = unknown.get(j);
+      results[index] = evaluator.rankSimilaritySum(models.get(index), sums[j], threshold);
+    }
+  }
+
+  private CompletableFuture<double[]> send(Peer peer, List<Model> models, List<Integer> indices,
+      double threshold) {
+    CompletableFuture<double[]> result = new CompletableFuture<>();
+    if (indices.isEmpty()) {
+      result.complete(new double[0]);
+      return result;
+    }
+
+    int id = ++batchId;
+    peer.pending.put(id, result);
+    if (peer.failed) {
+      // removed before the result was registered
+      result.completeExceptionally(new IOException("Evaluation worker disconnected"));
+      return result;
+    }
+
+    List<Model> batch = new ArrayList<>(indices.size());
+    for (int index : indices) {
+      batch.add(models.get(index));
+    }
+    peer.connection.sendEvaluate(id, threshold, batch);
+    return result;
+  }
+
+  /**
+   * Returns the values of the worker, or {@code null} if the worker failed and was dropped.
+   */
+  private double[] await(Peer peer, CompletableFuture<double[]> result, int expectedLength)
+      throws InterruptedException {
+    try {
+      double[] values = result.get(EVALUATION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+      if (values.length == expectedLength) {
+        return values;
+      }
+      LOG.warning("Evaluation worker " + peer + " returned " + values.length + " values instead of "
+          + expectedLength);
+    } catch (ExecutionException e) {
+      LOG.warning("Evaluation worker " + peer + " failed: " + e.getCause().getMessage());
+    } catch (TimeoutException e) {
+      LOG.warning("Evaluation worker " + peer + " timed out");
+    }
+    remove(peer);
+    return null;
+  }
+
+  private void evaluateLocally(List<Model> models, List<Integer> indices, Evaluator evaluator,
+      double threshold, RankedModel[] results) throws ExecutionException, InterruptedException {
+    if (indices.isEmpty()) {
+      return;
+    }
+    List<RankedModel> evaluated = local.runBatch(indices.size(),
+        i -> evaluator.evaluate(models.get(indices.get(i)), threshold));
+    for (int i = 0; i < indices.size(); i++) {
+      results[indices.get(i)] = evaluated.get(i);
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      serverSocket.close();
+    } catch (IOException e) {
+      LOG.info("Cannot close evaluation socket: " + e.getMessage());
+    }
+    for (Peer peer : peers) {
+      peer.connection.close();
+    }
+    local.close();
+  }
+
+  @Override
+  public Clock getClock() {
+    return local.getClock();
+  }
+
+  @Override
+  public Random createRandom(long... keys) {
+    return local.createRandom(keys);
+  }
+
+  @Override
+  public <T> List<T> runBatch(int count, IntFunction<T> task)
+      throws ExecutionException, InterruptedException {
+    return local.runBatch(count, task);
+  }
+
+  @Override
+  public void runOnAllThreads(Runnable task) throws ExecutionException, InterruptedException {
+    local.runOnAllThreads(task);
+  }
+
+  @Override
+  public int getThreadCount() {
+    return local.getThreadCount();
+  }
+
+  @Override
+  public long getBusyTimeNanos() {
+    return local.getBusyTimeNanos();
+  }
+
+  private static class Peer {
+
+    private final Connection connection;
+    private final Map<Integer, CompletableFuture<double[]>> pending = new ConcurrentHashMap<>();
+    private volatile boolean failed = false;
+    // accessed by the evaluating thread only
+    private int setupId = 0;
+
+    Peer(Connection connection) {
+      this.connection = connection;
+    }
+
+    @Override
+    public String toString() {
+      return connection.toString();
+    }
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.distributed;
+
+import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.model.Model;
+import com.newtowndata.math.model.RankedModel;
+import com.newtowndata.math.runner.Core;
+import com.newtowndata.math.runner.CoreRuntime;
+import com.newtowndata.math.runner.CoreRuntimeImpl;
+import com.newtowndata.math.runner.MigrantExchange;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Logger;
+
+/**
+ * Process evolving its own islands for the jobs of a coordinator, until the coordinator closes
+ * the connection.
+ */
+public class Worker implements MigrantExchange {
+
+  private static final Logger LOG = Logger.getLogger(Worker.class.getName());
+
+  // signals the end of the connection to the job loop
+  private static final Job NO_JOB = new Job(0, null, null);
+
+  private final String host;
+  private final int port;
+  private final int threadCount;
+
+  private final BlockingQueue<Job> jobs = new LinkedBlockingQueue<>();
+  private final Queue<Model> immigrants = new ConcurrentLinkedQueue<>();
+  private volatile Connection connection;
+  private volatile int currentJobId = 0;
+  private volatile int stoppedJobId = 0;
+  private volatile boolean disconnected = false;
+
+  /**
+   * @param threadCount threads of this process, 0 = CPU
+   */
+  public Worker(String host, int port, int threadCount) {
+    this.host = host;
+    this.port = port;
+    this.threadCount = threadCount;
+  }
+
+  /**
+   * Parses {@code host:port} of the coordinator.
+   */
+  public static Worker of(String address, int threadCount) {
+    InetSocketAddress socketAddress = Connection.parseAddress(address);
+    return new Worker(socketAddress.getHostString(), socketAddress.getPort(), threadCount);
+  }
+
+  public void run() throws IOException, ExecutionException, InterruptedException {
+    try (Connection current = new Connection(new Socket(host, port))) {
+      connection = current;
+      LOG.info("Connected to coordinator " + current);
+
+      Thread reader = new Thread(this::readCoordinator, "worker-" + current);
+      reader.setDaemon(true);
+      reader.start();
+
+      Job job;
+      while ((job = jobs.take()) != NO_JOB) {
+        runJob(job);
+      }
+      current.flush();
+    }
+    LOG.info("Coordinator closed the connection");
+  }
+
+  private void readCoordinator() {
+    try {
+      while (true) {
+        Message message = connection.receive();
+        switch (message.getType()) {
+          case Message.JOB:
+            jobs.add(message.getJob());
+            break;
+          case Message.MIGRANTS:
+            if (message.getJobId() == currentJobId) {
+              immigrants.addAll(message.getModels());
+            }
+            break;
+          case Message.STOP:
+            stoppedJobId = Math.max(stoppedJobId, message.getJobId());
+            break;
+          default:
+            throw new IOException("Unexpected message type " + message.getType());
+        }
+      }
+    } catch (IOException e) {
+      LOG.info("Coordinator disconnected: " + e);
+    } finally {
+      disconnected = true;
+      jobs.add(NO_JOB);
+    }
+  }
+
+  private void runJob(Job job) throws ExecutionException, InterruptedException {
+    currentJobId = job.getJobId();
+    immigrants.clear();
+    LOG.info("Starting job " + job.getJobId());
+
+    Configuration config = job.getConfig();
+    config.setThreadCount(threadCount);
+    config.setResultOutputPrefix(null);
+    // the islands of the coordinator are evolved already, this process needs its own streams
+    config.setRandomSeed(0);
+    try (CoreRuntime coreRuntime = new CoreRuntimeImpl(config)) {
+      new Core(coreRuntime, job.getDataInput(), config, this).runEvolution();
+    }
+  }
+
+  @Override
+  public List<Model> exchange(List<RankedModel> emigrants) {
+    connection.sendMigrants(currentJobId, Coordinator.toModels(emigrants));
+
+    List<Model> received = new ArrayList<>();
+    Model model;
+    while ((model = immigrants.poll()) != null) {
+      received.add(model);
+    }
+    return received;
+  }
+
+  @Override
+  public boolean isStopped() {
+    return disconnected || stoppedJobId >= currentJobId;
+  }
+
+  @Override
+  public List<Model> finish(List<RankedModel> results) {
+    connection.sendResult(currentJobId, Coordinator.toModels(results));
+    return List.of();
+  }
+}
@@ -16,24 +16,29 @@ package com.newtowndata.math.runner;
 import com.newtowndata.math.config.Configuration;
 import com.newtowndata.math.evolution.Evaluator;
 import com.newtowndata.math.evolution.Evolution;
+import com.newtowndata.math.evolution.FingerprintSet;
+import com.newtowndata.math.evolution.ParentSelectionProvider;
+import com.newtowndata.math.evolution.Selection;
+import com.newtowndata.math.evolution.SteadyStatePopulation;
 import com.newtowndata.math.genetics.MutationContextImpl;
 import com.newtowndata.math.genetics.NodeFactory;
 import com.newtowndata.math.genetics.NodeFactoryImpl;
-import com.newtowndata.math.genetics.NodeUtils;
+import com.newtowndata.math.genetics.Random;
 import com.newtowndata.math.genetics.nodes.core.Node;
+import com.newtowndata.math.genetics.program.LinearGenome;
 import com.newtowndata.math.input.DataInput;
 import com.newtowndata.math.model.HumanReadableModel;
 import com.newtowndata.math.model.Model;
 import com.newtowndata.math.model.RankedModel;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
 import java.util.logging.Logger;
 
 public class Core {
@@ -46,8 +51,25 @@ public class Core {
   private final NodeFactory nodeFactory;
   private final Evaluator evaluator;
   private final long updateEveryMs;
+  private final boolean linearRepresentation;
+  private final boolean steadyState;
+  private final ThreadUtilization utilization;
+  private final int islandCount;
+  private final IslandMigration migration;
+  private final MigrantExchange migrantExchange;
+
+  // draws of the main thread - migrations and exchanges
+  private Random mainRandom;
 
   public Core(CoreRuntime coreRuntime, DataInput dataInput, Configuration config) {
+    this(coreRuntime, dataInput, config, null);
+  }
+
+  /**
+   * @param migrantExchange exchange with the islands of other processes, or {@code null}
+   */
+  public Core(CoreRuntime coreRuntime, DataInput dataInput, Configuration config,
+      MigrantExchange migrantExchange) {
     this.coreRuntime = coreRuntime;
     this.config = config;
 
@@ -58,10 +80,68 @@ public class Core {
 
     this.evaluator = new Evaluator(config, dataInput);
     this.updateEveryMs = config.getProgressUpdateInSec() * 1000L;
+    this.linearRepresentation = isLinearRepresentation(config.getRepresentation());
+    this.steadyState = isSteadyState(config.getEvolutionMode());
+    this.utilization = new ThreadUtilization(coreRuntime);
+    this.islandCount = config.getIslandCount();
+    this.migration = new IslandMigration(config);
+    if (islandCount < 1) {
+      throw new IllegalArgumentException("Invalid island count " + islandCount);
+    }
+    if (config.getMigrationInterval() < 1) {
+      throw new IllegalArgumentException("Invalid migration interval "
+          + config.getMigrationInterval());
+    }
+    if (islandCount > 1 && steadyState) {
+      throw new IllegalArgumentException("Islands require the generational evolution mode");
+    }
+    this.migrantExchange = migrantExchange;
+    if (migrantExchange != null && steadyState) {
+      throw new IllegalArgumentException(
+          "Distributed evolution requires the generational evolution mode");
+    }
+    // validated before the run, every population creates its own selection
+    ParentSelectionProvider.provide(config, evaluator);
+    if (steadyState && !ParentSelectionProvider.RANDOM.equals(config.getParentSelection())) {
+      throw new IllegalArgumentException(
+          "Parent selection " + config.getParentSelection()
+              + " requires the generational evolution mode");
+    }
+  }
+
+  private static boolean isLinearRepresentation(String representation) {
+    switch (representation) {
+      case "tree":
+        return false;
+      case "linear":
+        return true;
+      default:
+        throw new IllegalArgumentException("Unknown representation " + representation);
+    }
+  }
+
+  private static boolean isSteadyState(String evolutionMode) {
+    switch (evolutionMode) {
+      case "generational":
+        return false;
+      case "steady_state":
+        return true;
+      default:
+        throw new IllegalArgumentException("Unknown evolution mode " + evolutionMode);
+    }
   }
 
   private Model createRandomModel() {
-    return new Model(nodeFactory.createLeafNode());
+    Node leaf = nodeFactory.createLeafNode();
+    return linearRepresentation ? new Model(LinearGenome.encode(leaf)) : new Model(leaf);
+  }
+
+  /**
+   * Switches the current thread to the random stream of the keys, see
+   * {@link CoreRuntime#createRandom(long...)}.
+   */
+  private void useRandom(long... keys) {
+    mutationContext.setRandom(coreRuntime.createRandom(keys));
   }
 
   private long now() {
@@ -69,136 +149,505 @@ public class Core {
   }
 
   public List<RankedModel> runEvolution() throws ExecutionException, InterruptedException {
-    Evolution evolution = new Evolution(config.getPopulationSize());
-    evolution.setPopulation(createInitialPopulation());
+    mainRandom = coreRuntime.createRandom();
+    if (steadyState) {
+      return runSteadyState();
+    }
+    List<RankedModel> results = islandCount > 1 ? runIslands() : runGenerations();
+    if (migrantExchange == null) {
+      return results;
+    }
+
+    List<RankedModel> mergedResults = new ArrayList<>(results);
+    for (Model model : migrantExchange.finish(
+        results.subList(0, Math.min(config.getMigrantCount(), results.size())))) {
+      mergedResults.add(evaluator.evaluate(toLocalRepresentation(model)));
+    }
+    return getBestDistinctModels(mergedResults);
+  }
+
+  private boolean isStopped() {
+    return migrantExchange != null && migrantExchange.isStopped();
+  }
+
+  /**
+   * Sends the best models of all islands to the other processes, the models received replace the
+   * worst ones of a random island.
+   */
+  private void exchangeMigrants(List<Island> islands) {
+    List<RankedModel> emigrants = new ArrayList<>();
+    for (Island island : islands) {
+      emigrants.addAll(island.getBestModels(config.getMigrantCount()));
+    }
+    emigrants = getBestDistinctModels(emigrants);
+
+    List<Model> received = migrantExchange.exchange(
+        emigrants.subList(0, Math.min(config.getMigrantCount(), emigrants.size())));
+    if (received.isEmpty()) {
+      return;
+    }
+
+    List<RankedModel> immigrants = new ArrayList<>(received.size());
+    for (Model model : received) {
+      immigrants.add(evaluator.evaluate(toLocalRepresentation(model)));
+    }
+    Collections.sort(immigrants);
+    islands.get(mainRandom.nextInt(0, islands.size() - 1)).getEvolution()
+        .immigrate(immigrants.subList(0, Math.min(config.getMigrantCount(), immigrants.size())));
+  }
 
-    double bestFitness = evolution.getBestModel().getFitness();
-    int sameLoops = 0;
+  private Model toLocalRepresentation(Model model) {
+    return linearRepresentation ? new Model(LinearGenome.encode(model.getRoot())) : model;
+  }
+
+  private List<RankedModel> runGenerations() throws ExecutionException, InterruptedException {
+    Island island = createIsland(0);
     long lastUpdate = coreRuntime.getClock().millis();
 
     final long endTime = now() + config.getMaxDurationInSec() * 1000L;
 
-    while (now() < endTime) {
-      Set<RankedModel> newModels = new HashSet<>();
+    while (now() < endTime && !isStopped()) {
+      utilization.startGeneration();
+      runGeneration(island, 0, true);
+      utilization.endGeneration();
 
-      evolution.shuffleIndices();
-
-      List<Future<RankedModel>> mutatedModels = new ArrayList<>();
-      for (int i = 0; i < config.getMutationSize(); i++) {
-        RankedModel model = evolution.getRandomModel(i);
-        mutatedModels
-            .add(coreRuntime.submit(createMutationTask(model)));
+      if (island.isFinished(config)) {
+        break;
       }
 
-      for (Future<RankedModel> mutatedModel : mutatedModels) {
-        RankedModel model = mutatedModel.get();
-        newModels.add(model);
+      if (migrantExchange != null
+          && island.getEvolution().getEvolutionStep() % config.getMigrationInterval() == 0) {
+        exchangeMigrants(List.of(island));
       }
 
-      List<Future<RankedModel>> crossoveredModels = new ArrayList<>();
-      for (int i = 0; i < config.getCrossoverSize(); i++) {
-        RankedModel model = evolution.getRandomModel(config.getPopulationSize() - i - 1);
-        RankedModel otherModel = evolution.getRandomCrossoverModel(i);
-        crossoveredModels
-            .add(coreRuntime
-                .submit(createCrossoverTask(model, otherModel)));
+      long now = now();
+      if (now - lastUpdate > updateEveryMs) {
+        LOG.info("Best " + HumanReadableModel.modelToString(island.getEvolution()
+            .getBestModel()));
+        logPruning(island.getOffspringCount(), island.getPrunedCount());
+        logDuplicates(List.of(island));
+        logCaches();
+        utilization.log("Last generation");
+        lastUpdate = now;
       }
+    }
 
-      for (Future<RankedModel> crossoveredModel : crossoveredModels) {
-        RankedModel model = crossoveredModel.get();
-        newModels.add(model);
+    LOG.info("Total loops: " + island.getEvolution().getEvolutionStep());
+    logPruning(island.getOffspringCount(), island.getPrunedCount());
+    logDuplicates(List.of(island));
+    logCaches();
+    utilization.log("Last generation");
+
+    return island.getEvolution().getPopulation();
+  }
+
+  /**
+   * Every island is evolved by a single thread, the islands exchange their best models every
+   * migration interval.
+   */
+  private List<RankedModel> runIslands() throws ExecutionException, InterruptedException {
+    List<Island> islands = new ArrayList<>(islandCount);
+    for (int i = 0; i < islandCount; i++) {
+      islands.add(createIsland(i));
+    }
+    long lastUpdate = coreRuntime.getClock().millis();
+
+    final long endTime = now() + config.getMaxDurationInSec() * 1000L;
+
+    while (now() < endTime && !isStopped()
+        && !islands.stream().allMatch(island -> island.isFinished(config))) {
+      utilization.startGeneration();
+      runBatch(islandCount, i -> runIslandGenerations(islands.get(i), i, endTime));
+      utilization.endGeneration();
+
+      migration.migrate(islands, mainRandom);
+      if (migrantExchange != null) {
+        exchangeMigrants(islands);
       }
 
-      List<RankedModel> intermediatePopulation = new ArrayList<>(evolution.getPopulation());
-      intermediatePopulation.addAll(newModels);
-      Collections.sort(intermediatePopulation);
+      long now = now();
+      if (now - lastUpdate > updateEveryMs) {
+        LOG.info("Best " + HumanReadableModel.modelToString(getBestModel(islands)));
+        logPruning(getOffspringCount(islands), getPrunedCount(islands));
+        logDuplicates(islands);
+        logCaches();
+        utilization.log("Last migration interval");
+        lastUpdate = now;
+      }
+    }
 
-      List<RankedModel> newPopulation = new ArrayList<>(
-          intermediatePopulation.subList(0,
-              config.getPopulationSize()
-                  - config.getReplaceableSize()
-                  - config.getSurvivalSize()));
+    LOG.info("Total loops: " + islands.stream()
+        .mapToInt(island -> island.getEvolution().getEvolutionStep()).max().orElse(0) + " ("
+        + islandCount + " islands)");
+    logPruning(getOffspringCount(islands), getPrunedCount(islands));
+    logDuplicates(islands);
+    logCaches();
+    utilization.log("Last migration interval");
 
-      Collections.shuffle(intermediatePopulation);
+    return mergeIslands(islands);
+  }
 
-      newPopulation.addAll(intermediatePopulation.subList(0, config.getSurvivalSize()));
+  private Island createIsland(int islandIndex)
+      throws ExecutionException, InterruptedException {
+    return new Island(config.getPopulationSize(),
+        ParentSelectionProvider.provide(config, evaluator), createInitialPopulation(islandIndex));
+  }
 
-      for (int i = 0; i < config.getReplaceableSize(); i++) {
-        Model model = createRandomModel();
-        newPopulation.add(evaluator.evaluate(model));
+  private RankedModel runIslandGenerations(Island island, int islandIndex, long endTime) {
+    try {
+      for (int i = 0; i < config.getMigrationInterval() && !island.isFinished(config)
+          && now() < endTime && !isStopped(); i++) {
+        runGeneration(island, islandIndex, false);
       }
+    } catch (ExecutionException | InterruptedException e) {
+      // not thrown, the generations of an island run on the current thread
+      throw new IllegalStateException(e);
+    }
+    return island.getEvolution().getBestModel();
+  }
+
+  private static RankedModel getBestModel(List<Island> islands) {
+    return islands.stream().map(island -> island.getEvolution().getBestModel()).sorted()
+        .findFirst().orElseThrow();
+  }
+
+  private static long getOffspringCount(List<Island> islands) {
+    return islands.stream().mapToLong(Island::getOffspringCount).sum();
+  }
+
+  private static long getPrunedCount(List<Island> islands) {
+    return islands.stream().mapToLong(Island::getPrunedCount).sum();
+  }
+
+  private List<RankedModel> mergeIslands(List<Island> islands) {
+    List<RankedModel> models = new ArrayList<>();
+    for (Island island : islands) {
+      models.addAll(island.getEvolution().getPopulation());
+    }
+    return getBestDistinctModels(models);
+  }
 
-      evolution.setPopulation(newPopulation);
+  /**
+   * Returns at most population size of the best distinct models.
+   */
+  private List<RankedModel> getBestDistinctModels(List<RankedModel> models) {
+    List<RankedModel> sorted = new ArrayList<>(models);
+    Collections.sort(sorted);
 
-      double fitness = evolution.getBestModel().getFitness();
-      if (fitness > bestFitness) {
-        bestFitness = fitness;
-        sameLoops = 0;
+    List<RankedModel> result = new ArrayList<>(new LinkedHashSet<>(sorted));
+    return new ArrayList<>(result.subList(0, Math.min(config.getPopulationSize(),
+        result.size())));
+  }
+
+  /**
+   * Creates the next generation of the island, the batches run on all threads when
+   * {@code parallel} is set, otherwise on the current thread.
+   *
+   * <p>Every offspring draws from the stream of its island, generation and index, so the
+   * generation does not depend on the threads creating it.
+   */
+  private void runGeneration(Island island, int islandIndex, boolean parallel)
+      throws ExecutionException, InterruptedException {
+    Evolution evolution = island.getEvolution();
+    int generation = evolution.getEvolutionStep() + 1;
+    Random random = coreRuntime.createRandom(islandIndex, generation);
+
+    evolution.prepareSelection(random);
+
+    // offspring below the worst elite model cannot survive the truncation
+    int eliteSize = config.getPopulationSize() - config.getReplaceableSize()
+        - config.getSurvivalSize();
+    double threshold = eliteSize > 0
+        ? evolution.getPopulation().get(eliteSize - 1).getFitness()
+        : Double.NEGATIVE_INFINITY;
+
+    // mutants and crossovers share one batch, so there is a single wait per generation
+    int mutationSize = config.getMutationSize();
+    int offspringSize = mutationSize + config.getCrossoverSize();
+    List<RankedModel> population = evolution.getPopulation();
+    // offspring already in the population or created twice are not evaluated
+    FingerprintSet fingerprints = new FingerprintSet(population.size() + offspringSize);
+    for (RankedModel model : population) {
+      fingerprints.add(model.getModel().getFingerprint());
+    }
+    List<RankedModel> offspring = evaluateBatch(offspringSize, i -> {
+      useRandom(islandIndex, generation, i);
+      Random offspringRandom = mutationContext.getRandom();
+      Model model = i < mutationSize
+          ? mutateModel(evolution.selectParent(i, offspringRandom).getModel())
+          : crossoverModel(evolution.selectParent(config.getPopulationSize()
+              - (i - mutationSize) - 1, offspringRandom).getModel(),
+              evolution.selectPartner(i - mutationSize, offspringRandom).getModel());
+      return fingerprints.add(model.getFingerprint()) ? model : null;
+    }, threshold, parallel);
+
+    List<RankedModel> newModels = new ArrayList<>();
+    long prunedCount = 0;
+    long duplicateCount = 0;
+    for (RankedModel model : offspring) {
+      if (model == null) {
+        duplicateCount++;
+      } else if (Evaluator.isBelowThreshold(model, threshold)) {
+        // a cached model below the threshold is pruned, an evaluated one may be not
+        prunedCount++;
       } else {
-        sameLoops++;
+        newModels.add(model);
       }
+    }
+    // which copy of a duplicate is kept depends on the threads, the order of the fingerprints not
+    newModels.sort(Comparator.comparingLong(model -> model.getModel().getFingerprint()));
+    island.addOffspring(offspring.size(), prunedCount, duplicateCount);
+
+    List<RankedModel> newcomers = evaluateBatch(config.getReplaceableSize(), i -> {
+      useRandom(islandIndex, generation, offspringSize + i);
+      return createRandomModel();
+    }, Double.NEGATIVE_INFINITY, parallel);
+
+    List<RankedModel> candidates = new ArrayList<>(population);
+    candidates.addAll(newModels);
+    if (config.isSemanticDeduplication()) {
+      // enough candidates are kept for the population size not to change
+      candidates = Selection.removeSemanticDuplicates(candidates,
+          Math.max(eliteSize, config.getSurvivalSize()));
+    }
+    evolution.setPopulation(Selection.nextPopulation(candidates, eliteSize,
+        config.getSurvivalSize(), newcomers, random));
+    island.endGeneration();
+  }
 
-      if (sameLoops > config.getMaxSameLoops()
-          || evolution.getEvolutionStep() > config.getMaxIterations()) {
-        break;
+  private List<RankedModel> runSteadyState() throws ExecutionException, InterruptedException {
+    SteadyStatePopulation population = new SteadyStatePopulation(config.getPopulationSize(),
+        createInitialPopulation(0));
+    SteadyStateLimits limits = new SteadyStateLimits(config,
+        population.getBestModel().getFitness());
+    AtomicLong prunedCount = new AtomicLong();
+    AtomicLong lastUpdate = new AtomicLong(now());
+    final long endTime = now() + config.getMaxDurationInSec() * 1000L;
+
+    utilization.startGeneration();
+    runOnAllThreads(() -> {
+      try {
+        while (!limits.isReached() && now() < endTime) {
+          long offspringNumber = limits.nextOffspring();
+          // a single endless generation, reproducible with one thread only
+          useRandom(0, 1, offspringNumber);
+          if (isRandomModel(limits, offspringNumber)) {
+            replaceByRandomModel(population);
+          } else {
+            RankedModel offspring = createSteadyStateOffspring(population, offspringNumber);
+            if (offspring.isPruned()) {
+              prunedCount.incrementAndGet();
+            } else if (population.offer(offspring)) {
+              limits.recordFitness(offspringNumber, offspring.getFitness());
+            } else {
+              survive(population, offspring);
+            }
+          }
+
+          long now = now();
+          long last = lastUpdate.get();
+          if (now - last > updateEveryMs && lastUpdate.compareAndSet(last, now)) {
+            LOG.info("Best " + HumanReadableModel.modelToString(population.getBestModel()));
+            logPruning(limits.getEvaluationCount(), prunedCount.get());
+            logCaches();
+          }
+        }
+      } catch (RuntimeException e) {
+        // the other threads would run until the time limit otherwise
+        limits.stop();
+        throw e;
       }
+    });
+    utilization.endGeneration();
 
-      long now = now();
-      if (now - lastUpdate > updateEveryMs) {
-        LOG.info("Best " + HumanReadableModel.modelToString(evolution.getBestModel()));
-        lastUpdate = now;
+    LOG.info("Total loops: " + limits.getIterationCount() + " (" + limits.getEvaluationCount()
+        + " offspring)");
+    logPruning(limits.getEvaluationCount(), prunedCount.get());
+    logCaches();
+    utilization.log("Steady-state run");
+
+    return population.getModels();
+  }
+
+  /**
+   * Mutants, crossovers and random models take turns in the same ratio as in a generation.
+   */
+  private boolean isRandomModel(SteadyStateLimits limits, long offspringNumber) {
+    return offspringNumber % limits.getOffspringPerIteration()
+        >= config.getMutationSize() + config.getCrossoverSize();
+  }
+
+  private RankedModel createSteadyStateOffspring(SteadyStatePopulation population,
+      long offspringNumber) {
+    // an offspring not better than the worst model is not inserted
+    double threshold = population.getWorstFitness();
+    if (offspringNumber % (config.getMutationSize() + config.getCrossoverSize())
+        < config.getMutationSize()) {
+      return createMutant(selectRandomModel(population), threshold);
+    }
+    return createCrossover(selectRandomModel(population), selectRandomModel(population),
+        threshold);
+  }
+
+  /**
+   * Random models keep the population diverse like in a generation, so they replace a random
+   * model outside the elite instead of competing with the worst one.
+   */
+  private void replaceByRandomModel(SteadyStatePopulation population) {
+    RankedModel model = evaluator.evaluate(createRandomModel());
+    if (population.size() < config.getPopulationSize()) {
+      population.offer(model);
+    } else {
+      replaceOutsideElite(population, model);
+    }
+  }
+
+  /**
+   * An offspring not better than the worst model still survives with the chance it would have
+   * to be drawn among the survivors of a generation.
+   */
+  private void survive(SteadyStatePopulation population, RankedModel offspring) {
+    int candidateCount = config.getPopulationSize() + config.getMutationSize()
+        + config.getCrossoverSize();
+    if (mutationContext.getRandom().nextInt(0, candidateCount - 1) < config.getSurvivalSize()) {
+      replaceOutsideElite(population, offspring);
+    }
+  }
+
+  private void replaceOutsideElite(SteadyStatePopulation population, RankedModel model) {
+    int eliteSize = Math.max(0, config.getPopulationSize() - config.getReplaceableSize()
+        - config.getSurvivalSize());
+    int size = population.size();
+    if (eliteSize < size) {
+      population.replace(mutationContext.getRandom().nextInt(eliteSize, size - 1), model);
+    }
+  }
+
+  private RankedModel selectRandomModel(SteadyStatePopulation population) {
+    // the population never shrinks, so the index stays valid
+    return population.get(mutationContext.getRandom().nextInt(0, population.size() - 1));
+  }
+
+  private List<RankedModel> createInitialPopulation(int islandIndex)
+      throws ExecutionException, InterruptedException {
+    List<RankedModel> population = new ArrayList<>(evaluateBatch(config.getPopulationSize(),
+        i -> {
+          useRandom(islandIndex, 0, i);
+          return createRandomModel();
+        }, Double.NEGATIVE_INFINITY, true));
+    LOG.info(String.format(Locale.ENGLISH, "Initial fitness: %.6f",
+        population.get(0).getFitness()));
+    return population;
+  }
+
+  private List<RankedModel> runBatch(int count, IntFunction<RankedModel> modelTask)
+      throws ExecutionException, InterruptedException {
+    long start = System.nanoTime();
+    try {
+      return coreRuntime.runBatch(count, modelTask);
+    } finally {
+      utilization.addBatchTime(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Evaluates the models on all threads by the runtime when {@code parallel} is set, otherwise
+   * on the current thread.
+   */
+  private List<RankedModel> evaluateBatch(int count, IntFunction<Model> modelTask,
+      double threshold, boolean parallel) throws ExecutionException, InterruptedException {
+    if (!parallel) {
+      List<RankedModel> models = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        Model model = modelTask.apply(i);
+        models.add(model == null ? null : evaluator.evaluate(model, threshold));
       }
+      return models;
     }
 
-    LOG.info("Total loops: " + evolution.getEvolutionStep());
+    long start = System.nanoTime();
+    try {
+      return coreRuntime.evaluateBatch(count, modelTask, evaluator, threshold);
+    } finally {
+      utilization.addBatchTime(System.nanoTime() - start);
+    }
+  }
+
+  private void runOnAllThreads(Runnable task) throws ExecutionException, InterruptedException {
+    long start = System.nanoTime();
+    try {
+      coreRuntime.runOnAllThreads(task);
+    } finally {
+      utilization.addBatchTime(System.nanoTime() - start);
+    }
+  }
 
-    return evolution.getPopulation();
+  private void logPruning(long offspringCount, long prunedCount) {
+    if (offspringCount > 0) {
+      LOG.info(String.format(Locale.ENGLISH, "Pruned offspring: %d of %d (%.1f%%)", prunedCount,
+          offspringCount, 100.0 * prunedCount / offspringCount));
+    }
   }
 
-  private List<RankedModel> createInitialPopulation() {
-    double fitness = evaluator.evaluate(createRandomModel()).getFitness();
-    LOG.info(String.format(Locale.ENGLISH, "Initial fitness: %.6f", fitness));
+  /**
+   * Logs the offspring skipped as copies of other models, in total and in the last generation.
+   */
+  private static void logDuplicates(List<Island> islands) {
+    long offspringCount = 0;
+    long duplicateCount = 0;
+    long lastOffspringCount = 0;
+    long lastDuplicateCount = 0;
+    for (Island island : islands) {
+      offspringCount += island.getOffspringCount();
+      duplicateCount += island.getDuplicateCount();
+      lastOffspringCount += island.getLastOffspringCount();
+      lastDuplicateCount += island.getLastDuplicateCount();
+    }
+    if (offspringCount > 0 && lastOffspringCount > 0) {
+      LOG.info(String.format(Locale.ENGLISH,
+          "Duplicate offspring: %d of %d (%.1f%%), last generation %.1f%%", duplicateCount,
+          offspringCount, 100.0 * duplicateCount / offspringCount,
+          100.0 * lastDuplicateCount / lastOffspringCount));
+    }
+  }
 
-    List<RankedModel> population = new ArrayList<>();
-    for (int i = 0; i < config.getPopulationSize(); i++) {
-      Model model = createRandomModel();
-      population.add(evaluator.evaluate(model));
+  private void logCaches() {
+    if (evaluator.getFitnessCache() != null) {
+      LOG.info("Fitness cache: " + evaluator.getFitnessCache());
+    }
+    if (evaluator.getCompiledModelCache() != null) {
+      LOG.info("Compiled models: " + evaluator.getCompiledModelCache());
+    }
+    if (evaluator.getSubtreeCache() != null) {
+      LOG.info("Subtree cache: " + evaluator.getSubtreeCache());
     }
-    return population;
   }
 
-  private Callable<RankedModel> createMutationTask(RankedModel model) {
-    return () -> {
-      Model result = mutateModel(model.getModel());
-      return evaluator.evaluate(result);
-    };
+  private RankedModel createMutant(RankedModel model, double threshold) {
+    return evaluator.evaluate(mutateModel(model.getModel()), threshold);
   }
 
-  private Callable<RankedModel> createCrossoverTask(RankedModel model, RankedModel otherModel) {
-    return () -> {
-      Model result = crossoverModel(model.getModel(), otherModel.getModel());
-      return evaluator.evaluate(result);
-    };
+  private RankedModel createCrossover(RankedModel model, RankedModel otherModel,
+      double threshold) {
+    return evaluator.evaluate(crossoverModel(model.getModel(), otherModel.getModel()),
+        threshold);
   }
 
   private Model mutateModel(Model model) {
     int nodeNumber = mutationContext.getRandom().nextInt(0, model.getSize() - 1);
     if (mutationContext.getRandom().nextBoolean()) {
-      return new Model(
-          NodeUtils
-              .replaceNode(model.getRoot(), nodeNumber, nodeFactory::createUnaryNode));
+      return model.replaceNode(nodeNumber, nodeFactory::createUnaryNode);
     } else {
-      return new Model(NodeUtils.mutateNode(model.getRoot(), nodeNumber, mutationContext));
+      return model.replaceNode(nodeNumber, node -> node.mutate(mutationContext));
     }
   }
 
   private Model crossoverModel(Model model, Model otherModel) {
     int nodeNumber = mutationContext.getRandom().nextInt(0, model.getSize() - 1);
     int otherNodeNumber = mutationContext.getRandom().nextInt(0, otherModel.getSize() - 1);
-    Node otherNode = NodeUtils.extractNode(otherModel.getRoot(), otherNodeNumber);
-    return new Model(NodeUtils
-        .replaceNode(model.getRoot(), nodeNumber,
-            node -> nodeFactory.createAggregateNode(node, otherNode)));
+    Node otherNode = otherModel.extractNode(otherNodeNumber);
+    return model.replaceNode(nodeNumber,
+        node -> nodeFactory.createAggregateNode(node, otherNode), otherModel);
   }
 
 
@@ -13,12 +13,15 @@
  */
 package com.newtowndata.math.runner;
 
+import com.newtowndata.math.evolution.Evaluator;
 import com.newtowndata.math.genetics.Random;
+import com.newtowndata.math.model.Model;
 import com.newtowndata.math.model.RankedModel;
 import java.io.Closeable;
 import java.time.Clock;
-import java.util.concurrent.Callable;
-import java.util.concurrent.Future;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.IntFunction;
 
 public interface CoreRuntime extends Closeable {
 
@@ -26,8 +29,43 @@ public interface CoreRuntime extends Closeable {
 
   Clock getClock();
 
-  Random createRandom();
+  /**
+   * Returns the random stream identified by the keys, e.g. the generation and the offspring
+   * index. The same keys give the same sequence within a run, so the results of a run with a
+   * fixed seed do not depend on the threads drawing from the streams.
+   */
+  Random createRandom(long... keys);
 
-  Future<RankedModel> submit(Callable<RankedModel> modelTask);
+  /**
+   * Runs {@code task} for indices {@code 0..count-1} on all threads and waits for the
+   * results. Idle threads take the next chunk of indices, so uneven tasks do not leave threads
+   * waiting for the slowest one.
+   *
+   * @return results in the index order
+   */
+  <T> List<T> runBatch(int count, IntFunction<T> task)
+      throws ExecutionException, InterruptedException;
+
+  /**
+   * Evaluates the models created by {@code modelTask} for indices {@code 0..count-1} and waits
+   * for the results, see {@link Evaluator#evaluate(Model, double)}. A task may return
+   * {@code null} to skip its index.
+   *
+   * @return ranked models in the index order, {@code null} for the skipped indices
+   */
+  List<RankedModel> evaluateBatch(int count, IntFunction<Model> modelTask, Evaluator evaluator,
+      double threshold) throws ExecutionException, InterruptedException;
+
+  /**
+   * Runs {@code task} once on every thread and waits until all of them return.
+   */
+  void runOnAllThreads(Runnable task) throws ExecutionException, InterruptedException;
+
+  int getThreadCount();
+
+  /**
+   * Returns the total time the threads spent running batches, in nanoseconds.
+   */
+  long getBusyTimeNanos();
 
 }
@@ -14,19 +14,37 @@
 package com.newtowndata.math.runner;
 
 import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.evolution.Evaluator;
 import com.newtowndata.math.genetics.Random;
-import com.newtowndata.math.genetics.RandomImpl;
+import com.newtowndata.math.genetics.SeededRandom;
+import com.newtowndata.math.model.Model;
 import com.newtowndata.math.model.RankedModel;
 import java.time.Clock;
-import java.util.concurrent.Callable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.logging.Logger;
 
 public class CoreRuntimeImpl implements CoreRuntime {
 
+  private static final Logger LOG = Logger.getLogger(CoreRuntimeImpl.class.getName());
+
+  // small chunks balance the threads, large ones save the shared counter updates
+  private static final int CHUNKS_PER_THREAD = 8;
+  private static final int MAX_CHUNK_SIZE = 64;
+
   private final Clock clock;
+  private final int threadCount;
   private final ExecutorService executor;
+  private final LongAdder busyTimeNanos = new LongAdder();
+  private final long seed;
 
   public CoreRuntimeImpl(Configuration configuration) {
     this.clock = Clock.systemUTC();
@@ -36,7 +54,15 @@ public class CoreRuntimeImpl implements CoreRuntime {
       requiredThreadCount = Runtime.getRuntime().availableProcessors();
     }
 
+    this.threadCount = requiredThreadCount;
     this.executor = Executors.newFixedThreadPool(requiredThreadCount);
+
+    long requiredSeed = configuration.getRandomSeed();
+    while (requiredSeed == 0) {
+      requiredSeed = RandomProvider.getRandom().nextLong();
+    }
+    this.seed = requiredSeed;
+    LOG.info("Random seed: " + seed);
   }
 
 
@@ -50,13 +76,90 @@ public class CoreRuntimeImpl implements CoreRuntime {
     return clock;
   }
 
+  public long getSeed() {
+    return seed;
+  }
+
+  @Override
+  public Random createRandom(long... keys) {
+    return SeededRandom.derive(seed, keys);
+  }
+
+  @Override
+  public <T> List<T> runBatch(int count, IntFunction<T> task)
+      throws ExecutionException, InterruptedException {
+    Object[] results = new Object[count];
+    int chunkSize = Math.max(1, Math.min(MAX_CHUNK_SIZE, count / (threadCount
+        * CHUNKS_PER_THREAD)));
+    int workerCount = Math.min(threadCount, (count + chunkSize - 1) / chunkSize);
+    AtomicInteger nextIndex = new AtomicInteger();
+
+    List<Future<?>> workers = new ArrayList<>(workerCount);
+    for (int i = 0; i < workerCount; i++) {
+      workers.add(executor.submit(
+          () -> runChunks(count, chunkSize, nextIndex, task, results)));
+    }
+    for (Future<?> worker : workers) {
+      worker.get();
+    }
+    @SuppressWarnings("unchecked")
+    List<T> resultList = (List<T>) Arrays.asList(results);
+    return resultList;
+  }
+
+  /**
+   * Creates and evaluates every model by the same task, so there is a single wait.
+   */
+  @Override
+  public List<RankedModel> evaluateBatch(int count, IntFunction<Model> modelTask,
+      Evaluator evaluator, double threshold) throws ExecutionException, InterruptedException {
+    return runBatch(count, i -> {
+      Model model = modelTask.apply(i);
+      return model == null ? null : evaluator.evaluate(model, threshold);
+    });
+  }
+
+  private void runChunks(int count, int chunkSize, AtomicInteger nextIndex,
+      IntFunction<?> task, Object[] results) {
+    long start = System.nanoTime();
+    try {
+      int from;
+      while ((from = nextIndex.getAndAdd(chunkSize)) < count) {
+        int to = Math.min(count, from + chunkSize);
+        for (int i = from; i < to; i++) {
+          results[i] = task.apply(i);
+        }
+      }
+    } finally {
+      busyTimeNanos.add(System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public void runOnAllThreads(Runnable task) throws ExecutionException, InterruptedException {
+    List<Future<?>> workers = new ArrayList<>(threadCount);
+    for (int i = 0; i < threadCount; i++) {
+      workers.add(executor.submit(() -> {
+        long start = System.nanoTime();
+        try {
+          task.run();
+        } finally {
+          busyTimeNanos.add(System.nanoTime() - start);
+        }
+      }));
+    }
+    for (Future<?> worker : workers) {
+      worker.get();
+    }
+  }
+
   @Override
-  public Random createRandom() {
-    return new RandomImpl(new java.util.Random());
+  public int getThreadCount() {
+    return threadCount;
   }
 
   @Override
-  public Future<RankedModel> submit(Callable<RankedModel> modelTask) {
-    return executor.submit(modelTask);
+  public long getBusyTimeNanos() {
+    return busyTimeNanos.sum();
   }
 }
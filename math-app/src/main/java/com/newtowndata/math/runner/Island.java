@@ -0,0 +1,116 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.runner;
+
+import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.evolution.Evolution;
+import com.newtowndata.math.evolution.ParentSelection;
+import com.newtowndata.math.evolution.RandomParentSelection;
+import com.newtowndata.math.model.RankedModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Population evolved by generations together with its progress - the whole population of the
+ * generational mode or one island of the island model.
+ */
+class Island {
+
+  private final Evolution evolution;
+
+  private double bestFitness;
+  private int sameLoops = 0;
+  private long offspringCount = 0;
+  private long prunedCount = 0;
+  private long duplicateCount = 0;
+  private long lastOffspringCount = 0;
+  private long lastDuplicateCount = 0;
+
+  Island(int populationSize, List<RankedModel> initialPopulation) {
+    this(populationSize, new RandomParentSelection(populationSize), initialPopulation);
+  }
+
+  Island(int populationSize, ParentSelection parentSelection,
+      List<RankedModel> initialPopulation) {
+    this.evolution = new Evolution(populationSize, parentSelection);
+    List<RankedModel> population = new ArrayList<>(initialPopulation);
+    Collections.sort(population);
+    evolution.setPopulation(population);
+    this.bestFitness = evolution.getBestModel().getFitness();
+  }
+
+  Evolution getEvolution() {
+    return evolution;
+  }
+
+  /**
+   * Records the offspring of a generation.
+   *
+   * @param duplicates offspring not evaluated as copies of other models
+   */
+  void addOffspring(long offspring, long pruned, long duplicates) {
+    offspringCount += offspring;
+    prunedCount += pruned;
+    duplicateCount += duplicates;
+    lastOffspringCount = offspring;
+    lastDuplicateCount = duplicates;
+  }
+
+  /**
+   * Updates the improvement counter after the population of a generation is set.
+   */
+  void endGeneration() {
+    double fitness = evolution.getBestModel().getFitness();
+    if (fitness > bestFitness) {
+      bestFitness = fitness;
+      sameLoops = 0;
+    } else {
+      sameLoops++;
+    }
+  }
+
+  boolean isFinished(Configuration config) {
+    return sameLoops > config.getMaxSameLoops()
+        || evolution.getEvolutionStep() > config.getMaxIterations();
+  }
+
+  long getOffspringCount() {
+    return offspringCount;
+  }
+
+  long getPrunedCount() {
+    return prunedCount;
+  }
+
+  long getDuplicateCount() {
+    return duplicateCount;
+  }
+
+  long getLastOffspringCount() {
+    return lastOffspringCount;
+  }
+
+  long getLastDuplicateCount() {
+    return lastDuplicateCount;
+  }
+
+  /**
+   * Returns the best {@code count} models, the population is kept sorted.
+   */
+  List<RankedModel> getBestModels(int count) {
+    List<RankedModel> population = evolution.getPopulation();
+    return new ArrayList<>(population.subList(0, Math.min(count, population.size())));
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.runner;
+
+import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.genetics.Random;
+import com.newtowndata.math.model.RankedModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exchange of the best models between islands.
+ */
+class IslandMigration {
+
+  private final boolean randomTopology;
+  private final int migrantCount;
+
+  IslandMigration(Configuration config) {
+    this.randomTopology = isRandomTopology(config.getMigrationTopology());
+    this.migrantCount = config.getMigrantCount();
+  }
+
+  private static boolean isRandomTopology(String topology) {
+    switch (topology) {
+      case "ring":
+        return false;
+      case "random":
+        return true;
+      default:
+        throw new IllegalArgumentException("Unknown migration topology " + topology);
+    }
+  }
+
+  /**
+   * Every island receives the best models of its source island in place of its worst ones.
+   *
+   * @return number of models accepted by all islands
+   */
+  int migrate(List<Island> islands, Random random) {
+    int islandCount = islands.size();
+    if (islandCount < 2 || migrantCount <= 0) {
+      return 0;
+    }
+
+    // emigrants are taken before any island changes, so a model moves by one island at most
+    List<List<RankedModel>> emigrants = new ArrayList<>(islandCount);
+    for (Island island : islands) {
+      emigrants.add(island.getBestModels(migrantCount));
+    }
+
+    int accepted = 0;
+    for (int i = 0; i < islandCount; i++) {
+      accepted += islands.get(i).getEvolution()
+          .immigrate(emigrants.get(getSource(i, islandCount, random)));
+    }
+    return accepted;
+  }
+
+  private int getSource(int island, int islandCount, Random random) {
+    if (!randomTopology) {
+      return (island + islandCount - 1) % islandCount;
+    }
+    int source = random.nextInt(0, islandCount - 2);
+    return source < island ? source : source + 1;
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.runner;
+
+import com.newtowndata.math.model.Model;
+import com.newtowndata.math.model.RankedModel;
+import java.util.List;
+
+/**
+ * Exchange of migrants with the islands evolved by other processes.
+ */
+public interface MigrantExchange {
+
+  /**
+   * Sends the best models to the other processes and returns the models received since the last
+   * call. Never waits for the other processes.
+   */
+  List<Model> exchange(List<RankedModel> emigrants);
+
+  /**
+   * Returns {@code true} when the evolution is to end before its limits are reached.
+   */
+  boolean isStopped();
+
+  /**
+   * Hands over the best models of the finished evolution, returns the best models of the other
+   * processes to be merged into the result.
+   */
+  List<Model> finish(List<RankedModel> results);
+}
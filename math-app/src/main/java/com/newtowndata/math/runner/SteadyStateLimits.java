@@ -0,0 +1,81 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.runner;
+
+import com.newtowndata.math.config.Configuration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stopping criteria of the steady-state evolution. There are no generations, so the iteration
+ * limits count generation equivalents - the number of offspring a generation would evaluate.
+ */
+class SteadyStateLimits {
+
+  private final long offspringPerIteration;
+  private final long maxEvaluations;
+  private final long maxEvaluationsWithoutImprovement;
+  private final AtomicLong evaluationCount = new AtomicLong();
+
+  private double bestFitness;
+  private long lastImprovement = 0;
+  private volatile boolean stopped = false;
+
+  SteadyStateLimits(Configuration config, double initialBestFitness) {
+    this.offspringPerIteration = Math.max(1, (long) config.getMutationSize()
+        + config.getCrossoverSize() + config.getReplaceableSize());
+    this.maxEvaluations = config.getMaxIterations() * offspringPerIteration;
+    this.maxEvaluationsWithoutImprovement = config.getMaxSameLoops() * offspringPerIteration;
+    this.bestFitness = initialBestFitness;
+  }
+
+  long getOffspringPerIteration() {
+    return offspringPerIteration;
+  }
+
+  /**
+   * Returns the number of the next offspring, counted from 0.
+   */
+  long nextOffspring() {
+    return evaluationCount.getAndIncrement();
+  }
+
+  synchronized void recordFitness(long offspring, double fitness) {
+    if (fitness > bestFitness) {
+      bestFitness = fitness;
+      lastImprovement = offspring;
+    }
+  }
+
+  boolean isReached() {
+    if (stopped) {
+      return true;
+    }
+    long count = evaluationCount.get();
+    synchronized (this) {
+      return count > maxEvaluations || count - lastImprovement > maxEvaluationsWithoutImprovement;
+    }
+  }
+
+  void stop() {
+    stopped = true;
+  }
+
+  long getEvaluationCount() {
+    return evaluationCount.get();
+  }
+
+  long getIterationCount() {
+    return evaluationCount.get() / offspringPerIteration;
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.runner;
+
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * Measures how much of a generation the runtime threads are busy and how much of it runs on the
+ * calling thread only (sorting, selection) while the other threads wait.
+ */
+class ThreadUtilization {
+
+  private static final Logger LOG = Logger.getLogger(ThreadUtilization.class.getName());
+
+  private final CoreRuntime coreRuntime;
+
+  private long generationStart;
+  private long busyTimeStart;
+  private long batchTime;
+
+  private long lastGenerationTime;
+  private long lastBusyTime;
+  private long lastBatchTime;
+
+  ThreadUtilization(CoreRuntime coreRuntime) {
+    this.coreRuntime = coreRuntime;
+  }
+
+  void startGeneration() {
+    generationStart = System.nanoTime();
+    busyTimeStart = coreRuntime.getBusyTimeNanos();
+    batchTime = 0;
+  }
+
+  void addBatchTime(long nanos) {
+    batchTime += nanos;
+  }
+
+  void endGeneration() {
+    lastGenerationTime = System.nanoTime() - generationStart;
+    lastBusyTime = coreRuntime.getBusyTimeNanos() - busyTimeStart;
+    lastBatchTime = batchTime;
+  }
+
+  /**
+   * Returns the busy share of the thread time of the last generation, from 0 to 1.
+   */
+  double getUtilization() {
+    int threadCount = coreRuntime.getThreadCount();
+    if (lastGenerationTime <= 0 || threadCount <= 0) {
+      return 0;
+    }
+    return lastBusyTime / ((double) lastGenerationTime * threadCount);
+  }
+
+  /**
+   * Returns the share of the last generation spent outside of batches, from 0 to 1.
+   */
+  double getSerialFraction() {
+    if (lastGenerationTime <= 0) {
+      return 0;
+    }
+    return Math.max(0, lastGenerationTime - lastBatchTime) / (double) lastGenerationTime;
+  }
+
+  void log(String label) {
+    if (lastGenerationTime > 0) {
+      LOG.info(String.format(Locale.ENGLISH,
+          "%s: %.1f ms, thread utilization %.1f%% of %d threads, serial %.1f%%",
+          label, lastGenerationTime / 1e6, 100 * getUtilization(), coreRuntime.getThreadCount(),
+          100 * getSerialFraction()));
+    }
+  }
+}
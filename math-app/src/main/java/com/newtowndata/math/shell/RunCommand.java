@@ -16,6 +16,10 @@ package com.newtowndata.math.shell;
 import com.newtowndata.math.app.AppInput;
 import com.newtowndata.math.app.AppInputProvider;
 import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.distributed.Coordinator;
+import com.newtowndata.math.distributed.EvaluationWorker;
+import com.newtowndata.math.distributed.RemoteCoreRuntime;
+import com.newtowndata.math.distributed.Worker;
 import com.newtowndata.math.model.HumanReadableModel;
 import com.newtowndata.math.model.RankedModel;
 import com.newtowndata.math.result.ResultWriter;
@@ -25,6 +29,8 @@ import com.newtowndata.math.runner.CoreRuntime;
 import com.newtowndata.math.runner.CoreRuntimeConfig;
 import com.newtowndata.math.runner.CoreRuntimeConfigProvider;
 import com.newtowndata.math.runner.CoreRuntimeImpl;
+import java.io.IOException;
+import java.time.Clock;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,16 +42,38 @@ public class RunCommand implements CommandLineRunner {
 
   private static final Logger LOG = LoggerFactory.getLogger(RunCommand.class);
 
+  static final String WORKER_OPTION = "--worker";
+  static final String EVALUATION_WORKER_OPTION = "--evaluation-worker";
+
   @Override
   public void run(String... args) throws Exception {
+    if (args.length > 0 && WORKER_OPTION.equals(args[0])) {
+      if (args.length != 2) {
+        throw new IllegalArgumentException("Usage: " + WORKER_OPTION + " <host>:<port>");
+      }
+      Worker.of(args[1], 0).run();
+      LOG.info("Done");
+      return;
+    }
+    if (args.length > 0 && EVALUATION_WORKER_OPTION.equals(args[0])) {
+      if (args.length != 2) {
+        throw new IllegalArgumentException("Usage: " + EVALUATION_WORKER_OPTION + " <host>:<port>");
+      }
+      EvaluationWorker.of(args[1], 0).run();
+      LOG.info("Done");
+      return;
+    }
+
     final AppInput appInput = new AppInputProvider(args).provide();
 
     List<CoreRuntimeConfig> runtimeConfigs =
         CoreRuntimeConfigProvider.provide(appInput.getConfig());
 
-    try (CoreRuntime coreRuntime = new CoreRuntimeImpl(appInput.getConfig());
+    try (CoreRuntime coreRuntime = createCoreRuntime(appInput.getConfig());
         ResultWriter resultWriter =
-            ResultWriterProvider.provide(appInput.getConfig(), coreRuntime.getClock())) {
+            ResultWriterProvider.provide(appInput.getConfig(), coreRuntime.getClock());
+        Coordinator coordinator = createCoordinator(appInput.getConfig(),
+            coreRuntime.getClock())) {
 
       long start = coreRuntime.getClock().millis();
 
@@ -55,7 +83,10 @@ public class RunCommand implements CommandLineRunner {
         Configuration currentConfig = appInput.getConfig().copy();
         currentConfig.setMaxNodes(runtimeConfig.getMaxNodes());
 
-        Core core = new Core(coreRuntime, appInput.getDataInput(), currentConfig);
+        if (coordinator != null) {
+          coordinator.startJob(currentConfig, appInput.getDataInput());
+        }
+        Core core = new Core(coreRuntime, appInput.getDataInput(), currentConfig, coordinator);
         List<RankedModel> results = core.runEvolution();
 
         if (!results.isEmpty()) {
@@ -70,4 +101,34 @@ public class RunCommand implements CommandLineRunner {
 
     LOG.info("Done");
   }
+
+  private static CoreRuntime createCoreRuntime(Configuration config)
+      throws IOException, InterruptedException {
+    CoreRuntime local = new CoreRuntimeImpl(config);
+    if (config.getEvaluationPort() <= 0) {
+      return local;
+    }
+
+    RemoteCoreRuntime remote;
+    try {
+      remote = new RemoteCoreRuntime(local, config.getEvaluationPort(),
+          config.getEvaluationSharding());
+    } catch (IOException | RuntimeException e) {
+      local.close();
+      throw e;
+    }
+    try {
+      remote.awaitWorkers(config.getEvaluationWorkers());
+    } catch (InterruptedException e) {
+      remote.close();
+      throw e;
+    }
+    return remote;
+  }
+
+  private static Coordinator createCoordinator(Configuration config, Clock clock)
+      throws IOException {
+    return config.getCoordinatorPort() > 0 ? new Coordinator(config.getCoordinatorPort(), clock)
+        : null;
+  }
 }
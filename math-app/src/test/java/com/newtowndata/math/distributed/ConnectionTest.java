@@ -0,0 +1,149 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.distributed;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.PlusNode;
+import com.newtowndata.math.genetics.nodes.VariableNode;
+import com.newtowndata.math.input.DataInput;
+import com.newtowndata.math.input.DataRow;
+import com.newtowndata.math.model.Model;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ConnectionTest {
+
+  private Connection client;
+  private Connection server;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+      client = new Connection(new Socket(InetAddress.getLoopbackAddress(),
+          serverSocket.getLocalPort()));
+      server = new Connection(serverSocket.accept());
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    client.close();
+    server.close();
+  }
+
+  @Test
+  void job() throws IOException {
+    Configuration config = new Configuration();
+    config.setMaxNodes(7);
+    config.setMigrationTopology("random");
+    client.sendJob(new Job(3, config, new DataInput(List.of(new DataRow(1, "a", 2, 3),
+        new DataRow(4, 5, 6)))));
+
+    Message message = server.receive();
+    assertEquals(Message.JOB, message.getType());
+    assertEquals(3, message.getJobId());
+    Job job = message.getJob();
+    assertEquals(3, job.getJobId());
+    assertEquals(config.toString(), job.getConfig().toString());
+    assertEquals(List.of(new DataRow(1, "a", 2, 3), new DataRow(4, 5, 6)),
+        job.getDataInput().getRows());
+  }
+
+  @Test
+  void jobYRange() throws IOException {
+    client.sendJob(new Job(4, new Configuration(), new DataInput(List.of(new DataRow(1, 2))),
+        12.5));
+
+    Job job = server.receive().getJob();
+    assertEquals(4, job.getJobId());
+    assertEquals(12.5, job.getYRange());
+    assertEquals(List.of(new DataRow(1, 2)), job.getDataInput().getRows());
+  }
+
+  @Test
+  void evaluate() throws IOException {
+    List<Model> models = List.of(new Model(new PlusNode(new VariableNode(0),
+        new ConstantNode(1))));
+    server.sendEvaluate(6, 0.25, models);
+    client.sendFitness(6, new double[] {0.5, Double.NaN});
+
+    Message evaluate = client.receive();
+    assertEquals(Message.EVALUATE, evaluate.getType());
+    assertEquals(6, evaluate.getJobId());
+    assertArrayEquals(new double[] {0.25}, evaluate.getValues());
+    assertEquals(models, evaluate.getModels());
+
+    Message fitness = server.receive();
+    assertEquals(Message.FITNESS, fitness.getType());
+    assertEquals(6, fitness.getJobId());
+    assertArrayEquals(new double[] {0.5, Double.NaN}, fitness.getValues());
+    assertNull(fitness.getModels());
+  }
+
+  @Test
+  void parseAddress() {
+    assertEquals("localhost", Connection.parseAddress("localhost:7070").getHostString());
+    assertEquals(7070, Connection.parseAddress("localhost:7070").getPort());
+    assertThrows(IllegalArgumentException.class, () -> Connection.parseAddress("localhost"));
+    assertThrows(IllegalArgumentException.class, () -> Connection.parseAddress(":7070"));
+    assertThrows(IllegalArgumentException.class,
+        () -> Connection.parseAddress("localhost:99999"));
+  }
+
+  @Test
+  void models() throws IOException {
+    List<Model> models = List.of(new Model(new PlusNode(new VariableNode(0),
+        new ConstantNode(1))), new Model(new ConstantNode(2)));
+    client.sendMigrants(1, models);
+    client.sendResult(2, List.of());
+
+    Message migrants = server.receive();
+    assertEquals(Message.MIGRANTS, migrants.getType());
+    assertEquals(1, migrants.getJobId());
+    assertEquals(models, migrants.getModels());
+
+    Message result = server.receive();
+    assertEquals(Message.RESULT, result.getType());
+    assertEquals(2, result.getJobId());
+    assertEquals(List.of(), result.getModels());
+  }
+
+  @Test
+  void stop() throws IOException {
+    server.sendStop(5);
+
+    Message message = client.receive();
+    assertEquals(Message.STOP, message.getType());
+    assertEquals(5, message.getJobId());
+    assertNull(message.getModels());
+  }
+
+  @Test
+  void closed() {
+    client.close();
+    assertThrows(IOException.class, () -> server.receive());
+  }
+}
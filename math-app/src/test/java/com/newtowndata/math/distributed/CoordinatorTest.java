@@ -0,0 +1,152 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.distributed;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.VariableNode;
+import com.newtowndata.math.input.DataInput;
+import com.newtowndata.math.input.DataRow;
+import com.newtowndata.math.model.Model;
+import com.newtowndata.math.model.RankedModel;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class CoordinatorTest {
+
+  private static final DataInput TEST_INPUT = new DataInput(List.of(new DataRow(1, 1)));
+  private static final Model MIGRANT = new Model(new VariableNode(0));
+
+  private final List<Connection> workers = new ArrayList<>();
+  private Coordinator coordinator;
+
+  @AfterEach
+  void tearDown() {
+    workers.forEach(Connection::close);
+    coordinator.close();
+  }
+
+  @Test
+  void lateWorker() throws IOException, InterruptedException {
+    Clock clock = mock(Clock.class);
+    when(clock.millis()).thenReturn(0L, 25000L);
+    coordinator = new Coordinator(0, clock);
+    coordinator.startJob(createConfig(60), TEST_INPUT);
+
+    Message message = connectWorker().receive();
+    assertEquals(Message.JOB, message.getType());
+    assertEquals(1, message.getJobId());
+    assertEquals(35, message.getJob().getConfig().getMaxDurationInSec());
+  }
+
+  @Test
+  void exchange() throws IOException, InterruptedException {
+    coordinator = new Coordinator(0, Clock.systemUTC());
+    Connection first = connectWorker();
+    Connection second = connectWorker();
+    coordinator.startJob(createConfig(60), TEST_INPUT);
+    assertEquals(Message.JOB, first.receive().getType());
+    assertEquals(Message.JOB, second.receive().getType());
+
+    first.sendMigrants(1, List.of(MIGRANT));
+    // migrants of a finished job are ignored
+    first.sendMigrants(0, List.of(new Model(new ConstantNode(1))));
+
+    // relayed to the next worker
+    Message relayed = second.receive();
+    assertEquals(Message.MIGRANTS, relayed.getType());
+    assertEquals(List.of(MIGRANT), relayed.getModels());
+
+    List<Model> received = new ArrayList<>();
+    long deadline = System.currentTimeMillis() + 5000;
+    while (received.isEmpty() && System.currentTimeMillis() < deadline) {
+      received.addAll(coordinator.exchange(List.of()));
+      Thread.sleep(10);
+    }
+    assertEquals(List.of(MIGRANT), received);
+
+    coordinator.exchange(List.of(new RankedModel(MIGRANT, 0.5)));
+    Message sent = first.receive();
+    while (sent.getModels().isEmpty()) {
+      sent = first.receive();
+    }
+    assertEquals(List.of(MIGRANT), sent.getModels());
+  }
+
+  @Test
+  void finish() throws IOException, InterruptedException {
+    coordinator = new Coordinator(0, Clock.systemUTC());
+    Connection worker = connectWorker();
+    coordinator.startJob(createConfig(60), TEST_INPUT);
+    assertEquals(Message.JOB, worker.receive().getType());
+
+    Thread responder = new Thread(() -> {
+      try {
+        Message message = worker.receive();
+        assertEquals(Message.STOP, message.getType());
+        worker.sendResult(message.getJobId(), List.of(MIGRANT));
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    responder.start();
+
+    assertEquals(List.of(MIGRANT), coordinator.finish(List.of()));
+    responder.join();
+  }
+
+  @Test
+  void finishDisconnectedWorker() throws IOException, InterruptedException {
+    coordinator = new Coordinator(0, Clock.systemUTC());
+    Connection worker = connectWorker();
+    coordinator.startJob(createConfig(60), TEST_INPUT);
+    assertEquals(Message.JOB, worker.receive().getType());
+    worker.close();
+
+    long start = System.currentTimeMillis();
+    assertEquals(List.of(), coordinator.finish(List.of()));
+    assertTrue(System.currentTimeMillis() - start < Coordinator.RESULT_TIMEOUT_MS);
+  }
+
+  private Connection connectWorker() throws IOException, InterruptedException {
+    int expectedCount = coordinator.getWorkerCount() + 1;
+    Connection worker = new Connection(new Socket(InetAddress.getLoopbackAddress(),
+        coordinator.getPort()));
+    workers.add(worker);
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (coordinator.getWorkerCount() < expectedCount
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    return worker;
+  }
+
+  private static Configuration createConfig(int maxDurationInSec) {
+    Configuration config = new Configuration();
+    config.setMaxDurationInSec(maxDurationInSec);
+    return config;
+  }
+}
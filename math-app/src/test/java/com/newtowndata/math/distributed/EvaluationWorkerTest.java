@@ -0,0 +1,87 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.distributed;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.evolution.Evaluator;
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.VariableNode;
+import com.newtowndata.math.input.DataInput;
+import com.newtowndata.math.input.DataRow;
+import com.newtowndata.math.model.Model;
+import com.newtowndata.math.runner.CoreRuntime;
+import com.newtowndata.math.runner.CoreRuntimeImpl;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class EvaluationWorkerTest {
+
+  private static final DataInput TEST_INPUT = createInput(3000);
+
+  private static final List<Model> TEST_MODELS = List.of(new Model(new VariableNode(0)),
+      new Model(new ConstantNode(-100)));
+
+  @Test
+  void evaluateModels() throws Exception {
+    Configuration config = new Configuration();
+    Evaluator evaluator = new Evaluator(config, TEST_INPUT);
+    // the constant model cannot reach the threshold after the first block of rows
+    double threshold = new Evaluator(config, TEST_INPUT).evaluate(TEST_MODELS.get(0))
+        .getFitness() - 0.01;
+
+    try (CoreRuntime coreRuntime = new CoreRuntimeImpl(config)) {
+      double[] values = EvaluationWorker.evaluate(coreRuntime, evaluator, false, TEST_MODELS,
+          threshold);
+
+      assertEquals(2, values.length);
+      assertEquals(new Evaluator(config, TEST_INPUT).evaluate(TEST_MODELS.get(0)).getFitness(),
+          values[0]);
+      assertTrue(Double.isNaN(values[1]));
+    }
+  }
+
+  @Test
+  void evaluateRows() throws Exception {
+    Configuration config = new Configuration();
+    Evaluator evaluator = new Evaluator(config, TEST_INPUT);
+
+    try (CoreRuntime coreRuntime = new CoreRuntimeImpl(config)) {
+      double[] values = EvaluationWorker.evaluate(coreRuntime, evaluator, true, TEST_MODELS,
+          Double.POSITIVE_INFINITY);
+
+      assertEquals(2, values.length);
+      assertEquals(TEST_INPUT.getRows().size(), values[0], 1e-9);
+      assertEquals(evaluator.evaluateSimilaritySum(TEST_MODELS.get(1)), values[1]);
+    }
+  }
+
+  private static DataInput createInput(int size) {
+    List<DataRow> rows = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      rows.add(new DataRow(i + 1, i + 1));
+    }
+    return new DataInput(rows);
+  }
+
+  @Test
+  void of() {
+    assertThrows(IllegalArgumentException.class, () -> EvaluationWorker.of("localhost", 0));
+    assertTrue(EvaluationWorker.of("localhost:7071", 0) != null);
+  }
+}
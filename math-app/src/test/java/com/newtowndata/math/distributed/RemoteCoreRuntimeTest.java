@@ -0,0 +1,209 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.distributed;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.evolution.Evaluator;
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.MultiplicationNode;
+import com.newtowndata.math.genetics.nodes.PlusNode;
+import com.newtowndata.math.genetics.nodes.SinNode;
+import com.newtowndata.math.genetics.nodes.VariableNode;
+import com.newtowndata.math.input.DataInput;
+import com.newtowndata.math.input.DataRow;
+import com.newtowndata.math.model.Model;
+import com.newtowndata.math.model.RankedModel;
+import com.newtowndata.math.runner.Core;
+import com.newtowndata.math.runner.CoreRuntimeImpl;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RemoteCoreRuntimeTest {
+
+  private static final List<Model> TEST_MODELS = List.of(
+      new Model(new PlusNode(new MultiplicationNode(new ConstantNode(2), new VariableNode(0)),
+          new ConstantNode(1))),
+      new Model(new VariableNode(0)),
+      new Model(new SinNode(new VariableNode(0))),
+      new Model(new ConstantNode(3)),
+      new Model(new PlusNode(new VariableNode(0), new ConstantNode(1))));
+
+  private Configuration config;
+  private DataInput dataInput;
+  private final List<Thread> workers = new ArrayList<>();
+  private final AtomicReference<Exception> workerFailure = new AtomicReference<>();
+
+  @BeforeEach
+  void setUp() {
+    config = new Configuration();
+    config.setMaxNodes(10);
+    config.setThreadCount(1);
+
+    List<DataRow> rows = new ArrayList<>();
+    for (int i = -20; i <= 20; i++) {
+      rows.add(new DataRow(2 * i + 1, i));
+    }
+    dataInput = new DataInput(rows);
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    for (Thread worker : workers) {
+      worker.join(10000);
+      assertFalse(worker.isAlive());
+    }
+    assertEquals(null, workerFailure.get());
+  }
+
+  @Test
+  void evaluateByModels() throws Exception {
+    assertRemoteEvaluation("models", 2);
+  }
+
+  @Test
+  void evaluateByRows() throws Exception {
+    assertRemoteEvaluation("rows", 3);
+  }
+
+  @Test
+  void evaluateByRowsMoreWorkersThanRows() throws Exception {
+    dataInput = new DataInput(List.of(new DataRow(1, 0), new DataRow(3, 1)));
+    assertRemoteEvaluation("rows", 3);
+  }
+
+  @Test
+  void evaluateWithoutWorkers() throws Exception {
+    try (RemoteCoreRuntime runtime = new RemoteCoreRuntime(new CoreRuntimeImpl(config), 0,
+        "models")) {
+      assertEvaluation(runtime, new Evaluator(config, dataInput));
+    }
+  }
+
+  @Test
+  void workerDisconnected() throws Exception {
+    try (RemoteCoreRuntime runtime = new RemoteCoreRuntime(new CoreRuntimeImpl(config), 0,
+        "models")) {
+      // accepts the rows, but leaves on the first models
+      Thread worker = new Thread(() -> {
+        try (Connection connection = new Connection(new Socket(InetAddress.getLoopbackAddress(),
+            runtime.getPort()))) {
+          while (connection.receive().getType() != Message.EVALUATE) {
+            // wait for the models
+          }
+        } catch (IOException e) {
+          workerFailure.set(e);
+        }
+      });
+      worker.start();
+      workers.add(worker);
+      runtime.awaitWorkers(1);
+
+      assertEvaluation(runtime, new Evaluator(config, dataInput));
+      assertEquals(0, runtime.getWorkerCount());
+    }
+  }
+
+  @Test
+  void runEvolution() throws Exception {
+    config.setMaxDurationInSec(1);
+    config.setMaxIterations(10);
+    config.setPopulationSize(100);
+    config.setMutationSize(20);
+    config.setCrossoverSize(40);
+    config.setSurvivalSize(10);
+    config.setReplaceableSize(10);
+
+    try (RemoteCoreRuntime runtime = new RemoteCoreRuntime(new CoreRuntimeImpl(config), 0,
+        "models")) {
+      startWorkers(runtime, 1);
+      List<RankedModel> results = new Core(runtime, dataInput, config, null).runEvolution();
+      assertFalse(results.isEmpty());
+
+      RankedModel best = results.get(0);
+      assertEquals(new Evaluator(config, dataInput).evaluate(best.getModel()).getFitness(),
+          best.getFitness(), 1e-12);
+    }
+  }
+
+  @Test
+  void unknownSharding() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new RemoteCoreRuntime(new CoreRuntimeImpl(config), 0, "columns"));
+  }
+
+  private void assertRemoteEvaluation(String evaluationSharding, int workerCount)
+      throws Exception {
+    try (RemoteCoreRuntime runtime = new RemoteCoreRuntime(new CoreRuntimeImpl(config), 0,
+        evaluationSharding)) {
+      startWorkers(runtime, workerCount);
+      assertEquals(workerCount, runtime.getWorkerCount());
+
+      Evaluator evaluator = new Evaluator(config, dataInput);
+      assertEvaluation(runtime, evaluator);
+      // evaluated again by the workers, the models are not cached
+      assertEvaluation(runtime, new Evaluator(config, dataInput));
+      assertEquals(workerCount, runtime.getWorkerCount());
+    }
+  }
+
+  private void startWorkers(RemoteCoreRuntime runtime, int workerCount)
+      throws InterruptedException {
+    for (int i = 0; i < workerCount; i++) {
+      Thread worker = new Thread(() -> {
+        try {
+          new EvaluationWorker(InetAddress.getLoopbackAddress().getHostAddress(),
+              runtime.getPort(), 1).run();
+        } catch (Exception e) {
+          workerFailure.set(e);
+        }
+      });
+      worker.start();
+      workers.add(worker);
+    }
+    runtime.awaitWorkers(workerCount);
+  }
+
+  private void assertEvaluation(RemoteCoreRuntime runtime, Evaluator evaluator)
+      throws Exception {
+    Evaluator expectedEvaluator = new Evaluator(config, dataInput);
+    double threshold = expectedEvaluator.evaluate(TEST_MODELS.get(2)).getFitness();
+
+    List<RankedModel> results = runtime.evaluateBatch(TEST_MODELS.size(), TEST_MODELS::get,
+        evaluator, threshold);
+
+    assertEquals(TEST_MODELS.size(), results.size());
+    for (int i = 0; i < TEST_MODELS.size(); i++) {
+      RankedModel expected = expectedEvaluator.evaluate(TEST_MODELS.get(i));
+      RankedModel actual = results.get(i);
+      assertEquals(TEST_MODELS.get(i), actual.getModel());
+      if (actual.isPruned()) {
+        assertTrue(expected.getFitness() < threshold, "model " + i);
+      } else {
+        assertEquals(expected.getFitness(), actual.getFitness(), 1e-12, "model " + i);
+      }
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.distributed;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.input.DataInput;
+import com.newtowndata.math.input.DataRow;
+import com.newtowndata.math.model.RankedModel;
+import com.newtowndata.math.runner.Core;
+import com.newtowndata.math.runner.CoreRuntime;
+import com.newtowndata.math.runner.CoreRuntimeImpl;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+class WorkerTest {
+
+  private static final DataInput TEST_INPUT = new DataInput(List.of(new DataRow(3, 0),
+      new DataRow(-17, 5), new DataRow(15, -3)));
+
+  @Test
+  void runJobs() throws Exception {
+    Configuration config = new Configuration();
+    config.setMaxDurationInSec(1);
+    config.setMaxIterations(20);
+    config.setPopulationSize(100);
+    config.setMutationSize(20);
+    config.setCrossoverSize(40);
+    config.setSurvivalSize(10);
+    config.setReplaceableSize(10);
+    config.setMigrationInterval(2);
+    config.setMigrantCount(3);
+    config.setThreadCount(2);
+
+    AtomicReference<Exception> workerFailure = new AtomicReference<>();
+    try (Coordinator coordinator = new Coordinator(0, Clock.systemUTC());
+        CoreRuntime coreRuntime = new CoreRuntimeImpl(config)) {
+      Thread worker = new Thread(() -> {
+        try {
+          Worker.of("localhost:" + coordinator.getPort(), 2).run();
+        } catch (Exception e) {
+          workerFailure.set(e);
+        }
+      });
+      worker.start();
+      while (coordinator.getWorkerCount() == 0 && worker.isAlive()) {
+        Thread.sleep(10);
+      }
+
+      // two jobs, like iterate_max_nodes runs
+      for (int i = 0; i < 2; i++) {
+        coordinator.startJob(config, TEST_INPUT);
+        List<RankedModel> results = new Core(coreRuntime, TEST_INPUT, config, coordinator)
+            .runEvolution();
+        assertFalse(results.isEmpty());
+        assertEquals(results.size(), results.stream().distinct().count());
+      }
+
+      coordinator.close();
+      worker.join(10000);
+      assertFalse(worker.isAlive());
+    }
+    assertEquals(null, workerFailure.get());
+  }
+
+  @Test
+  void of() {
+    assertThrows(IllegalArgumentException.class, () -> Worker.of("localhost", 0));
+    assertThrows(IllegalArgumentException.class, () -> Worker.of("localhost:port", 0));
+    assertTrue(Worker.of("localhost:7070", 0) != null);
+  }
+}
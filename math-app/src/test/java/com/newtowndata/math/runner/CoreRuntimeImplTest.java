@@ -14,14 +14,20 @@
 package com.newtowndata.math.runner;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.evolution.Evaluator;
 import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.input.DataInput;
+import com.newtowndata.math.input.DataRow;
 import com.newtowndata.math.model.Model;
 import com.newtowndata.math.model.RankedModel;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 
 class CoreRuntimeImplTest {
@@ -32,10 +38,104 @@ class CoreRuntimeImplTest {
       assertTrue(runtime.getClock().millis() > 0L);
       runtime.createRandom().nextBoolean();
 
-      Future<RankedModel> modelFuture = runtime
-          .submit(() -> new RankedModel(new Model(new ConstantNode(1)), 1));
-      RankedModel model = modelFuture.get();
-      assertEquals(1, model.getFitness());
+      List<RankedModel> models = runtime
+          .runBatch(1, i -> new RankedModel(new Model(new ConstantNode(1)), 1));
+      assertEquals(1, models.size());
+      assertEquals(1, models.get(0).getFitness());
+    }
+  }
+
+  @Test
+  void createRandom() {
+    Configuration configuration = new Configuration();
+    configuration.setRandomSeed(42);
+    try (CoreRuntimeImpl runtime = new CoreRuntimeImpl(configuration);
+        CoreRuntimeImpl other = new CoreRuntimeImpl(configuration)) {
+      assertEquals(42, runtime.getSeed());
+      assertEquals(runtime.createRandom(1, 2).nextInt(0, 1000000),
+          other.createRandom(1, 2).nextInt(0, 1000000));
+    }
+
+    try (CoreRuntimeImpl runtime = new CoreRuntimeImpl(new Configuration())) {
+      assertTrue(runtime.getSeed() != 0);
+    }
+  }
+
+  @Test
+  void runBatch() throws ExecutionException, InterruptedException {
+    Configuration configuration = new Configuration();
+    configuration.setThreadCount(3);
+    try (CoreRuntimeImpl runtime = new CoreRuntimeImpl(configuration)) {
+      assertEquals(3, runtime.getThreadCount());
+
+      List<RankedModel> models = runtime
+          .runBatch(1000, i -> new RankedModel(new Model(new ConstantNode(i)), i));
+      assertEquals(1000, models.size());
+      for (int i = 0; i < models.size(); i++) {
+        assertEquals(i, models.get(i).getFitness());
+      }
+      assertTrue(runtime.getBusyTimeNanos() > 0);
+
+      assertEquals(List.of(), runtime.runBatch(0, i -> null));
+    }
+  }
+
+  @Test
+  void evaluateBatch() throws ExecutionException, InterruptedException {
+    Configuration configuration = new Configuration();
+    configuration.setThreadCount(2);
+    Evaluator evaluator = new Evaluator(configuration, new DataInput(List.of(new DataRow(1, 1),
+        new DataRow(2, 2))));
+    try (CoreRuntimeImpl runtime = new CoreRuntimeImpl(configuration)) {
+      List<RankedModel> models = runtime.evaluateBatch(10, i -> new Model(new ConstantNode(i)),
+          evaluator, Double.NEGATIVE_INFINITY);
+      assertEquals(10, models.size());
+      for (int i = 0; i < models.size(); i++) {
+        assertEquals(new Model(new ConstantNode(i)), models.get(i).getModel());
+        assertEquals(evaluator.evaluate(models.get(i).getModel()).getFitness(),
+            models.get(i).getFitness());
+      }
+    }
+  }
+
+  @Test
+  void evaluateBatchSkipped() throws ExecutionException, InterruptedException {
+    Configuration configuration = new Configuration();
+    configuration.setThreadCount(2);
+    Evaluator evaluator = new Evaluator(configuration, new DataInput(List.of(new DataRow(1, 1),
+        new DataRow(2, 2))));
+    try (CoreRuntimeImpl runtime = new CoreRuntimeImpl(configuration)) {
+      List<RankedModel> models = runtime.evaluateBatch(10,
+          i -> i % 2 == 0 ? new Model(new ConstantNode(i)) : null, evaluator,
+          Double.NEGATIVE_INFINITY);
+      assertEquals(10, models.size());
+      for (int i = 0; i < models.size(); i++) {
+        if (i % 2 == 0) {
+          assertEquals(new Model(new ConstantNode(i)), models.get(i).getModel());
+        } else {
+          assertNull(models.get(i));
+        }
+      }
+    }
+  }
+
+  @Test
+  void runOnAllThreads() throws ExecutionException, InterruptedException {
+    Configuration configuration = new Configuration();
+    configuration.setThreadCount(3);
+    try (CoreRuntimeImpl runtime = new CoreRuntimeImpl(configuration)) {
+      AtomicInteger runs = new AtomicInteger();
+      runtime.runOnAllThreads(runs::incrementAndGet);
+      assertEquals(3, runs.get());
+    }
+  }
+
+  @Test
+  void runBatchFailure() {
+    try (CoreRuntimeImpl runtime = new CoreRuntimeImpl(new Configuration())) {
+      assertThrows(ExecutionException.class, () -> runtime.runBatch(100, i -> {
+        throw new IllegalStateException("Failed");
+      }));
     }
   }
 
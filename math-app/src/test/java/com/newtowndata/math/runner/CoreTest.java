@@ -14,27 +14,34 @@
 package com.newtowndata.math.runner;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.evolution.Evaluator;
 import com.newtowndata.math.genetics.Random;
+import com.newtowndata.math.genetics.nodes.VariableNode;
 import com.newtowndata.math.input.DataInput;
 import com.newtowndata.math.input.DataRow;
+import com.newtowndata.math.model.Model;
 import com.newtowndata.math.model.RankedModel;
 import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import org.junit.jupiter.api.AfterEach;
+import java.util.function.IntFunction;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -52,47 +59,299 @@ class CoreTest {
   @Mock
   CoreRuntime coreRuntime;
 
+  @Mock
+  MigrantExchange migrantExchange;
+
   private Core core;
-  private ExecutorService executor;
 
   @BeforeEach
   void setUp() {
     core = new Core(coreRuntime, TEST_INPUT, TEST_CONFIG);
-    executor = Executors.newSingleThreadExecutor();
-  }
-
-  @AfterEach
-  void tearDown() {
-    executor.shutdownNow();
   }
 
   @Test
   void runEvolution() throws ExecutionException, InterruptedException {
     when(coreRuntime.getClock()).thenReturn(clock);
-    when(coreRuntime.createRandom()).thenReturn(random);
-    when(coreRuntime.submit(any())).thenAnswer(invocation -> executor.submit(
-        (Callable<RankedModel>) invocation.getArgument(0)));
+    when(coreRuntime.createRandom(any())).thenReturn(random);
+    when(coreRuntime.evaluateBatch(anyInt(), any(), any(), anyDouble()))
+        .thenAnswer(CoreTest::evaluateSequentially);
 
     List<RankedModel> result = core.runEvolution();
     assertEquals(4, result.size());
     assertEquals(0.3675115617302709, result.get(0).getFitness(), 1e-9);
     assertEquals("0.0", result.get(0).getModel().toString());
 
-    verify(coreRuntime, times(2)).submit(any());
+    // initial population, offspring and random models
+    verify(coreRuntime, times(3)).evaluateBatch(anyInt(), any(), any(), anyDouble());
   }
 
   @Test
   void runEvolutionLonger() throws ExecutionException, InterruptedException {
     when(coreRuntime.getClock()).thenReturn(clock);
     when(clock.millis()).thenReturn(0L, 1000000L, 2000000L);
-    when(coreRuntime.createRandom()).thenReturn(random);
+    when(coreRuntime.createRandom(any())).thenReturn(random);
+    when(coreRuntime.evaluateBatch(anyInt(), any(), any(), anyDouble()))
+        .thenAnswer(CoreTest::evaluateSequentially);
 
     List<RankedModel> result = core.runEvolution();
     assertEquals(4, result.size());
     assertEquals(0.3675115617302709, result.get(0).getFitness(), 1e-9);
     assertEquals("0.0", result.get(0).getModel().toString());
 
-    verify(coreRuntime, times(0)).submit(any());
+    // initial population only
+    verify(coreRuntime, times(1)).evaluateBatch(anyInt(), any(), any(), anyDouble());
+  }
+
+  @Test
+  void runSteadyState() throws ExecutionException, InterruptedException {
+    Configuration config = createTestConfig();
+    config.setEvolutionMode("steady_state");
+    Core steadyStateCore = new Core(coreRuntime, TEST_INPUT, config);
+
+    when(coreRuntime.getClock()).thenReturn(clock);
+    when(coreRuntime.createRandom(any())).thenReturn(random);
+    when(coreRuntime.evaluateBatch(anyInt(), any(), any(), anyDouble()))
+        .thenAnswer(CoreTest::evaluateSequentially);
+    doAnswer(invocation -> {
+      ((Runnable) invocation.getArgument(0)).run();
+      return null;
+    }).when(coreRuntime).runOnAllThreads(any());
+
+    List<RankedModel> result = steadyStateCore.runEvolution();
+    assertEquals(0.3675115617302709, result.get(0).getFitness(), 1e-9);
+    assertEquals("0.0", result.get(0).getModel().toString());
+
+    verify(coreRuntime, times(1)).evaluateBatch(anyInt(), any(), any(), anyDouble());
+    verify(coreRuntime, times(1)).runOnAllThreads(any());
+  }
+
+  @Test
+  void runIslands() throws ExecutionException, InterruptedException {
+    Configuration config = createTestConfig();
+    config.setIslandCount(2);
+    config.setMigrationInterval(1);
+    config.setMigrantCount(1);
+    Core islandCore = new Core(coreRuntime, TEST_INPUT, config);
+
+    when(coreRuntime.getClock()).thenReturn(clock);
+    when(coreRuntime.createRandom(any())).thenReturn(random);
+    when(coreRuntime.runBatch(anyInt(), any())).thenAnswer(CoreTest::runSequentially);
+    when(coreRuntime.evaluateBatch(anyInt(), any(), any(), anyDouble()))
+        .thenAnswer(CoreTest::evaluateSequentially);
+
+    List<RankedModel> result = islandCore.runEvolution();
+    assertEquals(0.3675115617302709, result.get(0).getFitness(), 1e-9);
+    assertEquals("0.0", result.get(0).getModel().toString());
+    assertEquals(result.size(), new HashSet<>(result).size());
+
+    // initial populations, then one batch of islands running their generations
+    verify(coreRuntime, times(2)).evaluateBatch(anyInt(), any(), any(), anyDouble());
+    verify(coreRuntime, times(1)).runBatch(anyInt(), any());
+  }
+
+  @Test
+  void runDistributed() throws ExecutionException, InterruptedException {
+    Configuration config = createTestConfig();
+    config.setMaxIterations(2);
+    config.setMigrationInterval(1);
+    Core distributedCore = new Core(coreRuntime, TEST_INPUT, config, migrantExchange);
+
+    when(coreRuntime.getClock()).thenReturn(clock);
+    when(coreRuntime.createRandom(any())).thenReturn(random);
+    when(coreRuntime.evaluateBatch(anyInt(), any(), any(), anyDouble()))
+        .thenAnswer(CoreTest::evaluateSequentially);
+    when(migrantExchange.exchange(any())).thenReturn(List.of());
+    when(migrantExchange.finish(any())).thenReturn(List.of(new Model(new VariableNode(0))));
+
+    List<RankedModel> result = distributedCore.runEvolution();
+    assertEquals("x1", result.get(0).getModel().toString());
+    assertEquals("0.0", result.get(1).getModel().toString());
+
+    verify(migrantExchange, times(1)).exchange(any());
+    verify(migrantExchange, times(1)).finish(any());
+  }
+
+  @Test
+  void runDistributedImmigrants() throws ExecutionException, InterruptedException {
+    Configuration config = createTestConfig();
+    config.setMaxIterations(2);
+    config.setMigrationInterval(1);
+    Core distributedCore = new Core(coreRuntime, TEST_INPUT, config, migrantExchange);
+
+    when(coreRuntime.getClock()).thenReturn(clock);
+    when(coreRuntime.createRandom(any())).thenReturn(random);
+    when(coreRuntime.evaluateBatch(anyInt(), any(), any(), anyDouble()))
+        .thenAnswer(CoreTest::evaluateSequentially);
+    when(migrantExchange.exchange(any())).thenReturn(List.of(new Model(new VariableNode(0))));
+    when(migrantExchange.finish(any())).thenReturn(List.of());
+
+    List<RankedModel> result = distributedCore.runEvolution();
+    assertEquals("x1", result.get(0).getModel().toString());
+  }
+
+  @Test
+  void runDistributedStopped() throws ExecutionException, InterruptedException {
+    Core distributedCore = new Core(coreRuntime, TEST_INPUT, TEST_CONFIG, migrantExchange);
+
+    when(coreRuntime.getClock()).thenReturn(clock);
+    when(coreRuntime.createRandom(any())).thenReturn(random);
+    when(coreRuntime.evaluateBatch(anyInt(), any(), any(), anyDouble()))
+        .thenAnswer(CoreTest::evaluateSequentially);
+    when(migrantExchange.isStopped()).thenReturn(true);
+    when(migrantExchange.finish(any())).thenReturn(List.of());
+
+    distributedCore.runEvolution();
+
+    // initial population only
+    verify(coreRuntime, times(1)).evaluateBatch(anyInt(), any(), any(), anyDouble());
+  }
+
+  @Test
+  void distributedSteadyState() {
+    Configuration config = createTestConfig();
+    config.setEvolutionMode("steady_state");
+    assertThrows(IllegalArgumentException.class,
+        () -> new Core(coreRuntime, TEST_INPUT, config, migrantExchange));
+  }
+
+  @Test
+  void invalidMigrationInterval() {
+    Configuration config = createTestConfig();
+    config.setMigrationInterval(0);
+    assertThrows(IllegalArgumentException.class, () -> new Core(coreRuntime, TEST_INPUT, config));
+  }
+
+  @Test
+  void islandsWithSteadyState() {
+    Configuration config = createTestConfig();
+    config.setIslandCount(2);
+    config.setEvolutionMode("steady_state");
+    assertThrows(IllegalArgumentException.class, () -> new Core(coreRuntime, TEST_INPUT, config));
+  }
+
+  @Test
+  void unknownMigrationTopology() {
+    Configuration config = createTestConfig();
+    config.setMigrationTopology("unknown");
+    assertThrows(IllegalArgumentException.class, () -> new Core(coreRuntime, TEST_INPUT, config));
+  }
+
+  @Test
+  void unknownEvolutionMode() {
+    Configuration config = createTestConfig();
+    config.setEvolutionMode("unknown");
+    assertThrows(IllegalArgumentException.class, () -> new Core(coreRuntime, TEST_INPUT, config));
+  }
+
+  @Test
+  void unknownParentSelection() {
+    Configuration config = createTestConfig();
+    config.setParentSelection("unknown");
+    assertThrows(IllegalArgumentException.class, () -> new Core(coreRuntime, TEST_INPUT, config));
+  }
+
+  @Test
+  void tournamentSteadyState() {
+    Configuration config = createTestConfig();
+    config.setEvolutionMode("steady_state");
+    config.setParentSelection("tournament");
+    assertThrows(IllegalArgumentException.class, () -> new Core(coreRuntime, TEST_INPUT, config));
+  }
+
+  private static List<RankedModel> evaluateSequentially(InvocationOnMock invocation) {
+    int count = invocation.getArgument(0);
+    IntFunction<Model> modelTask = invocation.getArgument(1);
+    Evaluator evaluator = invocation.getArgument(2);
+    double threshold = invocation.getArgument(3);
+    List<RankedModel> models = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Model model = modelTask.apply(i);
+      models.add(model == null ? null : evaluator.evaluate(model, threshold));
+    }
+    return models;
+  }
+
+  @Test
+  void sameSeedSameResults() throws ExecutionException, InterruptedException {
+    assertEquals(runWithSeed(1, 1), runWithSeed(1, 3));
+    assertEquals(runWithSeed(1, 2), runWithSeed(1, 2));
+    // semantic duplicates are found among evaluated and cached models alike
+    assertEquals(runWithSeed(2, 1, "random", true), runWithSeed(2, 3, "random", true));
+    assertEquals(runWithSeed(1, 1, "random", false), runWithSeed(1, 3, "random", false));
+  }
+
+  @Test
+  void sameSeedSameIslandResults() throws ExecutionException, InterruptedException {
+    assertEquals(runWithSeed(3, 1), runWithSeed(3, 3));
+  }
+
+  @Test
+  void sameSeedSameTournamentResults() throws ExecutionException, InterruptedException {
+    assertEquals(runWithSeed(1, 1, "tournament"), runWithSeed(1, 3, "tournament"));
+    assertEquals(runWithSeed(2, 1, "tournament"), runWithSeed(2, 3, "tournament"));
+  }
+
+  @Test
+  void sameSeedSameLexicaseResults() throws ExecutionException, InterruptedException {
+    assertEquals(runWithSeed(1, 1, "lexicase"), runWithSeed(1, 3, "lexicase"));
+    assertEquals(runWithSeed(2, 1, "lexicase"), runWithSeed(2, 3, "lexicase"));
+  }
+
+  private static List<String> runWithSeed(int islandCount, int threadCount)
+      throws ExecutionException, InterruptedException {
+    return runWithSeed(islandCount, threadCount, "random");
+  }
+
+  private static List<String> runWithSeed(int islandCount, int threadCount,
+      String parentSelection) throws ExecutionException, InterruptedException {
+    return runWithSeed(islandCount, threadCount, parentSelection, true);
+  }
+
+  /**
+   * Returns the models and fitness of a run with a fixed seed, limited by iterations only.
+   */
+  private static List<String> runWithSeed(int islandCount, int threadCount,
+      String parentSelection, boolean semanticDeduplication)
+      throws ExecutionException, InterruptedException {
+    Configuration config = new Configuration();
+    config.setParentSelection(parentSelection);
+    config.setSemanticDeduplication(semanticDeduplication);
+    config.setRandomSeed(42);
+    config.setThreadCount(threadCount);
+    config.setIslandCount(islandCount);
+    config.setMigrationInterval(2);
+    config.setMaxIterations(6);
+    config.setMaxDurationInSec(600);
+    config.setPopulationSize(200);
+    config.setMutationSize(40);
+    config.setCrossoverSize(80);
+    config.setSurvivalSize(20);
+    config.setReplaceableSize(20);
+    // a small cache evicts, so its content differs among the thread counts
+    config.setFitnessCacheSize(100);
+
+    List<DataRow> rows = new ArrayList<>();
+    for (int i = 1; i <= 20; i++) {
+      rows.add(new DataRow(Math.sin(i) + i * i, i));
+    }
+
+    try (CoreRuntime runtime = new CoreRuntimeImpl(config)) {
+      List<String> results = new ArrayList<>();
+      for (RankedModel model : new Core(runtime, new DataInput(rows), config).runEvolution()) {
+        results.add(model.getModel() + " " + model.getFitness());
+      }
+      return results;
+    }
+  }
+
+  private static List<RankedModel> runSequentially(InvocationOnMock invocation) {
+    int count = invocation.getArgument(0);
+    IntFunction<RankedModel> modelTask = invocation.getArgument(1);
+    List<RankedModel> models = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      models.add(modelTask.apply(i));
+    }
+    return models;
   }
 
   private static Configuration createTestConfig() {
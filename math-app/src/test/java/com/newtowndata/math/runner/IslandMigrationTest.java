@@ -0,0 +1,106 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.runner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.genetics.Random;
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.model.Model;
+import com.newtowndata.math.model.RankedModel;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class IslandMigrationTest {
+
+  @Mock
+  Random random;
+
+  @Test
+  void migrateRing() {
+    List<Island> islands = createIslands(3);
+    IslandMigration migration = new IslandMigration(createConfig("ring"));
+
+    assertEquals(3, migration.migrate(islands, random));
+
+    // island i receives the best model of island i-1 in place of its worst one
+    assertEquals(List.of(fitness(0.3), fitness(0.1)), getFitness(islands.get(0)));
+    assertEquals(List.of(fitness(0.2), fitness(0.1)), getFitness(islands.get(1)));
+    assertEquals(List.of(fitness(0.3), fitness(0.2)), getFitness(islands.get(2)));
+  }
+
+  @Test
+  void migrateRandom() {
+    List<Island> islands = createIslands(3);
+    IslandMigration migration = new IslandMigration(createConfig("random"));
+    // sources are picked among the other islands
+    when(random.nextInt(0, 1)).thenReturn(0, 1, 0);
+
+    assertEquals(3, migration.migrate(islands, random));
+
+    assertEquals(List.of(fitness(0.2), fitness(0.1)), getFitness(islands.get(0)));
+    assertEquals(List.of(fitness(0.3), fitness(0.2)), getFitness(islands.get(1)));
+    assertEquals(List.of(fitness(0.3), fitness(0.1)), getFitness(islands.get(2)));
+  }
+
+  @Test
+  void migrateSingleIsland() {
+    List<Island> islands = createIslands(1);
+    assertEquals(0, new IslandMigration(createConfig("ring")).migrate(islands, random));
+  }
+
+  @Test
+  void unknownTopology() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new IslandMigration(createConfig("unknown")));
+  }
+
+  private static List<Island> createIslands(int count) {
+    // island i has models with fitness 0.i and 0.0i
+    List<Island> islands = new ArrayList<>();
+    for (int i = 1; i <= count; i++) {
+      islands.add(new Island(2, new ArrayList<>(List.of(
+          new RankedModel(new Model(new ConstantNode(i)), fitness(0.1 * i)),
+          new RankedModel(new Model(new ConstantNode(-i)), fitness(0.01 * i))))));
+    }
+    return islands;
+  }
+
+  private static double fitness(double value) {
+    return Math.round(value * 100) / 100.0;
+  }
+
+  private static List<Double> getFitness(Island island) {
+    List<Double> result = new ArrayList<>();
+    for (RankedModel model : island.getEvolution().getPopulation()) {
+      result.add(fitness(model.getFitness()));
+    }
+    return result;
+  }
+
+  private static Configuration createConfig(String topology) {
+    Configuration config = new Configuration();
+    config.setMigrationTopology(topology);
+    config.setMigrantCount(1);
+    return config;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.runner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.model.Model;
+import com.newtowndata.math.model.RankedModel;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class IslandTest {
+
+  @Test
+  void maxSameLoops() {
+    Configuration config = new Configuration();
+    config.setMaxSameLoops(1);
+    Island island = new Island(1, createPopulation(0.5));
+
+    island.getEvolution().setPopulation(createPopulation(0.6));
+    island.endGeneration();
+    for (int i = 0; i < 2; i++) {
+      assertFalse(island.isFinished(config));
+      island.getEvolution().setPopulation(createPopulation(0.6));
+      island.endGeneration();
+    }
+    assertTrue(island.isFinished(config));
+  }
+
+  @Test
+  void maxIterations() {
+    Configuration config = new Configuration();
+    config.setMaxIterations(1);
+    Island island = new Island(1, createPopulation(0.5));
+    assertFalse(island.isFinished(config));
+
+    island.getEvolution().setPopulation(createPopulation(0.6));
+    island.endGeneration();
+    assertTrue(island.isFinished(config));
+  }
+
+  @Test
+  void addOffspring() {
+    Island island = new Island(1, createPopulation(0.5));
+    island.addOffspring(10, 2, 4);
+    island.addOffspring(5, 1, 1);
+    assertEquals(15, island.getOffspringCount());
+    assertEquals(3, island.getPrunedCount());
+    assertEquals(5, island.getDuplicateCount());
+    assertEquals(5, island.getLastOffspringCount());
+    assertEquals(1, island.getLastDuplicateCount());
+  }
+
+  @Test
+  void getBestModels() {
+    RankedModel best = new RankedModel(new Model(new ConstantNode(1)), 0.5);
+    RankedModel worst = new RankedModel(new Model(new ConstantNode(2)), 0.1);
+    Island island = new Island(2, new ArrayList<>(List.of(worst, best)));
+
+    assertEquals(List.of(best), island.getBestModels(1));
+    assertEquals(List.of(best, worst), island.getBestModels(3));
+  }
+
+  private static List<RankedModel> createPopulation(double fitness) {
+    return new ArrayList<>(List.of(new RankedModel(new Model(new ConstantNode(fitness)),
+        fitness)));
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.runner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.newtowndata.math.config.Configuration;
+import org.junit.jupiter.api.Test;
+
+class SteadyStateLimitsTest {
+
+  @Test
+  void maxIterations() {
+    Configuration config = createConfig();
+    config.setMaxIterations(2);
+    SteadyStateLimits limits = new SteadyStateLimits(config, 0);
+    assertEquals(3, limits.getOffspringPerIteration());
+
+    for (int i = 0; i < 6; i++) {
+      assertFalse(limits.isReached());
+      limits.recordFitness(limits.nextOffspring(), i);
+    }
+    assertFalse(limits.isReached());
+    limits.nextOffspring();
+    assertTrue(limits.isReached());
+    assertEquals(7, limits.getEvaluationCount());
+    assertEquals(2, limits.getIterationCount());
+  }
+
+  @Test
+  void maxSameLoops() {
+    Configuration config = createConfig();
+    config.setMaxSameLoops(1);
+    SteadyStateLimits limits = new SteadyStateLimits(config, 0.5);
+
+    // improvement by the first offspring, then a generation equivalent without one
+    limits.recordFitness(limits.nextOffspring(), 0.6);
+    for (int i = 0; i < 2; i++) {
+      limits.recordFitness(limits.nextOffspring(), 0.6);
+    }
+    assertFalse(limits.isReached());
+    limits.recordFitness(limits.nextOffspring(), 0.1);
+    assertTrue(limits.isReached());
+  }
+
+  @Test
+  void stop() {
+    SteadyStateLimits limits = new SteadyStateLimits(createConfig(), 0);
+    assertFalse(limits.isReached());
+    limits.stop();
+    assertTrue(limits.isReached());
+  }
+
+  private static Configuration createConfig() {
+    Configuration config = new Configuration();
+    config.setMutationSize(1);
+    config.setCrossoverSize(1);
+    config.setReplaceableSize(1);
+    return config;
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.runner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ThreadUtilizationTest {
+
+  @Mock
+  CoreRuntime coreRuntime;
+
+  @Test
+  void noGeneration() {
+    ThreadUtilization utilization = new ThreadUtilization(coreRuntime);
+    assertEquals(0, utilization.getUtilization());
+    assertEquals(0, utilization.getSerialFraction());
+    utilization.log("Last generation");
+  }
+
+  @Test
+  void generation() throws InterruptedException {
+    when(coreRuntime.getThreadCount()).thenReturn(2);
+    when(coreRuntime.getBusyTimeNanos()).thenReturn(0L, 1_000_000L);
+
+    ThreadUtilization utilization = new ThreadUtilization(coreRuntime);
+    utilization.startGeneration();
+    Thread.sleep(10);
+    utilization.addBatchTime(1_000_000L);
+    utilization.endGeneration();
+
+    // 1 ms of busy thread time out of at least 2 x 10 ms
+    assertTrue(utilization.getUtilization() > 0);
+    assertTrue(utilization.getUtilization() <= 0.05);
+    assertTrue(utilization.getSerialFraction() >= 0.9);
+    assertTrue(utilization.getSerialFraction() < 1);
+    utilization.log("Last generation");
+  }
+}
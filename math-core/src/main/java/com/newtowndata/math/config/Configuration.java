@@ -40,6 +40,38 @@ public class Configuration {
 
   private double modelSizeImportance;
 
+  private String evaluationBackend;
+  private int compileThreshold;
+
+  private int subsampleSize;
+  private double subsampleMargin;
+
+  private int fitnessCacheSize;
+  private int subtreeCacheSizeInMb;
+  private boolean incrementalEvaluation;
+
+  private String representation;
+  private String evolutionMode;
+
+  private int islandCount;
+  private int migrationInterval;
+  private int migrantCount;
+  private String migrationTopology;
+
+  private int coordinatorPort;
+
+  private int evaluationPort;
+  private int evaluationWorkers;
+  private String evaluationSharding;
+
+  private long randomSeed;
+
+  private String parentSelection;
+  private int tournamentSize;
+  private int lexicaseCases;
+
+  private boolean semanticDeduplication;
+
   /**
    * Default configuration
    */
@@ -66,6 +98,38 @@ public class Configuration {
     this.threadCount = 0; // = CPU
 
     this.modelSizeImportance = 1e-3; // 0.1%
+
+    this.evaluationBackend = "program";
+    this.compileThreshold = 3; // 0 = never
+
+    this.subsampleSize = 0; // 0 = all rows
+    this.subsampleMargin = 0.05;
+
+    this.fitnessCacheSize = 100000; // 0 = disabled
+    this.subtreeCacheSizeInMb = 0; // 0 = disabled
+    this.incrementalEvaluation = false;
+
+    this.representation = "tree";
+    this.evolutionMode = "generational";
+
+    this.islandCount = 1; // 1 = single population
+    this.migrationInterval = 10;
+    this.migrantCount = 10;
+    this.migrationTopology = "ring";
+
+    this.coordinatorPort = 0; // 0 = single process
+
+    this.evaluationPort = 0; // 0 = local threads
+    this.evaluationWorkers = 0;
+    this.evaluationSharding = "models";
+
+    this.randomSeed = 0; // 0 = new seed every run
+
+    this.parentSelection = "random";
+    this.tournamentSize = 4;
+    this.lexicaseCases = 100;
+
+    this.semanticDeduplication = true;
   }
 
   public int getMaxDurationInSec() {
@@ -204,6 +268,182 @@ public class Configuration {
     this.modelSizeImportance = modelSizeImportance;
   }
 
+  public String getEvaluationBackend() {
+    return evaluationBackend;
+  }
+
+  public void setEvaluationBackend(String evaluationBackend) {
+    this.evaluationBackend = evaluationBackend;
+  }
+
+  public int getCompileThreshold() {
+    return compileThreshold;
+  }
+
+  public void setCompileThreshold(int compileThreshold) {
+    this.compileThreshold = compileThreshold;
+  }
+
+  public int getSubsampleSize() {
+    return subsampleSize;
+  }
+
+  public void setSubsampleSize(int subsampleSize) {
+    this.subsampleSize = subsampleSize;
+  }
+
+  public double getSubsampleMargin() {
+    return subsampleMargin;
+  }
+
+  public void setSubsampleMargin(double subsampleMargin) {
+    this.subsampleMargin = subsampleMargin;
+  }
+
+  public int getFitnessCacheSize() {
+    return fitnessCacheSize;
+  }
+
+  public void setFitnessCacheSize(int fitnessCacheSize) {
+    this.fitnessCacheSize = fitnessCacheSize;
+  }
+
+  public int getSubtreeCacheSizeInMb() {
+    return subtreeCacheSizeInMb;
+  }
+
+  public void setSubtreeCacheSizeInMb(int subtreeCacheSizeInMb) {
+    this.subtreeCacheSizeInMb = subtreeCacheSizeInMb;
+  }
+
+  public boolean isIncrementalEvaluation() {
+    return incrementalEvaluation;
+  }
+
+  public void setIncrementalEvaluation(boolean incrementalEvaluation) {
+    this.incrementalEvaluation = incrementalEvaluation;
+  }
+
+  public String getRepresentation() {
+    return representation;
+  }
+
+  public void setRepresentation(String representation) {
+    this.representation = representation;
+  }
+
+  public String getEvolutionMode() {
+    return evolutionMode;
+  }
+
+  public void setEvolutionMode(String evolutionMode) {
+    this.evolutionMode = evolutionMode;
+  }
+
+  public int getIslandCount() {
+    return islandCount;
+  }
+
+  public void setIslandCount(int islandCount) {
+    this.islandCount = islandCount;
+  }
+
+  public int getMigrationInterval() {
+    return migrationInterval;
+  }
+
+  public void setMigrationInterval(int migrationInterval) {
+    this.migrationInterval = migrationInterval;
+  }
+
+  public int getMigrantCount() {
+    return migrantCount;
+  }
+
+  public void setMigrantCount(int migrantCount) {
+    this.migrantCount = migrantCount;
+  }
+
+  public String getMigrationTopology() {
+    return migrationTopology;
+  }
+
+  public void setMigrationTopology(String migrationTopology) {
+    this.migrationTopology = migrationTopology;
+  }
+
+  public int getCoordinatorPort() {
+    return coordinatorPort;
+  }
+
+  public void setCoordinatorPort(int coordinatorPort) {
+    this.coordinatorPort = coordinatorPort;
+  }
+
+  public int getEvaluationPort() {
+    return evaluationPort;
+  }
+
+  public void setEvaluationPort(int evaluationPort) {
+    this.evaluationPort = evaluationPort;
+  }
+
+  public int getEvaluationWorkers() {
+    return evaluationWorkers;
+  }
+
+  public void setEvaluationWorkers(int evaluationWorkers) {
+    this.evaluationWorkers = evaluationWorkers;
+  }
+
+  public String getEvaluationSharding() {
+    return evaluationSharding;
+  }
+
+  public void setEvaluationSharding(String evaluationSharding) {
+    this.evaluationSharding = evaluationSharding;
+  }
+
+  public long getRandomSeed() {
+    return randomSeed;
+  }
+
+  public void setRandomSeed(long randomSeed) {
+    this.randomSeed = randomSeed;
+  }
+
+  public String getParentSelection() {
+    return parentSelection;
+  }
+
+  public void setParentSelection(String parentSelection) {
+    this.parentSelection = parentSelection;
+  }
+
+  public int getTournamentSize() {
+    return tournamentSize;
+  }
+
+  public void setTournamentSize(int tournamentSize) {
+    this.tournamentSize = tournamentSize;
+  }
+
+  public int getLexicaseCases() {
+    return lexicaseCases;
+  }
+
+  public void setLexicaseCases(int lexicaseCases) {
+    this.lexicaseCases = lexicaseCases;
+  }
+
+  public boolean isSemanticDeduplication() {
+    return semanticDeduplication;
+  }
+
+  public void setSemanticDeduplication(boolean semanticDeduplication) {
+    this.semanticDeduplication = semanticDeduplication;
+  }
+
   @Override
   public String toString() {
     try {
@@ -14,6 +14,7 @@
 package com.newtowndata.math.config;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.util.Properties;
 import java.util.logging.Logger;
@@ -54,6 +55,8 @@ public final class ConfigurationLoader {
           field.set(config, stringValue);
         } else if (double.class.equals(fieldType)) {
           field.setDouble(config, loadDouble(props, propertyName));
+        } else if (long.class.equals(fieldType)) {
+          field.setLong(config, loadLong(props, propertyName));
         } else {
           throw new IllegalStateException(
               "Unsupported field " + name + " type " + fieldType.getName());
@@ -65,6 +68,25 @@ public final class ConfigurationLoader {
     }
   }
 
+  /**
+   * Writes the configuration as properties readable by {@link #fromStream(InputStream)}.
+   */
+  public static void toStream(Configuration config, OutputStream outputStream) {
+    try {
+      Properties props = new Properties();
+      for (Field field : Configuration.class.getDeclaredFields()) {
+        field.setAccessible(true);
+        Object value = field.get(config);
+        if (value != null) {
+          props.setProperty(fieldToPropertyName(field.getName()), String.valueOf(value));
+        }
+      }
+      props.store(outputStream, null);
+    } catch (Exception e) {
+      throw new IllegalArgumentException("Cannot write configuration to stream", e);
+    }
+  }
+
   static String fieldToPropertyName(String name) {
     StringBuilder sb = new StringBuilder();
 
@@ -87,6 +109,14 @@ public final class ConfigurationLoader {
     }
   }
 
+  private static long loadLong(Properties props, String key) {
+    try {
+      return Long.parseLong(props.getProperty(key));
+    } catch (Exception e) {
+      throw new IllegalArgumentException("Cannot load key " + key, e);
+    }
+  }
+
   private static double loadDouble(Properties props, String key) {
     try {
       return Double.parseDouble(props.getProperty(key));
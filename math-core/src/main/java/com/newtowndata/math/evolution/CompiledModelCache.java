@@ -0,0 +1,141 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.evolution;
+
+import com.newtowndata.math.genetics.program.CompiledModel;
+import com.newtowndata.math.model.Model;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the evaluations of every model structure by its fingerprint and compiles the structures
+ * evaluated repeatedly, all models of the structure share the compiled class.
+ *
+ * <p>Offspring are new model instances, a structure created again - mostly one pruned before,
+ * pruned models are not in the fitness cache - is counted together with the earlier ones. The
+ * cache is bounded and split into stripes like {@link FitnessCache}.
+ */
+public class CompiledModelCache {
+
+  private static final int MAX_STRIPE_COUNT = 16;
+  private static final int MIN_STRIPE_SIZE = 64;
+
+  private final int threshold;
+  private final Stripe[] stripes;
+
+  private final LongAdder compilations = new LongAdder();
+  private final LongAdder compiledEvaluations = new LongAdder();
+
+  /**
+   * @param threshold number of evaluations of a structure after which it is compiled
+   * @param maxSize   highest number of structures kept
+   */
+  public CompiledModelCache(int threshold, int maxSize) {
+    if (threshold <= 0) {
+      throw new IllegalArgumentException("Compile threshold must be positive: " + threshold);
+    }
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+    }
+    this.threshold = threshold;
+
+    int stripeCount = Math.min(MAX_STRIPE_COUNT,
+        Math.max(1, Integer.highestOneBit(maxSize / MIN_STRIPE_SIZE)));
+    this.stripes = new Stripe[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new Stripe(maxSize / stripeCount + (i < maxSize % stripeCount ? 1 : 0));
+    }
+  }
+
+  /**
+   * Counts one more evaluation of the model structure.
+   *
+   * @return the compiled structure once it is evaluated at least threshold times, {@code null}
+   *     before or if the model cannot be compiled
+   */
+  public CompiledModel countEvaluation(Model model) {
+    long fingerprint = model.getFingerprint();
+    Stripe stripe = stripes[(int) (fingerprint >>> 58) & (stripes.length - 1)];
+    Entry entry;
+    int count;
+    synchronized (stripe) {
+      entry = stripe.computeIfAbsent(fingerprint, key -> new Entry());
+      count = ++entry.count;
+    }
+
+    CompiledModel compiled = entry.compiled;
+    if (compiled == null && count >= threshold && !entry.unsupported) {
+      // compiling twice from concurrent threads is harmless, both classes are equal
+      compiled = model.getCompiledModel();
+      if (compiled == null) {
+        entry.unsupported = true;
+      } else {
+        entry.compiled = compiled;
+        compilations.increment();
+      }
+    }
+    if (compiled != null) {
+      compiledEvaluations.increment();
+    }
+    return compiled;
+  }
+
+  public long getCompilationCount() {
+    return compilations.sum();
+  }
+
+  public long getCompiledEvaluationCount() {
+    return compiledEvaluations.sum();
+  }
+
+  public int size() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size();
+      }
+    }
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(Locale.ENGLISH, "size %d, compiled %d, compiled evaluations %d",
+        size(), getCompilationCount(), getCompiledEvaluationCount());
+  }
+
+  private static class Entry {
+
+    private int count;
+    private volatile CompiledModel compiled;
+    private volatile boolean unsupported;
+  }
+
+  private static class Stripe extends LinkedHashMap<Long, Entry> {
+
+    private final int maxSize;
+
+    Stripe(int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+      return size() > maxSize;
+    }
+  }
+}
@@ -14,32 +14,89 @@
 package com.newtowndata.math.evolution;
 
 import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.genetics.program.ColumnKernels;
+import com.newtowndata.math.genetics.program.ColumnKernelsProvider;
+import com.newtowndata.math.genetics.program.CompiledModel;
+import com.newtowndata.math.genetics.program.NodeColumns;
+import com.newtowndata.math.genetics.program.Program;
+import com.newtowndata.math.genetics.program.SubtreeColumnCache;
+import com.newtowndata.math.input.ColumnarData;
 import com.newtowndata.math.input.DataInput;
 import com.newtowndata.math.input.DataRow;
 import com.newtowndata.math.model.Model;
 import com.newtowndata.math.model.RankedModel;
 import com.newtowndata.math.statistic.Statistics;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 
 public class Evaluator {
 
   private static final double MINIMUM_VALUE = 1e-100;
   private static final double NO_CORRELATION = 0;
 
+  // rows evaluated at once, small enough for the stack buffers to stay in the CPU cache
+  static final int BLOCK_SIZE = 1024;
+
+  // the bound sums the remaining rows at once, so it may be a few ulps off the row by row sum
+  private static final double BOUND_TOLERANCE = 1e-12;
+
+  // structures counted for the compilation, compiled classes of the evicted ones can be unloaded
+  private static final int COMPILED_CACHE_SIZE = 4096;
+
+  // fixed, every model is compared on the same rows in every run
+  private static final long SUBSAMPLE_SEED = 0;
+
+  // outputs equal up to the rounding of the last bits of the mantissa get the same semantic hash
+  private static final int HASH_DROPPED_BITS = 20;
+  private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+  private final Configuration configuration;
+  private final DataInput dataInput;
+  private final double yRange;
   private final int maxNodes;
 
-  private final DataRow[] input;
+  private final ColumnKernels kernels;
+  private final CompiledModelCache compiledModelCache;
+  private final ThreadLocal<double[][]> buffers = ThreadLocal.withInitial(() -> new double[0][]);
+
+  private final EvaluationData data;
+  private final EvaluationData subsample;
+  private final double subsampleMargin;
 
-  private final int yCount;
-  private final double[] yValues;
-  private final double[] yAbsValues;
+  private final FitnessCache fitnessCache;
+  private final SubtreeColumnCache subtreeCache;
+  private final boolean incrementalEvaluation;
+
+  // rows compared by the lexicase selection, the errors are recorded only when it is used
+  private final int[] caseRows;
+  private final boolean recordRowErrors;
+  private final boolean semanticHashing;
 
   private final double correlationRatio;
   private final double modelSizeRatio;
 
   public Evaluator(Configuration configuration, DataInput dataInput) {
+    this(configuration, dataInput, Double.NaN);
+  }
+
+  /**
+   * Creates the evaluator of a part of the rows.
+   *
+   * @param yRange difference of the highest and lowest {@code y} of all rows, replaces {@code |y|}
+   *               of rows with {@code y} close to 0, or {@link Double#NaN} to use the given rows
+   */
+  public Evaluator(Configuration configuration, DataInput dataInput, double yRange) {
+    this.configuration = configuration;
+    this.dataInput = dataInput;
     this.maxNodes = configuration.getMaxNodes();
 
-    this.input = dataInput.getRows().toArray(new DataRow[0]);
+    this.kernels = ColumnKernelsProvider.provide(configuration.getEvaluationBackend());
+    int compileThreshold = configuration.getCompileThreshold();
+    this.compiledModelCache = compileThreshold > 0
+        ? new CompiledModelCache(compileThreshold, COMPILED_CACHE_SIZE) : null;
 
     if (configuration.getModelSizeImportance() > 1.0) {
       throw new IllegalArgumentException("Model size importance must be lower or equal to 1");
@@ -49,53 +106,431 @@ public class Evaluator {
     this.modelSizeRatio = configuration.getModelSizeImportance();
 
     Statistics statistics = Statistics.forList(dataInput.getRows(), DataRow::getY);
-    this.yCount = statistics.getCount();
-    this.yValues = statistics.getValues();
+    int yCount = statistics.getCount();
+    double[] yValues = statistics.getValues();
 
-    double minMaxDistance = statistics.getMinMaxDistance();
+    this.yRange = Double.isNaN(yRange) ? statistics.getMinMaxDistance() : yRange;
+    double minMaxDistance = this.yRange;
     if (minMaxDistance < MINIMUM_VALUE) {
       minMaxDistance = MINIMUM_VALUE;
     }
 
-    this.yAbsValues = new double[yCount];
+    double[] yAbsValues = new double[yCount];
     for (int i = 0; i < yCount; i++) {
       yAbsValues[i] = Math.abs(yValues[i]);
       if (yAbsValues[i] < MINIMUM_VALUE) {
         yAbsValues[i] = minMaxDistance;
       }
     }
+
+    this.data = new EvaluationData(dataInput.getColumnarData(), yValues, yAbsValues);
+
+    int subsampleSize = configuration.getSubsampleSize();
+    if (subsampleSize > 0 && subsampleSize < yCount) {
+      this.subsample = createSubsample(dataInput, subsampleSize, yValues, yAbsValues);
+    } else {
+      this.subsample = null;
+    }
+    this.subsampleMargin = configuration.getSubsampleMargin();
+
+    int fitnessCacheSize = configuration.getFitnessCacheSize();
+    this.fitnessCache = fitnessCacheSize > 0 ? new FitnessCache(fitnessCacheSize) : null;
+
+    int subtreeCacheSizeInMb = configuration.getSubtreeCacheSizeInMb();
+    this.subtreeCache = subtreeCacheSizeInMb > 0 ? new SubtreeColumnCache(data.input, kernels,
+        subtreeCacheSizeInMb * 1024L * 1024L) : null;
+    this.incrementalEvaluation = configuration.isIncrementalEvaluation();
+
+    this.caseRows = createCaseRows(yCount, configuration.getLexicaseCases());
+    this.recordRowErrors = ParentSelectionProvider.LEXICASE.equals(
+        configuration.getParentSelection());
+    this.semanticHashing = configuration.isSemanticDeduplication();
+  }
+
+  private static int[] createCaseRows(int yCount, int cases) {
+    int count = Math.max(Math.min(cases, yCount), 0);
+    int[] rows = new int[count];
+    for (int i = 0; i < count; i++) {
+      // evenly spaced, so sorted input does not make the cases alike
+      rows[i] = (int) ((long) i * yCount / count);
+    }
+    return rows;
+  }
+
+  private static EvaluationData createSubsample(DataInput dataInput, int size, double[] yValues,
+      double[] yAbsValues) {
+    List<Integer> indices = new ArrayList<>(yValues.length);
+    for (int i = 0; i < yValues.length; i++) {
+      indices.add(i);
+    }
+    Collections.shuffle(indices, new Random(SUBSAMPLE_SEED));
+    indices = indices.subList(0, size);
+    // keep the input order for the memory access
+    Collections.sort(indices);
+
+    List<DataRow> rows = new ArrayList<>(size);
+    double[] sampleYValues = new double[size];
+    double[] sampleYAbsValues = new double[size];
+    for (int i = 0; i < size; i++) {
+      int index = indices.get(i);
+      rows.add(dataInput.getRows().get(index));
+      sampleYValues[i] = yValues[index];
+      sampleYAbsValues[i] = yAbsValues[index];
+    }
+
+    ColumnarData input = new ColumnarData(rows, dataInput.getXLength(),
+        dataInput.getColumnarData().getGroups());
+    return new EvaluationData(input, sampleYValues, sampleYAbsValues);
   }
 
   public RankedModel evaluate(Model model) {
+    return evaluate(model, Double.NEGATIVE_INFINITY);
+  }
+
+  /**
+   * Evaluates the model, but stops as soon as its fitness cannot reach the threshold.
+   *
+   * <p>With a subsample configured, the model is first evaluated on the subsample and only
+   * models within the subsample margin of the threshold are evaluated on all rows. The fitness
+   * returned is always the one of all rows.
+   *
+   * @param threshold lowest fitness worth the full evaluation
+   * @return ranked model, or a pruned model if the fitness would be lower than the threshold
+   */
+  public RankedModel evaluate(Model model, double threshold) {
+    RankedModel known = evaluateKnown(model, threshold);
+    if (known != null) {
+      return known;
+    }
+
+    boolean raced = subsample != null && threshold > Double.NEGATIVE_INFINITY;
+    // the column caches are keyed by the shared nodes of tree models, genomes have none
+    boolean columnar = model.getGenome() == null && (incrementalEvaluation
+        || subtreeCache != null);
+    // only structures evaluated repeatedly are worth the bytecode generation
+    CompiledModel compiledModel = compiledModelCache != null && (raced || !columnar)
+        ? compiledModelCache.countEvaluation(model) : null;
+    double modelSize = (maxNodes - model.getSize()) / (double) maxNodes;
+    double[] rowErrors = recordRowErrors ? new double[caseRows.length] : null;
+
+    if (raced) {
+      double sampleThreshold = threshold - subsampleMargin;
+      double sampleFitness = evaluate(subsample, model, compiledModel, modelSize,
+          sampleThreshold, null);
+      if (Double.isNaN(sampleFitness) || sampleFitness < sampleThreshold - BOUND_TOLERANCE) {
+        return RankedModel.pruned(model);
+      }
+    }
+
+    // column caches compute whole columns, so only the subsample can stop early
+    double fitness;
+    if (columnar && incrementalEvaluation) {
+      NodeColumns columns = NodeColumns.evaluate(model.getRoot(), data.input, kernels,
+          model.getParentColumns());
+      model.setColumns(columns);
+      fitness = evaluateColumn(model, columns.getOutput(), modelSize, rowErrors);
+    } else if (columnar) {
+      fitness = evaluateColumn(model, subtreeCache.evaluate(model.getRoot()), modelSize,
+          rowErrors);
+    } else {
+      fitness = evaluate(data, model, compiledModel, modelSize, threshold, rowErrors);
+    }
+    if (rowErrors != null && !Double.isNaN(fitness)) {
+      model.setRowErrors(rowErrors);
+    }
+    return rank(model, fitness);
+  }
+
+  /**
+   * Returns the result known without evaluating the rows - of a model over the size limit or of
+   * a cached model, otherwise {@code null}.
+   */
+  public RankedModel evaluateKnown(Model model, double threshold) {
     if (model.getSize() > maxNodes) {
       return new RankedModel(model, NO_CORRELATION);
     }
 
-    double similaritySum = 0;
-    for (int i = 0; i < yCount; i++) {
-      double result;
-      try {
-        result = model.evaluate(input[i]);
-        if (!Double.isFinite(result)) {
-          result = Long.MAX_VALUE;
+    if (fitnessCache != null) {
+      FitnessCache.Entry cached = fitnessCache.getEntry(model.getFingerprint());
+      if (cached != null) {
+        // known whether or not the model is in the cache, so the deduplication does not depend
+        // on the content of the cache
+        if (cached.getSemanticHash() != 0) {
+          model.setSemanticHash(cached.getSemanticHash());
         }
-      } catch (IllegalStateException e) {
+        double cachedFitness = cached.getFitness();
+        return cachedFitness < threshold - BOUND_TOLERANCE ? RankedModel.pruned(model)
+            : new RankedModel(model, cachedFitness);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns whether the model is pruned or its fitness is lower than the threshold. Unlike
+   * {@link RankedModel#isPruned()}, the result does not depend on the content of the cache.
+   */
+  public static boolean isBelowThreshold(RankedModel model, double threshold) {
+    return model.isPruned() || model.getFitness() < threshold - BOUND_TOLERANCE;
+  }
+
+  /**
+   * Ranks the model by a fitness evaluated elsewhere, {@link Double#NaN} marks a pruned model.
+   */
+  public RankedModel rank(Model model, double fitness) {
+    if (Double.isNaN(fitness)) {
+      return RankedModel.pruned(model);
+    }
+
+    if (fitnessCache != null) {
+      fitnessCache.put(model.getFingerprint(), fitness, model.getSemanticHash());
+    }
+    return new RankedModel(model, fitness);
+  }
+
+  /**
+   * Returns the sum of the row similarities of all rows, the fitness of rows split among several
+   * evaluators is computed from the total by {@link #rankSimilaritySum}.
+   */
+  public double evaluateSimilaritySum(Model model) {
+    Program program = model.getProgram();
+    double[][] stack = getBuffers(program.getMaxStackSize() + 1);
+    double[] output = stack[stack.length - 1];
+
+    int yCount = data.yValues.length;
+    double similaritySum = 0;
+    for (int from = 0; from < yCount; from += BLOCK_SIZE) {
+      int to = Math.min(from + BLOCK_SIZE, yCount);
+      program.evaluate(data.input, from, to, output, stack, kernels);
+      similaritySum = addSimilarity(similaritySum, data, output, from, from, to);
+    }
+    return similaritySum;
+  }
+
+  /**
+   * Ranks the model by the similarity sum of all rows of this evaluator.
+   */
+  public RankedModel rankSimilaritySum(Model model, double similaritySum, double threshold) {
+    double modelSize = (maxNodes - model.getSize()) / (double) maxNodes;
+    double fitness = calculateFitness(similaritySum, data.yValues.length, modelSize);
+    return rank(model, fitness < threshold - BOUND_TOLERANCE ? Double.NaN : fitness);
+  }
+
+  /**
+   * Returns the errors {@code |y - f(x)| / |y|} of the lexicase case rows, infinite for rows out
+   * of range. The errors recorded by the evaluation are reused, a model known from the cache or
+   * evaluated elsewhere is evaluated on the case rows only.
+   */
+  public double[] getRowErrors(Model model) {
+    double[] rowErrors = model.getRowErrors();
+    if (rowErrors == null) {
+      rowErrors = new double[caseRows.length];
+      Program program = model.getProgram();
+      double[] stack = program.createStack();
+      for (int i = 0; i < caseRows.length; i++) {
+        int row = caseRows[i];
+        rowErrors[i] = rowError(row, program.evaluate(dataInput.getRows().get(row), stack));
+      }
+      model.setRowErrors(rowErrors);
+    }
+    return rowErrors;
+  }
+
+  /**
+   * Returns the number of the lexicase case rows, see {@link #getRowErrors(Model)}.
+   */
+  public int getCaseCount() {
+    return caseRows.length;
+  }
+
+  public Configuration getConfiguration() {
+    return configuration;
+  }
+
+  public DataInput getDataInput() {
+    return dataInput;
+  }
+
+  /**
+   * Returns the difference of the highest and lowest {@code y}, see
+   * {@link #Evaluator(Configuration, DataInput, double)}.
+   */
+  public double getYRange() {
+    return yRange;
+  }
+
+  /**
+   * Returns the fitness cache, or {@code null} if the cache is disabled.
+   */
+  public FitnessCache getFitnessCache() {
+    return fitnessCache;
+  }
+
+  /**
+   * Returns the counts of the evaluated structures, or {@code null} if models are not compiled.
+   */
+  public CompiledModelCache getCompiledModelCache() {
+    return compiledModelCache;
+  }
+
+  /**
+   * Returns the subtree output cache, or {@code null} if the cache is disabled.
+   */
+  public SubtreeColumnCache getSubtreeCache() {
+    return subtreeCache;
+  }
+
+  /**
+   * Returns the fitness on the given rows, or {@link Double#NaN} if it cannot reach the threshold.
+   * The semantic hash of the model is set when all rows are evaluated.
+   *
+   * @param rowErrors errors of the case rows to fill, or {@code null}
+   */
+  private double evaluate(EvaluationData evaluationData, Model model,
+      CompiledModel compiledModel, double modelSize, double threshold, double[] rowErrors) {
+    Program program = model.getProgram();
+    double[][] stack = getBuffers(program.getMaxStackSize() + 1);
+    double[] output = stack[stack.length - 1];
+
+    ColumnarData input = evaluationData.input;
+    int yCount = evaluationData.yValues.length;
+    boolean hashing = semanticHashing && evaluationData == data;
+
+    double similaritySum = 0;
+    long hash = 0;
+    for (int from = 0; from < yCount; from += BLOCK_SIZE) {
+      int to = Math.min(from + BLOCK_SIZE, yCount);
+      if (compiledModel != null) {
+        compiledModel.evaluate(input, from, to, output);
+      } else {
+        program.evaluate(input, from, to, output, stack, kernels);
+      }
+
+      similaritySum = addSimilarity(similaritySum, evaluationData, output, from, from, to);
+      if (rowErrors != null) {
+        recordRowErrors(rowErrors, output, from, from, to);
+      }
+      if (hashing) {
+        hash = addOutputHash(hash, output, to - from);
+      }
+
+      // every remaining row adds at most 1 to the similarity sum
+      if (to < yCount && calculateFitness(similaritySum + (yCount - to), yCount, modelSize)
+          < threshold - BOUND_TOLERANCE) {
+        return Double.NaN;
+      }
+    }
+
+    if (hashing) {
+      setSemanticHash(model, hash);
+    }
+    return calculateFitness(similaritySum, yCount, modelSize);
+  }
+
+  /**
+   * Returns the fitness of the output column of all rows.
+   */
+  private double evaluateColumn(Model model, double[] output, double modelSize,
+      double[] rowErrors) {
+    int yCount = data.yValues.length;
+    double similaritySum = addSimilarity(0, data, output, 0, 0, yCount);
+    if (rowErrors != null) {
+      recordRowErrors(rowErrors, output, 0, 0, yCount);
+    }
+    if (semanticHashing) {
+      setSemanticHash(model, addOutputHash(0, output, yCount));
+    }
+    return calculateFitness(similaritySum, yCount, modelSize);
+  }
+
+  /**
+   * Adds the similarity of rows {@code <from, to)}, row {@code i} is {@code output[i - offset]}.
+   */
+  private static double addSimilarity(double similaritySum, EvaluationData evaluationData,
+      double[] output, int offset, int from, int to) {
+    double[] yValues = evaluationData.yValues;
+    double[] yAbsValues = evaluationData.yAbsValues;
+    for (int i = from; i < to; i++) {
+      double result = output[i - offset];
+      if (!Double.isFinite(result)) {
         result = Long.MAX_VALUE;
       }
 
       similaritySum += Math.exp(-Math.abs(yValues[i] - result) / yAbsValues[i]);
     }
+    return similaritySum;
+  }
 
+  /**
+   * Records the errors of the case rows among rows {@code <from, to)}, row {@code i} is
+   * {@code output[i - offset]}.
+   */
+  private void recordRowErrors(double[] rowErrors, double[] output, int offset, int from,
+      int to) {
+    int i = Arrays.binarySearch(caseRows, from);
+    for (i = i < 0 ? -i - 1 : i; i < caseRows.length && caseRows[i] < to; i++) {
+      rowErrors[i] = rowError(caseRows[i], output[caseRows[i] - offset]);
+    }
+  }
+
+  private static long addOutputHash(long hash, double[] output, int length) {
+    for (int i = 0; i < length; i++) {
+      hash = (hash ^ quantize(output[i])) * HASH_MULTIPLIER;
+    }
+    return hash;
+  }
+
+  /**
+   * Rounds off the last bits of the value, all values out of range are equal.
+   */
+  static long quantize(double value) {
+    if (!Double.isFinite(value)) {
+      return Long.MAX_VALUE;
+    }
+    // + 0.0 turns -0.0 into 0.0, a carry of the rounding moves to the exponent
+    long bits = Double.doubleToLongBits(value + 0.0);
+    return (bits + (1L << (HASH_DROPPED_BITS - 1))) >>> HASH_DROPPED_BITS;
+  }
+
+  private static void setSemanticHash(Model model, long hash) {
+    // 0 marks an unknown hash
+    model.setSemanticHash(hash == 0 ? 1 : hash);
+  }
+
+  private double rowError(int row, double result) {
+    return Double.isFinite(result) ? Math.abs(data.yValues[row] - result) / data.yAbsValues[row]
+        : Double.POSITIVE_INFINITY;
+  }
+
+  private double calculateFitness(double similaritySum, int yCount, double modelSize) {
     double correlation = similaritySum / (double) yCount;
 
     if (!Double.isFinite(correlation)) {
       correlation = NO_CORRELATION;
     }
 
-    double modelSize = (maxNodes - model.getSize()) / (double) maxNodes;
-    double fitness = correlation * correlationRatio + modelSize * modelSizeRatio;
+    return correlation * correlationRatio + modelSize * modelSizeRatio;
+  }
 
-    return new RankedModel(model, fitness);
+  private double[][] getBuffers(int count) {
+    double[][] current = buffers.get();
+    if (current.length < count) {
+      current = new double[count][BLOCK_SIZE];
+      buffers.set(current);
+    }
+    return current;
   }
 
+  private static class EvaluationData {
+
+    private final ColumnarData input;
+    private final double[] yValues;
+    private final double[] yAbsValues;
+
+    EvaluationData(ColumnarData input, double[] yValues, double[] yAbsValues) {
+      this.input = input;
+      this.yValues = yValues;
+      this.yAbsValues = yAbsValues;
+    }
+  }
 }
@@ -13,22 +13,29 @@
  */
 package com.newtowndata.math.evolution;
 
+import com.newtowndata.math.genetics.Random;
+import com.newtowndata.math.model.Model;
 import com.newtowndata.math.model.RankedModel;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 public class Evolution {
 
-  private final List<Integer> indexList;
-  private final List<Integer> indexListCrossover;
+  private final ParentSelection parentSelection;
 
   private List<RankedModel> population;
   private int evolutionStep = 0;
 
   public Evolution(int populationSize) {
-    this.indexList = createPopulationIndex(populationSize);
-    this.indexListCrossover = createPopulationIndex(populationSize);
+    this(populationSize, new RandomParentSelection(populationSize));
+  }
+
+  public Evolution(int populationSize, ParentSelection parentSelection) {
+    this.parentSelection = parentSelection;
 
     this.population = new ArrayList<>(populationSize);
   }
@@ -37,12 +44,55 @@ public class Evolution {
     return population;
   }
 
+  /**
+   * Replaces the population by the next generation.
+   *
+   * @param population models ordered best first, see {@link Selection}
+   */
   public void setPopulation(List<RankedModel> population) {
-    this.population = population;
-    Collections.sort(this.population);
+    replacePopulation(population);
     evolutionStep++;
   }
 
+  /**
+   * Replaces the worst models by migrants from another population, migrants already present are
+   * skipped. The evolution step does not change.
+   *
+   * @return number of models replaced
+   */
+  public int immigrate(List<RankedModel> migrants) {
+    Set<RankedModel> present = new HashSet<>(population);
+    List<RankedModel> newcomers = new ArrayList<>();
+    for (RankedModel migrant : migrants) {
+      if (newcomers.size() < population.size() && present.add(migrant)) {
+        newcomers.add(migrant);
+      }
+    }
+
+    List<RankedModel> newPopulation = new ArrayList<>(
+        population.subList(0, population.size() - newcomers.size()));
+    newPopulation.addAll(newcomers);
+    // two ordered runs, merged in linear time
+    Collections.sort(newPopulation);
+    replacePopulation(newPopulation);
+    return newcomers.size();
+  }
+
+  private void replacePopulation(List<RankedModel> population) {
+    // models leaving the population have no offspring anymore, their node columns can go
+    Set<Model> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (RankedModel rankedModel : population) {
+      kept.add(rankedModel.getModel());
+    }
+    for (RankedModel rankedModel : this.population) {
+      if (!kept.contains(rankedModel.getModel())) {
+        rankedModel.getModel().releaseColumns();
+      }
+    }
+
+    this.population = population;
+  }
+
   public int getEvolutionStep() {
     return evolutionStep;
   }
@@ -51,24 +101,18 @@ public class Evolution {
     return population.get(0);
   }
 
-  private List<Integer> createPopulationIndex(int populationSize) {
-    List<Integer> list = new ArrayList<>(populationSize);
-    for (int i = 0; i < populationSize; i++) {
-      list.add(i);
-    }
-    return list;
-  }
-
-  public void shuffleIndices() {
-    Collections.shuffle(indexList);
-    Collections.shuffle(indexListCrossover);
+  /**
+   * Prepares the parent selection of the next generation, see {@link ParentSelection}.
+   */
+  public void prepareSelection(Random random) {
+    parentSelection.prepare(population, random);
   }
 
-  public RankedModel getRandomModel(int index) {
-    return population.get(indexList.get(index));
+  public RankedModel selectParent(int slot, Random random) {
+    return population.get(parentSelection.select(slot, random));
   }
 
-  public RankedModel getRandomCrossoverModel(int index) {
-    return population.get(indexListCrossover.get(index));
+  public RankedModel selectPartner(int slot, Random random) {
+    return population.get(parentSelection.selectPartner(slot, random));
   }
 }
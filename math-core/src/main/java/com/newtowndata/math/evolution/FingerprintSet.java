@@ -0,0 +1,110 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.evolution;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Set of {@link com.newtowndata.math.genetics.NodeUtils#fingerprint model fingerprints} filled
+ * concurrently by the threads creating offspring.
+ *
+ * <p>The fingerprints are kept in a single primitive array with linear probing, a slot is taken
+ * by compare-and-set, so no lock is held and no object is allocated per fingerprint. The
+ * capacity is fixed at creation.
+ */
+public class FingerprintSet {
+
+  // marks an empty slot, the zero fingerprint is kept aside
+  private static final long EMPTY = 0;
+
+  private final AtomicLongArray slots;
+  private final int mask;
+  private final int maxSize;
+
+  private final AtomicBoolean containsZero = new AtomicBoolean();
+  private final AtomicInteger size = new AtomicInteger();
+
+  /**
+   * @param maxSize highest number of fingerprints added
+   */
+  public FingerprintSet(int maxSize) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("Invalid fingerprint set size " + maxSize);
+    }
+    // a power of two at least twice the size, so the probe sequences stay short
+    int capacity = Integer.highestOneBit(Math.max(maxSize, 1)) << 2;
+    this.slots = new AtomicLongArray(capacity);
+    this.mask = capacity - 1;
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Adds the fingerprint.
+   *
+   * @return {@code true} if the fingerprint was not present
+   */
+  public boolean add(long fingerprint) {
+    if (fingerprint == EMPTY) {
+      return containsZero.compareAndSet(false, true) && countAdded();
+    }
+
+    // fingerprints are well mixed, the low bits are the slot
+    int index = (int) fingerprint & mask;
+    while (true) {
+      long current = slots.get(index);
+      if (current == fingerprint) {
+        return false;
+      }
+      if (current == EMPTY) {
+        if (slots.compareAndSet(index, EMPTY, fingerprint)) {
+          return countAdded();
+        }
+        // taken by another thread meanwhile, the slot is checked again
+        continue;
+      }
+      index = (index + 1) & mask;
+    }
+  }
+
+  private boolean countAdded() {
+    if (size.incrementAndGet() > maxSize) {
+      throw new IllegalStateException("Fingerprint set is full: " + maxSize);
+    }
+    return true;
+  }
+
+  public boolean contains(long fingerprint) {
+    if (fingerprint == EMPTY) {
+      return containsZero.get();
+    }
+
+    int index = (int) fingerprint & mask;
+    while (true) {
+      long current = slots.get(index);
+      if (current == fingerprint) {
+        return true;
+      }
+      if (current == EMPTY) {
+        return false;
+      }
+      index = (index + 1) & mask;
+    }
+  }
+
+  public int size() {
+    return size.get();
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.evolution;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded fitness cache shared by all evaluation threads, keyed by
+ * {@link com.newtowndata.math.genetics.NodeUtils#fingerprint model fingerprint}.
+ *
+ * <p>The cache is split into stripes, each a small LRU map behind its own lock, so that
+ * concurrent evaluations rarely wait for each other.
+ */
+public class FitnessCache {
+
+  private static final int MAX_STRIPE_COUNT = 16;
+  private static final int MIN_STRIPE_SIZE = 64;
+
+  private final Stripe[] stripes;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public FitnessCache(int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+    }
+
+    // a power of two, small caches are not split at all
+    int stripeCount = Math.min(MAX_STRIPE_COUNT,
+        Math.max(1, Integer.highestOneBit(maxSize / MIN_STRIPE_SIZE)));
+    this.stripes = new Stripe[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new Stripe(maxSize / stripeCount + (i < maxSize % stripeCount ? 1 : 0));
+    }
+  }
+
+  /**
+   * Returns the cached fitness, or {@link Double#NaN} if the model is not cached.
+   */
+  public double get(long fingerprint) {
+    Entry entry = getEntry(fingerprint);
+    return entry == null ? Double.NaN : entry.getFitness();
+  }
+
+  /**
+   * Returns the cached fitness and semantic hash, or {@code null} if the model is not cached.
+   */
+  public Entry getEntry(long fingerprint) {
+    Stripe stripe = stripe(fingerprint);
+    Entry entry;
+    synchronized (stripe) {
+      entry = stripe.get(fingerprint);
+    }
+
+    if (entry == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return entry;
+  }
+
+  public void put(long fingerprint, double fitness) {
+    put(fingerprint, fitness, 0);
+  }
+
+  /**
+   * @param semanticHash see {@link com.newtowndata.math.model.Model#getSemanticHash()}
+   */
+  public void put(long fingerprint, double fitness, long semanticHash) {
+    Stripe stripe = stripe(fingerprint);
+    Entry entry = new Entry(fitness, semanticHash);
+    synchronized (stripe) {
+      stripe.put(fingerprint, entry);
+    }
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  public double getHitRate() {
+    long hitCount = getHitCount();
+    long total = hitCount + getMissCount();
+    return total == 0 ? 0 : hitCount / (double) total;
+  }
+
+  public int size() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size();
+      }
+    }
+    return size;
+  }
+
+  private Stripe stripe(long fingerprint) {
+    // fingerprints are well mixed, the high bits pick the stripe, the map uses the low ones
+    return stripes[(int) (fingerprint >>> 58) & (stripes.length - 1)];
+  }
+
+  @Override
+  public String toString() {
+    return String.format(Locale.ENGLISH, "size %d, hit rate %.1f%% (%d of %d), evictions %d",
+        size(), 100.0 * getHitRate(), getHitCount(), getHitCount() + getMissCount(),
+        getEvictionCount());
+  }
+
+  public static final class Entry {
+
+    private final double fitness;
+    private final long semanticHash;
+
+    Entry(double fitness, long semanticHash) {
+      this.fitness = fitness;
+      this.semanticHash = semanticHash;
+    }
+
+    public double getFitness() {
+      return fitness;
+    }
+
+    public long getSemanticHash() {
+      return semanticHash;
+    }
+  }
+
+  private class Stripe extends LinkedHashMap<Long, Entry> {
+
+    private final int maxSize;
+
+    Stripe(int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+      if (size() > maxSize) {
+        evictions.increment();
+        return true;
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.evolution;
+
+import com.newtowndata.math.genetics.Random;
+import com.newtowndata.math.model.RankedModel;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Epsilon-lexicase selection - the candidates are filtered by the case rows in random order, a
+ * candidate is kept if its error is within epsilon of the best error of the row. Epsilon is the
+ * median absolute deviation of the errors of the row in the population.
+ *
+ * <p>Models good on different parts of the data are selected, unlike by the mean fitness.
+ */
+public class LexicaseSelection implements ParentSelection {
+
+  private final Evaluator evaluator;
+  private final int caseCount;
+
+  private int populationSize;
+  // errors[c * populationSize + i] is the error of model i on case c
+  private double[] errors;
+  private double[] epsilons;
+
+  public LexicaseSelection(Evaluator evaluator) {
+    this.evaluator = evaluator;
+    this.caseCount = evaluator.getCaseCount();
+    if (caseCount < 1) {
+      throw new IllegalArgumentException("Invalid lexicase case count " + caseCount);
+    }
+  }
+
+  @Override
+  public void prepare(List<RankedModel> population, Random random) {
+    int size = population.size();
+    double[] newErrors = new double[caseCount * size];
+    for (int i = 0; i < size; i++) {
+      double[] rowErrors = evaluator.getRowErrors(population.get(i).getModel());
+      for (int c = 0; c < caseCount; c++) {
+        newErrors[c * size + i] = rowErrors[c];
+      }
+    }
+
+    double[] newEpsilons = new double[caseCount];
+    double[] buffer = new double[size];
+    for (int c = 0; c < caseCount; c++) {
+      newEpsilons[c] = medianAbsoluteDeviation(newErrors, c * size, size, buffer);
+    }
+
+    this.populationSize = size;
+    this.errors = newErrors;
+    this.epsilons = newEpsilons;
+  }
+
+  /**
+   * Returns the median absolute deviation of the finite values, or 0 if there are none.
+   */
+  static double medianAbsoluteDeviation(double[] values, int from, int length, double[] buffer) {
+    int count = 0;
+    for (int i = from; i < from + length; i++) {
+      if (Double.isFinite(values[i])) {
+        buffer[count++] = values[i];
+      }
+    }
+    if (count == 0) {
+      return 0;
+    }
+
+    double median = median(buffer, count);
+    for (int i = 0; i < count; i++) {
+      buffer[i] = Math.abs(buffer[i] - median);
+    }
+    return median(buffer, count);
+  }
+
+  private static double median(double[] values, int count) {
+    Arrays.sort(values, 0, count);
+    return count % 2 == 1 ? values[count / 2]
+        : (values[count / 2 - 1] + values[count / 2]) / 2.0;
+  }
+
+  @Override
+  public int select(int slot, Random random) {
+    int[] cases = new int[caseCount];
+    for (int c = 0; c < caseCount; c++) {
+      cases[c] = c;
+    }
+
+    // the whole population is the first pool, it is not copied
+    int[] pool = null;
+    int size = populationSize;
+    for (int k = 0; k < caseCount && size > 1; k++) {
+      // the next case of a lazy Fisher-Yates shuffle
+      int next = random.nextInt(k, caseCount - 1);
+      int c = cases[next];
+      cases[next] = cases[k];
+      cases[k] = c;
+
+      int base = c * populationSize;
+      double best = Double.POSITIVE_INFINITY;
+      for (int i = 0; i < size; i++) {
+        best = Math.min(best, errors[base + (pool == null ? i : pool[i])]);
+      }
+      // infinite errors pass only an infinite limit, i.e. when no model is in range
+      double limit = best + epsilons[c];
+
+      if (pool == null) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+          if (errors[base + i] <= limit) {
+            count++;
+          }
+        }
+        pool = new int[count];
+        count = 0;
+        for (int i = 0; i < size; i++) {
+          if (errors[base + i] <= limit) {
+            pool[count++] = i;
+          }
+        }
+        size = count;
+      } else {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+          if (errors[base + pool[i]] <= limit) {
+            pool[count++] = pool[i];
+          }
+        }
+        size = count;
+      }
+    }
+
+    int chosen = random.nextInt(0, size - 1);
+    return pool == null ? chosen : pool[chosen];
+  }
+}
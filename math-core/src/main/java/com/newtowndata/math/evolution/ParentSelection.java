@@ -0,0 +1,47 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.evolution;
+
+import com.newtowndata.math.genetics.Random;
+import com.newtowndata.math.model.RankedModel;
+import java.util.List;
+
+/**
+ * Chooses the parents of the offspring of a generation, see {@link ParentSelectionProvider}.
+ *
+ * <p>{@link #prepare} is called once per generation, the parents are then selected concurrently
+ * by the threads creating the offspring.
+ */
+public interface ParentSelection {
+
+  /**
+   * Prepares the selection from the population of the generation, ordered best first.
+   */
+  void prepare(List<RankedModel> population, Random random);
+
+  /**
+   * Returns the population index of a parent.
+   *
+   * @param slot   number of the parent in the generation, from 0 to the population size
+   * @param random stream of the offspring the parent is selected for
+   */
+  int select(int slot, Random random);
+
+  /**
+   * Returns the population index of the second parent of a crossover.
+   */
+  default int selectPartner(int slot, Random random) {
+    return select(slot, random);
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.evolution;
+
+import com.newtowndata.math.config.Configuration;
+
+public final class ParentSelectionProvider {
+
+  public static final String RANDOM = "random";
+  public static final String TOURNAMENT = "tournament";
+  public static final String LEXICASE = "lexicase";
+
+  private ParentSelectionProvider() {
+  }
+
+  /**
+   * Creates the parent selection of one population.
+   */
+  public static ParentSelection provide(Configuration config, Evaluator evaluator) {
+    String parentSelection = config.getParentSelection();
+    switch (parentSelection) {
+      case RANDOM:
+        return new RandomParentSelection(config.getPopulationSize());
+      case TOURNAMENT:
+        return new TournamentSelection(config.getTournamentSize());
+      case LEXICASE:
+        return new LexicaseSelection(evaluator);
+      default:
+        throw new IllegalArgumentException("Unknown parent selection " + parentSelection);
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.evolution;
+
+import com.newtowndata.math.genetics.Random;
+import com.newtowndata.math.model.RankedModel;
+import java.util.List;
+
+/**
+ * Takes the parents from random permutations of the population, so every model is a parent of
+ * the same number of offspring regardless of its fitness.
+ */
+public class RandomParentSelection implements ParentSelection {
+
+  private final int[] order;
+  private final int[] partnerOrder;
+
+  public RandomParentSelection(int populationSize) {
+    this.order = createIndices(populationSize);
+    this.partnerOrder = createIndices(populationSize);
+  }
+
+  private static int[] createIndices(int populationSize) {
+    int[] indices = new int[populationSize];
+    for (int i = 0; i < populationSize; i++) {
+      indices[i] = i;
+    }
+    return indices;
+  }
+
+  @Override
+  public void prepare(List<RankedModel> population, Random random) {
+    random.shuffle(order);
+    random.shuffle(partnerOrder);
+  }
+
+  @Override
+  public int select(int slot, Random random) {
+    return order[slot];
+  }
+
+  @Override
+  public int selectPartner(int slot, Random random) {
+    return partnerOrder[slot];
+  }
+}
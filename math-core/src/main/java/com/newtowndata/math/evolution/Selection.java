@@ -0,0 +1,247 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.evolution;
+
+import com.newtowndata.math.genetics.Random;
+import com.newtowndata.math.model.RankedModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Truncation and random survival over primitive fitness and index arrays. The elite is found by
+ * quickselect and only the elite is sorted, the survivors are sampled without shuffling all the
+ * candidates.
+ *
+ * <p>Models of equal fitness keep the order of the candidates, like a stable sort.
+ */
+public final class Selection {
+
+  private static final int INSERTION_SORT_SIZE = 16;
+
+  private Selection() {
+  }
+
+  /**
+   * Returns the next population ordered best first - the {@code eliteSize} best candidates,
+   * {@code survivalSize} candidates drawn at random from all the candidates and the newcomers.
+   *
+   * @param candidates current population and offspring in any order
+   */
+  public static List<RankedModel> nextPopulation(List<RankedModel> candidates, int eliteSize,
+      int survivalSize, List<RankedModel> newcomers, Random random) {
+    int size = candidates.size();
+    double[] fitness = new double[size];
+    for (int i = 0; i < size; i++) {
+      fitness[i] = candidates.get(i).getFitness();
+    }
+
+    int[] order = identity(size);
+    int elite = Math.max(0, Math.min(eliteSize, size));
+    selectBest(fitness, order, elite);
+    sortBest(fitness, order, 0, elite);
+
+    List<RankedModel> others = new ArrayList<>(survivalSize + newcomers.size());
+    for (int index : sample(size, Math.min(survivalSize, size), random)) {
+      others.add(candidates.get(index));
+    }
+    others.addAll(newcomers);
+    others.sort(null);
+
+    // merges the sorted elite and the sorted rest, the elite goes first among equal models
+    List<RankedModel> population = new ArrayList<>(elite + others.size());
+    int e = 0;
+    int o = 0;
+    while (e < elite || o < others.size()) {
+      if (o == others.size() || (e < elite
+          && candidates.get(order[e]).compareTo(others.get(o)) <= 0)) {
+        population.add(candidates.get(order[e++]));
+      } else {
+        population.add(others.get(o++));
+      }
+    }
+    return population;
+  }
+
+  /**
+   * Returns the candidates without the models computing the same output as a smaller model, see
+   * {@link com.newtowndata.math.model.Model#getSemanticHash()}. Of models of equal size the first
+   * is kept, models of unknown hash are all kept.
+   *
+   * @param minSize lowest number of models returned, removed models are added back in their
+   *                order if fewer would remain
+   */
+  public static List<RankedModel> removeSemanticDuplicates(List<RankedModel> candidates,
+      int minSize) {
+    int size = candidates.size();
+    boolean[] removed = new boolean[size];
+
+    // open addressing from the hash to the kept index, the unknown zero hash marks an empty slot;
+    // a power of two at least twice the size keeps the probe sequences short
+    int capacity = Integer.highestOneBit(Math.max(size, 1)) << 2;
+    int mask = capacity - 1;
+    // hashes are products of a multiplicative hash, the high bits are the best mixed
+    int shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+    long[] hashes = new long[capacity];
+    int[] kept = new int[capacity];
+
+    int removedCount = 0;
+    for (int i = 0; i < size; i++) {
+      long hash = candidates.get(i).getModel().getSemanticHash();
+      if (hash == 0) {
+        continue;
+      }
+      int slot = (int) (hash >>> shift);
+      while (hashes[slot] != 0 && hashes[slot] != hash) {
+        slot = (slot + 1) & mask;
+      }
+      if (hashes[slot] == 0) {
+        hashes[slot] = hash;
+        kept[slot] = i;
+        continue;
+      }
+
+      int other = kept[slot];
+      removedCount++;
+      if (candidates.get(i).getModel().getSize() < candidates.get(other).getModel().getSize()) {
+        removed[other] = true;
+        kept[slot] = i;
+      } else {
+        removed[i] = true;
+      }
+    }
+
+    List<RankedModel> result = new ArrayList<>(Math.max(size - removedCount, minSize));
+    for (int i = 0; i < size; i++) {
+      if (!removed[i]) {
+        result.add(candidates.get(i));
+      }
+    }
+    for (int i = 0; i < size && result.size() < minSize; i++) {
+      if (removed[i]) {
+        result.add(candidates.get(i));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Moves the {@code count} best indices to the start of {@code order}, in no particular order.
+   */
+  static void selectBest(double[] fitness, int[] order, int count) {
+    if (count <= 0 || count >= order.length) {
+      return;
+    }
+    int from = 0;
+    int to = order.length - 1;
+    while (from < to) {
+      int pivot = partition(fitness, order, from, to);
+      if (pivot == count) {
+        return;
+      }
+      if (pivot < count) {
+        from = pivot + 1;
+      } else {
+        to = pivot - 1;
+      }
+    }
+  }
+
+  /**
+   * Sorts indices {@code order[from..to)} best first.
+   */
+  static void sortBest(double[] fitness, int[] order, int from, int to) {
+    int low = from;
+    int high = to - 1;
+    while (high - low > INSERTION_SORT_SIZE) {
+      int pivot = partition(fitness, order, low, high);
+      // recursion into the smaller part keeps the stack shallow
+      if (pivot - low < high - pivot) {
+        sortBest(fitness, order, low, pivot);
+        low = pivot + 1;
+      } else {
+        sortBest(fitness, order, pivot + 1, high + 1);
+        high = pivot - 1;
+      }
+    }
+
+    for (int i = low + 1; i <= high; i++) {
+      int index = order[i];
+      int j = i - 1;
+      while (j >= low && isBefore(fitness, index, order[j])) {
+        order[j + 1] = order[j];
+        j--;
+      }
+      order[j + 1] = index;
+    }
+  }
+
+  /**
+   * Returns {@code count} distinct indices of {@code 0..size-1} drawn at random.
+   */
+  static int[] sample(int size, int count, Random random) {
+    int[] pool = identity(size);
+    for (int i = 0; i < count; i++) {
+      swap(pool, i, random.nextInt(i, size - 1));
+    }
+    int[] result = new int[count];
+    System.arraycopy(pool, 0, result, 0, count);
+    return result;
+  }
+
+  /**
+   * Partitions {@code order[from..to]} around the median of the first, middle and last index,
+   * returns the final position of the median.
+   */
+  private static int partition(double[] fitness, int[] order, int from, int to) {
+    int middle = (from + to) >>> 1;
+    if (isBefore(fitness, order[middle], order[from])) {
+      swap(order, middle, from);
+    }
+    if (isBefore(fitness, order[to], order[from])) {
+      swap(order, to, from);
+    }
+    if (isBefore(fitness, order[middle], order[to])) {
+      swap(order, middle, to);
+    }
+
+    int pivot = order[to];
+    int store = from;
+    for (int i = from; i < to; i++) {
+      if (isBefore(fitness, order[i], pivot)) {
+        swap(order, i, store++);
+      }
+    }
+    swap(order, store, to);
+    return store;
+  }
+
+  private static boolean isBefore(double[] fitness, int a, int b) {
+    int comparison = Double.compare(fitness[a], fitness[b]);
+    return comparison > 0 || (comparison == 0 && a < b);
+  }
+
+  private static int[] identity(int size) {
+    int[] order = new int[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = i;
+    }
+    return order;
+  }
+
+  private static void swap(int[] array, int i, int j) {
+    int value = array[i];
+    array[i] = array[j];
+    array[j] = value;
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.evolution;
+
+import com.newtowndata.math.model.RankedModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded population sorted from the best model, shared by the threads of the steady-state
+ * evolution. A model is added by replacing the worst one, so there are no generations.
+ */
+public class SteadyStatePopulation {
+
+  private final int maxSize;
+  // best first, the same order as Collections.sort of ranked models
+  private final List<RankedModel> models;
+  // copies of each model, a random model may repeat like in a generation
+  private final Map<RankedModel, Integer> copies;
+
+  public SteadyStatePopulation(int maxSize, List<RankedModel> initialModels) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("Population size must be positive");
+    }
+    this.maxSize = maxSize;
+    this.models = new ArrayList<>(maxSize + 1);
+    this.copies = new HashMap<>();
+    for (RankedModel model : initialModels) {
+      if (!model.isPruned()) {
+        insert(model);
+      }
+    }
+    while (models.size() > maxSize) {
+      removeAt(models.size() - 1);
+    }
+    if (models.isEmpty()) {
+      throw new IllegalArgumentException("Initial population must contain a model");
+    }
+  }
+
+  /**
+   * Inserts an offspring if it is not in the population yet and the population is either not
+   * full or the offspring is better than the worst model, which is then removed.
+   *
+   * @return {@code true} if the model was inserted
+   */
+  public synchronized boolean offer(RankedModel model) {
+    if (model.isPruned() || copies.containsKey(model)) {
+      return false;
+    }
+    if (models.size() >= maxSize && model.compareTo(models.get(models.size() - 1)) >= 0) {
+      return false;
+    }
+
+    insert(model);
+
+    if (models.size() > maxSize) {
+      removeAt(models.size() - 1);
+    }
+    return true;
+  }
+
+  private void insert(RankedModel model) {
+    int index = Collections.binarySearch(models, model);
+    // models of the same fitness keep the order of insertion
+    while (index >= 0 && index < models.size() && models.get(index).compareTo(model) == 0) {
+      index++;
+    }
+    models.add(index < 0 ? -index - 1 : index, model);
+    copies.merge(model, 1, Integer::sum);
+  }
+
+  private void removeAt(int index) {
+    RankedModel removed = models.remove(index);
+    if (copies.merge(removed, -1, Integer::sum) == 0) {
+      copies.remove(removed);
+      // nothing breeds from the removed model anymore, so its node columns can go
+      removed.getModel().releaseColumns();
+    }
+  }
+
+  /**
+   * Replaces the model on the given index regardless of the fitness, unless the model is
+   * pruned.
+   *
+   * @return {@code true} if the model was inserted
+   */
+  public synchronized boolean replace(int index, RankedModel model) {
+    if (model.isPruned()) {
+      return false;
+    }
+    removeAt(index);
+    insert(model);
+    return true;
+  }
+
+  public synchronized RankedModel get(int index) {
+    return models.get(index);
+  }
+
+  public synchronized int size() {
+    return models.size();
+  }
+
+  public synchronized RankedModel getBestModel() {
+    return models.get(0);
+  }
+
+  /**
+   * Returns the fitness a model must exceed to be inserted, negative infinity while the
+   * population is not full.
+   */
+  public synchronized double getWorstFitness() {
+    return models.size() < maxSize ? Double.NEGATIVE_INFINITY
+        : models.get(models.size() - 1).getFitness();
+  }
+
+  /**
+   * Returns a copy of the population, sorted from the best model.
+   */
+  public synchronized List<RankedModel> getModels() {
+    return new ArrayList<>(models);
+  }
+}
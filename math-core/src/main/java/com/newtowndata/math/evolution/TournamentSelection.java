@@ -0,0 +1,50 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.evolution;
+
+import com.newtowndata.math.genetics.Random;
+import com.newtowndata.math.model.RankedModel;
+import java.util.List;
+
+/**
+ * Selects the best of a few models drawn at random. The population is ordered best first, so
+ * the winner is the lowest index drawn and no fitness is compared.
+ */
+public class TournamentSelection implements ParentSelection {
+
+  private final int tournamentSize;
+
+  private int populationSize;
+
+  public TournamentSelection(int tournamentSize) {
+    if (tournamentSize < 1) {
+      throw new IllegalArgumentException("Invalid tournament size " + tournamentSize);
+    }
+    this.tournamentSize = tournamentSize;
+  }
+
+  @Override
+  public void prepare(List<RankedModel> population, Random random) {
+    this.populationSize = population.size();
+  }
+
+  @Override
+  public int select(int slot, Random random) {
+    int best = populationSize - 1;
+    for (int i = 0; i < tournamentSize; i++) {
+      best = Math.min(best, random.nextInt(0, populationSize - 1));
+    }
+    return best;
+  }
+}
@@ -38,6 +38,14 @@ public class MutationContextImpl implements MutationContext {
     return random.get();
   }
 
+  /**
+   * Replaces the random generator of the current thread, so a task draws from its own stream
+   * whichever thread runs it.
+   */
+  public void setRandom(Random random) {
+    this.random.set(random);
+  }
+
   @Override
   public List<String> getGroups() {
     return groups;
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics;
+
+import com.newtowndata.math.genetics.nodes.core.Node;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Table of canonical node instances. Interned trees share every structurally identical subtree,
+ * so equal subtrees of different models are one object and compare by reference.
+ *
+ * <p>The table holds the nodes weakly, a node disappears once no model refers to it.
+ */
+public final class NodeInterner {
+
+  private static final int STRIPE_COUNT = 64;
+
+  @SuppressWarnings("unchecked")
+  private static final Map<Node, WeakReference<Node>>[] STRIPES = new Map[STRIPE_COUNT];
+
+  static {
+    for (int i = 0; i < STRIPE_COUNT; i++) {
+      STRIPES[i] = new WeakHashMap<>();
+    }
+  }
+
+  private NodeInterner() {
+  }
+
+  /**
+   * Returns the canonical instance of the tree, interning all its subtrees first.
+   */
+  public static Node intern(Node node) {
+    // a tree found in the table was interned including its subtrees
+    Node canonical = get(node);
+    if (canonical != null) {
+      return canonical;
+    }
+
+    Node result = node;
+    for (int i = 0; i < node.getChildCount(); i++) {
+      Node child = node.getChild(i);
+      Node internedChild = intern(child);
+      if (internedChild != child) {
+        result = result.replace(i, internedChild);
+      }
+    }
+    return putIfAbsent(result);
+  }
+
+  static int size() {
+    int size = 0;
+    for (Map<Node, WeakReference<Node>> stripe : STRIPES) {
+      synchronized (stripe) {
+        size += stripe.size();
+      }
+    }
+    return size;
+  }
+
+  private static Node get(Node node) {
+    Map<Node, WeakReference<Node>> stripe = stripe(node);
+    synchronized (stripe) {
+      WeakReference<Node> reference = stripe.get(node);
+      return reference == null ? null : reference.get();
+    }
+  }
+
+  private static Node putIfAbsent(Node node) {
+    Map<Node, WeakReference<Node>> stripe = stripe(node);
+    synchronized (stripe) {
+      WeakReference<Node> reference = stripe.get(node);
+      Node canonical = reference == null ? null : reference.get();
+      if (canonical == null) {
+        stripe.put(node, new WeakReference<>(node));
+        canonical = node;
+      }
+      return canonical;
+    }
+  }
+
+  private static Map<Node, WeakReference<Node>> stripe(Node node) {
+    int hash = node.hashCode();
+    return STRIPES[(hash ^ (hash >>> 16)) & (STRIPE_COUNT - 1)];
+  }
+}
@@ -13,73 +13,179 @@
  */
 package com.newtowndata.math.genetics;
 
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.GroupConstantNode;
+import com.newtowndata.math.genetics.nodes.IntConstantNode;
+import com.newtowndata.math.genetics.nodes.SpecialConstantNode;
+import com.newtowndata.math.genetics.nodes.VariableNode;
 import com.newtowndata.math.genetics.nodes.core.Node;
+import com.newtowndata.math.genetics.nodes.helper.Constant;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.function.Function;
 
 public final class NodeUtils {
 
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+  private static final ClassValue<Long> CLASS_FINGERPRINTS = new ClassValue<>() {
+    @Override
+    protected Long computeValue(Class<?> type) {
+      return fingerprint(type.getName());
+    }
+  };
+
   private NodeUtils() {
   }
 
-  public static int calculateSize(Node root) {
-    LinkedList<Node> openList = new LinkedList<>();
-    openList.add(root);
-
-    int totalSize = 0;
-    while (openList.size() > 0) {
-      Node node = openList.removeFirst();
-      totalSize++;
-      node.getChildren().forEach(openList::addLast);
+  /**
+   * Returns a 64-bit hash of the tree structure - node classes, their order and leaf values.
+   * Unlike {@link Object#hashCode()}, two different trees practically never share it, so it can
+   * identify a model.
+   */
+  public static long fingerprint(Node root) {
+    long hash = classFingerprint(root.getClass());
+    int childCount = root.getChildCount();
+    if (childCount == 0) {
+      return combineFingerprint(hash, leafFingerprint(root));
     }
-    return totalSize;
+    for (int i = 0; i < childCount; i++) {
+      hash = combineFingerprint(hash, fingerprint(root.getChild(i)));
+    }
+    return hash;
+  }
+
+  private static long leafFingerprint(Node node) {
+    Class<?> nodeClass = node.getClass();
+    if (ConstantNode.class.equals(nodeClass)) {
+      return Double.doubleToLongBits(((ConstantNode) node).getConstant());
+    } else if (IntConstantNode.class.equals(nodeClass)) {
+      return ((IntConstantNode) node).getConstant();
+    } else if (SpecialConstantNode.class.equals(nodeClass)) {
+      return fingerprint(((SpecialConstantNode) node).getConstant());
+    } else if (VariableNode.class.equals(nodeClass)) {
+      return ((VariableNode) node).getXIndex();
+    } else if (GroupConstantNode.class.equals(nodeClass)) {
+      long hash = FNV_OFFSET_BASIS;
+      for (Constant constant : ((GroupConstantNode) node).getConstants()) {
+        hash = combineFingerprint(hash, fingerprint(constant));
+      }
+      return hash;
+    }
+    return node.hashCode();
+  }
+
+  private static long fingerprint(Constant constant) {
+    return combineFingerprint(fingerprint(constant.toString()),
+        Double.doubleToLongBits(constant.getValue()));
+  }
+
+  private static long fingerprint(String value) {
+    long hash = FNV_OFFSET_BASIS;
+    for (int i = 0; i < value.length(); i++) {
+      hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+    }
+    return hash;
+  }
+
+  /**
+   * Returns the hash a node of the class starts its {@link #fingerprint(Node)} with.
+   */
+  public static long classFingerprint(Class<?> nodeClass) {
+    return CLASS_FINGERPRINTS.get(nodeClass);
+  }
+
+  /**
+   * Adds the next child or leaf value to a {@link #fingerprint(Node)}.
+   */
+  public static long combineFingerprint(long hash, long value) {
+    // SplitMix64 finalizer, the order of the combined values matters
+    long z = hash * GOLDEN_GAMMA + value;
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Returns false for leaves that always evaluate to their value. Their NaN is a value, while NaN
+   * of any other node means the evaluation is out of range.
+   */
+  public static boolean mayFail(Node node) {
+    Class<?> nodeClass = node.getClass();
+    return !(ConstantNode.class.equals(nodeClass) || IntConstantNode.class.equals(nodeClass)
+        || SpecialConstantNode.class.equals(nodeClass) || VariableNode.class.equals(nodeClass));
+  }
+
+  public static int calculateSize(Node root) {
+    return root.getSize();
   }
 
+  /**
+   * Returns the node of the given pre-order index, or the root if the index is out of the tree.
+   * The subtree sizes lead straight to the node, so only the path to it is visited.
+   */
   public static Node extractNode(Node root, int nodeIndex) {
-    LinkedList<Node> openList = new LinkedList<>();
-    openList.add(root);
-
-    int totalSize = 0;
-    while (openList.size() > 0) {
-      Node node = openList.removeFirst();
-      if (totalSize == nodeIndex) {
-        return node;
+    if (nodeIndex < 0 || nodeIndex >= root.getSize()) {
+      return root;
+    }
+
+    Node node = root;
+    int index = nodeIndex;
+    while (index > 0) {
+      index--;
+      for (int i = 0; i < node.getChildCount(); i++) {
+        Node child = node.getChild(i);
+        int childSize = child.getSize();
+        if (index < childSize) {
+          node = child;
+          break;
+        }
+        index -= childSize;
       }
-      totalSize++;
-      node.getChildren().forEach(openList::addLast);
     }
-    return root;
+    return node;
   }
 
   public static Node mutateNode(Node root, int nodeIndex, MutationContext mutationContext) {
     return replaceNode(root, nodeIndex, node -> node.mutate(mutationContext));
   }
 
+  /**
+   * Replaces the node of the given pre-order index, the tree is returned unchanged if the index
+   * is out of the tree. Only the nodes on the path to the replaced node are recreated.
+   */
   public static Node replaceNode(Node root, int nodeIndex, Function<Node, Node> nodeOperation) {
-    LinkedList<ReplaceableNode> openList = new LinkedList<>();
-    openList.add(new ReplaceableNode(root));
-
-    int totalSize = 0;
-    while (openList.size() > 0) {
-      ReplaceableNode node = openList.removeFirst();
-      if (totalSize == nodeIndex) {
-        // we are replacing this node
-        Node replacement = nodeOperation.apply(node.getNode());
-        return node.replace(replacement);
+    if (nodeIndex < 0 || nodeIndex >= root.getSize()) {
+      return root;
+    }
+    return replaceInSubtree(root, nodeIndex, nodeOperation);
+  }
+
+  private static Node replaceInSubtree(Node node, int index, Function<Node, Node> nodeOperation) {
+    if (index == 0) {
+      return nodeOperation.apply(node);
+    }
+
+    int childIndex = index - 1;
+    for (int i = 0; i < node.getChildCount(); i++) {
+      Node child = node.getChild(i);
+      int childSize = child.getSize();
+      if (childIndex < childSize) {
+        return node.replace(i, replaceInSubtree(child, childIndex, nodeOperation));
       }
-      totalSize++;
-      expand(node).forEach(openList::addLast);
+      childIndex -= childSize;
     }
-    return root;
+    throw new IllegalStateException("Subtree size does not match the children");
   }
 
   public static List<ReplaceableNode> expand(ReplaceableNode node) {
-    List<Node> children = node.getNode().getChildren();
-    List<ReplaceableNode> replaceableNodes = new ArrayList<>(children.size());
-    for (int i = 0; i < children.size(); i++) {
-      replaceableNodes.add(new ReplaceableNode(node, i, children.get(i)));
+    Node parent = node.getNode();
+    int childCount = parent.getChildCount();
+    List<ReplaceableNode> replaceableNodes = new ArrayList<>(childCount);
+    for (int i = 0; i < childCount; i++) {
+      replaceableNodes.add(new ReplaceableNode(node, i, parent.getChild(i)));
     }
     return replaceableNodes;
   }
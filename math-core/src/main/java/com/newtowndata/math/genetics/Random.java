@@ -13,6 +13,9 @@
  */
 package com.newtowndata.math.genetics;
 
+import java.util.Collections;
+import java.util.List;
+
 public interface Random {
 
   boolean nextBoolean();
@@ -20,4 +23,25 @@ public interface Random {
   int nextInt(int from, int to);
 
   double nextDouble(int from, int to);
+
+  /**
+   * Shuffles the list in place, the order depends only on the values drawn from this generator.
+   */
+  default void shuffle(List<?> list) {
+    for (int i = list.size() - 1; i > 0; i--) {
+      Collections.swap(list, i, nextInt(0, i));
+    }
+  }
+
+  /**
+   * Shuffles the array in place like {@link #shuffle(List)}.
+   */
+  default void shuffle(int[] array) {
+    for (int i = array.length - 1; i > 0; i--) {
+      int j = nextInt(0, i);
+      int value = array[i];
+      array[i] = array[j];
+      array[j] = value;
+    }
+  }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics;
+
+/**
+ * Xoshiro256** generator seeded by SplitMix64. An instance is not thread-safe, every task uses its
+ * own stream created by {@link #derive(long, long...)}.
+ */
+public class SeededRandom implements Random {
+
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+  private long s0;
+  private long s1;
+  private long s2;
+  private long s3;
+
+  public SeededRandom(long seed) {
+    long x = seed;
+    this.s0 = mix(x += GOLDEN_GAMMA);
+    this.s1 = mix(x += GOLDEN_GAMMA);
+    this.s2 = mix(x += GOLDEN_GAMMA);
+    this.s3 = mix(x + GOLDEN_GAMMA);
+  }
+
+  /**
+   * Returns the stream identified by the keys, e.g. the generation and the offspring index. The
+   * same seed and keys always give the same sequence, different keys independent ones.
+   */
+  public static SeededRandom derive(long seed, long... keys) {
+    long x = seed;
+    for (long key : keys) {
+      x = mix(x + GOLDEN_GAMMA) ^ key;
+    }
+    return new SeededRandom(x);
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+
+  public long nextLong() {
+    long result = Long.rotateLeft(s1 * 5, 7) * 9;
+    long t = s1 << 17;
+    s2 ^= s0;
+    s3 ^= s1;
+    s1 ^= s2;
+    s0 ^= s3;
+    s2 ^= t;
+    s3 = Long.rotateLeft(s3, 45);
+    return result;
+  }
+
+  @Override
+  public boolean nextBoolean() {
+    return nextLong() < 0;
+  }
+
+  @Override
+  public int nextInt(int from, int to) {
+    int bound = to - from + 1;
+    if (bound <= 0) {
+      throw new IllegalArgumentException("Invalid range " + from + " to " + to);
+    }
+    int r = (int) (nextLong() >>> 33);
+    int m = bound - 1;
+    if ((bound & m) == 0) {
+      return from + (int) ((bound * (long) r) >> 31);
+    }
+    // rejects the values of the incomplete last interval, so all results are equally likely
+    for (int u = r; u - (r = u % bound) + m < 0; u = (int) (nextLong() >>> 33)) {
+      // next candidate
+    }
+    return from + r;
+  }
+
+  @Override
+  public double nextDouble(int from, int to) {
+    return (to - from) * ((nextLong() >>> 11) * 0x1.0p-53) + from;
+  }
+}
@@ -83,13 +83,24 @@ public class GroupConstantNode extends LeafNode {
     return new GroupConstantNode(this, index, newValue);
   }
 
+  public int indexOf(String group) {
+    if (group == null) {
+      return -1;
+    }
+    return Collections.binarySearch(groups, group);
+  }
+
+  public double getValue(int index) {
+    return values[index];
+  }
+
   @Override
   public double evaluate(DataRow x) {
     if (x == null) {
       throw OUT_OF_RANGE;
     }
 
-    int index = Collections.binarySearch(groups, x.getGroup());
+    int index = indexOf(x.getGroup());
     if (index < 0) {
       throw OUT_OF_RANGE;
     }
@@ -97,6 +108,12 @@ public class GroupConstantNode extends LeafNode {
     return values[index];
   }
 
+  @Override
+  public double evaluateOrNaN(DataRow x) {
+    int index = x == null ? -1 : indexOf(x.getGroup());
+    return index < 0 ? Double.NaN : values[index];
+  }
+
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder();
@@ -13,8 +13,10 @@
  */
 package com.newtowndata.math.genetics.nodes;
 
+import com.newtowndata.math.genetics.NodeUtils;
 import com.newtowndata.math.genetics.nodes.core.BinaryNode;
 import com.newtowndata.math.genetics.nodes.core.Node;
+import com.newtowndata.math.input.DataRow;
 
 public class PowerNode extends BinaryNode {
 
@@ -27,6 +29,18 @@ public class PowerNode extends BinaryNode {
     return StrictMath.pow(a, b);
   }
 
+  @Override
+  public double evaluateOrNaN(DataRow x) {
+    double base = left.evaluateOrNaN(x);
+    // pow(NaN, 0) is 1, so NaN of a failed base must not be turned into a value
+    if (Double.isNaN(base) && NodeUtils.mayFail(left)) {
+      return Double.NaN;
+    }
+
+    double result = calculate(base, right.evaluateOrNaN(x));
+    return Double.isFinite(result) ? result : Double.NaN;
+  }
+
   @Override
   public String toString() {
     return "(" + left.toString() + "^" + right.toString() + ")";
@@ -26,6 +26,8 @@ public abstract class BinaryNode implements Node {
 
   protected final Node left;
   protected final Node right;
+  private final int size;
+  private final int hash;
 
   protected BinaryNode(Node left, Node right) {
     this(left, right, false);
@@ -39,6 +41,9 @@ public abstract class BinaryNode implements Node {
       this.left = left;
       this.right = right;
     }
+    // children are immutable, so both can be computed once
+    this.size = 1 + this.left.getSize() + this.right.getSize();
+    this.hash = Objects.hash(getClass(), this.left, this.right);
   }
 
   @Override
@@ -51,6 +56,28 @@ public abstract class BinaryNode implements Node {
     return List.of(left, right);
   }
 
+  @Override
+  public int getChildCount() {
+    return 2;
+  }
+
+  @Override
+  public Node getChild(int index) {
+    switch (index) {
+      case 0:
+        return left;
+      case 1:
+        return right;
+      default:
+        throw new IndexOutOfBoundsException("Child index must be 0 or 1");
+    }
+  }
+
+  @Override
+  public int getSize() {
+    return size;
+  }
+
   protected abstract Node create(Node left, Node right);
 
   @Override
@@ -90,6 +117,12 @@ public abstract class BinaryNode implements Node {
     throw OUT_OF_RANGE;
   }
 
+  @Override
+  public double evaluateOrNaN(DataRow x) {
+    double result = calculate(left.evaluateOrNaN(x), right.evaluateOrNaN(x));
+    return Double.isFinite(result) ? result : Double.NaN;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -99,11 +132,12 @@ public abstract class BinaryNode implements Node {
       return false;
     }
     BinaryNode node = (BinaryNode) o;
-    return Objects.equals(left, node.left) && Objects.equals(right, node.right);
+    return hash == node.hash && Objects.equals(left, node.left)
+        && Objects.equals(right, node.right);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(getClass(), left, right);
+    return hash;
   }
 }
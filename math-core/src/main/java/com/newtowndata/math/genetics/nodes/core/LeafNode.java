@@ -23,6 +23,21 @@ public abstract class LeafNode implements Node {
     return Collections.emptyList();
   }
 
+  @Override
+  public int getChildCount() {
+    return 0;
+  }
+
+  @Override
+  public Node getChild(int index) {
+    throw new IndexOutOfBoundsException("Leaf node has no children");
+  }
+
+  @Override
+  public int getSize() {
+    return 1;
+  }
+
   @Override
   public Node replace(int nodeIndex, Node replacement) {
     throw new IllegalArgumentException("Leaf node");
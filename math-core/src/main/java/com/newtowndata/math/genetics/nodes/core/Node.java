@@ -24,8 +24,36 @@ public interface Node {
 
   double evaluate(DataRow x);
 
+  /**
+   * Same as {@link #evaluate(DataRow)}, but a result out of range is returned as
+   * {@link Double#NaN} instead of throwing {@link NodeConstants#OUT_OF_RANGE}.
+   */
+  default double evaluateOrNaN(DataRow x) {
+    try {
+      return evaluate(x);
+    } catch (IllegalStateException e) {
+      return Double.NaN;
+    }
+  }
+
+  /**
+   * Returns a new list of the children, traversals should prefer {@link #getChildCount()} and
+   * {@link #getChild(int)}, which do not allocate.
+   */
   List<Node> getChildren();
 
+  int getChildCount();
+
+  /**
+   * Returns the child of the given index, from 0 to {@link #getChildCount()} - 1.
+   */
+  Node getChild(int index);
+
+  /**
+   * Returns the number of nodes of the subtree, including this node.
+   */
+  int getSize();
+
   Node replace(int nodeIndex, Node replacement);
 
   SimplifiedNode simplify(SimplificationContext context);
@@ -25,9 +25,14 @@ import java.util.Objects;
 public abstract class UnaryNode implements Node {
 
   protected final Node child;
+  private final int size;
+  private final int hash;
 
   protected UnaryNode(Node child) {
     this.child = child;
+    // the child is immutable, so both can be computed once
+    this.size = 1 + child.getSize();
+    this.hash = Objects.hash(getClass(), child);
   }
 
   @Override
@@ -40,6 +45,24 @@ public abstract class UnaryNode implements Node {
     return List.of(child);
   }
 
+  @Override
+  public int getChildCount() {
+    return 1;
+  }
+
+  @Override
+  public Node getChild(int index) {
+    if (index != 0) {
+      throw new IndexOutOfBoundsException("Child index must be 0");
+    }
+    return child;
+  }
+
+  @Override
+  public int getSize() {
+    return size;
+  }
+
   protected abstract Node create(Node child);
 
   @Override
@@ -77,6 +100,13 @@ public abstract class UnaryNode implements Node {
     throw OUT_OF_RANGE;
   }
 
+  @Override
+  public double evaluateOrNaN(DataRow x) {
+    // every unary function keeps NaN of a failed child
+    double result = calculate(child.evaluateOrNaN(x));
+    return Double.isFinite(result) ? result : Double.NaN;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -86,11 +116,11 @@ public abstract class UnaryNode implements Node {
       return false;
     }
     UnaryNode node = (UnaryNode) o;
-    return Objects.equals(child, node.child);
+    return hash == node.hash && Objects.equals(child, node.child);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(getClass(), child);
+    return hash;
   }
 }
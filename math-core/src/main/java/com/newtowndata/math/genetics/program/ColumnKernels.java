@@ -0,0 +1,37 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+/**
+ * Element-wise arithmetic used by the columnar evaluation of {@link Program}. The result is
+ * written into the first array, a result out of range is stored as {@link Double#NaN}.
+ */
+public interface ColumnKernels {
+
+  void add(double[] a, double[] b, int length);
+
+  void subtract(double[] a, double[] b, int length);
+
+  void multiply(double[] a, double[] b, int length);
+
+  void divide(double[] a, double[] b, int length);
+
+  void negative(double[] a, int length);
+
+  void square(double[] a, int length);
+
+  void reciprocal(double[] a, int length);
+
+  void sqrt(double[] a, int length);
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+import java.util.logging.Logger;
+
+public final class ColumnKernelsProvider {
+
+  private static final Logger LOG = Logger.getLogger(ColumnKernelsProvider.class.getName());
+
+  public static final String PROGRAM_BACKEND = "program";
+  public static final String VECTOR_BACKEND = "vector";
+
+  private static final String VECTOR_KERNELS =
+      ColumnKernelsProvider.class.getPackageName() + ".VectorColumnKernels";
+
+  private ColumnKernelsProvider() {
+  }
+
+  public static ColumnKernels provide(String backend) {
+    if (backend == null || backend.isEmpty() || PROGRAM_BACKEND.equals(backend)) {
+      return ScalarColumnKernels.INSTANCE;
+    }
+
+    if (VECTOR_BACKEND.equals(backend)) {
+      try {
+        // loaded by name, the class cannot be linked without the incubator module
+        ColumnKernels kernels = (ColumnKernels) Class.forName(VECTOR_KERNELS)
+            .getDeclaredConstructor().newInstance();
+        LOG.info("Using evaluation backend " + kernels);
+        return kernels;
+      } catch (ReflectiveOperationException | LinkageError e) {
+        LOG.warning("Vector API not available, run java with --add-modules jdk.incubator.vector."
+            + " Falling back to the scalar evaluation backend: " + e);
+        return ScalarColumnKernels.INSTANCE;
+      }
+    }
+
+    throw new IllegalArgumentException("Unsupported evaluation backend " + backend);
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+import com.newtowndata.math.genetics.NodeUtils;
+import com.newtowndata.math.genetics.nodes.VariableNode;
+import com.newtowndata.math.genetics.nodes.core.Node;
+import com.newtowndata.math.input.ColumnarData;
+
+/**
+ * Node by node column evaluation shared by the column caches. Every node gets a new column, the
+ * result is identical to {@link Program#evaluate(ColumnarData, double[])}.
+ */
+final class ColumnOperations {
+
+  private ColumnOperations() {
+  }
+
+  /**
+   * Returns the column of a leaf. Variable columns are the input columns and must not be
+   * modified.
+   */
+  static double[] evaluateLeaf(Node node, ColumnarData data) {
+    if (VariableNode.class.equals(node.getClass())) {
+      return data.getColumn(((VariableNode) node).getXIndex());
+    }
+    double[] result = new double[data.getRowCount()];
+    ProgramCompiler.compile(node).evaluate(data, result);
+    return result;
+  }
+
+  /**
+   * Returns {@code true} if the column of the node is computed from the columns of its children.
+   * Leaves and unknown nodes are evaluated as a whole by {@link #evaluateWhole}.
+   */
+  static boolean isComposite(Node node) {
+    return node.getChildCount() > 0 && ProgramCompiler.opcodeOf(node) != null;
+  }
+
+  static double[] evaluateWhole(Node node, ColumnarData data) {
+    if (node.getChildCount() == 0) {
+      return evaluateLeaf(node, data);
+    }
+    double[] result = new double[data.getRowCount()];
+    ProgramCompiler.compile(node).evaluate(data, result);
+    return result;
+  }
+
+  /**
+   * Computes a composite node from the columns of its children, {@code b} is ignored for unary
+   * nodes.
+   */
+  static double[] evaluateComposite(Node node, double[] a, double[] b, ColumnKernels kernels) {
+    int opcode = ProgramCompiler.opcodeOf(node);
+    double[] result = a.clone();
+    int length = result.length;
+    if (Opcodes.isBinary(opcode)) {
+      binary(opcode, result, b, length, kernels, NodeUtils.mayFail(node.getChild(0)));
+    } else {
+      unary(opcode, result, length, kernels);
+    }
+    return result;
+  }
+
+  private static void binary(int opcode, double[] a, double[] b, int length,
+      ColumnKernels kernels, boolean guarded) {
+    switch (opcode) {
+      case Opcodes.ADD:
+        kernels.add(a, b, length);
+        break;
+      case Opcodes.SUBTRACT:
+        kernels.subtract(a, b, length);
+        break;
+      case Opcodes.MULTIPLY:
+        kernels.multiply(a, b, length);
+        break;
+      case Opcodes.DIVIDE:
+        kernels.divide(a, b, length);
+        break;
+      case Opcodes.POWER:
+        Program.power(a, b, length, guarded);
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported binary opcode " + opcode);
+    }
+  }
+
+  private static void unary(int opcode, double[] a, int length, ColumnKernels kernels) {
+    switch (opcode) {
+      case Opcodes.NEGATIVE:
+        kernels.negative(a, length);
+        break;
+      case Opcodes.SQUARE:
+        kernels.square(a, length);
+        break;
+      case Opcodes.RECIPROCAL:
+        kernels.reciprocal(a, length);
+        break;
+      case Opcodes.SQRT:
+        kernels.sqrt(a, length);
+        break;
+      default:
+        Program.unary(opcode, a, length);
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+import com.newtowndata.math.input.ColumnarData;
+
+/**
+ * Program compiled into a JVM class by {@link ModelCompiler}. The result is identical to the
+ * columnar evaluation of {@link Program}.
+ */
+public abstract class CompiledModel {
+
+  /**
+   * Evaluates rows {@code <from, to)} into {@code out[0..to-from)}.
+   */
+  public final void evaluate(ColumnarData data, int from, int to, double[] out) {
+    if (from < to) {
+      evaluateRows(data, from, to, out);
+    }
+  }
+
+  /**
+   * Generated row loop, called with at least one row.
+   */
+  protected abstract void evaluateRows(ColumnarData data, int from, int to, double[] out);
+}
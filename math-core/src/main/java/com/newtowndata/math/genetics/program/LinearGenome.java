@@ -0,0 +1,477 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+import com.newtowndata.math.genetics.NodeUtils;
+import com.newtowndata.math.genetics.nodes.ArcCosNode;
+import com.newtowndata.math.genetics.nodes.ArcCoshNode;
+import com.newtowndata.math.genetics.nodes.ArcSinNode;
+import com.newtowndata.math.genetics.nodes.ArcSinhNode;
+import com.newtowndata.math.genetics.nodes.ArcTanNode;
+import com.newtowndata.math.genetics.nodes.ArcTanhNode;
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.CosNode;
+import com.newtowndata.math.genetics.nodes.CoshNode;
+import com.newtowndata.math.genetics.nodes.DivisionNode;
+import com.newtowndata.math.genetics.nodes.ExpNode;
+import com.newtowndata.math.genetics.nodes.IntConstantNode;
+import com.newtowndata.math.genetics.nodes.Log10Node;
+import com.newtowndata.math.genetics.nodes.LogNode;
+import com.newtowndata.math.genetics.nodes.MinusNode;
+import com.newtowndata.math.genetics.nodes.MultiplicationNode;
+import com.newtowndata.math.genetics.nodes.NegativeNode;
+import com.newtowndata.math.genetics.nodes.PlusNode;
+import com.newtowndata.math.genetics.nodes.PowerNode;
+import com.newtowndata.math.genetics.nodes.PowerOf10Node;
+import com.newtowndata.math.genetics.nodes.PowerOf2Node;
+import com.newtowndata.math.genetics.nodes.ReciprocalNode;
+import com.newtowndata.math.genetics.nodes.SinNode;
+import com.newtowndata.math.genetics.nodes.SinhNode;
+import com.newtowndata.math.genetics.nodes.SqrtNode;
+import com.newtowndata.math.genetics.nodes.TanNode;
+import com.newtowndata.math.genetics.nodes.TanhNode;
+import com.newtowndata.math.genetics.nodes.ToSquareNode;
+import com.newtowndata.math.genetics.nodes.VariableNode;
+import com.newtowndata.math.genetics.nodes.core.CommutativeBinaryNode;
+import com.newtowndata.math.genetics.nodes.core.Node;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Node tree flattened into prefix order - one {@link Opcodes opcode} and one value per node, the
+ * children of a node follow it. Positions are the pre-order node indices of
+ * {@link com.newtowndata.math.genetics.NodeUtils#extractNode(Node, int)}.
+ *
+ * <p>A genome takes a few bytes per node instead of a node object with a child list, subtrees
+ * are contiguous ranges, so mutation and crossover are array splices.
+ */
+public final class LinearGenome {
+
+  // leaves in addition to the program opcodes, they are not instructions
+  static final int INT_CONSTANT = 4;
+  static final int LEAF = 5;
+
+  private final byte[] code;
+  // constant value or variable index
+  private final double[] values;
+  // nodes of LEAF opcodes, null if there are none
+  private final Node[] leaves;
+
+  private LinearGenome(byte[] code, double[] values, Node[] leaves) {
+    this.code = code;
+    this.values = values;
+    this.leaves = leaves;
+  }
+
+  public static LinearGenome encode(Node root) {
+    Encoder encoder = new Encoder(root.getSize());
+    encoder.encode(root);
+    return encoder.toGenome();
+  }
+
+  public int size() {
+    return code.length;
+  }
+
+  int getOpcode(int position) {
+    return code[position];
+  }
+
+  double getValue(int position) {
+    return values[position];
+  }
+
+  Node getLeaf(int position) {
+    return leaves[position];
+  }
+
+  static int arity(int opcode) {
+    if (Opcodes.isLeaf(opcode)) {
+      return 0;
+    }
+    return Opcodes.isBinary(opcode) ? 2 : 1;
+  }
+
+  /**
+   * Returns the position after the subtree starting at {@code position}.
+   */
+  int subtreeEnd(int position) {
+    int open = 1;
+    int end = position;
+    while (open > 0) {
+      open += arity(code[end]) - 1;
+      end++;
+    }
+    return end;
+  }
+
+  public Node decode() {
+    return decode(0);
+  }
+
+  /**
+   * Returns the subtree starting at the given position as nodes.
+   */
+  public Node decode(int position) {
+    int[] cursor = {position};
+    return decodeNext(cursor);
+  }
+
+  private Node decodeNext(int[] cursor) {
+    int position = cursor[0]++;
+    int opcode = code[position];
+    switch (opcode) {
+      case Opcodes.CONSTANT:
+        return new ConstantNode(values[position]);
+      case Opcodes.VARIABLE:
+        return new VariableNode((int) values[position]);
+      case INT_CONSTANT:
+        return new IntConstantNode((int) values[position]);
+      case LEAF:
+        return leaves[position];
+      default:
+        Node child = decodeNext(cursor);
+        if (Opcodes.isBinary(opcode)) {
+          return createBinary(opcode, child, decodeNext(cursor));
+        }
+        return createUnary(opcode, child);
+    }
+  }
+
+  /**
+   * Returns {@link NodeUtils#fingerprint(Node)} of the decoded tree without creating the nodes,
+   * a genome and a tree of the same formula have the same fingerprint.
+   */
+  public long fingerprint() {
+    int[] cursor = {0};
+    return fingerprintNext(cursor);
+  }
+
+  private long fingerprintNext(int[] cursor) {
+    int position = cursor[0]++;
+    int opcode = code[position];
+    switch (opcode) {
+      case Opcodes.CONSTANT:
+        return NodeUtils.combineFingerprint(NodeUtils.classFingerprint(ConstantNode.class),
+            Double.doubleToLongBits(values[position]));
+      case Opcodes.VARIABLE:
+        return NodeUtils.combineFingerprint(NodeUtils.classFingerprint(VariableNode.class),
+            (int) values[position]);
+      case INT_CONSTANT:
+        return NodeUtils.combineFingerprint(NodeUtils.classFingerprint(IntConstantNode.class),
+            (int) values[position]);
+      case LEAF:
+        return NodeUtils.fingerprint(leaves[position]);
+      default:
+        long hash = NodeUtils.classFingerprint(ProgramCompiler.nodeClassOf(opcode));
+        hash = NodeUtils.combineFingerprint(hash, fingerprintNext(cursor));
+        if (Opcodes.isBinary(opcode)) {
+          hash = NodeUtils.combineFingerprint(hash, fingerprintNext(cursor));
+        }
+        return hash;
+    }
+  }
+
+  /**
+   * Returns the genome with the subtree on the given position replaced, only the replaced
+   * subtree is converted to nodes. The genome is returned unchanged if the position is out of
+   * the genome.
+   */
+  public LinearGenome replace(int position, Function<Node, Node> nodeOperation) {
+    if (position < 0 || position >= code.length) {
+      return this;
+    }
+    int end = subtreeEnd(position);
+    LinearGenome replacement = encode(nodeOperation.apply(decode(position)));
+
+    int length = code.length - (end - position) + replacement.code.length;
+    byte[] newCode = new byte[length];
+    double[] newValues = new double[length];
+    splice(code, replacement.code, newCode, position, end);
+    splice(values, replacement.values, newValues, position, end);
+
+    Node[] newLeaves = null;
+    if (leaves != null || replacement.leaves != null) {
+      newLeaves = new Node[length];
+      splice(leaves == null ? new Node[code.length] : leaves,
+          replacement.leaves == null ? new Node[replacement.code.length] : replacement.leaves,
+          newLeaves, position, end);
+    }
+    LinearGenome result = new LinearGenome(newCode, newValues, newLeaves);
+    result.sortParentChildren(position);
+    return result;
+  }
+
+  /**
+   * Orders the children of a commutative parent of the given position like
+   * {@link CommutativeBinaryNode} does, so the genome keeps the prefix order of the decoded tree.
+   * The order depends on the classes of the children only, so the ancestors above the parent,
+   * whose children keep their classes, stay in order.
+   */
+  private void sortParentChildren(int position) {
+    int parent = parentOf(position);
+    if (parent < 0 || !CommutativeBinaryNode.class.isAssignableFrom(nodeClassAt(parent))) {
+      return;
+    }
+    int left = parent + 1;
+    int right = subtreeEnd(left);
+    if (nodeClassAt(left).getSimpleName().compareTo(nodeClassAt(right).getSimpleName()) > 0) {
+      int end = subtreeEnd(right);
+      swapRanges(code, left, right, end);
+      swapRanges(values, left, right, end);
+      if (leaves != null) {
+        swapRanges(leaves, left, right, end);
+      }
+    }
+  }
+
+  /**
+   * Returns the position of the parent of the node on the given position, -1 for the root.
+   */
+  private int parentOf(int position) {
+    int current = 0;
+    while (current != position) {
+      int child = current + 1;
+      int childEnd = subtreeEnd(child);
+      if (position >= childEnd) {
+        // the position is in the right subtree of a binary node
+        child = childEnd;
+      }
+      if (child == position) {
+        return current;
+      }
+      current = child;
+    }
+    return -1;
+  }
+
+  private Class<?> nodeClassAt(int position) {
+    switch (code[position]) {
+      case Opcodes.CONSTANT:
+        return ConstantNode.class;
+      case Opcodes.VARIABLE:
+        return VariableNode.class;
+      case INT_CONSTANT:
+        return IntConstantNode.class;
+      case LEAF:
+        return leaves[position].getClass();
+      default:
+        return ProgramCompiler.nodeClassOf(code[position]);
+    }
+  }
+
+  /**
+   * Returns the subtree on the given position, or the whole genome if the position is out of the
+   * genome.
+   */
+  public LinearGenome extract(int position) {
+    if (position < 0 || position >= code.length) {
+      return this;
+    }
+    int end = subtreeEnd(position);
+    return new LinearGenome(Arrays.copyOfRange(code, position, end),
+        Arrays.copyOfRange(values, position, end),
+        leaves == null ? null : Arrays.copyOfRange(leaves, position, end));
+  }
+
+  private static void splice(byte[] source, byte[] replacement, byte[] target, int from,
+      int to) {
+    System.arraycopy(source, 0, target, 0, from);
+    System.arraycopy(replacement, 0, target, from, replacement.length);
+    System.arraycopy(source, to, target, from + replacement.length, source.length - to);
+  }
+
+  private static void splice(double[] source, double[] replacement, double[] target, int from,
+      int to) {
+    System.arraycopy(source, 0, target, 0, from);
+    System.arraycopy(replacement, 0, target, from, replacement.length);
+    System.arraycopy(source, to, target, from + replacement.length, source.length - to);
+  }
+
+  private static void splice(Node[] source, Node[] replacement, Node[] target, int from,
+      int to) {
+    System.arraycopy(source, 0, target, 0, from);
+    System.arraycopy(replacement, 0, target, from, replacement.length);
+    System.arraycopy(source, to, target, from + replacement.length, source.length - to);
+  }
+
+  private static void swapRanges(byte[] array, int left, int right, int end) {
+    byte[] first = Arrays.copyOfRange(array, left, right);
+    System.arraycopy(array, right, array, left, end - right);
+    System.arraycopy(first, 0, array, left + end - right, first.length);
+  }
+
+  private static void swapRanges(double[] array, int left, int right, int end) {
+    double[] first = Arrays.copyOfRange(array, left, right);
+    System.arraycopy(array, right, array, left, end - right);
+    System.arraycopy(first, 0, array, left + end - right, first.length);
+  }
+
+  private static void swapRanges(Node[] array, int left, int right, int end) {
+    Node[] first = Arrays.copyOfRange(array, left, right);
+    System.arraycopy(array, right, array, left, end - right);
+    System.arraycopy(first, 0, array, left + end - right, first.length);
+  }
+
+  private static Node createUnary(int opcode, Node child) {
+    switch (opcode) {
+      case Opcodes.NEGATIVE:
+        return new NegativeNode(child);
+      case Opcodes.SQUARE:
+        return new ToSquareNode(child);
+      case Opcodes.RECIPROCAL:
+        return new ReciprocalNode(child);
+      case Opcodes.SQRT:
+        return new SqrtNode(child);
+      case Opcodes.EXP:
+        return new ExpNode(child);
+      case Opcodes.LOG:
+        return new LogNode(child);
+      case Opcodes.LOG10:
+        return new Log10Node(child);
+      case Opcodes.POWER_OF_10:
+        return new PowerOf10Node(child);
+      case Opcodes.POWER_OF_2:
+        return new PowerOf2Node(child);
+      case Opcodes.SIN:
+        return new SinNode(child);
+      case Opcodes.COS:
+        return new CosNode(child);
+      case Opcodes.TAN:
+        return new TanNode(child);
+      case Opcodes.ASIN:
+        return new ArcSinNode(child);
+      case Opcodes.ACOS:
+        return new ArcCosNode(child);
+      case Opcodes.ATAN:
+        return new ArcTanNode(child);
+      case Opcodes.SINH:
+        return new SinhNode(child);
+      case Opcodes.COSH:
+        return new CoshNode(child);
+      case Opcodes.TANH:
+        return new TanhNode(child);
+      case Opcodes.ASINH:
+        return new ArcSinhNode(child);
+      case Opcodes.ACOSH:
+        return new ArcCoshNode(child);
+      case Opcodes.ATANH:
+        return new ArcTanhNode(child);
+      default:
+        throw new IllegalArgumentException("Unsupported unary opcode " + opcode);
+    }
+  }
+
+  private static Node createBinary(int opcode, Node left, Node right) {
+    switch (opcode) {
+      case Opcodes.ADD:
+        return new PlusNode(left, right);
+      case Opcodes.SUBTRACT:
+        return new MinusNode(left, right);
+      case Opcodes.MULTIPLY:
+        return new MultiplicationNode(left, right);
+      case Opcodes.DIVIDE:
+        return new DivisionNode(left, right);
+      case Opcodes.POWER:
+        return new PowerNode(left, right);
+      default:
+        throw new IllegalArgumentException("Unsupported binary opcode " + opcode);
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    LinearGenome genome = (LinearGenome) o;
+    if (!Arrays.equals(code, genome.code) || !Arrays.equals(values, genome.values)) {
+      return false;
+    }
+    // a splice may leave an array without any leaf, which is the same as no array
+    for (int i = 0; i < code.length; i++) {
+      if (code[i] == LEAF && !leaves[i].equals(genome.leaves[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(code) + Arrays.hashCode(values);
+  }
+
+  @Override
+  public String toString() {
+    return decode().toString();
+  }
+
+  private static class Encoder {
+
+    private final byte[] code;
+    private final double[] values;
+    private Node[] leaves;
+    private int length = 0;
+
+    Encoder(int size) {
+      this.code = new byte[size];
+      this.values = new double[size];
+    }
+
+    void encode(Node node) {
+      Class<?> nodeClass = node.getClass();
+      Integer opcode = ProgramCompiler.opcodeOf(node);
+      if (opcode != null) {
+        add(opcode, 0, null);
+        for (int i = 0; i < node.getChildCount(); i++) {
+          encode(node.getChild(i));
+        }
+      } else if (ConstantNode.class.equals(nodeClass)) {
+        add(Opcodes.CONSTANT, ((ConstantNode) node).getConstant(), null);
+      } else if (VariableNode.class.equals(nodeClass)) {
+        add(Opcodes.VARIABLE, ((VariableNode) node).getXIndex(), null);
+      } else if (IntConstantNode.class.equals(nodeClass)) {
+        add(INT_CONSTANT, ((IntConstantNode) node).getConstant(), null);
+      } else {
+        // special and group constants and unknown nodes are kept as they are, an unknown node
+        // with children takes a single position
+        add(LEAF, 0, node);
+      }
+    }
+
+    private void add(int opcode, double value, Node leaf) {
+      code[length] = (byte) opcode;
+      values[length] = value;
+      if (leaf != null) {
+        if (leaves == null) {
+          leaves = new Node[code.length];
+        }
+        leaves[length] = leaf;
+      }
+      length++;
+    }
+
+    LinearGenome toGenome() {
+      if (length == code.length) {
+        return new LinearGenome(code, values, leaves);
+      }
+      return new LinearGenome(Arrays.copyOf(code, length), Arrays.copyOf(values, length),
+          leaves == null ? null : Arrays.copyOf(leaves, length));
+    }
+  }
+}
@@ -0,0 +1,552 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Translates a {@link Program} into a hidden class extending {@link CompiledModel}. The generated
+ * row loop evaluates the model as straight-line arithmetic, constant subexpressions are folded at
+ * compile time.
+ *
+ * <p>Programs reading groups or falling back to the tree evaluation are not supported, see
+ * {@link #isSupported(Program)}.
+ */
+public final class ModelCompiler {
+
+  // keeps the method well within the 64 kB code and 16-bit branch offset limits
+  static final int MAX_PROGRAM_LENGTH = 2000;
+
+  private static final int CLASS_VERSION = 61; // Java 17
+
+  private static final String CLASS_NAME = "com/newtowndata/math/genetics/program/GeneratedModel";
+  private static final String SUPER_CLASS = "com/newtowndata/math/genetics/program/CompiledModel";
+  private static final String PROGRAM_CLASS = "com/newtowndata/math/genetics/program/Program";
+  private static final String KERNELS_CLASS =
+      "com/newtowndata/math/genetics/program/ScalarColumnKernels";
+  private static final String DATA_CLASS = "com/newtowndata/math/input/ColumnarData";
+  private static final String MATH_CLASS = "java/lang/StrictMath";
+
+  private static final String UNARY_DESCRIPTOR = "(D)D";
+  private static final String BINARY_DESCRIPTOR = "(DD)D";
+
+  private static final Map<Integer, String> MATH_FUNCTIONS = Map.ofEntries(
+      Map.entry(Opcodes.SQRT, "sqrt"),
+      Map.entry(Opcodes.EXP, "exp"),
+      Map.entry(Opcodes.LOG, "log"),
+      Map.entry(Opcodes.LOG10, "log10"),
+      Map.entry(Opcodes.SIN, "sin"),
+      Map.entry(Opcodes.COS, "cos"),
+      Map.entry(Opcodes.TAN, "tan"),
+      Map.entry(Opcodes.ASIN, "asin"),
+      Map.entry(Opcodes.ACOS, "acos"),
+      Map.entry(Opcodes.ATAN, "atan"),
+      Map.entry(Opcodes.SINH, "sinh"),
+      Map.entry(Opcodes.COSH, "cosh"),
+      Map.entry(Opcodes.TANH, "tanh")
+  );
+
+  private static final Map<Integer, String> PROGRAM_FUNCTIONS = Map.of(
+      Opcodes.ASINH, "asinh",
+      Opcodes.ACOSH, "acosh",
+      Opcodes.ATANH, "atanh"
+  );
+
+  // locals of evaluateRows
+  private static final int DATA_LOCAL = 1;
+  private static final int FROM_LOCAL = 2;
+  private static final int TO_LOCAL = 3;
+  private static final int OUT_LOCAL = 4;
+  private static final int ROW_LOCAL = 5;
+  private static final int MAX_LOCALS = 6;
+
+  // JVM instructions
+  private static final int ICONST_0 = 0x03;
+  private static final int BIPUSH = 0x10;
+  private static final int SIPUSH = 0x11;
+  private static final int LDC_W = 0x13;
+  private static final int LDC2_W = 0x14;
+  private static final int ILOAD = 0x15;
+  private static final int ALOAD = 0x19;
+  private static final int ALOAD_0 = 0x2a;
+  private static final int DALOAD = 0x31;
+  private static final int ISTORE = 0x36;
+  private static final int DASTORE = 0x52;
+  private static final int POP2 = 0x58;
+  private static final int DUP2 = 0x5c;
+  private static final int DUP2_X2 = 0x5e;
+  private static final int DADD = 0x63;
+  private static final int ISUB = 0x64;
+  private static final int DSUB = 0x67;
+  private static final int DMUL = 0x6b;
+  private static final int DDIV = 0x6f;
+  private static final int DNEG = 0x77;
+  private static final int IINC = 0x84;
+  private static final int IF_ICMPLT = 0xa1;
+  private static final int RETURN = 0xb1;
+  private static final int INVOKEVIRTUAL = 0xb6;
+  private static final int INVOKESPECIAL = 0xb7;
+  private static final int INVOKESTATIC = 0xb8;
+
+  private final Program program;
+  private final ConstantPool constantPool = new ConstantPool();
+  private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+  private int stackSize = 0;
+  private int maxStackSize = 0;
+
+  // values known at compile time are kept here until an instruction needs them on the JVM stack
+  private final boolean[] folded;
+  private final double[] foldedValues;
+  private int top = -1;
+
+  private ModelCompiler(Program program) {
+    this.program = program;
+    this.folded = new boolean[program.getMaxStackSize()];
+    this.foldedValues = new double[program.getMaxStackSize()];
+  }
+
+  public static boolean isSupported(Program program) {
+    if (program.getLength() > MAX_PROGRAM_LENGTH) {
+      return false;
+    }
+    for (int opcode : program.getCode()) {
+      if (opcode == Opcodes.GROUP_CONSTANT || opcode == Opcodes.NODE) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public static CompiledModel compile(Program program) {
+    if (!isSupported(program)) {
+      throw new IllegalArgumentException("Program cannot be compiled");
+    }
+
+    byte[] classBytes = new ModelCompiler(program).generateClass();
+    try {
+      Lookup lookup = MethodHandles.lookup().defineHiddenClass(classBytes, true);
+      return (CompiledModel) lookup.findConstructor(lookup.lookupClass(),
+          MethodType.methodType(void.class)).invoke();
+    } catch (Throwable e) {
+      throw new IllegalStateException("Cannot define compiled model", e);
+    }
+  }
+
+  private byte[] generateClass() {
+    int thisClass = constantPool.classRef(CLASS_NAME);
+    int superClass = constantPool.classRef(SUPER_CLASS);
+    byte[] constructor = generateConstructor();
+    byte[] evaluateRows = generateEvaluateRows(thisClass);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    u4(out, 0xcafebabe);
+    u2(out, 0);
+    u2(out, CLASS_VERSION);
+    u2(out, constantPool.count);
+    out.writeBytes(constantPool.bytes.toByteArray());
+    u2(out, 0x0010 | 0x0020); // final, super
+    u2(out, thisClass);
+    u2(out, superClass);
+    u2(out, 0); // interfaces
+    u2(out, 0); // fields
+    u2(out, 2); // methods
+    out.writeBytes(constructor);
+    out.writeBytes(evaluateRows);
+    u2(out, 0); // attributes
+    return out.toByteArray();
+  }
+
+  private byte[] generateConstructor() {
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    u1(body, ALOAD_0);
+    u1(body, INVOKESPECIAL);
+    u2(body, constantPool.methodRef(SUPER_CLASS, "<init>", "()V"));
+    u1(body, RETURN);
+
+    ByteArrayOutputStream method = new ByteArrayOutputStream();
+    u2(method, 0x0001); // public
+    u2(method, constantPool.utf8("<init>"));
+    u2(method, constantPool.utf8("()V"));
+    u2(method, 1); // attributes
+    writeCode(method, 1, 1, body.toByteArray(), null);
+    return method.toByteArray();
+  }
+
+  private byte[] generateEvaluateRows(int thisClass) {
+    // for (int row = from; row < to; row++) out[row - from] = <model>;
+    u1(code, ILOAD);
+    u1(code, FROM_LOCAL);
+    u1(code, ISTORE);
+    u1(code, ROW_LOCAL);
+
+    int loopStart = code.size();
+    u1(code, ALOAD);
+    u1(code, OUT_LOCAL);
+    u1(code, ILOAD);
+    u1(code, ROW_LOCAL);
+    u1(code, ILOAD);
+    u1(code, FROM_LOCAL);
+    u1(code, ISUB);
+    push(2);
+
+    generateModel();
+
+    u1(code, DASTORE);
+    pop(4);
+    u1(code, IINC);
+    u1(code, ROW_LOCAL);
+    u1(code, 1);
+    u1(code, ILOAD);
+    u1(code, ROW_LOCAL);
+    u1(code, ILOAD);
+    u1(code, TO_LOCAL);
+    int branch = code.size();
+    u1(code, IF_ICMPLT);
+    u2(code, loopStart - branch);
+    u1(code, RETURN);
+
+    // the loop start is the only branch target, all locals are set there
+    ByteArrayOutputStream frames = new ByteArrayOutputStream();
+    u2(frames, 1);
+    u1(frames, 255); // full frame
+    u2(frames, loopStart);
+    u2(frames, MAX_LOCALS);
+    objectType(frames, thisClass);
+    objectType(frames, constantPool.classRef(DATA_CLASS));
+    u1(frames, 1); // int
+    u1(frames, 1); // int
+    objectType(frames, constantPool.classRef("[D"));
+    u1(frames, 1); // int
+    u2(frames, 0); // stack
+
+    ByteArrayOutputStream method = new ByteArrayOutputStream();
+    u2(method, 0x0004); // protected
+    u2(method, constantPool.utf8("evaluateRows"));
+    u2(method, constantPool.utf8("(L" + DATA_CLASS + ";II[D)V"));
+    u2(method, 1); // attributes
+    writeCode(method, Math.max(maxStackSize, 4), MAX_LOCALS, code.toByteArray(),
+        frames.toByteArray());
+    return method.toByteArray();
+  }
+
+  private void generateModel() {
+    int[] opcodes = program.getCode();
+    int[] operands = program.getOperands();
+    double[] constants = program.getConstants();
+
+    for (int pc = 0; pc < opcodes.length; pc++) {
+      int opcode = opcodes[pc];
+      if (opcode == Opcodes.CONSTANT) {
+        pushFolded(constants[pc]);
+      } else if (opcode == Opcodes.VARIABLE) {
+        loadVariable(operands[pc]);
+        pushGenerated();
+      } else if (Opcodes.isBinary(opcode)) {
+        generateBinary(opcode, operands[pc] != 0);
+      } else {
+        generateUnary(opcode);
+      }
+    }
+
+    if (folded[top]) {
+      loadConstant(foldedValues[top]);
+    }
+  }
+
+  private void generateBinary(int opcode, boolean guarded) {
+    int right = top--;
+    int left = top--;
+
+    if (folded[left] && folded[right]) {
+      double a = foldedValues[left];
+      double b = foldedValues[right];
+      pushFolded(ScalarColumnKernels.checked(opcode == Opcodes.POWER && guarded
+          ? Program.guardedPower(a, b) : Program.binary(opcode, a, b)));
+      return;
+    }
+
+    if (folded[left]) {
+      loadConstant(foldedValues[left]);
+      swap();
+    } else if (folded[right]) {
+      loadConstant(foldedValues[right]);
+    }
+
+    switch (opcode) {
+      case Opcodes.ADD:
+        u1(code, DADD);
+        break;
+      case Opcodes.SUBTRACT:
+        u1(code, DSUB);
+        break;
+      case Opcodes.MULTIPLY:
+        u1(code, DMUL);
+        break;
+      case Opcodes.DIVIDE:
+        u1(code, DDIV);
+        break;
+      case Opcodes.POWER:
+        invokeStatic(guarded ? PROGRAM_CLASS : MATH_CLASS, guarded ? "guardedPower" : "pow",
+            BINARY_DESCRIPTOR);
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported binary opcode " + opcode);
+    }
+    pop(2);
+    checked();
+    pushGenerated();
+  }
+
+  private void generateUnary(int opcode) {
+    if (folded[top]) {
+      foldedValues[top] = ScalarColumnKernels.checked(Program.unary(opcode, foldedValues[top]));
+      return;
+    }
+
+    switch (opcode) {
+      case Opcodes.NEGATIVE:
+        u1(code, DNEG);
+        break;
+      case Opcodes.SQUARE:
+        u1(code, DUP2);
+        push(2);
+        u1(code, DMUL);
+        pop(2);
+        break;
+      case Opcodes.RECIPROCAL:
+        loadConstant(1.0);
+        swap();
+        u1(code, DDIV);
+        pop(2);
+        break;
+      case Opcodes.POWER_OF_10:
+      case Opcodes.POWER_OF_2:
+        loadConstant(opcode == Opcodes.POWER_OF_10 ? 10 : 2);
+        swap();
+        invokeStatic(MATH_CLASS, "pow", BINARY_DESCRIPTOR);
+        pop(2);
+        break;
+      default:
+        if (MATH_FUNCTIONS.containsKey(opcode)) {
+          invokeStatic(MATH_CLASS, MATH_FUNCTIONS.get(opcode), UNARY_DESCRIPTOR);
+        } else if (PROGRAM_FUNCTIONS.containsKey(opcode)) {
+          invokeStatic(PROGRAM_CLASS, PROGRAM_FUNCTIONS.get(opcode), UNARY_DESCRIPTOR);
+        } else {
+          throw new IllegalArgumentException("Unsupported unary opcode " + opcode);
+        }
+    }
+    checked();
+  }
+
+  private void pushFolded(double value) {
+    top++;
+    folded[top] = true;
+    foldedValues[top] = value;
+  }
+
+  private void pushGenerated() {
+    top++;
+    folded[top] = false;
+  }
+
+  private void loadVariable(int xIndex) {
+    // data.getColumn(xIndex)[row]
+    u1(code, ALOAD);
+    u1(code, DATA_LOCAL);
+    push(1);
+    loadInt(xIndex);
+    u1(code, INVOKEVIRTUAL);
+    u2(code, constantPool.methodRef(DATA_CLASS, "getColumn", "(I)[D"));
+    pop(1);
+    u1(code, ILOAD);
+    u1(code, ROW_LOCAL);
+    push(1);
+    u1(code, DALOAD);
+  }
+
+  private void loadInt(int value) {
+    if (value <= 5) {
+      u1(code, ICONST_0 + value);
+    } else if (value <= Byte.MAX_VALUE) {
+      u1(code, BIPUSH);
+      u1(code, value);
+    } else if (value <= Short.MAX_VALUE) {
+      u1(code, SIPUSH);
+      u2(code, value);
+    } else {
+      u1(code, LDC_W);
+      u2(code, constantPool.integer(value));
+    }
+    push(1);
+  }
+
+  private void loadConstant(double value) {
+    u1(code, LDC2_W);
+    u2(code, constantPool.doubleValue(value));
+    push(2);
+  }
+
+  private void swap() {
+    // a, b -> b, a for two doubles
+    u1(code, DUP2_X2);
+    push(2);
+    u1(code, POP2);
+    pop(2);
+  }
+
+  private void checked() {
+    invokeStatic(KERNELS_CLASS, "checked", UNARY_DESCRIPTOR);
+  }
+
+  private void invokeStatic(String owner, String name, String descriptor) {
+    u1(code, INVOKESTATIC);
+    u2(code, constantPool.methodRef(owner, name, descriptor));
+  }
+
+  private void push(int slots) {
+    stackSize += slots;
+    maxStackSize = Math.max(maxStackSize, stackSize);
+  }
+
+  private void pop(int slots) {
+    stackSize -= slots;
+  }
+
+  private void writeCode(ByteArrayOutputStream method, int maxStack, int maxLocals,
+      byte[] instructions, byte[] frames) {
+    ByteArrayOutputStream attribute = new ByteArrayOutputStream();
+    u2(attribute, maxStack);
+    u2(attribute, maxLocals);
+    u4(attribute, instructions.length);
+    attribute.writeBytes(instructions);
+    u2(attribute, 0); // exception table
+    if (frames == null) {
+      u2(attribute, 0);
+    } else {
+      u2(attribute, 1);
+      u2(attribute, constantPool.utf8("StackMapTable"));
+      u4(attribute, frames.length);
+      attribute.writeBytes(frames);
+    }
+
+    u2(method, constantPool.utf8("Code"));
+    u4(method, attribute.size());
+    method.writeBytes(attribute.toByteArray());
+  }
+
+  private static void objectType(ByteArrayOutputStream out, int classIndex) {
+    u1(out, 7);
+    u2(out, classIndex);
+  }
+
+  private static void u1(ByteArrayOutputStream out, int value) {
+    out.write(value);
+  }
+
+  private static void u2(ByteArrayOutputStream out, int value) {
+    out.write(value >>> 8);
+    out.write(value);
+  }
+
+  private static void u4(ByteArrayOutputStream out, int value) {
+    u2(out, value >>> 16);
+    u2(out, value);
+  }
+
+  private static class ConstantPool {
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final Map<String, Integer> indices = new HashMap<>();
+    private int count = 1;
+
+    int utf8(String value) {
+      Integer index = indices.get("Utf8 " + value);
+      if (index == null) {
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        u1(bytes, 1);
+        u2(bytes, data.length);
+        bytes.writeBytes(data);
+        index = register("Utf8 " + value, 1);
+      }
+      return index;
+    }
+
+    int integer(int value) {
+      Integer index = indices.get("Integer " + value);
+      if (index == null) {
+        u1(bytes, 3);
+        u4(bytes, value);
+        index = register("Integer " + value, 1);
+      }
+      return index;
+    }
+
+    int doubleValue(double value) {
+      // raw bits keep 0.0 and -0.0 apart
+      long bits = Double.doubleToRawLongBits(value);
+      Integer index = indices.get("Double " + bits);
+      if (index == null) {
+        u1(bytes, 6);
+        u4(bytes, (int) (bits >>> 32));
+        u4(bytes, (int) bits);
+        index = register("Double " + bits, 2);
+      }
+      return index;
+    }
+
+    int classRef(String name) {
+      Integer index = indices.get("Class " + name);
+      if (index == null) {
+        int nameIndex = utf8(name);
+        u1(bytes, 7);
+        u2(bytes, nameIndex);
+        index = register("Class " + name, 1);
+      }
+      return index;
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+      String key = "Method " + owner + "." + name + descriptor;
+      Integer index = indices.get(key);
+      if (index == null) {
+        int ownerIndex = classRef(owner);
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        u1(bytes, 12);
+        u2(bytes, nameIndex);
+        u2(bytes, descriptorIndex);
+        int nameAndType = register(key + " NameAndType", 1);
+        u1(bytes, 10);
+        u2(bytes, ownerIndex);
+        u2(bytes, nameAndType);
+        index = register(key, 1);
+      }
+      return index;
+    }
+
+    private int register(String key, int slots) {
+      int index = count;
+      indices.put(key, index);
+      count += slots;
+      return index;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+import com.newtowndata.math.genetics.nodes.core.Node;
+import com.newtowndata.math.input.ColumnarData;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Output columns of every node of one model tree.
+ *
+ * <p>Offspring share all untouched subtrees with their parents by reference, only the nodes on
+ * the path from a mutated or grafted node to the root are new. Evaluating the offspring with the
+ * parent columns therefore computes just that path.
+ */
+public class NodeColumns {
+
+  private final Map<Node, double[]> columns;
+  private final double[] output;
+  private final int computedCount;
+
+  private NodeColumns(Map<Node, double[]> columns, double[] output, int computedCount) {
+    this.columns = columns;
+    this.output = output;
+    this.computedCount = computedCount;
+  }
+
+  /**
+   * Evaluates every node of the tree over all rows, nodes found in the parent columns are not
+   * computed again.
+   */
+  public static NodeColumns evaluate(Node root, ColumnarData data, ColumnKernels kernels,
+      List<NodeColumns> parents) {
+    Map<Node, double[]> columns = new IdentityHashMap<>();
+    int[] computedCount = new int[1];
+    double[] output = evaluate(root, data, kernels, parents, columns, computedCount);
+    return new NodeColumns(columns, output, computedCount[0]);
+  }
+
+  private static double[] evaluate(Node node, ColumnarData data, ColumnKernels kernels,
+      List<NodeColumns> parents, Map<Node, double[]> columns, int[] computedCount) {
+    double[] result = columns.get(node);
+    if (result != null) {
+      return result;
+    }
+    for (NodeColumns parent : parents) {
+      result = parent.columns.get(node);
+      if (result != null) {
+        copySubtree(node, parent.columns, columns);
+        return result;
+      }
+    }
+
+    if (ColumnOperations.isComposite(node)) {
+      double[] a = evaluate(node.getChild(0), data, kernels, parents, columns, computedCount);
+      double[] b = node.getChildCount() > 1
+          ? evaluate(node.getChild(1), data, kernels, parents, columns, computedCount) : null;
+      result = ColumnOperations.evaluateComposite(node, a, b, kernels);
+    } else {
+      result = ColumnOperations.evaluateWhole(node, data);
+    }
+    computedCount[0]++;
+    columns.put(node, result);
+    return result;
+  }
+
+  private static void copySubtree(Node node, Map<Node, double[]> from, Map<Node, double[]> to) {
+    double[] column = from.get(node);
+    // whole evaluated nodes have no columns of their children
+    if (column != null && to.put(node, column) == null) {
+      for (int i = 0; i < node.getChildCount(); i++) {
+        copySubtree(node.getChild(i), from, to);
+      }
+    }
+  }
+
+  /**
+   * Returns the output column of the root, rows out of range are set to {@link Double#NaN}.
+   */
+  public double[] getOutput() {
+    return output;
+  }
+
+  /**
+   * Returns the number of nodes computed, the rest was taken over from the parents.
+   */
+  public int getComputedCount() {
+    return computedCount;
+  }
+}
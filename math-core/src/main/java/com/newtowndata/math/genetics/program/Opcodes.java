@@ -0,0 +1,68 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+/**
+ * Instruction set of {@link Program}. Every non-leaf opcode mirrors {@code calculate} of exactly one
+ * node class, so the formulas here must be kept in sync with the node implementations.
+ */
+public final class Opcodes {
+
+  // leaves - push a value on the stack
+  public static final int CONSTANT = 0;
+  public static final int VARIABLE = 1;
+  public static final int GROUP_CONSTANT = 2;
+  public static final int NODE = 3;
+
+  // binary - pop two values, push one
+  public static final int ADD = 10;
+  public static final int SUBTRACT = 11;
+  public static final int MULTIPLY = 12;
+  public static final int DIVIDE = 13;
+  public static final int POWER = 14;
+
+  // unary - replace the top of the stack
+  public static final int NEGATIVE = 20;
+  public static final int SQUARE = 21;
+  public static final int RECIPROCAL = 22;
+  public static final int SQRT = 23;
+  public static final int EXP = 24;
+  public static final int LOG = 25;
+  public static final int LOG10 = 26;
+  public static final int POWER_OF_10 = 27;
+  public static final int POWER_OF_2 = 28;
+  public static final int SIN = 29;
+  public static final int COS = 30;
+  public static final int TAN = 31;
+  public static final int ASIN = 32;
+  public static final int ACOS = 33;
+  public static final int ATAN = 34;
+  public static final int SINH = 35;
+  public static final int COSH = 36;
+  public static final int TANH = 37;
+  public static final int ASINH = 38;
+  public static final int ACOSH = 39;
+  public static final int ATANH = 40;
+
+  private Opcodes() {
+  }
+
+  public static boolean isLeaf(int opcode) {
+    return opcode < ADD;
+  }
+
+  public static boolean isBinary(int opcode) {
+    return opcode >= ADD && opcode < NEGATIVE;
+  }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+import static com.newtowndata.math.genetics.program.ScalarColumnKernels.checked;
+
+import com.newtowndata.math.genetics.nodes.GroupConstantNode;
+import com.newtowndata.math.genetics.nodes.core.Node;
+import com.newtowndata.math.input.ColumnarData;
+import com.newtowndata.math.input.DataRow;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Flat postfix form of a node tree evaluated by a small stack machine.
+ *
+ * <p>The result is identical to {@link Node#evaluateOrNaN(DataRow)}, a value out of range is
+ * reported as {@link Double#NaN}.
+ *
+ * <p>Columnar evaluation runs every instruction over a whole block of rows. Rows out of range
+ * are marked by NaN, which propagates through all the following instructions.
+ */
+public class Program {
+
+  private final int[] code;
+  private final int[] operands;
+  private final double[] constants;
+  private final Node[] nodes;
+  private final int maxStackSize;
+
+  Program(int[] code, int[] operands, double[] constants, Node[] nodes, int maxStackSize) {
+    this.code = code;
+    this.operands = operands;
+    this.constants = constants;
+    this.nodes = nodes;
+    this.maxStackSize = maxStackSize;
+  }
+
+  int[] getCode() {
+    return code;
+  }
+
+  int[] getOperands() {
+    return operands;
+  }
+
+  double[] getConstants() {
+    return constants;
+  }
+
+  public int getLength() {
+    return code.length;
+  }
+
+  public int getMaxStackSize() {
+    return maxStackSize;
+  }
+
+  public double[] createStack() {
+    return new double[maxStackSize];
+  }
+
+  public double evaluate(DataRow row) {
+    return evaluate(row, createStack());
+  }
+
+  public double evaluate(DataRow row, double[] stack) {
+    int top = -1;
+    for (int pc = 0; pc < code.length; pc++) {
+      int opcode = code[pc];
+      double result;
+      switch (opcode) {
+        case Opcodes.CONSTANT:
+          stack[++top] = constants[pc];
+          continue;
+        case Opcodes.VARIABLE:
+          stack[++top] = row.getX()[operands[pc]];
+          continue;
+        case Opcodes.GROUP_CONSTANT:
+          GroupConstantNode groupNode = (GroupConstantNode) nodes[pc];
+          int groupIndex = row == null ? -1 : groupNode.indexOf(row.getGroup());
+          if (groupIndex < 0) {
+            return Double.NaN;
+          }
+          stack[++top] = groupNode.getValue(groupIndex);
+          continue;
+        case Opcodes.NODE:
+          double value = nodes[pc].evaluateOrNaN(row);
+          if (Double.isNaN(value)) {
+            return Double.NaN;
+          }
+          stack[++top] = value;
+          continue;
+        default:
+          if (Opcodes.isBinary(opcode)) {
+            double b = stack[top--];
+            result = binary(opcode, stack[top], b);
+          } else {
+            result = unary(opcode, stack[top]);
+          }
+      }
+
+      if (!Double.isFinite(result)) {
+        return Double.NaN;
+      }
+      stack[top] = result;
+    }
+    return stack[0];
+  }
+
+  public double[][] createBuffers(int length) {
+    return new double[maxStackSize][length];
+  }
+
+  public void evaluate(ColumnarData data, double[] out) {
+    evaluate(data, 0, data.getRowCount(), out, createBuffers(data.getRowCount()));
+  }
+
+  /**
+   * Evaluates rows {@code <from, to)} into {@code out[0..to-from)}.
+   *
+   * @param buffers at least {@link #getMaxStackSize()} arrays of at least {@code to-from} items
+   */
+  public void evaluate(ColumnarData data, int from, int to, double[] out, double[][] buffers) {
+    evaluate(data, from, to, out, buffers, ScalarColumnKernels.INSTANCE);
+  }
+
+  /**
+   * Evaluates rows {@code <from, to)} into {@code out[0..to-from)}, the arithmetic instructions
+   * are run by {@code kernels}.
+   *
+   * @param buffers at least {@link #getMaxStackSize()} arrays of at least {@code to-from} items
+   */
+  public void evaluate(ColumnarData data, int from, int to, double[] out, double[][] buffers,
+      ColumnKernels kernels) {
+    int length = to - from;
+    int top = -1;
+    for (int pc = 0; pc < code.length; pc++) {
+      int opcode = code[pc];
+      switch (opcode) {
+        case Opcodes.CONSTANT:
+          Arrays.fill(buffers[++top], 0, length, constants[pc]);
+          break;
+        case Opcodes.VARIABLE:
+          System.arraycopy(data.getColumn(operands[pc]), from, buffers[++top], 0, length);
+          break;
+        case Opcodes.GROUP_CONSTANT:
+          loadGroupConstant((GroupConstantNode) nodes[pc], data, from, length, buffers[++top]);
+          break;
+        case Opcodes.NODE:
+          loadNode(nodes[pc], data, from, length, buffers[++top]);
+          break;
+        case Opcodes.ADD:
+          top--;
+          kernels.add(buffers[top], buffers[top + 1], length);
+          break;
+        case Opcodes.SUBTRACT:
+          top--;
+          kernels.subtract(buffers[top], buffers[top + 1], length);
+          break;
+        case Opcodes.MULTIPLY:
+          top--;
+          kernels.multiply(buffers[top], buffers[top + 1], length);
+          break;
+        case Opcodes.DIVIDE:
+          top--;
+          kernels.divide(buffers[top], buffers[top + 1], length);
+          break;
+        case Opcodes.POWER:
+          top--;
+          power(buffers[top], buffers[top + 1], length, operands[pc] != 0);
+          break;
+        case Opcodes.NEGATIVE:
+          kernels.negative(buffers[top], length);
+          break;
+        case Opcodes.SQUARE:
+          kernels.square(buffers[top], length);
+          break;
+        case Opcodes.RECIPROCAL:
+          kernels.reciprocal(buffers[top], length);
+          break;
+        case Opcodes.SQRT:
+          kernels.sqrt(buffers[top], length);
+          break;
+        default:
+          unary(opcode, buffers[top], length);
+      }
+    }
+    System.arraycopy(buffers[0], 0, out, 0, length);
+  }
+
+  private static void loadGroupConstant(GroupConstantNode node, ColumnarData data, int from,
+      int length, double[] result) {
+    List<String> groups = data.getGroups();
+    double[] values = new double[groups.size()];
+    for (int i = 0; i < values.length; i++) {
+      int index = node.indexOf(groups.get(i));
+      values[i] = index < 0 ? Double.NaN : node.getValue(index);
+    }
+
+    int[] groupIndices = data.getGroupIndices();
+    for (int i = 0; i < length; i++) {
+      int groupIndex = groupIndices[from + i];
+      result[i] = groupIndex < 0 ? Double.NaN : values[groupIndex];
+    }
+  }
+
+  private static void loadNode(Node node, ColumnarData data, int from, int length,
+      double[] result) {
+    for (int i = 0; i < length; i++) {
+      result[i] = node.evaluateOrNaN(data.getRow(from + i));
+    }
+  }
+
+  static void power(double[] a, double[] b, int length, boolean guarded) {
+    for (int i = 0; i < length; i++) {
+      a[i] = checked(guarded ? guardedPower(a[i], b[i]) : StrictMath.pow(a[i], b[i]));
+    }
+  }
+
+  static double guardedPower(double a, double b) {
+    // pow(NaN, 0) is 1, so NaN of a failed base must not be turned into a value
+    return Double.isNaN(a) ? Double.NaN : StrictMath.pow(a, b);
+  }
+
+  static void unary(int opcode, double[] a, int length) {
+    for (int i = 0; i < length; i++) {
+      a[i] = checked(unary(opcode, a[i]));
+    }
+  }
+
+  static double binary(int opcode, double a, double b) {
+    switch (opcode) {
+      case Opcodes.ADD:
+        return a + b;
+      case Opcodes.SUBTRACT:
+        return a - b;
+      case Opcodes.MULTIPLY:
+        return a * b;
+      case Opcodes.DIVIDE:
+        return a / b;
+      case Opcodes.POWER:
+        return StrictMath.pow(a, b);
+      default:
+        throw new IllegalArgumentException("Unsupported binary opcode " + opcode);
+    }
+  }
+
+  static double unary(int opcode, double a) {
+    switch (opcode) {
+      case Opcodes.NEGATIVE:
+        return -a;
+      case Opcodes.SQUARE:
+        return a * a;
+      case Opcodes.RECIPROCAL:
+        return 1.0 / a;
+      case Opcodes.SQRT:
+        return StrictMath.sqrt(a);
+      case Opcodes.EXP:
+        return StrictMath.exp(a);
+      case Opcodes.LOG:
+        return StrictMath.log(a);
+      case Opcodes.LOG10:
+        return StrictMath.log10(a);
+      case Opcodes.POWER_OF_10:
+        return StrictMath.pow(10, a);
+      case Opcodes.POWER_OF_2:
+        return StrictMath.pow(2, a);
+      case Opcodes.SIN:
+        return StrictMath.sin(a);
+      case Opcodes.COS:
+        return StrictMath.cos(a);
+      case Opcodes.TAN:
+        return StrictMath.tan(a);
+      case Opcodes.ASIN:
+        return StrictMath.asin(a);
+      case Opcodes.ACOS:
+        return StrictMath.acos(a);
+      case Opcodes.ATAN:
+        return StrictMath.atan(a);
+      case Opcodes.SINH:
+        return StrictMath.sinh(a);
+      case Opcodes.COSH:
+        return StrictMath.cosh(a);
+      case Opcodes.TANH:
+        return StrictMath.tanh(a);
+      case Opcodes.ASINH:
+        return asinh(a);
+      case Opcodes.ACOSH:
+        return acosh(a);
+      case Opcodes.ATANH:
+        return atanh(a);
+      default:
+        throw new IllegalArgumentException("Unsupported unary opcode " + opcode);
+    }
+  }
+
+  static double asinh(double a) {
+    return StrictMath.log(a + StrictMath.sqrt(a * a + 1));
+  }
+
+  static double acosh(double a) {
+    return StrictMath.log(a + StrictMath.sqrt(a * a - 1));
+  }
+
+  static double atanh(double a) {
+    return 0.5 * StrictMath.log((1.0 + a) / (1.0 - a));
+  }
+}
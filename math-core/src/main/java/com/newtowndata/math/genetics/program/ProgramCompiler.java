@@ -0,0 +1,222 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+import com.newtowndata.math.genetics.NodeUtils;
+import com.newtowndata.math.genetics.nodes.ArcCosNode;
+import com.newtowndata.math.genetics.nodes.ArcCoshNode;
+import com.newtowndata.math.genetics.nodes.ArcSinNode;
+import com.newtowndata.math.genetics.nodes.ArcSinhNode;
+import com.newtowndata.math.genetics.nodes.ArcTanNode;
+import com.newtowndata.math.genetics.nodes.ArcTanhNode;
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.CosNode;
+import com.newtowndata.math.genetics.nodes.CoshNode;
+import com.newtowndata.math.genetics.nodes.DivisionNode;
+import com.newtowndata.math.genetics.nodes.ExpNode;
+import com.newtowndata.math.genetics.nodes.GroupConstantNode;
+import com.newtowndata.math.genetics.nodes.IntConstantNode;
+import com.newtowndata.math.genetics.nodes.Log10Node;
+import com.newtowndata.math.genetics.nodes.LogNode;
+import com.newtowndata.math.genetics.nodes.MinusNode;
+import com.newtowndata.math.genetics.nodes.MultiplicationNode;
+import com.newtowndata.math.genetics.nodes.NegativeNode;
+import com.newtowndata.math.genetics.nodes.PlusNode;
+import com.newtowndata.math.genetics.nodes.PowerNode;
+import com.newtowndata.math.genetics.nodes.PowerOf10Node;
+import com.newtowndata.math.genetics.nodes.PowerOf2Node;
+import com.newtowndata.math.genetics.nodes.ReciprocalNode;
+import com.newtowndata.math.genetics.nodes.SinNode;
+import com.newtowndata.math.genetics.nodes.SinhNode;
+import com.newtowndata.math.genetics.nodes.SpecialConstantNode;
+import com.newtowndata.math.genetics.nodes.SqrtNode;
+import com.newtowndata.math.genetics.nodes.TanNode;
+import com.newtowndata.math.genetics.nodes.TanhNode;
+import com.newtowndata.math.genetics.nodes.ToSquareNode;
+import com.newtowndata.math.genetics.nodes.VariableNode;
+import com.newtowndata.math.genetics.nodes.core.Node;
+import java.util.Arrays;
+import java.util.Map;
+
+public final class ProgramCompiler {
+
+  private static final Map<Class<? extends Node>, Integer> OPCODES = Map.ofEntries(
+      Map.entry(PlusNode.class, Opcodes.ADD),
+      Map.entry(MinusNode.class, Opcodes.SUBTRACT),
+      Map.entry(MultiplicationNode.class, Opcodes.MULTIPLY),
+      Map.entry(DivisionNode.class, Opcodes.DIVIDE),
+      Map.entry(PowerNode.class, Opcodes.POWER),
+      Map.entry(NegativeNode.class, Opcodes.NEGATIVE),
+      Map.entry(ToSquareNode.class, Opcodes.SQUARE),
+      Map.entry(ReciprocalNode.class, Opcodes.RECIPROCAL),
+      Map.entry(SqrtNode.class, Opcodes.SQRT),
+      Map.entry(ExpNode.class, Opcodes.EXP),
+      Map.entry(LogNode.class, Opcodes.LOG),
+      Map.entry(Log10Node.class, Opcodes.LOG10),
+      Map.entry(PowerOf10Node.class, Opcodes.POWER_OF_10),
+      Map.entry(PowerOf2Node.class, Opcodes.POWER_OF_2),
+      Map.entry(SinNode.class, Opcodes.SIN),
+      Map.entry(CosNode.class, Opcodes.COS),
+      Map.entry(TanNode.class, Opcodes.TAN),
+      Map.entry(ArcSinNode.class, Opcodes.ASIN),
+      Map.entry(ArcCosNode.class, Opcodes.ACOS),
+      Map.entry(ArcTanNode.class, Opcodes.ATAN),
+      Map.entry(SinhNode.class, Opcodes.SINH),
+      Map.entry(CoshNode.class, Opcodes.COSH),
+      Map.entry(TanhNode.class, Opcodes.TANH),
+      Map.entry(ArcSinhNode.class, Opcodes.ASINH),
+      Map.entry(ArcCoshNode.class, Opcodes.ACOSH),
+      Map.entry(ArcTanhNode.class, Opcodes.ATANH)
+  );
+
+  private static final Class<?>[] NODE_CLASSES = new Class<?>[Opcodes.ATANH + 1];
+
+  static {
+    OPCODES.forEach((nodeClass, opcode) -> NODE_CLASSES[opcode] = nodeClass);
+  }
+
+  private final int[] code;
+  private final int[] operands;
+  private final double[] constants;
+  private final Node[] nodes;
+
+  private int length = 0;
+  private int stackSize = 0;
+  private int maxStackSize = 0;
+
+  private ProgramCompiler(int size) {
+    this.code = new int[size];
+    this.operands = new int[size];
+    this.constants = new double[size];
+    this.nodes = new Node[size];
+  }
+
+  public static Program compile(Node root) {
+    ProgramCompiler compiler = new ProgramCompiler(NodeUtils.calculateSize(root));
+    compiler.emitNode(root);
+    int length = compiler.length;
+    return new Program(Arrays.copyOf(compiler.code, length),
+        Arrays.copyOf(compiler.operands, length), Arrays.copyOf(compiler.constants, length),
+        Arrays.copyOf(compiler.nodes, length), compiler.maxStackSize);
+  }
+
+  public static Program compile(LinearGenome genome) {
+    ProgramCompiler compiler = new ProgramCompiler(genome.size());
+    compiler.emitGenome(genome, 0);
+    int length = compiler.length;
+    return new Program(Arrays.copyOf(compiler.code, length),
+        Arrays.copyOf(compiler.operands, length), Arrays.copyOf(compiler.constants, length),
+        Arrays.copyOf(compiler.nodes, length), compiler.maxStackSize);
+  }
+
+  /**
+   * Returns the opcode of a unary or binary node, or {@code null} for leaves and unknown nodes.
+   */
+  static Integer opcodeOf(Node node) {
+    return OPCODES.get(node.getClass());
+  }
+
+  /**
+   * Returns the node class of a unary or binary opcode.
+   */
+  static Class<?> nodeClassOf(int opcode) {
+    return NODE_CLASSES[opcode];
+  }
+
+  private void emitNode(Node node) {
+    Integer opcode = OPCODES.get(node.getClass());
+    if (opcode == null) {
+      emitLeaf(node);
+      return;
+    }
+
+    int childCount = node.getChildCount();
+    for (int i = 0; i < childCount; i++) {
+      emitNode(node.getChild(i));
+    }
+    emit(opcode, opcode == Opcodes.POWER && NodeUtils.mayFail(node.getChild(0)) ? 1 : 0, 0, null);
+    stackSize -= childCount - 1;
+  }
+
+  /**
+   * Emits the subtree starting at the given genome position, returns the position after it.
+   */
+  private int emitGenome(LinearGenome genome, int position) {
+    int opcode = genome.getOpcode(position);
+    switch (opcode) {
+      case Opcodes.CONSTANT:
+      case LinearGenome.INT_CONSTANT:
+        push(Opcodes.CONSTANT, 0, genome.getValue(position));
+        return position + 1;
+      case Opcodes.VARIABLE:
+        push(Opcodes.VARIABLE, (int) genome.getValue(position), 0);
+        return position + 1;
+      case LinearGenome.LEAF:
+        emitNode(genome.getLeaf(position));
+        return position + 1;
+      default:
+        int end = emitGenome(genome, position + 1);
+        int arity = LinearGenome.arity(opcode);
+        if (arity == 2) {
+          end = emitGenome(genome, end);
+        }
+        emit(opcode, opcode == Opcodes.POWER && mayFail(genome, position + 1) ? 1 : 0, 0, null);
+        stackSize -= arity - 1;
+        return end;
+    }
+  }
+
+  private static boolean mayFail(LinearGenome genome, int position) {
+    int opcode = genome.getOpcode(position);
+    if (opcode == LinearGenome.LEAF) {
+      return NodeUtils.mayFail(genome.getLeaf(position));
+    }
+    return !(opcode == Opcodes.CONSTANT || opcode == LinearGenome.INT_CONSTANT
+        || opcode == Opcodes.VARIABLE);
+  }
+
+  private void push(int opcode, int operand, double constant) {
+    emit(opcode, operand, constant, null);
+    stackSize++;
+    maxStackSize = Math.max(maxStackSize, stackSize);
+  }
+
+  private void emitLeaf(Node node) {
+    Class<?> nodeClass = node.getClass();
+    if (ConstantNode.class.equals(nodeClass)) {
+      emit(Opcodes.CONSTANT, 0, ((ConstantNode) node).getConstant(), null);
+    } else if (IntConstantNode.class.equals(nodeClass)) {
+      emit(Opcodes.CONSTANT, 0, ((IntConstantNode) node).getConstant(), null);
+    } else if (SpecialConstantNode.class.equals(nodeClass)) {
+      emit(Opcodes.CONSTANT, 0, ((SpecialConstantNode) node).getConstant().getValue(), null);
+    } else if (VariableNode.class.equals(nodeClass)) {
+      emit(Opcodes.VARIABLE, ((VariableNode) node).getXIndex(), 0, null);
+    } else if (GroupConstantNode.class.equals(nodeClass)) {
+      emit(Opcodes.GROUP_CONSTANT, 0, 0, node);
+    } else {
+      // unknown node type, keep the tree evaluation for the whole subtree
+      emit(Opcodes.NODE, 0, 0, node);
+    }
+    stackSize++;
+    maxStackSize = Math.max(maxStackSize, stackSize);
+  }
+
+  private void emit(int opcode, int operand, double constant, Node node) {
+    code[length] = opcode;
+    operands[length] = operand;
+    constants[length] = constant;
+    nodes[length] = node;
+    length++;
+  }
+}
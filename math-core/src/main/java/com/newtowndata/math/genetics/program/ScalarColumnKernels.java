@@ -0,0 +1,87 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+public final class ScalarColumnKernels implements ColumnKernels {
+
+  public static final ScalarColumnKernels INSTANCE = new ScalarColumnKernels();
+
+  private ScalarColumnKernels() {
+  }
+
+  static double checked(double value) {
+    return Double.isFinite(value) ? value : Double.NaN;
+  }
+
+  @Override
+  public void add(double[] a, double[] b, int length) {
+    for (int i = 0; i < length; i++) {
+      a[i] = checked(a[i] + b[i]);
+    }
+  }
+
+  @Override
+  public void subtract(double[] a, double[] b, int length) {
+    for (int i = 0; i < length; i++) {
+      a[i] = checked(a[i] - b[i]);
+    }
+  }
+
+  @Override
+  public void multiply(double[] a, double[] b, int length) {
+    for (int i = 0; i < length; i++) {
+      a[i] = checked(a[i] * b[i]);
+    }
+  }
+
+  @Override
+  public void divide(double[] a, double[] b, int length) {
+    for (int i = 0; i < length; i++) {
+      a[i] = checked(a[i] / b[i]);
+    }
+  }
+
+  @Override
+  public void negative(double[] a, int length) {
+    for (int i = 0; i < length; i++) {
+      a[i] = checked(-a[i]);
+    }
+  }
+
+  @Override
+  public void square(double[] a, int length) {
+    for (int i = 0; i < length; i++) {
+      a[i] = checked(a[i] * a[i]);
+    }
+  }
+
+  @Override
+  public void reciprocal(double[] a, int length) {
+    for (int i = 0; i < length; i++) {
+      a[i] = checked(1.0 / a[i]);
+    }
+  }
+
+  @Override
+  public void sqrt(double[] a, int length) {
+    for (int i = 0; i < length; i++) {
+      a[i] = checked(StrictMath.sqrt(a[i]));
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "scalar";
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+import com.newtowndata.math.genetics.nodes.core.Node;
+import com.newtowndata.math.input.ColumnarData;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Evaluates node trees column by column and keeps the output column of every evaluated subtree,
+ * so that subtrees shared by many models are computed once.
+ *
+ * <p>Models intern their trees, so equal subtrees are the same instance and the lookup mostly
+ * ends at the reference check. The columns are bounded by a byte budget, the least recently used
+ * ones are evicted first. Returned columns are shared and must not be modified.
+ *
+ * <p>The result is identical to {@link Program#evaluate(ColumnarData, double[])}.
+ */
+public class SubtreeColumnCache {
+
+  private static final int MAX_STRIPE_COUNT = 16;
+
+  private final ColumnarData data;
+  private final ColumnKernels kernels;
+  private final long columnBytes;
+  private final Stripe[] stripes;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder bytes = new LongAdder();
+
+  public SubtreeColumnCache(ColumnarData data, ColumnKernels kernels, long maxBytes) {
+    if (maxBytes <= 0) {
+      throw new IllegalArgumentException("Cache size must be positive: " + maxBytes);
+    }
+    this.data = data;
+    this.kernels = kernels;
+    this.columnBytes = Double.BYTES * (long) data.getRowCount();
+
+    // every stripe must hold a few columns, otherwise the stripes just evict each other
+    long columns = maxBytes / Math.max(columnBytes, 1);
+    int stripeCount = (int) Math.min(MAX_STRIPE_COUNT,
+        Math.max(1, Long.highestOneBit(columns / 4)));
+    this.stripes = new Stripe[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new Stripe(maxBytes / stripeCount);
+    }
+  }
+
+  /**
+   * Returns the output column of the tree over all rows, rows out of range are set to
+   * {@link Double#NaN}.
+   */
+  public double[] evaluate(Node node) {
+    if (node.getChildCount() == 0) {
+      // constants are as cheap to fill as to look up
+      return ColumnOperations.evaluateLeaf(node, data);
+    }
+
+    double[] result = get(node);
+    if (result != null) {
+      return result;
+    }
+
+    if (ColumnOperations.isComposite(node)) {
+      double[] a = evaluate(node.getChild(0));
+      double[] b = node.getChildCount() > 1 ? evaluate(node.getChild(1)) : null;
+      result = ColumnOperations.evaluateComposite(node, a, b, kernels);
+    } else {
+      result = ColumnOperations.evaluateWhole(node, data);
+    }
+
+    put(node, result);
+    return result;
+  }
+
+  private double[] get(Node node) {
+    Stripe stripe = stripe(node);
+    double[] result;
+    synchronized (stripe) {
+      result = stripe.get(node);
+    }
+
+    if (result == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return result;
+  }
+
+  private void put(Node node, double[] column) {
+    Stripe stripe = stripe(node);
+    synchronized (stripe) {
+      stripe.add(node, column);
+    }
+  }
+
+  private Stripe stripe(Node node) {
+    int hash = node.hashCode();
+    return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  public double getHitRate() {
+    long hitCount = getHitCount();
+    long total = hitCount + getMissCount();
+    return total == 0 ? 0 : hitCount / (double) total;
+  }
+
+  public long getBytes() {
+    return bytes.sum();
+  }
+
+  @Override
+  public String toString() {
+    return String.format(Locale.ENGLISH,
+        "%.1f MB, hit rate %.1f%% (%d of %d), evictions %d", getBytes() / 1048576.0,
+        100.0 * getHitRate(), getHitCount(), getHitCount() + getMissCount(),
+        getEvictionCount());
+  }
+
+  private class Stripe {
+
+    private final Map<Node, double[]> columns = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxBytes;
+    private long currentBytes = 0;
+
+    Stripe(long maxBytes) {
+      this.maxBytes = maxBytes;
+    }
+
+    double[] get(Node node) {
+      return columns.get(node);
+    }
+
+    void add(Node node, double[] column) {
+      if (columnBytes > maxBytes || columns.containsKey(node)) {
+        return;
+      }
+
+      Iterator<double[]> iterator = columns.values().iterator();
+      while (currentBytes + columnBytes > maxBytes && iterator.hasNext()) {
+        iterator.next();
+        iterator.remove();
+        currentBytes -= columnBytes;
+        bytes.add(-columnBytes);
+        evictions.increment();
+      }
+
+      columns.put(node, column);
+      currentBytes += columnBytes;
+      bytes.add(columnBytes);
+    }
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+import static com.newtowndata.math.genetics.program.ScalarColumnKernels.checked;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link ColumnKernels} running in SIMD lanes of the JDK Vector API. The results are bit-for-bit
+ * identical to {@link ScalarColumnKernels}, the rows behind the last full vector are computed by
+ * the scalar code.
+ *
+ * <p>Requires the JVM to be started with {@code --add-modules jdk.incubator.vector}, use
+ * {@link ColumnKernelsProvider} to fall back when the module is missing.
+ */
+public final class VectorColumnKernels implements ColumnKernels {
+
+  private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+  private static final DoubleVector ONE = DoubleVector.broadcast(SPECIES, 1.0);
+  private static final DoubleVector NAN = DoubleVector.broadcast(SPECIES, Double.NaN);
+
+  private static DoubleVector checkedVector(DoubleVector value) {
+    // |NaN| <= MAX_VALUE is false as well
+    return NAN.blend(value, value.abs().compare(VectorOperators.LE, Double.MAX_VALUE));
+  }
+
+  @Override
+  public void add(double[] a, double[] b, int length) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+      DoubleVector va = DoubleVector.fromArray(SPECIES, a, i);
+      DoubleVector vb = DoubleVector.fromArray(SPECIES, b, i);
+      checkedVector(va.add(vb)).intoArray(a, i);
+    }
+    for (; i < length; i++) {
+      a[i] = checked(a[i] + b[i]);
+    }
+  }
+
+  @Override
+  public void subtract(double[] a, double[] b, int length) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+      DoubleVector va = DoubleVector.fromArray(SPECIES, a, i);
+      DoubleVector vb = DoubleVector.fromArray(SPECIES, b, i);
+      checkedVector(va.sub(vb)).intoArray(a, i);
+    }
+    for (; i < length; i++) {
+      a[i] = checked(a[i] - b[i]);
+    }
+  }
+
+  @Override
+  public void multiply(double[] a, double[] b, int length) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+      DoubleVector va = DoubleVector.fromArray(SPECIES, a, i);
+      DoubleVector vb = DoubleVector.fromArray(SPECIES, b, i);
+      checkedVector(va.mul(vb)).intoArray(a, i);
+    }
+    for (; i < length; i++) {
+      a[i] = checked(a[i] * b[i]);
+    }
+  }
+
+  @Override
+  public void divide(double[] a, double[] b, int length) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+      DoubleVector va = DoubleVector.fromArray(SPECIES, a, i);
+      DoubleVector vb = DoubleVector.fromArray(SPECIES, b, i);
+      checkedVector(va.div(vb)).intoArray(a, i);
+    }
+    for (; i < length; i++) {
+      a[i] = checked(a[i] / b[i]);
+    }
+  }
+
+  @Override
+  public void negative(double[] a, int length) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+      checkedVector(DoubleVector.fromArray(SPECIES, a, i).neg()).intoArray(a, i);
+    }
+    for (; i < length; i++) {
+      a[i] = checked(-a[i]);
+    }
+  }
+
+  @Override
+  public void square(double[] a, int length) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+      DoubleVector va = DoubleVector.fromArray(SPECIES, a, i);
+      checkedVector(va.mul(va)).intoArray(a, i);
+    }
+    for (; i < length; i++) {
+      a[i] = checked(a[i] * a[i]);
+    }
+  }
+
+  @Override
+  public void reciprocal(double[] a, int length) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+      checkedVector(ONE.div(DoubleVector.fromArray(SPECIES, a, i))).intoArray(a, i);
+    }
+    for (; i < length; i++) {
+      a[i] = checked(1.0 / a[i]);
+    }
+  }
+
+  @Override
+  public void sqrt(double[] a, int length) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+      DoubleVector va = DoubleVector.fromArray(SPECIES, a, i);
+      checkedVector(va.lanewise(VectorOperators.SQRT)).intoArray(a, i);
+    }
+    for (; i < length; i++) {
+      a[i] = checked(StrictMath.sqrt(a[i]));
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "vector of " + SPECIES.length() + " lanes";
+  }
+}
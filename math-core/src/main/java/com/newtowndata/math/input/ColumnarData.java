@@ -0,0 +1,78 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.input;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Column-major copy of the input rows - one contiguous array per variable, {@code y} and group.
+ */
+public class ColumnarData {
+
+  private final List<DataRow> rows;
+  private final int rowCount;
+  private final double[][] columns;
+  private final double[] y;
+  private final List<String> groups;
+  private final int[] groupIndices;
+
+  public ColumnarData(List<DataRow> rows, int xLength, List<String> groups) {
+    this.rows = rows;
+    this.rowCount = rows.size();
+    this.columns = new double[Math.max(xLength, 0)][rowCount];
+    this.y = new double[rowCount];
+    this.groups = groups;
+    this.groupIndices = new int[rowCount];
+
+    for (int i = 0; i < rowCount; i++) {
+      DataRow row = rows.get(i);
+      double[] x = row.getX();
+      for (int column = 0; column < columns.length; column++) {
+        columns[column][i] = x[column];
+      }
+      y[i] = row.getY();
+      groupIndices[i] = row.getGroup() == null ? -1 : Collections.binarySearch(groups,
+          row.getGroup());
+    }
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public int getXLength() {
+    return columns.length;
+  }
+
+  public double[] getColumn(int xIndex) {
+    return columns[xIndex];
+  }
+
+  public double[] getY() {
+    return y;
+  }
+
+  public List<String> getGroups() {
+    return groups;
+  }
+
+  public int[] getGroupIndices() {
+    return groupIndices;
+  }
+
+  public DataRow getRow(int index) {
+    return rows.get(index);
+  }
+}
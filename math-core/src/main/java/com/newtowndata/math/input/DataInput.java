@@ -24,6 +24,8 @@ public class DataInput {
   private final List<DataRow> rows;
   private final int xLength;
 
+  private ColumnarData columnarData;
+
   public DataInput(List<DataRow> rows) {
     this.rows = rows;
     this.xLength = calculateXLength(rows);
@@ -61,4 +63,11 @@ public class DataInput {
   public List<DataRow> getRows() {
     return rows;
   }
+
+  public synchronized ColumnarData getColumnarData() {
+    if (columnarData == null) {
+      columnarData = new ColumnarData(rows, xLength, computeGroups());
+    }
+    return columnarData;
+  }
 }
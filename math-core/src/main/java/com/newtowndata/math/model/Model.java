@@ -13,38 +13,231 @@
  */
 package com.newtowndata.math.model;
 
+import com.newtowndata.math.genetics.NodeInterner;
 import com.newtowndata.math.genetics.NodeUtils;
 import com.newtowndata.math.genetics.nodes.core.Node;
+import com.newtowndata.math.genetics.program.CompiledModel;
+import com.newtowndata.math.genetics.program.LinearGenome;
+import com.newtowndata.math.genetics.program.ModelCompiler;
+import com.newtowndata.math.genetics.program.NodeColumns;
+import com.newtowndata.math.genetics.program.Program;
+import com.newtowndata.math.genetics.program.ProgramCompiler;
+import com.newtowndata.math.input.ColumnarData;
 import com.newtowndata.math.input.DataRow;
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
 
 public class Model {
 
   private final int size;
+  // exactly one of the representations is set
   private final Node root;
-  private final String modelOutput;
+  private final LinearGenome genome;
+  private final long fingerprint;
+
+  // nodes of a genome model, decoded on the first use
+  private volatile Node decodedRoot;
+  private volatile String modelOutput;
+  private volatile Program program;
+  private volatile CompiledModel compiledModel;
+
+  private volatile Model[] parents;
+  private volatile NodeColumns columns;
+  private volatile double[] rowErrors;
+  private volatile long semanticHash;
 
   public Model(Node root) {
-    this.root = root;
-    this.size = NodeUtils.calculateSize(this.root);
-    this.modelOutput = this.root.toString();
+    this.root = NodeInterner.intern(root);
+    this.genome = null;
+    this.size = this.root.getSize();
+    this.fingerprint = NodeUtils.fingerprint(this.root);
+  }
+
+  /**
+   * Creates an offspring, its evaluation may reuse the node columns of the parents.
+   */
+  public Model(Node root, Model... parents) {
+    this(root);
+    this.parents = parents;
+  }
+
+  /**
+   * Creates a model kept as a linear genome, nodes are created only when asked for.
+   */
+  public Model(LinearGenome genome) {
+    this.root = null;
+    this.genome = genome;
+    this.size = genome.size();
+    this.fingerprint = genome.fingerprint();
   }
 
   public double evaluate(DataRow x) {
-    return root.evaluate(x);
+    return getRoot().evaluate(x);
+  }
+
+  /**
+   * Evaluates all rows at once, rows out of range are set to {@link Double#NaN}.
+   */
+  public void evaluate(ColumnarData data, double[] out) {
+    CompiledModel compiled = getCompiledModel();
+    if (compiled != null) {
+      compiled.evaluate(data, 0, data.getRowCount(), out);
+    } else {
+      getProgram().evaluate(data, out);
+    }
+  }
+
+  public Program getProgram() {
+    Program result = program;
+    if (result == null) {
+      // compiling twice from concurrent threads is harmless, both programs are equal
+      result = genome != null ? ProgramCompiler.compile(genome) : ProgramCompiler.compile(root);
+      program = result;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the model compiled to bytecode, or {@code null} if the model cannot be compiled.
+   */
+  public CompiledModel getCompiledModel() {
+    CompiledModel result = compiledModel;
+    if (result == null && ModelCompiler.isSupported(getProgram())) {
+      result = ModelCompiler.compile(getProgram());
+      compiledModel = result;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the node columns of the parents that are still available.
+   */
+  public List<NodeColumns> getParentColumns() {
+    Model[] current = parents;
+    if (current == null) {
+      return List.of();
+    }
+    List<NodeColumns> result = new ArrayList<>(current.length);
+    for (Model parent : current) {
+      NodeColumns parentColumns = parent.columns;
+      if (parentColumns != null) {
+        result.add(parentColumns);
+      }
+    }
+    return result;
+  }
+
+  public NodeColumns getColumns() {
+    return columns;
+  }
+
+  /**
+   * Keeps the node columns for the offspring and releases the parents.
+   */
+  public void setColumns(NodeColumns columns) {
+    this.columns = columns;
+    this.parents = null;
+  }
+
+  public void releaseColumns() {
+    this.columns = null;
+    this.parents = null;
+  }
+
+  /**
+   * Returns the errors of the lexicase case rows recorded by the evaluation, or {@code null}.
+   */
+  public double[] getRowErrors() {
+    return rowErrors;
+  }
+
+  public void setRowErrors(double[] rowErrors) {
+    this.rowErrors = rowErrors;
+  }
+
+  /**
+   * Returns the hash of the rounded output of all rows set by the evaluation, models computing
+   * the same output have the same hash. Returns 0 if the hash is unknown.
+   */
+  public long getSemanticHash() {
+    return semanticHash;
+  }
+
+  public void setSemanticHash(long semanticHash) {
+    this.semanticHash = semanticHash;
   }
 
   public int getSize() {
     return size;
   }
 
+  /**
+   * Returns the model tree, a genome model decodes its nodes on the first call.
+   */
   public Node getRoot() {
-    return root;
+    if (root != null) {
+      return root;
+    }
+    Node result = decodedRoot;
+    if (result == null) {
+      // decoding twice from concurrent threads is harmless, both trees are equal
+      result = genome.decode();
+      decodedRoot = result;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the linear genome, or {@code null} if the model is kept as a node tree.
+   */
+  public LinearGenome getGenome() {
+    return genome;
   }
 
+  /**
+   * Returns the node of the given pre-order index, see {@link NodeUtils#extractNode}.
+   */
+  public Node extractNode(int nodeIndex) {
+    if (genome != null) {
+      return nodeIndex < 0 || nodeIndex >= size ? getRoot() : genome.decode(nodeIndex);
+    }
+    return NodeUtils.extractNode(root, nodeIndex);
+  }
+
+  /**
+   * Returns an offspring with the node of the given pre-order index replaced, in the same
+   * representation as this model.
+   *
+   * @param otherParents models the replacement comes from, besides this model
+   */
+  public Model replaceNode(int nodeIndex, Function<Node, Node> nodeOperation,
+      Model... otherParents) {
+    if (genome != null) {
+      return new Model(genome.replace(nodeIndex, nodeOperation));
+    }
+
+    Model[] offspringParents = new Model[otherParents.length + 1];
+    offspringParents[0] = this;
+    System.arraycopy(otherParents, 0, offspringParents, 1, otherParents.length);
+    return new Model(NodeUtils.replaceNode(root, nodeIndex, nodeOperation), offspringParents);
+  }
+
+  public long getFingerprint() {
+    return fingerprint;
+  }
+
+  /**
+   * Returns the model formula, it is formatted on the first call only.
+   */
   @Override
   public String toString() {
-    return modelOutput;
+    String result = modelOutput;
+    if (result == null) {
+      result = getRoot().toString();
+      modelOutput = result;
+    }
+    return result;
   }
 
   @Override
@@ -56,11 +249,23 @@ public class Model {
       return false;
     }
     Model model = (Model) o;
-    return Objects.equals(modelOutput, model.modelOutput);
+    // different fingerprints are different trees, equal ones are compared to rule out a collision
+    return fingerprint == model.fingerprint && hasSameStructure(model);
+  }
+
+  private boolean hasSameStructure(Model model) {
+    if (root != null && model.root != null) {
+      // interned trees are mostly the same instance
+      return root == model.root || root.equals(model.root);
+    }
+    if (genome != null && model.genome != null) {
+      return genome.equals(model.genome);
+    }
+    return getRoot().equals(model.getRoot());
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(modelOutput);
+    return Long.hashCode(fingerprint);
   }
 }
@@ -20,10 +20,23 @@ public class RankedModel implements Comparable<RankedModel> {
 
   private final Model model;
   private final double fitness;
+  private final boolean pruned;
 
   public RankedModel(Model model, double fitness) {
+    this(model, fitness, false);
+  }
+
+  private RankedModel(Model model, double fitness, boolean pruned) {
     this.model = model;
     this.fitness = fitness;
+    this.pruned = pruned;
+  }
+
+  /**
+   * Model whose evaluation was stopped early, its fitness is unknown ({@link Double#NaN}).
+   */
+  public static RankedModel pruned(Model model) {
+    return new RankedModel(model, Double.NaN, true);
   }
 
   public Model getModel() {
@@ -34,6 +47,10 @@ public class RankedModel implements Comparable<RankedModel> {
     return fitness;
   }
 
+  public boolean isPruned() {
+    return pruned;
+  }
+
   @Override
   public int compareTo(RankedModel o) {
     return Double.compare(o.fitness, fitness);
@@ -41,6 +58,9 @@ public class RankedModel implements Comparable<RankedModel> {
 
   @Override
   public String toString() {
+    if (pruned) {
+      return String.format(Locale.ENGLISH, "{pruned, %s}", model);
+    }
     return String.format(Locale.ENGLISH, "{%.6f, %s}", fitness, model);
   }
 
@@ -22,6 +22,9 @@ import com.newtowndata.math.genetics.nodes.core.LeafNode;
 import com.newtowndata.math.genetics.nodes.core.Node;
 import com.newtowndata.math.genetics.nodes.helper.Constant;
 import com.newtowndata.math.model.Model;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -33,7 +36,6 @@ import java.util.StringTokenizer;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 public class ModelSerializer {
 
@@ -55,10 +57,13 @@ public class ModelSerializer {
     while (!openList.isEmpty()) {
       IndexedNode currentNode = openList.removeFirst();
 
-      List<IndexedNode> children = currentNode.getNode().getChildren().stream()
-          .map(n -> new IndexedNode(nodeIndex.getAndIncrement(), n)).collect(Collectors.toList());
-
-      children.forEach(openList::addLast);
+      Node node = currentNode.getNode();
+      List<IndexedNode> children = new ArrayList<>(node.getChildCount());
+      for (int i = 0; i < node.getChildCount(); i++) {
+        IndexedNode child = new IndexedNode(nodeIndex.getAndIncrement(), node.getChild(i));
+        children.add(child);
+        openList.addLast(child);
+      }
 
       output.add(serializeNode(currentNode, children));
     }
@@ -178,6 +183,117 @@ public class ModelSerializer {
     throw new IllegalArgumentException("Unsupported node " + clazz.getSimpleName());
   }
 
+  /**
+   * Writes the model in a compact binary form - nodes in pre-order, each as an index into the
+   * node classes of the model, the name and arity are written on the first occurrence only.
+   */
+  public void write(Model model, DataOutput output) throws IOException {
+    writeNode(model.getRoot(), output, new HashMap<>());
+  }
+
+  /**
+   * Reads a model written by {@link #write(Model, DataOutput)}.
+   */
+  public Model read(DataInput input) throws IOException {
+    return new Model(readNode(input, new ArrayList<>()));
+  }
+
+  private void writeNode(Node node, DataOutput output, Map<Class<?>, Integer> classIndices)
+      throws IOException {
+    Integer classIndex = classIndices.get(node.getClass());
+    if (classIndex == null) {
+      classIndex = classIndices.size();
+      classIndices.put(node.getClass(), classIndex);
+      output.writeByte(classIndex);
+      output.writeUTF(node.getClass().getSimpleName());
+      output.writeByte(node.getChildCount());
+    } else {
+      output.writeByte(classIndex);
+    }
+
+    if (node instanceof LeafNode) {
+      writeLeafNode(node, output);
+    } else {
+      for (int i = 0; i < node.getChildCount(); i++) {
+        writeNode(node.getChild(i), output, classIndices);
+      }
+    }
+  }
+
+  private void writeLeafNode(Node node, DataOutput output) throws IOException {
+    if (node instanceof ConstantNode) {
+      output.writeDouble(((ConstantNode) node).getConstant());
+    } else if (node instanceof IntConstantNode) {
+      output.writeInt(((IntConstantNode) node).getConstant());
+    } else if (node instanceof GroupConstantNode) {
+      List<Constant> constants = ((GroupConstantNode) node).getConstants();
+      output.writeInt(constants.size());
+      for (Constant constant : constants) {
+        output.writeUTF(constant.toString());
+        output.writeDouble(constant.getValue());
+      }
+    } else if (node instanceof SpecialConstantNode) {
+      output.writeUTF(((SpecialConstantNode) node).getConstant().toString());
+    } else if (node instanceof VariableNode) {
+      output.writeInt(((VariableNode) node).getXIndex());
+    } else {
+      throw new IllegalArgumentException("Unsupported node " + node.getClass().getSimpleName());
+    }
+  }
+
+  private Node readNode(DataInput input, List<NodeClass> nodeClasses) throws IOException {
+    int classIndex = input.readUnsignedByte();
+    if (classIndex == nodeClasses.size()) {
+      String nodeSimpleName = input.readUTF();
+      int childCount = input.readUnsignedByte();
+      try {
+        nodeClasses.add(new NodeClass(Class.forName(CLASS_NAME_PREFIX + nodeSimpleName),
+            childCount));
+      } catch (ClassNotFoundException e) {
+        throw new IllegalArgumentException("Unknown node " + nodeSimpleName, e);
+      }
+    } else if (classIndex > nodeClasses.size()) {
+      throw new IllegalArgumentException("Invalid node class index " + classIndex);
+    }
+
+    NodeClass nodeClass = nodeClasses.get(classIndex);
+    if (LeafNode.class.isAssignableFrom(nodeClass.clazz)) {
+      return readLeafNode(nodeClass.clazz, input);
+    }
+
+    Class<?>[] constructorNodes = new Class[nodeClass.childCount];
+    Object[] childNodes = new Object[nodeClass.childCount];
+    for (int i = 0; i < childNodes.length; i++) {
+      childNodes[i] = readNode(input, nodeClasses);
+      constructorNodes[i] = Node.class;
+    }
+    try {
+      return (Node) nodeClass.clazz.getConstructor(constructorNodes).newInstance(childNodes);
+    } catch (Exception e) {
+      throw new IllegalArgumentException("Cannot create node " + nodeClass.clazz.getName(), e);
+    }
+  }
+
+  private Node readLeafNode(Class<?> clazz, DataInput input) throws IOException {
+    if (ConstantNode.class.equals(clazz)) {
+      return new ConstantNode(input.readDouble());
+    } else if (IntConstantNode.class.equals(clazz)) {
+      return new IntConstantNode(input.readInt());
+    } else if (GroupConstantNode.class.equals(clazz)) {
+      int size = input.readInt();
+      List<Constant> constants = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        constants.add(new Constant(input.readUTF(), input.readDouble()));
+      }
+      return new GroupConstantNode(constants);
+    } else if (SpecialConstantNode.class.equals(clazz)) {
+      return SpecialConstantNode.of(input.readUTF());
+    } else if (VariableNode.class.equals(clazz)) {
+      return new VariableNode(input.readInt());
+    }
+    throw new IllegalArgumentException("Unsupported node " + clazz.getSimpleName());
+  }
+
   String serializeNode(IndexedNode node, List<IndexedNode> children) {
     Node currentNode = node.getNode();
 
@@ -235,6 +351,17 @@ public class ModelSerializer {
     return "y" + String.format(Locale.ENGLISH, "%03d", index);
   }
 
+  private static class NodeClass {
+
+    private final Class<?> clazz;
+    private final int childCount;
+
+    NodeClass(Class<?> clazz, int childCount) {
+      this.clazz = clazz;
+      this.childCount = childCount;
+    }
+  }
+
   static class IndexedNode {
 
     private final int nodeIndex;
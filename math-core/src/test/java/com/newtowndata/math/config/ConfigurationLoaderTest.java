@@ -17,6 +17,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import org.junit.jupiter.api.Test;
@@ -47,6 +48,28 @@ class ConfigurationLoaderTest {
     assertEquals("/tmp/results", config.getResultOutputPrefix());
     assertEquals(2, config.getThreadCount());
     assertEquals(1e-2, config.getModelSizeImportance());
+    assertEquals("vector", config.getEvaluationBackend());
+    assertEquals(5, config.getCompileThreshold());
+    assertEquals(200, config.getSubsampleSize());
+    assertEquals(0.02, config.getSubsampleMargin());
+    assertEquals(1000, config.getFitnessCacheSize());
+    assertEquals(64, config.getSubtreeCacheSizeInMb());
+    assertEquals(true, config.isIncrementalEvaluation());
+    assertEquals("linear", config.getRepresentation());
+    assertEquals("steady_state", config.getEvolutionMode());
+    assertEquals(4, config.getIslandCount());
+    assertEquals(5, config.getMigrationInterval());
+    assertEquals(3, config.getMigrantCount());
+    assertEquals("random", config.getMigrationTopology());
+    assertEquals(7070, config.getCoordinatorPort());
+    assertEquals(7071, config.getEvaluationPort());
+    assertEquals(2, config.getEvaluationWorkers());
+    assertEquals("rows", config.getEvaluationSharding());
+    assertEquals(1234567890123L, config.getRandomSeed());
+    assertEquals("tournament", config.getParentSelection());
+    assertEquals(7, config.getTournamentSize());
+    assertEquals(50, config.getLexicaseCases());
+    assertEquals(false, config.isSemanticDeduplication());
   }
 
   @Test
@@ -75,6 +98,53 @@ class ConfigurationLoaderTest {
     assertEquals(4000, config.getCrossoverSize());
     assertEquals(1000, config.getSurvivalSize());
     assertEquals(1000, config.getReplaceableSize());
+    assertEquals("program", config.getEvaluationBackend());
+    assertEquals(3, config.getCompileThreshold());
+    assertEquals(0, config.getSubsampleSize());
+    assertEquals(0.05, config.getSubsampleMargin());
+    assertEquals(100000, config.getFitnessCacheSize());
+    assertEquals(0, config.getSubtreeCacheSizeInMb());
+    assertEquals(false, config.isIncrementalEvaluation());
+    assertEquals("tree", config.getRepresentation());
+    assertEquals("generational", config.getEvolutionMode());
+    assertEquals(1, config.getIslandCount());
+    assertEquals(10, config.getMigrationInterval());
+    assertEquals(10, config.getMigrantCount());
+    assertEquals("ring", config.getMigrationTopology());
+    assertEquals(0, config.getCoordinatorPort());
+    assertEquals(0, config.getEvaluationPort());
+    assertEquals(0, config.getEvaluationWorkers());
+    assertEquals("models", config.getEvaluationSharding());
+    assertEquals(0, config.getRandomSeed());
+    assertEquals("random", config.getParentSelection());
+    assertEquals(4, config.getTournamentSize());
+    assertEquals(100, config.getLexicaseCases());
+    assertEquals(true, config.isSemanticDeduplication());
+  }
+
+  @Test
+  void toStream() throws IOException {
+    Configuration config;
+    try (InputStream is = ConfigurationTest.class.getResourceAsStream("test_config.properties")) {
+      config = ConfigurationLoader.fromStream(is);
+    }
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    ConfigurationLoader.toStream(config, os);
+    Configuration copy = ConfigurationLoader.fromStream(
+        new ByteArrayInputStream(os.toByteArray()));
+
+    assertEquals(config.toString(), copy.toString());
+  }
+
+  @Test
+  void toStreamNullValue() {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    ConfigurationLoader.toStream(new Configuration(), os);
+    Configuration copy = ConfigurationLoader.fromStream(
+        new ByteArrayInputStream(os.toByteArray()));
+
+    assertEquals(null, copy.getResultOutputPrefix());
   }
 
   @Test
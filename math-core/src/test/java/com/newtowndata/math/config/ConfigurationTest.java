@@ -173,6 +173,204 @@ class ConfigurationTest {
     assertEquals(1e-2, config.getModelSizeImportance(), 1e-9);
   }
 
+  @Test
+  void setEvaluationBackend() {
+    Configuration config = new Configuration();
+    assertEquals("program", config.getEvaluationBackend());
+
+    config.setEvaluationBackend("vector");
+    assertEquals("vector", config.getEvaluationBackend());
+  }
+
+  @Test
+  void setCompileThreshold() {
+    Configuration config = new Configuration();
+    assertEquals(3, config.getCompileThreshold());
+
+    config.setCompileThreshold(10);
+    assertEquals(10, config.getCompileThreshold());
+  }
+
+  @Test
+  void setSubsampleSize() {
+    Configuration config = new Configuration();
+    assertEquals(0, config.getSubsampleSize());
+
+    config.setSubsampleSize(500);
+    assertEquals(500, config.getSubsampleSize());
+  }
+
+  @Test
+  void setSubsampleMargin() {
+    Configuration config = new Configuration();
+    assertEquals(0.05, config.getSubsampleMargin());
+
+    config.setSubsampleMargin(0.1);
+    assertEquals(0.1, config.getSubsampleMargin());
+  }
+
+  @Test
+  void setFitnessCacheSize() {
+    Configuration config = new Configuration();
+    assertEquals(100000, config.getFitnessCacheSize());
+
+    config.setFitnessCacheSize(500);
+    assertEquals(500, config.getFitnessCacheSize());
+  }
+
+  @Test
+  void setSubtreeCacheSizeInMb() {
+    Configuration config = new Configuration();
+    assertEquals(0, config.getSubtreeCacheSizeInMb());
+
+    config.setSubtreeCacheSizeInMb(256);
+    assertEquals(256, config.getSubtreeCacheSizeInMb());
+  }
+
+  @Test
+  void setIncrementalEvaluation() {
+    Configuration config = new Configuration();
+    assertEquals(false, config.isIncrementalEvaluation());
+
+    config.setIncrementalEvaluation(true);
+    assertEquals(true, config.isIncrementalEvaluation());
+  }
+
+  @Test
+  void setRepresentation() {
+    Configuration config = new Configuration();
+    assertEquals("tree", config.getRepresentation());
+
+    config.setRepresentation("linear");
+    assertEquals("linear", config.getRepresentation());
+  }
+
+  @Test
+  void setEvolutionMode() {
+    Configuration config = new Configuration();
+    assertEquals("generational", config.getEvolutionMode());
+
+    config.setEvolutionMode("steady_state");
+    assertEquals("steady_state", config.getEvolutionMode());
+  }
+
+  @Test
+  void setIslandCount() {
+    Configuration config = new Configuration();
+    assertEquals(1, config.getIslandCount());
+
+    config.setIslandCount(4);
+    assertEquals(4, config.getIslandCount());
+  }
+
+  @Test
+  void setMigrationInterval() {
+    Configuration config = new Configuration();
+    assertEquals(10, config.getMigrationInterval());
+
+    config.setMigrationInterval(5);
+    assertEquals(5, config.getMigrationInterval());
+  }
+
+  @Test
+  void setMigrantCount() {
+    Configuration config = new Configuration();
+    assertEquals(10, config.getMigrantCount());
+
+    config.setMigrantCount(3);
+    assertEquals(3, config.getMigrantCount());
+  }
+
+  @Test
+  void setMigrationTopology() {
+    Configuration config = new Configuration();
+    assertEquals("ring", config.getMigrationTopology());
+
+    config.setMigrationTopology("random");
+    assertEquals("random", config.getMigrationTopology());
+  }
+
+  @Test
+  void setCoordinatorPort() {
+    Configuration config = new Configuration();
+    assertEquals(0, config.getCoordinatorPort());
+
+    config.setCoordinatorPort(7070);
+    assertEquals(7070, config.getCoordinatorPort());
+  }
+
+  @Test
+  void setEvaluationPort() {
+    Configuration config = new Configuration();
+    assertEquals(0, config.getEvaluationPort());
+
+    config.setEvaluationPort(7071);
+    assertEquals(7071, config.getEvaluationPort());
+  }
+
+  @Test
+  void setEvaluationWorkers() {
+    Configuration config = new Configuration();
+    assertEquals(0, config.getEvaluationWorkers());
+
+    config.setEvaluationWorkers(2);
+    assertEquals(2, config.getEvaluationWorkers());
+  }
+
+  @Test
+  void setEvaluationSharding() {
+    Configuration config = new Configuration();
+    assertEquals("models", config.getEvaluationSharding());
+
+    config.setEvaluationSharding("rows");
+    assertEquals("rows", config.getEvaluationSharding());
+  }
+
+  @Test
+  void setRandomSeed() {
+    Configuration config = new Configuration();
+    assertEquals(0, config.getRandomSeed());
+
+    config.setRandomSeed(1234567890123L);
+    assertEquals(1234567890123L, config.getRandomSeed());
+  }
+
+  @Test
+  void setParentSelection() {
+    Configuration config = new Configuration();
+    assertEquals("random", config.getParentSelection());
+
+    config.setParentSelection("lexicase");
+    assertEquals("lexicase", config.getParentSelection());
+  }
+
+  @Test
+  void setTournamentSize() {
+    Configuration config = new Configuration();
+    assertEquals(4, config.getTournamentSize());
+
+    config.setTournamentSize(7);
+    assertEquals(7, config.getTournamentSize());
+  }
+
+  @Test
+  void setLexicaseCases() {
+    Configuration config = new Configuration();
+    assertEquals(100, config.getLexicaseCases());
+
+    config.setLexicaseCases(50);
+    assertEquals(50, config.getLexicaseCases());
+  }
+
+  @Test
+  void setSemanticDeduplication() {
+    Configuration config = new Configuration();
+    assertEquals(true, config.isSemanticDeduplication());
+
+    config.setSemanticDeduplication(false);
+    assertEquals(false, config.isSemanticDeduplication());
+  }
+
   @Test
   void testToString() {
     assertNotNull(new Configuration().toString());
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.evolution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.PlusNode;
+import com.newtowndata.math.genetics.nodes.VariableNode;
+import com.newtowndata.math.genetics.program.CompiledModel;
+import com.newtowndata.math.model.Model;
+import org.junit.jupiter.api.Test;
+
+class CompiledModelCacheTest {
+
+  @Test
+  void countEvaluation() {
+    CompiledModelCache cache = new CompiledModelCache(3, 100);
+
+    // every evaluation of an equal structure is counted, whichever instance it is
+    assertNull(cache.countEvaluation(createModel()));
+    assertNull(cache.countEvaluation(createModel()));
+    CompiledModel compiled = cache.countEvaluation(createModel());
+    assertNotNull(compiled);
+    assertSame(compiled, cache.countEvaluation(createModel()));
+
+    assertEquals(1, cache.size());
+    assertEquals(1, cache.getCompilationCount());
+    assertEquals(2, cache.getCompiledEvaluationCount());
+  }
+
+  @Test
+  void evict() {
+    CompiledModelCache cache = new CompiledModelCache(2, 1);
+    cache.countEvaluation(createModel());
+    cache.countEvaluation(new Model(new VariableNode(0)));
+
+    // the count starts again after the structure is evicted
+    assertNull(cache.countEvaluation(createModel()));
+    assertEquals(1, cache.size());
+    assertEquals(0, cache.getCompilationCount());
+  }
+
+  @Test
+  void invalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> new CompiledModelCache(0, 100));
+    assertThrows(IllegalArgumentException.class, () -> new CompiledModelCache(3, 0));
+  }
+
+  private static Model createModel() {
+    return new Model(new PlusNode(new VariableNode(0), new ConstantNode(1)));
+  }
+}
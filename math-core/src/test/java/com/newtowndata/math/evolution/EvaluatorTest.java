@@ -13,20 +13,34 @@
  */
 package com.newtowndata.math.evolution;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.newtowndata.math.config.Configuration;
 import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.DivisionNode;
 import com.newtowndata.math.genetics.nodes.ExpNode;
+import com.newtowndata.math.genetics.nodes.LogNode;
+import com.newtowndata.math.genetics.nodes.MinusNode;
 import com.newtowndata.math.genetics.nodes.MultiplicationNode;
+import com.newtowndata.math.genetics.nodes.NegativeNode;
 import com.newtowndata.math.genetics.nodes.PlusNode;
+import com.newtowndata.math.genetics.nodes.ReciprocalNode;
 import com.newtowndata.math.genetics.nodes.SinNode;
+import com.newtowndata.math.genetics.nodes.SqrtNode;
 import com.newtowndata.math.genetics.nodes.ToSquareNode;
 import com.newtowndata.math.genetics.nodes.VariableNode;
+import com.newtowndata.math.genetics.program.LinearGenome;
 import com.newtowndata.math.input.DataInput;
 import com.newtowndata.math.input.DataRow;
 import com.newtowndata.math.model.Model;
 import com.newtowndata.math.model.RankedModel;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 
@@ -137,6 +151,305 @@ class EvaluatorTest {
     assertEquals(0.6058317262410949, result.getFitness(), 1e-9);
   }
 
+  @Test
+  void evaluateMoreBlocks() {
+    Configuration configuration = new Configuration();
+    configuration.setModelSizeImportance(0);
+
+    List<DataRow> rows = new ArrayList<>();
+    for (int i = 0; i < Evaluator.BLOCK_SIZE * 2 + 10; i++) {
+      rows.add(computeRow(TEST_MODEL, i * 0.01, i % 7));
+    }
+    // last row of the last block is out of range
+    rows.add(new DataRow(1, -1, 0));
+
+    Evaluator evaluator = new Evaluator(configuration, new DataInput(rows));
+    RankedModel result = evaluator.evaluate(new Model(new PlusNode(TEST_MODEL.getRoot(),
+        new MultiplicationNode(new ConstantNode(0),
+            new LogNode(new PlusNode(new VariableNode(0), new ConstantNode(1)))))));
+    assertEquals((rows.size() - 1) / (double) rows.size(), result.getFitness(), 1e-9);
+  }
+
+  @Test
+  void evaluateVectorBackend() {
+    Configuration configuration = new Configuration();
+    Configuration vectorConfiguration = new Configuration();
+    vectorConfiguration.setEvaluationBackend("vector");
+
+    List<DataRow> rows = new ArrayList<>();
+    for (int i = 0; i < Evaluator.BLOCK_SIZE + 13; i++) {
+      rows.add(computeRow(TEST_MODEL, i * 0.01 - 3, i % 5));
+    }
+    DataInput dataInput = new DataInput(rows);
+
+    // (x1-x2)/sqrt(x1)*(-1/x2^2) hits every vector kernel and fails for x1 < 0 or x2 = 0
+    Model model = new Model(new DivisionNode(
+        new MinusNode(new VariableNode(0), new VariableNode(1)),
+        new MultiplicationNode(new SqrtNode(new VariableNode(0)),
+            new NegativeNode(new ReciprocalNode(new ToSquareNode(new VariableNode(1)))))));
+
+    assertEquals(new Evaluator(configuration, dataInput).evaluate(model).getFitness(),
+        new Evaluator(vectorConfiguration, dataInput).evaluate(model).getFitness());
+    assertEquals(new Evaluator(configuration, dataInput).evaluate(TEST_MODEL).getFitness(),
+        new Evaluator(vectorConfiguration, dataInput).evaluate(TEST_MODEL).getFitness());
+  }
+
+  @Test
+  void evaluateCompiled() {
+    Configuration configuration = new Configuration();
+    configuration.setCompileThreshold(0);
+    Configuration compiledConfiguration = new Configuration();
+    compiledConfiguration.setCompileThreshold(2);
+    compiledConfiguration.setFitnessCacheSize(0);
+
+    List<DataRow> rows = new ArrayList<>();
+    for (int i = 0; i < Evaluator.BLOCK_SIZE + 13; i++) {
+      rows.add(computeRow(TEST_MODEL, i * 0.01 - 3, i % 5));
+    }
+    DataInput dataInput = new DataInput(rows);
+    Evaluator evaluator = new Evaluator(configuration, dataInput);
+    Evaluator compiledEvaluator = new Evaluator(compiledConfiguration, dataInput);
+
+    Model model = new Model(new PlusNode(TEST_MODEL.getRoot(),
+        new LogNode(new VariableNode(1))));
+    double expected = evaluator.evaluate(model).getFitness();
+    assertNull(evaluator.getCompiledModelCache());
+
+    // interpreted below the threshold, compiled from then on, counted over new instances
+    assertEquals(expected, compiledEvaluator.evaluate(model).getFitness());
+    assertEquals(0, compiledEvaluator.getCompiledModelCache().getCompilationCount());
+    Model sameModel = new Model(new PlusNode(TEST_MODEL.getRoot(),
+        new LogNode(new VariableNode(1))));
+    assertEquals(expected, compiledEvaluator.evaluate(sameModel).getFitness());
+    assertEquals(1, compiledEvaluator.getCompiledModelCache().getCompilationCount());
+    assertEquals(1, compiledEvaluator.getCompiledModelCache().getCompiledEvaluationCount());
+  }
+
+  @Test
+  void evaluateThreshold() {
+    Configuration configuration = new Configuration();
+
+    List<DataRow> rows = new ArrayList<>();
+    for (int i = 0; i < Evaluator.BLOCK_SIZE * 3; i++) {
+      rows.add(computeRow(TEST_MODEL, i * 0.01 - 3, i % 5));
+    }
+    Evaluator evaluator = new Evaluator(configuration, new DataInput(rows));
+
+    Model model = new Model(new ConstantNode(1));
+    double fitness = evaluator.evaluate(model).getFitness();
+
+    RankedModel result = evaluator.evaluate(model, fitness);
+    assertFalse(result.isPruned());
+    assertEquals(fitness, result.getFitness());
+
+    // the first block alone proves the constant cannot get anywhere close
+    RankedModel pruned = evaluator.evaluate(model, 0.9);
+    assertTrue(pruned.isPruned());
+    assertTrue(Double.isNaN(pruned.getFitness()));
+
+    assertFalse(evaluator.evaluate(TEST_MODEL, 0.9).isPruned());
+  }
+
+  @Test
+  void evaluateThresholdSingleBlock() {
+    Configuration configuration = new Configuration();
+
+    Evaluator evaluator = new Evaluator(configuration, EXAMPLE_SIN_INPUT);
+    RankedModel result = evaluator.evaluate(new Model(new ConstantNode(1)), 0.9);
+    assertFalse(result.isPruned());
+  }
+
+  @Test
+  void evaluateFitnessCache() {
+    Configuration configuration = new Configuration();
+    Evaluator evaluator = new Evaluator(configuration, EXAMPLE_SIN_INPUT);
+
+    Model model = new Model(new PlusNode(new VariableNode(0), new ConstantNode(1)));
+    double fitness = evaluator.evaluate(model).getFitness();
+    assertEquals(0, evaluator.getFitnessCache().getHitCount());
+
+    // an equal tree built again is found by its fingerprint
+    Model sameModel = new Model(new PlusNode(new VariableNode(0), new ConstantNode(1)));
+    assertEquals(fitness, evaluator.evaluate(sameModel).getFitness());
+    assertEquals(1, evaluator.getFitnessCache().getHitCount());
+
+    assertTrue(evaluator.evaluate(sameModel, fitness + 0.1).isPruned());
+    assertFalse(evaluator.evaluate(sameModel, fitness).isPruned());
+  }
+
+  @Test
+  void evaluateKnown() {
+    Configuration configuration = new Configuration();
+    configuration.setMaxNodes(TEST_MODEL.getSize() - 1);
+    Evaluator evaluator = new Evaluator(configuration, EXAMPLE_SIN_INPUT);
+
+    assertEquals(0, evaluator.evaluateKnown(TEST_MODEL, 0.5).getFitness());
+
+    Model model = new Model(new VariableNode(0));
+    assertNull(evaluator.evaluateKnown(model, 0.5));
+    evaluator.rank(model, 0.7);
+    assertEquals(0.7, evaluator.evaluateKnown(model, 0.5).getFitness());
+    assertTrue(evaluator.evaluateKnown(model, 0.8).isPruned());
+    assertTrue(evaluator.rank(new Model(new ConstantNode(1)), Double.NaN).isPruned());
+  }
+
+  @Test
+  void evaluateShards() {
+    Configuration configuration = new Configuration();
+    DataInput all = new DataInput(List.of(new DataRow(0, 0), new DataRow(1, 1),
+        new DataRow(4, 2), new DataRow(9, 3)));
+    Evaluator evaluator = new Evaluator(configuration, all);
+
+    // the row of y = 0 uses the y range of all rows in its shard too
+    Evaluator first = new Evaluator(configuration, new DataInput(all.getRows().subList(0, 2)),
+        evaluator.getYRange());
+    Evaluator second = new Evaluator(configuration, new DataInput(all.getRows().subList(2, 4)),
+        evaluator.getYRange());
+    assertEquals(9, evaluator.getYRange());
+
+    Model model = new Model(new MultiplicationNode(new ConstantNode(2), new VariableNode(0)));
+    double similaritySum = first.evaluateSimilaritySum(model)
+        + second.evaluateSimilaritySum(model);
+    double fitness = new Evaluator(configuration, all).evaluate(model).getFitness();
+
+    assertEquals(fitness, evaluator.rankSimilaritySum(model, similaritySum,
+        Double.NEGATIVE_INFINITY).getFitness(), 1e-12);
+    assertTrue(evaluator.rankSimilaritySum(new Model(new VariableNode(0)), 0, fitness)
+        .isPruned());
+  }
+
+  @Test
+  void evaluateFitnessCacheDisabled() {
+    Configuration configuration = new Configuration();
+    configuration.setFitnessCacheSize(0);
+    Evaluator evaluator = new Evaluator(configuration, EXAMPLE_SIN_INPUT);
+
+    Model model = new Model(new PlusNode(new VariableNode(0), new ConstantNode(1)));
+    assertEquals(evaluator.evaluate(model).getFitness(), evaluator.evaluate(model).getFitness());
+    assertNull(evaluator.getFitnessCache());
+  }
+
+  @Test
+  void evaluateSubtreeCache() {
+    Configuration configuration = new Configuration();
+    configuration.setFitnessCacheSize(0);
+    configuration.setSubtreeCacheSizeInMb(1);
+
+    List<DataRow> rows = new ArrayList<>();
+    for (int i = 0; i < Evaluator.BLOCK_SIZE + 13; i++) {
+      rows.add(computeRow(TEST_MODEL, i * 0.01 - 3, i % 5));
+    }
+    DataInput dataInput = new DataInput(rows);
+    Evaluator evaluator = new Evaluator(new Configuration(), dataInput);
+    Evaluator cachedEvaluator = new Evaluator(configuration, dataInput);
+
+    Model model = new Model(new PlusNode(TEST_MODEL.getRoot(),
+        new LogNode(new VariableNode(1))));
+    assertEquals(evaluator.evaluate(TEST_MODEL).getFitness(),
+        cachedEvaluator.evaluate(TEST_MODEL).getFitness());
+    assertEquals(evaluator.evaluate(model).getFitness(),
+        cachedEvaluator.evaluate(model).getFitness());
+
+    // the test model is a subtree of the second model
+    assertEquals(1, cachedEvaluator.getSubtreeCache().getHitCount());
+  }
+
+  @Test
+  void evaluateIncremental() {
+    Configuration configuration = new Configuration();
+    configuration.setFitnessCacheSize(0);
+    configuration.setIncrementalEvaluation(true);
+
+    List<DataRow> rows = new ArrayList<>();
+    for (int i = 0; i < Evaluator.BLOCK_SIZE + 13; i++) {
+      rows.add(computeRow(TEST_MODEL, i * 0.01 - 3, i % 5));
+    }
+    DataInput dataInput = new DataInput(rows);
+    Evaluator evaluator = new Evaluator(new Configuration(), dataInput);
+    Evaluator incrementalEvaluator = new Evaluator(configuration, dataInput);
+
+    Model parent = new Model(TEST_MODEL.getRoot());
+    assertEquals(evaluator.evaluate(parent).getFitness(),
+        incrementalEvaluator.evaluate(parent).getFitness());
+    // both constants 2.0 are one interned node
+    assertEquals(parent.getSize() - 1, parent.getColumns().getComputedCount());
+
+    Model offspring = new Model(new PlusNode(parent.getRoot(),
+        new LogNode(new VariableNode(1))), parent);
+    assertEquals(evaluator.evaluate(offspring).getFitness(),
+        incrementalEvaluator.evaluate(offspring).getFitness());
+    // only the new root and the logarithm, x2 is shared with the parent
+    assertEquals(2, offspring.getColumns().getComputedCount());
+    assertTrue(offspring.getParentColumns().isEmpty());
+  }
+
+  @Test
+  void evaluateLinearGenome() {
+    Configuration configuration = new Configuration();
+    configuration.setFitnessCacheSize(0);
+    configuration.setIncrementalEvaluation(true);
+    configuration.setSubtreeCacheSizeInMb(1);
+
+    List<DataRow> rows = new ArrayList<>();
+    for (int i = 0; i < Evaluator.BLOCK_SIZE + 13; i++) {
+      rows.add(computeRow(TEST_MODEL, i * 0.01 - 3, i % 5));
+    }
+    DataInput dataInput = new DataInput(rows);
+    Evaluator evaluator = new Evaluator(new Configuration(), dataInput);
+    Evaluator columnEvaluator = new Evaluator(configuration, dataInput);
+
+    Model model = new Model(LinearGenome.encode(TEST_MODEL.getRoot()));
+    assertEquals(evaluator.evaluate(TEST_MODEL).getFitness(),
+        columnEvaluator.evaluate(model).getFitness());
+    // the column caches are used by tree models only
+    assertNull(model.getColumns());
+    assertEquals(0, columnEvaluator.getSubtreeCache().getBytes());
+  }
+
+  @Test
+  void evaluateSubsample() {
+    List<DataRow> rows = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      rows.add(computeRow(TEST_MODEL, i * 0.05 - 3, i % 5));
+    }
+    DataInput dataInput = new DataInput(rows);
+    Evaluator evaluator = new Evaluator(new Configuration(), dataInput);
+
+    Configuration configuration = new Configuration();
+    configuration.setSubsampleSize(10);
+    Evaluator subsampleEvaluator = new Evaluator(configuration, dataInput);
+
+    Model model = new Model(new ConstantNode(1));
+    double fitness = evaluator.evaluate(model).getFitness();
+
+    // without a threshold all rows are used
+    assertEquals(fitness, subsampleEvaluator.evaluate(model).getFitness());
+    assertTrue(subsampleEvaluator.evaluate(model, 0.9).isPruned());
+
+    RankedModel result = subsampleEvaluator.evaluate(TEST_MODEL, 0.9);
+    assertFalse(result.isPruned());
+    assertEquals(evaluator.evaluate(TEST_MODEL).getFitness(), result.getFitness());
+  }
+
+  @Test
+  void evaluateSubsampleMargin() {
+    List<DataRow> rows = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      rows.add(computeRow(TEST_MODEL, i * 0.05 - 3, i % 5));
+    }
+    Configuration configuration = new Configuration();
+    configuration.setSubsampleSize(10);
+    configuration.setSubsampleMargin(1);
+    Evaluator evaluator = new Evaluator(configuration, new DataInput(rows));
+
+    // the subsample lets everything through, the full evaluation decides
+    Model model = new Model(new ConstantNode(1));
+    double fitness = evaluator.evaluate(model).getFitness();
+    RankedModel result = evaluator.evaluate(model, fitness);
+    assertFalse(result.isPruned());
+    assertEquals(fitness, result.getFitness());
+  }
+
   @Test
   void evaluateWrongExp() {
     Configuration configuration = new Configuration();
@@ -147,4 +460,113 @@ class EvaluatorTest {
         .evaluate(new Model(new ExpNode(new ConstantNode(706))));
     assertEquals(0.0, result.getFitness(), 1e-9);
   }
+
+  @Test
+  void evaluateRowErrors() {
+    for (boolean incremental : new boolean[]{false, true}) {
+      Configuration configuration = new Configuration();
+      configuration.setParentSelection("lexicase");
+      configuration.setLexicaseCases(3);
+      configuration.setIncrementalEvaluation(incremental);
+      Evaluator evaluator = new Evaluator(configuration, EXAMPLE_SIN_INPUT);
+      assertEquals(3, evaluator.getCaseCount());
+
+      Model model = new Model(new VariableNode(0));
+      evaluator.evaluate(model);
+      double[] rowErrors = model.getRowErrors();
+      int[] caseRows = {0, 1, 3};
+      for (int i = 0; i < caseRows.length; i++) {
+        DataRow row = EXAMPLE_SIN_INPUT.getRows().get(caseRows[i]);
+        assertEquals(Math.abs(row.getY() - row.getX()[0]) / Math.abs(row.getY()), rowErrors[i],
+            1e-12);
+      }
+      assertSame(rowErrors, evaluator.getRowErrors(model));
+
+      // a cached model is evaluated on the case rows only when asked for
+      Model sameModel = new Model(new VariableNode(0));
+      evaluator.evaluate(sameModel);
+      assertNull(sameModel.getRowErrors());
+      assertArrayEquals(rowErrors, evaluator.getRowErrors(sameModel), 1e-12);
+    }
+  }
+
+  @Test
+  void evaluateRowErrorsOutOfRange() {
+    Configuration configuration = new Configuration();
+    configuration.setParentSelection("lexicase");
+    configuration.setFitnessCacheSize(0);
+    Evaluator evaluator = new Evaluator(configuration, EXAMPLE_SIN_INPUT);
+
+    Model model = new Model(new LogNode(new NegativeNode(new VariableNode(0))));
+    evaluator.evaluate(model);
+    double[] expected = new double[5];
+    Arrays.fill(expected, Double.POSITIVE_INFINITY);
+    assertArrayEquals(expected, model.getRowErrors());
+    assertArrayEquals(expected, evaluator.getRowErrors(
+        new Model(new LogNode(new NegativeNode(new VariableNode(0))))));
+  }
+
+  @Test
+  void evaluateRowErrorsNotRecorded() {
+    Evaluator evaluator = new Evaluator(new Configuration(), EXAMPLE_SIN_INPUT);
+    assertEquals(5, evaluator.getCaseCount());
+
+    Model model = new Model(new VariableNode(0));
+    evaluator.evaluate(model);
+    assertNull(model.getRowErrors());
+  }
+
+  @Test
+  void evaluateSemanticHash() {
+    for (boolean incremental : new boolean[]{false, true}) {
+      Configuration configuration = new Configuration();
+      configuration.setIncrementalEvaluation(incremental);
+      Evaluator evaluator = new Evaluator(configuration, EXAMPLE_SIN_INPUT);
+
+      Model model = new Model(new VariableNode(0));
+      Model sameOutput = new Model(new MultiplicationNode(new VariableNode(0),
+          new ConstantNode(1)));
+      Model otherOutput = new Model(new VariableNode(1));
+      evaluator.evaluate(model);
+      evaluator.evaluate(sameOutput);
+      evaluator.evaluate(otherOutput);
+
+      assertTrue(model.getSemanticHash() != 0);
+      assertEquals(model.getSemanticHash(), sameOutput.getSemanticHash());
+      assertTrue(model.getSemanticHash() != otherOutput.getSemanticHash());
+    }
+  }
+
+  @Test
+  void evaluateSemanticHashCached() {
+    Evaluator evaluator = new Evaluator(new Configuration(), EXAMPLE_SIN_INPUT);
+    Model model = new Model(new VariableNode(0));
+    evaluator.evaluate(model);
+
+    // an equal model found in the cache gets the hash without the evaluation
+    Model sameModel = new Model(new VariableNode(0));
+    evaluator.evaluate(sameModel);
+    assertEquals(1, evaluator.getFitnessCache().getHitCount());
+    assertEquals(model.getSemanticHash(), sameModel.getSemanticHash());
+  }
+
+  @Test
+  void evaluateSemanticHashDisabled() {
+    Configuration configuration = new Configuration();
+    configuration.setSemanticDeduplication(false);
+    Evaluator evaluator = new Evaluator(configuration, EXAMPLE_SIN_INPUT);
+
+    Model model = new Model(new VariableNode(0));
+    evaluator.evaluate(model);
+    assertEquals(0, model.getSemanticHash());
+  }
+
+  @Test
+  void quantize() {
+    assertEquals(Evaluator.quantize(1.0), Evaluator.quantize(1.0 + 1e-15));
+    assertEquals(Evaluator.quantize(0.0), Evaluator.quantize(-0.0));
+    assertEquals(Evaluator.quantize(Double.NaN), Evaluator.quantize(Double.NEGATIVE_INFINITY));
+    assertTrue(Evaluator.quantize(1.0) != Evaluator.quantize(1.0001));
+    assertTrue(Evaluator.quantize(1.0) != Evaluator.quantize(-1.0));
+  }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.evolution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.newtowndata.math.genetics.SeededRandom;
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.VariableNode;
+import com.newtowndata.math.genetics.program.NodeColumns;
+import com.newtowndata.math.genetics.program.ScalarColumnKernels;
+import com.newtowndata.math.input.DataInput;
+import com.newtowndata.math.input.DataRow;
+import com.newtowndata.math.model.Model;
+import com.newtowndata.math.model.RankedModel;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class EvolutionTest {
+
+  @Test
+  void setPopulation() {
+    Evolution evolution = new Evolution(2);
+    evolution.setPopulation(new ArrayList<>(List.of(
+        new RankedModel(new Model(new ConstantNode(2)), 0.2),
+        new RankedModel(new Model(new ConstantNode(1)), 0.1))));
+
+    assertEquals(1, evolution.getEvolutionStep());
+    assertEquals(0.2, evolution.getBestModel().getFitness());
+  }
+
+  @Test
+  void setPopulationReleasesColumns() {
+    DataInput dataInput = new DataInput(List.of(new DataRow(0, 1), new DataRow(1, 2)));
+    Model kept = new Model(new VariableNode(0));
+    Model removed = new Model(new ConstantNode(1));
+    for (Model model : List.of(kept, removed)) {
+      model.setColumns(NodeColumns.evaluate(model.getRoot(), dataInput.getColumnarData(),
+          ScalarColumnKernels.INSTANCE, List.of()));
+    }
+
+    Evolution evolution = new Evolution(2);
+    evolution.setPopulation(new ArrayList<>(List.of(new RankedModel(kept, 0.5),
+        new RankedModel(removed, 0.1))));
+    evolution.setPopulation(new ArrayList<>(List.of(new RankedModel(kept, 0.5),
+        new RankedModel(new Model(new ConstantNode(3)), 0.2))));
+
+    assertNotNull(kept.getColumns());
+    assertNull(removed.getColumns());
+  }
+
+  @Test
+  void immigrate() {
+    RankedModel best = new RankedModel(new Model(new ConstantNode(1)), 0.5);
+    RankedModel worst = new RankedModel(new Model(new ConstantNode(2)), 0.1);
+    RankedModel middle = new RankedModel(new Model(new ConstantNode(3)), 0.3);
+    Evolution evolution = new Evolution(3);
+    evolution.setPopulation(new ArrayList<>(List.of(best, middle, worst)));
+
+    RankedModel migrant = new RankedModel(new Model(new ConstantNode(4)), 0.4);
+    assertEquals(1, evolution.immigrate(List.of(migrant,
+        new RankedModel(new Model(new ConstantNode(1)), 0.5))));
+
+    assertEquals(List.of(best, migrant, middle), evolution.getPopulation());
+    assertEquals(1, evolution.getEvolutionStep());
+  }
+
+  @Test
+  void immigrateMoreThanPopulation() {
+    Evolution evolution = new Evolution(1);
+    evolution.setPopulation(new ArrayList<>(List.of(
+        new RankedModel(new Model(new ConstantNode(1)), 0.5))));
+
+    RankedModel migrant = new RankedModel(new Model(new ConstantNode(2)), 0.1);
+    assertEquals(1, evolution.immigrate(List.of(migrant,
+        new RankedModel(new Model(new ConstantNode(3)), 0.2))));
+
+    assertEquals(List.of(migrant), evolution.getPopulation());
+  }
+
+  @Test
+  void selectParent() {
+    RankedModel best = new RankedModel(new Model(new ConstantNode(1)), 0.5);
+    RankedModel worst = new RankedModel(new Model(new ConstantNode(2)), 0.1);
+    // the largest tournament always wins the best model
+    Evolution evolution = new Evolution(2, new TournamentSelection(1000));
+    evolution.setPopulation(new ArrayList<>(List.of(best, worst)));
+
+    SeededRandom random = new SeededRandom(1L);
+    evolution.prepareSelection(random);
+    assertEquals(best, evolution.selectParent(0, random));
+    assertEquals(best, evolution.selectPartner(1, random));
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.evolution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class FingerprintSetTest {
+
+  @Test
+  void add() {
+    FingerprintSet set = new FingerprintSet(4);
+    assertTrue(set.add(42));
+    assertFalse(set.add(42));
+    assertTrue(set.contains(42));
+    assertFalse(set.contains(43));
+    assertEquals(1, set.size());
+  }
+
+  @Test
+  void addZero() {
+    FingerprintSet set = new FingerprintSet(2);
+    assertFalse(set.contains(0));
+    assertTrue(set.add(0));
+    assertFalse(set.add(0));
+    assertTrue(set.contains(0));
+    assertEquals(1, set.size());
+  }
+
+  @Test
+  void addSameSlot() {
+    FingerprintSet set = new FingerprintSet(3);
+    // the low bits are equal, the fingerprints are probed one after another
+    assertTrue(set.add(1L << 40 | 5));
+    assertTrue(set.add(2L << 40 | 5));
+    assertTrue(set.add(-1L << 40 | 5));
+    assertTrue(set.contains(2L << 40 | 5));
+    assertTrue(set.contains(-1L << 40 | 5));
+    assertFalse(set.contains(3L << 40 | 5));
+    assertFalse(set.add(1L << 40 | 5));
+  }
+
+  @Test
+  void addFull() {
+    FingerprintSet set = new FingerprintSet(1);
+    assertTrue(set.add(1));
+    assertFalse(set.add(1));
+    assertThrows(IllegalStateException.class, () -> set.add(2));
+  }
+
+  @Test
+  void addConcurrently() throws InterruptedException {
+    FingerprintSet set = new FingerprintSet(1000);
+    AtomicInteger added = new AtomicInteger();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      Thread thread = new Thread(() -> {
+        for (long i = 0; i < 1000; i++) {
+          if (set.add(i * 0x9E3779B97F4A7C15L)) {
+            added.incrementAndGet();
+          }
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    // every fingerprint is added by exactly one thread
+    assertEquals(1000, added.get());
+    assertEquals(1000, set.size());
+  }
+
+  @Test
+  void invalidSize() {
+    assertThrows(IllegalArgumentException.class, () -> new FingerprintSet(-1));
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.evolution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class FitnessCacheTest {
+
+  @Test
+  void getPut() {
+    FitnessCache cache = new FitnessCache(100);
+    assertTrue(Double.isNaN(cache.get(1)));
+
+    cache.put(1, 0.5);
+    assertEquals(0.5, cache.get(1));
+    assertEquals(1, cache.size());
+
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(0.5, cache.getHitRate());
+  }
+
+  @Test
+  void getEntry() {
+    FitnessCache cache = new FitnessCache(100);
+    assertNull(cache.getEntry(1));
+
+    cache.put(1, 0.5, 42);
+    cache.put(2, 0.25);
+    assertEquals(0.5, cache.getEntry(1).getFitness());
+    assertEquals(42, cache.getEntry(1).getSemanticHash());
+    assertEquals(0, cache.getEntry(2).getSemanticHash());
+    assertEquals(3, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  void evict() {
+    FitnessCache cache = new FitnessCache(1);
+    cache.put(1, 0.1);
+    cache.put(2, 0.2);
+
+    assertTrue(Double.isNaN(cache.get(1)));
+    assertEquals(0.2, cache.get(2));
+    assertEquals(1, cache.getEvictionCount());
+  }
+
+  @Test
+  void evictLeastRecentlyUsed() {
+    // single stripe, the least recently used entry goes first
+    FitnessCache cache = new FitnessCache(2);
+    long first = 0;
+    long second = 1;
+    long third = 2;
+    cache.put(first, 0.1);
+    cache.put(second, 0.2);
+    cache.get(first);
+    cache.put(third, 0.3);
+
+    assertEquals(0.1, cache.get(first));
+    assertTrue(Double.isNaN(cache.get(second)));
+    assertEquals(0.3, cache.get(third));
+  }
+
+  @Test
+  void bounded() {
+    FitnessCache cache = new FitnessCache(1000);
+    for (long i = 0; i < 10000; i++) {
+      cache.put(i * 0x9e3779b97f4a7c15L, i);
+    }
+    assertTrue(cache.size() <= 1000);
+    assertEquals(10000 - cache.size(), cache.getEvictionCount());
+  }
+
+  @Test
+  void invalidSize() {
+    assertThrows(IllegalArgumentException.class, () -> new FitnessCache(0));
+  }
+
+  @Test
+  void testToString() {
+    assertNotNull(new FitnessCache(10).toString());
+  }
+}
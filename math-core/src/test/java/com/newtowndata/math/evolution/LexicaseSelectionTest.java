@@ -0,0 +1,118 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.evolution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.genetics.SeededRandom;
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.MultiplicationNode;
+import com.newtowndata.math.genetics.nodes.PlusNode;
+import com.newtowndata.math.genetics.nodes.VariableNode;
+import com.newtowndata.math.input.DataInput;
+import com.newtowndata.math.input.DataRow;
+import com.newtowndata.math.model.Model;
+import com.newtowndata.math.model.RankedModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class LexicaseSelectionTest {
+
+  // y = x for the first half of the rows, y = 3x for the second half
+  private static final DataInput TEST_INPUT = createInput();
+
+  private static DataInput createInput() {
+    List<DataRow> rows = new ArrayList<>();
+    for (int x = 1; x <= 20; x++) {
+      rows.add(new DataRow(x <= 10 ? x : 3 * x, x));
+    }
+    return new DataInput(rows);
+  }
+
+  private static Evaluator createEvaluator(int lexicaseCases) {
+    Configuration config = new Configuration();
+    config.setParentSelection("lexicase");
+    config.setLexicaseCases(lexicaseCases);
+    return new Evaluator(config, TEST_INPUT);
+  }
+
+  @Test
+  void select() {
+    Evaluator evaluator = createEvaluator(20);
+    // the specialists are exact on one half, the generalists are average on all rows
+    Model firstHalf = new Model(new VariableNode(0));
+    Model secondHalf = new Model(new MultiplicationNode(new ConstantNode(3), new VariableNode(0)));
+    List<RankedModel> population = new ArrayList<>(List.of(
+        evaluator.evaluate(firstHalf),
+        evaluator.evaluate(secondHalf),
+        evaluator.evaluate(new Model(new MultiplicationNode(new ConstantNode(2),
+            new VariableNode(0)))),
+        evaluator.evaluate(new Model(new PlusNode(new VariableNode(0), new VariableNode(0)))),
+        evaluator.evaluate(new Model(new MultiplicationNode(new VariableNode(0),
+            new ConstantNode(2))))));
+    Collections.sort(population);
+
+    LexicaseSelection selection = new LexicaseSelection(evaluator);
+    SeededRandom random = new SeededRandom(1L);
+    selection.prepare(population, random);
+
+    int firstHalfCount = 0;
+    int secondHalfCount = 0;
+    for (int slot = 0; slot < 200; slot++) {
+      Model parent = population.get(selection.select(slot, random)).getModel();
+      if (parent == firstHalf) {
+        firstHalfCount++;
+      } else if (parent == secondHalf) {
+        secondHalfCount++;
+      }
+    }
+
+    assertEquals(200, firstHalfCount + secondHalfCount);
+    assertTrue(firstHalfCount > 50);
+    assertTrue(secondHalfCount > 50);
+  }
+
+  @Test
+  void selectSingleModel() {
+    Evaluator evaluator = createEvaluator(20);
+    LexicaseSelection selection = new LexicaseSelection(evaluator);
+    SeededRandom random = new SeededRandom(1L);
+    selection.prepare(List.of(evaluator.evaluate(new Model(new VariableNode(0)))), random);
+
+    assertEquals(0, selection.select(0, random));
+    assertEquals(0, selection.selectPartner(0, random));
+  }
+
+  @Test
+  void medianAbsoluteDeviation() {
+    double[] buffer = new double[5];
+    assertEquals(1, LexicaseSelection.medianAbsoluteDeviation(
+        new double[]{7, 1, 2, 3, 4, 100}, 1, 5, buffer));
+    assertEquals(1, LexicaseSelection.medianAbsoluteDeviation(
+        new double[]{Double.POSITIVE_INFINITY, 1, 3}, 0, 3, buffer));
+    assertEquals(0, LexicaseSelection.medianAbsoluteDeviation(
+        new double[]{Double.POSITIVE_INFINITY}, 0, 1, buffer));
+  }
+
+  @Test
+  void invalidCaseCount() {
+    Evaluator evaluator = createEvaluator(0);
+    assertThrows(IllegalArgumentException.class, () -> new LexicaseSelection(evaluator));
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.evolution;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.newtowndata.math.config.Configuration;
+import com.newtowndata.math.input.DataInput;
+import com.newtowndata.math.input.DataRow;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ParentSelectionProviderTest {
+
+  private static final DataInput TEST_INPUT = new DataInput(List.of(new DataRow(1, 1),
+      new DataRow(2, 2)));
+
+  private static ParentSelection provide(String parentSelection) {
+    Configuration config = new Configuration();
+    config.setParentSelection(parentSelection);
+    return ParentSelectionProvider.provide(config, new Evaluator(config, TEST_INPUT));
+  }
+
+  @Test
+  void provide() {
+    assertTrue(provide("random") instanceof RandomParentSelection);
+    assertTrue(provide("tournament") instanceof TournamentSelection);
+    assertTrue(provide("lexicase") instanceof LexicaseSelection);
+  }
+
+  @Test
+  void provideUnknown() {
+    assertThrows(IllegalArgumentException.class, () -> provide("unknown"));
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.evolution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.newtowndata.math.genetics.SeededRandom;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class RandomParentSelectionTest {
+
+  @Test
+  void select() {
+    RandomParentSelection selection = new RandomParentSelection(10);
+    SeededRandom random = new SeededRandom(1L);
+    selection.prepare(List.of(), random);
+
+    Set<Integer> parents = new HashSet<>();
+    Set<Integer> partners = new HashSet<>();
+    for (int slot = 0; slot < 10; slot++) {
+      parents.add(selection.select(slot, random));
+      partners.add(selection.selectPartner(slot, random));
+    }
+
+    // every model once
+    assertEquals(10, parents.size());
+    assertEquals(10, partners.size());
+  }
+
+  @Test
+  void prepareSameSeed() {
+    RandomParentSelection selection = new RandomParentSelection(10);
+    selection.prepare(List.of(), new SeededRandom(1L));
+    RandomParentSelection sameSelection = new RandomParentSelection(10);
+    sameSelection.prepare(List.of(), new SeededRandom(1L));
+
+    for (int slot = 0; slot < 10; slot++) {
+      assertEquals(selection.select(slot, null), sameSelection.select(slot, null));
+      assertEquals(selection.selectPartner(slot, null), sameSelection.selectPartner(slot, null));
+    }
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.evolution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.newtowndata.math.genetics.SeededRandom;
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.PlusNode;
+import com.newtowndata.math.model.Model;
+import com.newtowndata.math.model.RankedModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class SelectionTest {
+
+  @Test
+  void selectBest() {
+    SeededRandom random = new SeededRandom(1L);
+    for (int size : new int[] {1, 2, 17, 100, 1000}) {
+      // few distinct values, so many ties
+      double[] fitness = new double[size];
+      for (int i = 0; i < size; i++) {
+        fitness[i] = random.nextInt(0, 9) / 10.0;
+      }
+      List<Integer> expected = sortedIndices(fitness);
+
+      for (int count : new int[] {0, 1, size / 2, size}) {
+        int[] order = identity(size);
+        Selection.selectBest(fitness, order, count);
+        Selection.sortBest(fitness, order, 0, count);
+        for (int i = 0; i < count; i++) {
+          assertEquals(expected.get(i), order[i], "size " + size + ", count " + count);
+        }
+      }
+    }
+  }
+
+  @Test
+  void sortBestSorted() {
+    double[] fitness = new double[100];
+    for (int i = 0; i < fitness.length; i++) {
+      fitness[i] = i % 2 == 0 ? 1.0 - i / 100.0 : i / 100.0;
+    }
+    int[] order = identity(fitness.length);
+    Selection.sortBest(fitness, order, 0, order.length);
+
+    List<Integer> expected = sortedIndices(fitness);
+    for (int i = 0; i < order.length; i++) {
+      assertEquals(expected.get(i), order[i]);
+    }
+  }
+
+  @Test
+  void sample() {
+    int[] sample = Selection.sample(100, 30, new SeededRandom(1L));
+    assertEquals(30, sample.length);
+
+    Set<Integer> distinct = new HashSet<>();
+    for (int index : sample) {
+      assertTrue(index >= 0 && index < 100);
+      distinct.add(index);
+    }
+    assertEquals(30, distinct.size());
+    assertEquals(0, Selection.sample(5, 0, new SeededRandom(1L)).length);
+  }
+
+  @Test
+  void nextPopulation() {
+    SeededRandom random = new SeededRandom(2L);
+    List<RankedModel> candidates = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      candidates.add(createModel(i, random.nextInt(0, 20) / 20.0));
+    }
+    List<RankedModel> newcomers = List.of(createModel(100, 0.55), createModel(101, 0.0));
+
+    List<RankedModel> population = Selection.nextPopulation(candidates, 10, 5, newcomers,
+        random);
+
+    assertEquals(17, population.size());
+    List<RankedModel> sorted = new ArrayList<>(population);
+    Collections.sort(sorted);
+    assertEquals(sorted, population);
+
+    List<RankedModel> expectedElite = new ArrayList<>(candidates);
+    Collections.sort(expectedElite);
+    assertTrue(population.containsAll(expectedElite.subList(0, 10)));
+    assertTrue(population.containsAll(newcomers));
+    assertTrue(candidates.containsAll(population.subList(0, 10)));
+  }
+
+  @Test
+  void nextPopulationFewCandidates() {
+    List<RankedModel> candidates = List.of(createModel(1, 0.2), createModel(2, 0.4));
+
+    List<RankedModel> population = Selection.nextPopulation(candidates, 5, 5, List.of(),
+        new SeededRandom(1L));
+
+    // the survivors are drawn from all candidates, so the elite may survive twice
+    assertEquals(List.of(candidates.get(1), candidates.get(1), candidates.get(0),
+        candidates.get(0)), population);
+  }
+
+  private static RankedModel createModel(int id, double fitness) {
+    return new RankedModel(new Model(new ConstantNode(id)), fitness);
+  }
+
+  private static List<Integer> sortedIndices(double[] fitness) {
+    List<Integer> indices = new ArrayList<>();
+    for (int i = 0; i < fitness.length; i++) {
+      indices.add(i);
+    }
+    // stable, equal values keep the index order
+    indices.sort((a, b) -> Double.compare(fitness[b], fitness[a]));
+    return indices;
+  }
+
+  private static int[] identity(int size) {
+    int[] order = new int[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = i;
+    }
+    return order;
+  }
+
+  private static RankedModel createModel(Model model, long semanticHash, double fitness) {
+    model.setSemanticHash(semanticHash);
+    return new RankedModel(model, fitness);
+  }
+
+  @Test
+  void removeSemanticDuplicates() {
+    RankedModel large = createModel(new Model(new PlusNode(new ConstantNode(1),
+        new ConstantNode(1))), 7, 0.4);
+    RankedModel small = createModel(new Model(new ConstantNode(2)), 7, 0.5);
+    RankedModel sameSize = createModel(new Model(new ConstantNode(3)), 7, 0.5);
+    RankedModel other = createModel(new Model(new ConstantNode(4)), 8, 0.3);
+    RankedModel unknown = createModel(new Model(new ConstantNode(5)), 0, 0.2);
+    RankedModel unknownToo = createModel(new Model(new ConstantNode(6)), 0, 0.2);
+
+    assertEquals(List.of(small, other, unknown, unknownToo), Selection.removeSemanticDuplicates(
+        List.of(large, small, other, sameSize, unknown, unknownToo), 0));
+  }
+
+  @Test
+  void removeSemanticDuplicatesMinSize() {
+    RankedModel first = createModel(new Model(new ConstantNode(1)), 7, 0.5);
+    RankedModel second = createModel(new Model(new ConstantNode(2)), 7, 0.5);
+    RankedModel third = createModel(new Model(new ConstantNode(3)), 7, 0.5);
+
+    assertEquals(List.of(first, second), Selection.removeSemanticDuplicates(
+        List.of(first, second, third), 2));
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.evolution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.program.NodeColumns;
+import com.newtowndata.math.genetics.program.ScalarColumnKernels;
+import com.newtowndata.math.input.DataInput;
+import com.newtowndata.math.input.DataRow;
+import com.newtowndata.math.model.Model;
+import com.newtowndata.math.model.RankedModel;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SteadyStatePopulationTest {
+
+  @Test
+  void offer() {
+    SteadyStatePopulation population = new SteadyStatePopulation(3,
+        List.of(rank(1, 0.5), rank(2, 0.7)));
+    assertEquals(2, population.size());
+    assertEquals(Double.NEGATIVE_INFINITY, population.getWorstFitness());
+
+    assertTrue(population.offer(rank(3, 0.1)));
+    assertEquals(0.1, population.getWorstFitness());
+    assertEquals(List.of(rank(2, 0.7), rank(1, 0.5), rank(3, 0.1)), population.getModels());
+
+    // not better than the worst model
+    assertFalse(population.offer(rank(4, 0.1)));
+    assertTrue(population.offer(rank(5, 0.9)));
+    assertEquals(List.of(rank(5, 0.9), rank(2, 0.7), rank(1, 0.5)), population.getModels());
+    assertEquals(rank(5, 0.9), population.getBestModel());
+    assertEquals(rank(2, 0.7), population.get(1));
+    assertEquals(3, population.size());
+  }
+
+  @Test
+  void offerDuplicate() {
+    SteadyStatePopulation population = new SteadyStatePopulation(3, List.of(rank(1, 0.5)));
+    assertFalse(population.offer(rank(1, 0.5)));
+    assertFalse(population.offer(RankedModel.pruned(new Model(new ConstantNode(2)))));
+    assertEquals(1, population.size());
+  }
+
+  @Test
+  void initialDuplicates() {
+    SteadyStatePopulation population = new SteadyStatePopulation(2,
+        List.of(rank(1, 0.5), rank(1, 0.5), rank(2, 0.7)));
+    assertEquals(List.of(rank(2, 0.7), rank(1, 0.5)), population.getModels());
+    assertFalse(population.offer(rank(1, 0.9)));
+  }
+
+  @Test
+  void replace() {
+    SteadyStatePopulation population = new SteadyStatePopulation(3,
+        List.of(rank(1, 0.5), rank(2, 0.7), rank(3, 0.9)));
+
+    // regardless of the fitness, a copy is allowed
+    assertTrue(population.replace(1, rank(1, 0.5)));
+    assertEquals(List.of(rank(3, 0.9), rank(1, 0.5), rank(1, 0.5)), population.getModels());
+    assertFalse(population.replace(0, RankedModel.pruned(new Model(new ConstantNode(4)))));
+
+    // model 2 is gone, so it can be offered again
+    assertTrue(population.offer(rank(2, 0.7)));
+    assertEquals(List.of(rank(3, 0.9), rank(2, 0.7), rank(1, 0.5)), population.getModels());
+  }
+
+  @Test
+  void offerSameFitness() {
+    SteadyStatePopulation population = new SteadyStatePopulation(3,
+        List.of(rank(1, 0.5), rank(2, 0.5)));
+    assertTrue(population.offer(rank(3, 0.5)));
+    assertEquals(List.of(rank(1, 0.5), rank(2, 0.5), rank(3, 0.5)), population.getModels());
+  }
+
+  @Test
+  void offerReleasesWorst() {
+    RankedModel worst = rank(1, 0.1);
+    DataInput dataInput = new DataInput(List.of(new DataRow(0, 1)));
+    worst.getModel().setColumns(NodeColumns.evaluate(worst.getModel().getRoot(),
+        dataInput.getColumnarData(), ScalarColumnKernels.INSTANCE, List.of()));
+    SteadyStatePopulation population = new SteadyStatePopulation(1, List.of(worst));
+
+    assertTrue(population.offer(rank(2, 0.2)));
+    assertNull(worst.getModel().getColumns());
+  }
+
+  @Test
+  void replaceKeepsCopyColumns() {
+    RankedModel model = rank(1, 0.5);
+    DataInput dataInput = new DataInput(List.of(new DataRow(0, 1)));
+    model.getModel().setColumns(NodeColumns.evaluate(model.getModel().getRoot(),
+        dataInput.getColumnarData(), ScalarColumnKernels.INSTANCE, List.of()));
+    SteadyStatePopulation population = new SteadyStatePopulation(2,
+        List.of(model, rank(2, 0.7)));
+    assertTrue(population.replace(0, model));
+
+    // the other copy still breeds from the columns
+    assertTrue(population.replace(0, rank(3, 0.9)));
+    assertNotNull(model.getModel().getColumns());
+    assertTrue(population.replace(1, rank(4, 0.1)));
+    assertNull(model.getModel().getColumns());
+  }
+
+  @Test
+  void invalid() {
+    assertThrows(IllegalArgumentException.class, () -> new SteadyStatePopulation(0,
+        List.of(rank(1, 0.5))));
+    assertThrows(IllegalArgumentException.class, () -> new SteadyStatePopulation(1, List.of()));
+  }
+
+  private static RankedModel rank(double constant, double fitness) {
+    return new RankedModel(new Model(new ConstantNode(constant)), fitness);
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.evolution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.newtowndata.math.genetics.SeededRandom;
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.model.Model;
+import com.newtowndata.math.model.RankedModel;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TournamentSelectionTest {
+
+  private static List<RankedModel> createPopulation(int size) {
+    List<RankedModel> population = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      population.add(new RankedModel(new Model(new ConstantNode(i)), 1.0 - i / (double) size));
+    }
+    return population;
+  }
+
+  @Test
+  void select() {
+    SeededRandom random = new SeededRandom(1L);
+    TournamentSelection single = new TournamentSelection(1);
+    single.prepare(createPopulation(100), random);
+    TournamentSelection tournament = new TournamentSelection(4);
+    tournament.prepare(createPopulation(100), random);
+
+    long singleSum = 0;
+    long tournamentSum = 0;
+    for (int slot = 0; slot < 1000; slot++) {
+      int index = tournament.select(slot, random);
+      assertTrue(index >= 0 && index < 100);
+      tournamentSum += index;
+      singleSum += single.select(slot, random);
+    }
+
+    // the expected index is 49.5 without and 19.6 with a tournament of 4
+    assertTrue(singleSum / 1000.0 > 40);
+    assertTrue(tournamentSum / 1000.0 < 25);
+  }
+
+  @Test
+  void selectLargeTournament() {
+    SeededRandom random = new SeededRandom(1L);
+    TournamentSelection tournament = new TournamentSelection(1000);
+    tournament.prepare(createPopulation(5), random);
+
+    assertEquals(0, tournament.select(0, random));
+    assertEquals(0, tournament.selectPartner(0, random));
+  }
+
+  @Test
+  void invalidTournamentSize() {
+    assertThrows(IllegalArgumentException.class, () -> new TournamentSelection(0));
+  }
+}
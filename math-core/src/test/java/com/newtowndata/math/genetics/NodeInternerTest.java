@@ -0,0 +1,70 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.MinusNode;
+import com.newtowndata.math.genetics.nodes.NegativeNode;
+import com.newtowndata.math.genetics.nodes.PlusNode;
+import com.newtowndata.math.genetics.nodes.VariableNode;
+import com.newtowndata.math.genetics.nodes.core.Node;
+import org.junit.jupiter.api.Test;
+
+class NodeInternerTest {
+
+  @Test
+  void intern() {
+    Node node = new PlusNode(new NegativeNode(new ConstantNode(1)), new VariableNode(0));
+    Node other = new PlusNode(new NegativeNode(new ConstantNode(1)), new VariableNode(0));
+    assertNotSame(node, other);
+
+    Node interned = NodeInterner.intern(node);
+    assertSame(interned, NodeInterner.intern(other));
+    assertSame(interned, NodeInterner.intern(interned));
+    assertEquals(node, interned);
+  }
+
+  @Test
+  void internSubtrees() {
+    Node left = NodeInterner.intern(new NegativeNode(new ConstantNode(2)));
+
+    Node interned = NodeInterner.intern(
+        new MinusNode(new NegativeNode(new ConstantNode(2)), new VariableNode(1)));
+    assertEquals("(-2.0-x2)", interned.toString());
+    assertSame(left, interned.getChildren().get(0));
+    assertSame(NodeInterner.intern(new VariableNode(1)), interned.getChildren().get(1));
+  }
+
+  @Test
+  void internCommutative() {
+    // the children are reordered on construction, the rebuilt node must keep the order
+    Node interned = NodeInterner.intern(
+        new PlusNode(new VariableNode(0), new NegativeNode(new ConstantNode(3))));
+    assertEquals(new PlusNode(new VariableNode(0), new NegativeNode(new ConstantNode(3))),
+        interned);
+    assertSame(interned, NodeInterner.intern(
+        new PlusNode(new NegativeNode(new ConstantNode(3)), new VariableNode(0))));
+  }
+
+  @Test
+  void size() {
+    NodeInterner.intern(new NegativeNode(new ConstantNode(4)));
+    assertTrue(NodeInterner.size() > 0);
+  }
+}
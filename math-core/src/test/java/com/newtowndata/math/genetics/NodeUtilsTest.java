@@ -14,17 +14,120 @@
 package com.newtowndata.math.genetics;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.mockito.Mockito.when;
 
 import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.GroupConstantNode;
+import com.newtowndata.math.genetics.nodes.IntConstantNode;
+import com.newtowndata.math.genetics.nodes.MinusNode;
 import com.newtowndata.math.genetics.nodes.NegativeNode;
 import com.newtowndata.math.genetics.nodes.PlusNode;
+import com.newtowndata.math.genetics.nodes.SpecialConstantNode;
+import com.newtowndata.math.genetics.nodes.SqrtNode;
+import com.newtowndata.math.genetics.nodes.VariableNode;
 import com.newtowndata.math.genetics.nodes.core.AbstractNodeTest;
 import com.newtowndata.math.genetics.nodes.core.Node;
+import com.newtowndata.math.genetics.nodes.helper.Constant;
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 class NodeUtilsTest extends AbstractNodeTest {
 
+  @Test
+  void mayFail() {
+    assertFalse(NodeUtils.mayFail(new ConstantNode(1)));
+    assertFalse(NodeUtils.mayFail(new IntConstantNode(1)));
+    assertFalse(NodeUtils.mayFail(SpecialConstantNode.of("pi")));
+    assertFalse(NodeUtils.mayFail(new VariableNode(0)));
+    assertTrue(NodeUtils.mayFail(new NegativeNode(new ConstantNode(1))));
+    assertTrue(NodeUtils.mayFail(new GroupConstantNode(List.of(new Constant("a", 1)))));
+  }
+
+  @Test
+  void fingerprint() {
+    Node root = new PlusNode(new NegativeNode(new ConstantNode(1)), new VariableNode(0));
+    assertEquals(NodeUtils.fingerprint(root), NodeUtils.fingerprint(
+        new PlusNode(new NegativeNode(new ConstantNode(1)), new VariableNode(0))));
+    // commutative nodes order their children
+    assertEquals(NodeUtils.fingerprint(root), NodeUtils.fingerprint(
+        new PlusNode(new VariableNode(0), new NegativeNode(new ConstantNode(1)))));
+
+    Node minus = new MinusNode(new NegativeNode(new ConstantNode(1)), new VariableNode(0));
+    assertNotEquals(NodeUtils.fingerprint(root), NodeUtils.fingerprint(minus));
+    assertNotEquals(NodeUtils.fingerprint(minus), NodeUtils.fingerprint(
+        new MinusNode(new VariableNode(0), new NegativeNode(new ConstantNode(1)))));
+    assertNotEquals(NodeUtils.fingerprint(root), NodeUtils.fingerprint(
+        new PlusNode(new NegativeNode(new ConstantNode(2)), new VariableNode(0))));
+    assertNotEquals(NodeUtils.fingerprint(root), NodeUtils.fingerprint(
+        new PlusNode(new NegativeNode(new ConstantNode(1)), new VariableNode(1))));
+  }
+
+  @Test
+  void fingerprintLeaves() {
+    assertNotEquals(NodeUtils.fingerprint(new ConstantNode(1)),
+        NodeUtils.fingerprint(new IntConstantNode(1)));
+    assertNotEquals(NodeUtils.fingerprint(new ConstantNode(0.0)),
+        NodeUtils.fingerprint(new ConstantNode(-0.0)));
+    assertNotEquals(NodeUtils.fingerprint(SpecialConstantNode.of("pi")),
+        NodeUtils.fingerprint(SpecialConstantNode.of("e")));
+    assertEquals(NodeUtils.fingerprint(new GroupConstantNode(List.of(new Constant("a", 1)))),
+        NodeUtils.fingerprint(new GroupConstantNode(List.of(new Constant("a", 1)))));
+    assertNotEquals(NodeUtils.fingerprint(new GroupConstantNode(List.of(new Constant("a", 1)))),
+        NodeUtils.fingerprint(new GroupConstantNode(List.of(new Constant("a", 2)))));
+  }
+
+  @Test
+  void traversalAllocation() {
+    ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+    threadBean.setThreadAllocatedMemoryEnabled(true);
+
+    Node root = createBalancedTree(11);
+    int size = root.getSize();
+    long threadId = Thread.currentThread().getId();
+
+    // warm up, so the measured loop runs compiled code
+    long checksum = traverse(root, size);
+    for (int i = 0; i < 200; i++) {
+      checksum += traverse(root, size);
+    }
+
+    long before = threadBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < 20; i++) {
+      checksum += traverse(root, size);
+    }
+    long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+    assertNotEquals(0, checksum);
+    // thousands of nodes are visited in every pass, an object per node would take megabytes
+    assertTrue(allocated < 4096, "Allocated " + allocated + " bytes");
+  }
+
+  private static long traverse(Node root, int size) {
+    long checksum = NodeUtils.fingerprint(root);
+    for (int i = 0; i < size; i += 7) {
+      checksum += NodeUtils.extractNode(root, i).getSize();
+    }
+    return checksum;
+  }
+
+  private static Node createBalancedTree(int depth) {
+    if (depth == 0) {
+      return new VariableNode(0);
+    }
+    Node left = createBalancedTree(depth - 1);
+    Node right = depth % 2 == 0 ? createBalancedTree(depth - 1) : new NegativeNode(
+        createBalancedTree(depth - 1));
+    return new MinusNode(left, right);
+  }
+
   @Test
   void calculateSize() {
     Node root = new PlusNode(new NegativeNode(new ConstantNode(1)), new ConstantNode(3));
@@ -53,6 +156,31 @@ class NodeUtilsTest extends AbstractNodeTest {
     assertEquals("(3.0+-1.0)", result.toString());
   }
 
+  @Test
+  void extractNodePreOrder() {
+    // ((1.0+x1)-sqrt(x2))
+    Node root = new MinusNode(new PlusNode(new ConstantNode(1), new VariableNode(0)),
+        new SqrtNode(new VariableNode(1)));
+    List<String> expected = List.of("((1.0+x1)-sqrt(x2))", "(1.0+x1)", "1.0", "x1", "sqrt(x2)",
+        "x2");
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i), NodeUtils.extractNode(root, i).toString());
+    }
+    assertEquals(root, NodeUtils.extractNode(root, -1));
+  }
+
+  @Test
+  void replaceNodePreOrder() {
+    Node root = new MinusNode(new PlusNode(new ConstantNode(1), new VariableNode(0)),
+        new SqrtNode(new VariableNode(1)));
+    Node result = NodeUtils.replaceNode(root, 3, node -> new NegativeNode(node));
+    assertEquals("((1.0+-x1)-sqrt(x2))", result.toString());
+
+    // the untouched subtree is not recreated
+    assertSame(root.getChildren().get(1), result.getChildren().get(1));
+    assertSame(root, NodeUtils.replaceNode(root, 6, node -> new NegativeNode(node)));
+  }
+
   @Test
   void replaceNode() {
     Node root = new PlusNode(new ConstantNode(3), new NegativeNode(new ConstantNode(1)));
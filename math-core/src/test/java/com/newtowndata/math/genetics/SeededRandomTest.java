@@ -0,0 +1,143 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class SeededRandomTest {
+
+  @Test
+  void sameSeed() {
+    SeededRandom random = new SeededRandom(1L);
+    SeededRandom other = new SeededRandom(1L);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(random.nextLong(), other.nextLong());
+    }
+    assertNotEquals(new SeededRandom(1L).nextLong(), new SeededRandom(2L).nextLong());
+  }
+
+  @Test
+  void derive() {
+    assertEquals(SeededRandom.derive(1L, 2, 3).nextLong(),
+        SeededRandom.derive(1L, 2, 3).nextLong());
+
+    Set<Long> values = new HashSet<>();
+    values.add(SeededRandom.derive(1L).nextLong());
+    values.add(SeededRandom.derive(1L, 2).nextLong());
+    values.add(SeededRandom.derive(1L, 2, 3).nextLong());
+    values.add(SeededRandom.derive(1L, 3, 2).nextLong());
+    values.add(SeededRandom.derive(1L, 2, 3, 0).nextLong());
+    values.add(SeededRandom.derive(2L, 2, 3).nextLong());
+    assertEquals(6, values.size());
+  }
+
+  @Test
+  void nextBoolean() {
+    SeededRandom random = new SeededRandom(1L);
+    Set<Boolean> values = new HashSet<>();
+    for (int i = 0; i < 10; i++) {
+      values.add(random.nextBoolean());
+    }
+
+    assertEquals(2, values.size());
+  }
+
+  @Test
+  void nextInt() {
+    SeededRandom random = new SeededRandom(1L);
+    Set<Integer> values = new HashSet<>();
+    Set<Integer> powerOfTwoValues = new HashSet<>();
+    for (int i = 0; i < 100; i++) {
+      values.add(random.nextInt(-2, 2));
+      powerOfTwoValues.add(random.nextInt(3, 6));
+    }
+
+    assertEquals(Set.of(-2, -1, 0, 1, 2), values);
+    assertEquals(Set.of(3, 4, 5, 6), powerOfTwoValues);
+    assertEquals(7, random.nextInt(7, 7));
+    assertThrows(IllegalArgumentException.class, () -> random.nextInt(1, 0));
+  }
+
+  @Test
+  void nextIntUniform() {
+    SeededRandom random = new SeededRandom(1L);
+    int[] counts = new int[3];
+    for (int i = 0; i < 30000; i++) {
+      counts[random.nextInt(0, 2)]++;
+    }
+
+    for (int count : counts) {
+      assertTrue(Math.abs(count - 10000) < 500, "count " + count);
+    }
+  }
+
+  @Test
+  void nextDouble() {
+    SeededRandom random = new SeededRandom(1L);
+    double min = 10;
+    double max = -10;
+
+    for (int i = 0; i < 50; i++) {
+      double x = random.nextDouble(-1, 1);
+      min = Math.min(min, x);
+      max = Math.max(max, x);
+    }
+
+    assertTrue(min >= -1 && min < -0.9);
+    assertTrue(max < 1 && max > 0.9);
+  }
+
+  @Test
+  void shuffle() {
+    List<Integer> list = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      list.add(i);
+    }
+    List<Integer> shuffled = new ArrayList<>(list);
+    new SeededRandom(1L).shuffle(shuffled);
+    List<Integer> shuffledAgain = new ArrayList<>(list);
+    new SeededRandom(1L).shuffle(shuffledAgain);
+
+    assertNotEquals(list, shuffled);
+    assertEquals(shuffled, shuffledAgain);
+    assertEquals(new HashSet<>(list), new HashSet<>(shuffled));
+  }
+
+  @Test
+  void shuffleArray() {
+    int[] array = new int[20];
+    List<Integer> list = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      array[i] = i;
+      list.add(i);
+    }
+    int[] shuffled = array.clone();
+    new SeededRandom(1L).shuffle(shuffled);
+    new SeededRandom(1L).shuffle(list);
+
+    assertNotEquals(IntStream.of(array).boxed().toList(), IntStream.of(shuffled).boxed().toList());
+    // the same swaps as the list
+    assertEquals(list, IntStream.of(shuffled).boxed().toList());
+  }
+}
@@ -15,6 +15,7 @@ package com.newtowndata.math.genetics.nodes;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.when;
 
@@ -55,6 +56,17 @@ class GroupConstantNodeTest extends LeafNodeTest {
     assertThrows(IllegalStateException.class, () -> node.evaluate(new DataRow(0, "b", 0)));
   }
 
+  @Test
+  void evaluateOrNaN() {
+    when(mutationContext.getGroups()).thenReturn(List.of("a", "b"));
+
+    Node node = createLeafNode();
+    assertEquals(0.0, node.evaluateOrNaN(new DataRow(0, "abc", 0)), 1e-9);
+    assertTrue(Double.isNaN(node.evaluateOrNaN(new DataRow(0, "b", 0))));
+    assertTrue(Double.isNaN(node.evaluateOrNaN(new DataRow(0, 0))));
+    assertTrue(Double.isNaN(node.evaluateOrNaN(null)));
+  }
+
   @Test
   void testToString() {
     when(mutationContext.getGroups()).thenReturn(List.of("a", "b"));
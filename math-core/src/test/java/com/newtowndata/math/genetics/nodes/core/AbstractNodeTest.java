@@ -15,6 +15,12 @@ package com.newtowndata.math.genetics.nodes.core;
 
 import com.newtowndata.math.genetics.MutationContext;
 import com.newtowndata.math.genetics.Random;
+import com.newtowndata.math.genetics.program.ModelCompiler;
+import com.newtowndata.math.genetics.program.ProgramCompiler;
+import com.newtowndata.math.input.ColumnarData;
+import com.newtowndata.math.input.DataInput;
+import com.newtowndata.math.input.DataRow;
+import java.util.List;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -22,10 +28,47 @@ import org.mockito.junit.jupiter.MockitoExtension;
 @ExtendWith(MockitoExtension.class)
 public class AbstractNodeTest {
 
+  protected static final double[] CONFORMANCE_VALUES = {
+      Double.NEGATIVE_INFINITY, -1e300, -710, -2, -1, -0.5, -0.0, 0, 1e-300, 0.5, 1, 2, 3.7, 710,
+      1e300, Double.POSITIVE_INFINITY, Double.NaN
+  };
+
+  private static final ColumnarData SINGLE_ROW =
+      new DataInput(List.of(new DataRow(0))).getColumnarData();
+
   @Mock
   protected Random random;
 
   @Mock
   protected MutationContext mutationContext;
 
+  protected static double evaluateTree(Node node) {
+    try {
+      return node.evaluate(null);
+    } catch (IllegalStateException e) {
+      return Double.NaN;
+    }
+  }
+
+  protected static double evaluateTree(Node node, DataRow row) {
+    try {
+      return node.evaluate(row);
+    } catch (IllegalStateException e) {
+      return Double.NaN;
+    }
+  }
+
+  protected static double[] evaluateBytecode(Node node, List<DataRow> rows) {
+    double[] out = new double[rows.size()];
+    ModelCompiler.compile(ProgramCompiler.compile(node))
+        .evaluate(new DataInput(rows).getColumnarData(), 0, rows.size(), out);
+    return out;
+  }
+
+  protected static double evaluateColumnar(Node node) {
+    double[] out = new double[1];
+    ProgramCompiler.compile(node).evaluate(SINGLE_ROW, out);
+    return out[0];
+  }
+
 }
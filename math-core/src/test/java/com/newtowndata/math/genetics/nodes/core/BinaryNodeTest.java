@@ -18,7 +18,13 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.when;
 
 import com.newtowndata.math.genetics.SimplificationContext;
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.LogNode;
 import com.newtowndata.math.genetics.nodes.SpecialConstantNode;
+import com.newtowndata.math.genetics.nodes.VariableNode;
+import com.newtowndata.math.genetics.program.ProgramCompiler;
+import com.newtowndata.math.input.DataRow;
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 
@@ -45,6 +51,15 @@ public abstract class BinaryNodeTest extends AbstractNodeTest {
     assertEquals(List.of(TEST_CHILD, TEST_ANOTHER_CHILD), node.getChildren());
   }
 
+  @Test
+  void getChild() {
+    Node node = createBinaryNode();
+    assertEquals(2, node.getChildCount());
+    assertEquals(TEST_CHILD, node.getChild(0));
+    assertEquals(TEST_ANOTHER_CHILD, node.getChild(1));
+    assertThrows(IndexOutOfBoundsException.class, () -> node.getChild(2));
+  }
+
   @Test
   void testEquality() {
     Node node1 = createBinaryNode();
@@ -80,4 +95,59 @@ public abstract class BinaryNodeTest extends AbstractNodeTest {
     assertEquals("t0", result.toString());
   }
 
+  @Test
+  void evaluateCompiled() {
+    for (double left : CONFORMANCE_VALUES) {
+      for (double right : CONFORMANCE_VALUES) {
+        Node node = createBinaryNode(new ConstantNode(left), new ConstantNode(right));
+        assertEquals(Double.doubleToLongBits(evaluateTree(node)),
+            Double.doubleToLongBits(ProgramCompiler.compile(node).evaluate(null)),
+            () -> "Values " + left + ", " + right);
+        assertEquals(Double.doubleToLongBits(evaluateTree(node)),
+            Double.doubleToLongBits(evaluateColumnar(node)),
+            () -> "Columnar values " + left + ", " + right);
+      }
+    }
+  }
+
+  @Test
+  void evaluateOrNaN() {
+    for (double left : CONFORMANCE_VALUES) {
+      for (double right : CONFORMANCE_VALUES) {
+        // log of the value fails for negative values
+        List<Node> nodes = List.of(
+            createBinaryNode(new ConstantNode(left), new ConstantNode(right)),
+            createBinaryNode(new LogNode(new ConstantNode(left)), new ConstantNode(right)),
+            createBinaryNode(new ConstantNode(left), new LogNode(new ConstantNode(right))));
+        for (Node node : nodes) {
+          assertEquals(Double.doubleToLongBits(evaluateTree(node)),
+              Double.doubleToLongBits(node.evaluateOrNaN(null)), () -> node.toString());
+        }
+      }
+    }
+  }
+
+  @Test
+  void evaluateBytecode() {
+    List<DataRow> rows = new ArrayList<>();
+    for (double left : CONFORMANCE_VALUES) {
+      for (double right : CONFORMANCE_VALUES) {
+        rows.add(new DataRow(0, left, right));
+      }
+    }
+
+    List<Node> nodes = List.of(
+        createBinaryNode(new VariableNode(0), new VariableNode(1)),
+        createBinaryNode(new ConstantNode(2), new VariableNode(1)),
+        createBinaryNode(new VariableNode(0), new ConstantNode(2)));
+    for (Node node : nodes) {
+      double[] out = evaluateBytecode(node, rows);
+      for (int i = 0; i < rows.size(); i++) {
+        DataRow row = rows.get(i);
+        assertEquals(Double.doubleToLongBits(evaluateTree(node, row)),
+            Double.doubleToLongBits(out[i]),
+            () -> node + " values " + row.getX()[0] + ", " + row.getX()[1]);
+      }
+    }
+  }
 }
@@ -41,6 +41,13 @@ public abstract class LeafNodeTest extends AbstractNodeTest {
     assertEquals(Collections.emptyList(), node.getChildren());
   }
 
+  @Test
+  void getChild() {
+    Node node = createLeafNode();
+    assertEquals(0, node.getChildCount());
+    assertThrows(IndexOutOfBoundsException.class, () -> node.getChild(0));
+  }
+
   @Test
   void replaceFail() {
     Node node = createLeafNode();
@@ -17,7 +17,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.newtowndata.math.genetics.SimplificationContext;
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.LogNode;
 import com.newtowndata.math.genetics.nodes.SpecialConstantNode;
+import com.newtowndata.math.genetics.nodes.VariableNode;
+import com.newtowndata.math.genetics.program.ProgramCompiler;
+import com.newtowndata.math.input.DataRow;
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 
@@ -44,6 +50,14 @@ public abstract class UnaryNodeTest extends AbstractNodeTest {
     assertEquals(List.of(TEST_CHILD), node.getChildren());
   }
 
+  @Test
+  void getChild() {
+    Node node = createUnaryNode();
+    assertEquals(1, node.getChildCount());
+    assertEquals(TEST_CHILD, node.getChild(0));
+    assertThrows(IndexOutOfBoundsException.class, () -> node.getChild(1));
+  }
+
   @Test
   void testEquality() {
     Node node1 = createUnaryNode();
@@ -66,4 +80,44 @@ public abstract class UnaryNodeTest extends AbstractNodeTest {
     Node result = node.mutate(mutationContext);
     assertEquals("e", result.toString());
   }
+
+  @Test
+  void evaluateCompiled() {
+    for (double value : CONFORMANCE_VALUES) {
+      Node node = createUnaryNode(new ConstantNode(value));
+      assertEquals(Double.doubleToLongBits(evaluateTree(node)),
+          Double.doubleToLongBits(ProgramCompiler.compile(node).evaluate(null)),
+          () -> "Value " + value);
+      assertEquals(Double.doubleToLongBits(evaluateTree(node)),
+          Double.doubleToLongBits(evaluateColumnar(node)), () -> "Columnar value " + value);
+    }
+  }
+
+  @Test
+  void evaluateOrNaN() {
+    for (double value : CONFORMANCE_VALUES) {
+      // log of the value fails for negative values
+      for (Node child : List.of(new ConstantNode(value), new LogNode(new ConstantNode(value)))) {
+        Node node = createUnaryNode(child);
+        assertEquals(Double.doubleToLongBits(evaluateTree(node)),
+            Double.doubleToLongBits(node.evaluateOrNaN(null)), () -> node.toString());
+      }
+    }
+  }
+
+  @Test
+  void evaluateBytecode() {
+    List<DataRow> rows = new ArrayList<>();
+    for (double value : CONFORMANCE_VALUES) {
+      rows.add(new DataRow(0, value));
+    }
+
+    Node node = createUnaryNode(new VariableNode(0));
+    double[] out = evaluateBytecode(node, rows);
+    for (int i = 0; i < rows.size(); i++) {
+      DataRow row = rows.get(i);
+      assertEquals(Double.doubleToLongBits(evaluateTree(node, row)),
+          Double.doubleToLongBits(out[i]), () -> "Value " + row.getX()[0]);
+    }
+  }
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class ColumnKernelsProviderTest {
+
+  @Test
+  void provideProgram() {
+    assertSame(ScalarColumnKernels.INSTANCE, ColumnKernelsProvider.provide("program"));
+    assertSame(ScalarColumnKernels.INSTANCE, ColumnKernelsProvider.provide(""));
+    assertSame(ScalarColumnKernels.INSTANCE, ColumnKernelsProvider.provide(null));
+  }
+
+  @Test
+  void provideVector() {
+    // tests run with the incubator module
+    assertInstanceOf(VectorColumnKernels.class, ColumnKernelsProvider.provide("vector"));
+  }
+
+  @Test
+  void provideUnknown() {
+    assertThrows(IllegalArgumentException.class, () -> ColumnKernelsProvider.provide("gpu"));
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.newtowndata.math.genetics.NodeUtils;
+import com.newtowndata.math.genetics.nodes.ArcSinNode;
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.GroupConstantNode;
+import com.newtowndata.math.genetics.nodes.IntConstantNode;
+import com.newtowndata.math.genetics.nodes.MinusNode;
+import com.newtowndata.math.genetics.nodes.MultiplicationNode;
+import com.newtowndata.math.genetics.nodes.PlusNode;
+import com.newtowndata.math.genetics.nodes.PowerNode;
+import com.newtowndata.math.genetics.nodes.SinNode;
+import com.newtowndata.math.genetics.nodes.SpecialConstantNode;
+import com.newtowndata.math.genetics.nodes.ToSquareNode;
+import com.newtowndata.math.genetics.nodes.VariableNode;
+import com.newtowndata.math.genetics.nodes.core.Node;
+import com.newtowndata.math.genetics.nodes.helper.Constant;
+import com.newtowndata.math.input.DataRow;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class LinearGenomeTest {
+
+  // 2.0*sin(2+x1)+(x2^2)
+  private static final Node TEST_NODE = new PlusNode(
+      new MultiplicationNode(
+          new ConstantNode(2.0),
+          new SinNode(new PlusNode(
+              new VariableNode(0),
+              new IntConstantNode(2)
+          ))
+      ),
+      new ToSquareNode(new VariableNode(1))
+  );
+
+  @Test
+  void encodeDecode() {
+    LinearGenome genome = LinearGenome.encode(TEST_NODE);
+    assertEquals(TEST_NODE.getSize(), genome.size());
+    assertEquals(TEST_NODE, genome.decode());
+    assertEquals(TEST_NODE.toString(), genome.toString());
+  }
+
+  @Test
+  void encodeDecodeLeaves() {
+    Node node = new MinusNode(SpecialConstantNode.of("pi"),
+        new GroupConstantNode(List.of(new Constant("a", 1), new Constant("b", 2))));
+    LinearGenome genome = LinearGenome.encode(node);
+
+    assertEquals(LinearGenome.LEAF, genome.getOpcode(1));
+    assertEquals(LinearGenome.LEAF, genome.getOpcode(2));
+    assertEquals(node, genome.decode());
+  }
+
+  @Test
+  void fingerprint() {
+    Node leaves = new MinusNode(SpecialConstantNode.of("pi"),
+        new GroupConstantNode(List.of(new Constant("a", 1), new Constant("b", 2))));
+    Node power = new PowerNode(new VariableNode(3), new ConstantNode(-0.5));
+    for (Node node : List.of(TEST_NODE, leaves, power)) {
+      assertEquals(NodeUtils.fingerprint(node), LinearGenome.encode(node).fingerprint());
+    }
+
+    // a spliced genome is equal to the tree with the node replaced
+    LinearGenome genome = LinearGenome.encode(TEST_NODE);
+    for (int i = 0; i < genome.size(); i++) {
+      assertEquals(NodeUtils.fingerprint(NodeUtils.replaceNode(TEST_NODE, i, SinNode::new)),
+          genome.replace(i, SinNode::new).fingerprint());
+    }
+    assertNotEquals(NodeUtils.fingerprint(TEST_NODE), LinearGenome.encode(power).fingerprint());
+  }
+
+  @Test
+  void replaceCommutativeOrder() {
+    // 1.0+x1, asin(x1) sorts before the constant, so the children of the sum swap
+    Node sum = new PlusNode(new ConstantNode(1.0), new VariableNode(0));
+    List<Function<Node, Node>> operations = List.of(ArcSinNode::new, SinNode::new,
+        node -> new IntConstantNode(3), node -> SpecialConstantNode.of("pi"));
+    for (Node node : List.of(sum, TEST_NODE)) {
+      LinearGenome genome = LinearGenome.encode(node);
+      for (Function<Node, Node> operation : operations) {
+        for (int i = 0; i < genome.size(); i++) {
+          Node expected = NodeUtils.replaceNode(node, i, operation);
+          LinearGenome replaced = genome.replace(i, operation);
+
+          assertEquals(LinearGenome.encode(expected), replaced);
+          assertEquals(NodeUtils.fingerprint(expected), replaced.fingerprint());
+          for (int j = 0; j < replaced.size(); j++) {
+            assertEquals(NodeUtils.extractNode(expected, j), replaced.decode(j));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void decodePosition() {
+    LinearGenome genome = LinearGenome.encode(TEST_NODE);
+    for (int i = 0; i < genome.size(); i++) {
+      assertEquals(NodeUtils.extractNode(TEST_NODE, i), genome.decode(i));
+    }
+  }
+
+  @Test
+  void subtreeEnd() {
+    LinearGenome genome = LinearGenome.encode(TEST_NODE);
+    assertEquals(9, genome.subtreeEnd(0));
+    assertEquals(7, genome.subtreeEnd(1));
+    assertEquals(3, genome.subtreeEnd(2));
+    assertEquals(9, genome.subtreeEnd(7));
+  }
+
+  @Test
+  void replace() {
+    LinearGenome genome = LinearGenome.encode(TEST_NODE);
+    for (int i = 0; i < genome.size(); i++) {
+      LinearGenome replaced = genome.replace(i, node -> new MinusNode(node, new VariableNode(2)));
+      assertEquals(NodeUtils.replaceNode(TEST_NODE, i,
+          node -> new MinusNode(node, new VariableNode(2))), replaced.decode());
+    }
+  }
+
+  @Test
+  void replaceLeaves() {
+    Node leaf = SpecialConstantNode.of("e");
+    LinearGenome genome = LinearGenome.encode(TEST_NODE).replace(3, node -> leaf);
+
+    assertSame(leaf, genome.getLeaf(3));
+    assertEquals(NodeUtils.replaceNode(TEST_NODE, 3, node -> leaf), genome.decode());
+  }
+
+  @Test
+  void replaceOutOfRange() {
+    LinearGenome genome = LinearGenome.encode(TEST_NODE);
+    assertSame(genome, genome.replace(9, node -> node));
+    assertSame(genome, genome.replace(-1, node -> node));
+  }
+
+  @Test
+  void extract() {
+    LinearGenome genome = LinearGenome.encode(TEST_NODE);
+    assertEquals(new SinNode(new PlusNode(new VariableNode(0), new IntConstantNode(2))),
+        genome.extract(3).decode());
+    assertEquals(new VariableNode(1), genome.extract(8).decode());
+    assertSame(genome, genome.extract(9));
+  }
+
+  @Test
+  void testEquality() {
+    Node leaf = SpecialConstantNode.of("e");
+    LinearGenome genome = LinearGenome.encode(TEST_NODE);
+    LinearGenome withLeaf = genome.replace(3, node -> leaf);
+
+    assertEquals(genome, LinearGenome.encode(TEST_NODE));
+    assertEquals(genome.hashCode(), LinearGenome.encode(TEST_NODE).hashCode());
+    assertNotEquals(genome, withLeaf);
+    assertEquals(withLeaf, LinearGenome.encode(withLeaf.decode()));
+    // the splice keeps an empty leaf array
+    assertEquals(genome, withLeaf.replace(3, node -> TEST_NODE.getChild(0).getChild(1)));
+  }
+
+  @Test
+  void compile() {
+    Node node = new PlusNode(TEST_NODE, new PowerNode(new SinNode(new VariableNode(0)),
+        SpecialConstantNode.of("pi")));
+    Program program = ProgramCompiler.compile(LinearGenome.encode(node));
+    Program treeProgram = ProgramCompiler.compile(node);
+
+    assertEquals(treeProgram.getLength(), program.getLength());
+    assertEquals(treeProgram.getMaxStackSize(), program.getMaxStackSize());
+    for (double x1 = -3; x1 < 3; x1 += 0.25) {
+      DataRow row = new DataRow(0, x1, 2 * x1 + 1);
+      assertEquals(Double.doubleToLongBits(treeProgram.evaluate(row)),
+          Double.doubleToLongBits(program.evaluate(row)));
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.newtowndata.math.genetics.NodeUtils;
+import com.newtowndata.math.genetics.nodes.ArcSinhNode;
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.DivisionNode;
+import com.newtowndata.math.genetics.nodes.GroupConstantNode;
+import com.newtowndata.math.genetics.nodes.LogNode;
+import com.newtowndata.math.genetics.nodes.MinusNode;
+import com.newtowndata.math.genetics.nodes.MultiplicationNode;
+import com.newtowndata.math.genetics.nodes.PlusNode;
+import com.newtowndata.math.genetics.nodes.PowerNode;
+import com.newtowndata.math.genetics.nodes.PowerOf2Node;
+import com.newtowndata.math.genetics.nodes.ReciprocalNode;
+import com.newtowndata.math.genetics.nodes.SinNode;
+import com.newtowndata.math.genetics.nodes.ToSquareNode;
+import com.newtowndata.math.genetics.nodes.VariableNode;
+import com.newtowndata.math.genetics.nodes.core.Node;
+import com.newtowndata.math.genetics.nodes.helper.Constant;
+import com.newtowndata.math.input.ColumnarData;
+import com.newtowndata.math.input.DataInput;
+import com.newtowndata.math.input.DataRow;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ModelCompilerTest {
+
+  // 2.0*sin(2.0+x1)+(x2^2)
+  private static final Node TEST_NODE = new PlusNode(
+      new MultiplicationNode(
+          new ConstantNode(2.0),
+          new SinNode(new PlusNode(
+              new VariableNode(0),
+              new ConstantNode(2)
+          ))
+      ),
+      new ToSquareNode(new VariableNode(1))
+  );
+
+  private static final ColumnarData DATA = createData();
+
+  private static ColumnarData createData() {
+    List<DataRow> rows = new ArrayList<>();
+    for (double x1 = -3; x1 < 3; x1 += 0.25) {
+      rows.add(new DataRow(0, x1, 2 * x1 + 1));
+    }
+    rows.add(new DataRow(0, 0, 0));
+    rows.add(new DataRow(0, Double.NaN, 1e300));
+    return new DataInput(rows).getColumnarData();
+  }
+
+  @Test
+  void compile() {
+    assertSame(TEST_NODE);
+  }
+
+  @Test
+  void compileFolded() {
+    // log(2-2) fails for every row, (2^3)*x1 is folded to 8*x1
+    assertSame(new PlusNode(new VariableNode(0),
+        new LogNode(new MinusNode(new ConstantNode(2), new ConstantNode(2)))));
+    assertSame(new MultiplicationNode(new PowerNode(new ConstantNode(2), new ConstantNode(3)),
+        new VariableNode(0)));
+    assertSame(new ReciprocalNode(new PowerOf2Node(new ConstantNode(-1))));
+  }
+
+  @Test
+  void compileConstantOperands() {
+    assertSame(new MinusNode(new ConstantNode(3), new VariableNode(0)));
+    assertSame(new DivisionNode(new VariableNode(1), new ConstantNode(0.5)));
+    assertSame(new PowerNode(new ConstantNode(0.5), new ArcSinhNode(new VariableNode(1))));
+  }
+
+  @Test
+  void compileGuardedPower() {
+    // pow(NaN, 0) = 1 must not hide the failure of the base
+    assertSame(new PowerNode(new LogNode(new VariableNode(0)), new ConstantNode(0)));
+    assertSame(new PowerNode(new LogNode(new ConstantNode(-1)), new VariableNode(0)));
+  }
+
+  @Test
+  void compileRange() {
+    CompiledModel compiled = ModelCompiler.compile(ProgramCompiler.compile(TEST_NODE));
+    double[] expected = new double[DATA.getRowCount()];
+    ProgramCompiler.compile(TEST_NODE).evaluate(DATA, expected);
+
+    double[] out = {-1, -1, -1};
+    compiled.evaluate(DATA, 2, 4, out);
+    assertEquals(expected[2], out[0]);
+    assertEquals(expected[3], out[1]);
+    assertEquals(-1, out[2]);
+
+    compiled.evaluate(DATA, 4, 4, out);
+    assertEquals(expected[2], out[0]);
+  }
+
+  @Test
+  void compileTwice() {
+    Program program = ProgramCompiler.compile(TEST_NODE);
+    assertNotSame(ModelCompiler.compile(program).getClass(),
+        ModelCompiler.compile(program).getClass());
+  }
+
+  @Test
+  void isSupported() {
+    assertTrue(ModelCompiler.isSupported(ProgramCompiler.compile(TEST_NODE)));
+    assertFalse(ModelCompiler.isSupported(ProgramCompiler.compile(
+        new GroupConstantNode(List.of(new Constant("a", 1))))));
+
+    Node large = new VariableNode(0);
+    for (int i = 0; i < ModelCompiler.MAX_PROGRAM_LENGTH / 2; i++) {
+      large = new PlusNode(large, new ConstantNode(i));
+    }
+    assertFalse(ModelCompiler.isSupported(ProgramCompiler.compile(large)));
+  }
+
+  @Test
+  void compileLargest() {
+    Node large = new VariableNode(0);
+    while (NodeUtils.calculateSize(large) + 2 <= ModelCompiler.MAX_PROGRAM_LENGTH) {
+      large = new SinNode(new PlusNode(large, new VariableNode(1)));
+    }
+    assertSame(large);
+  }
+
+  @Test
+  void compileUnsupported() {
+    Program program = ProgramCompiler.compile(
+        new GroupConstantNode(List.of(new Constant("a", 1))));
+    assertThrows(IllegalArgumentException.class, () -> ModelCompiler.compile(program));
+  }
+
+  private static void assertSame(Node node) {
+    Program program = ProgramCompiler.compile(node);
+    double[] expected = new double[DATA.getRowCount()];
+    program.evaluate(DATA, expected);
+
+    double[] out = new double[DATA.getRowCount()];
+    ModelCompiler.compile(program).evaluate(DATA, 0, DATA.getRowCount(), out);
+
+    for (int i = 0; i < out.length; i++) {
+      assertEquals(Double.doubleToLongBits(expected[i]), Double.doubleToLongBits(out[i]),
+          node + " row " + i);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.newtowndata.math.genetics.NodeInterner;
+import com.newtowndata.math.genetics.NodeUtils;
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.CosNode;
+import com.newtowndata.math.genetics.nodes.LogNode;
+import com.newtowndata.math.genetics.nodes.MultiplicationNode;
+import com.newtowndata.math.genetics.nodes.PlusNode;
+import com.newtowndata.math.genetics.nodes.PowerNode;
+import com.newtowndata.math.genetics.nodes.SinNode;
+import com.newtowndata.math.genetics.nodes.ToSquareNode;
+import com.newtowndata.math.genetics.nodes.VariableNode;
+import com.newtowndata.math.genetics.nodes.core.Node;
+import com.newtowndata.math.input.ColumnarData;
+import com.newtowndata.math.input.DataInput;
+import com.newtowndata.math.input.DataRow;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class NodeColumnsTest {
+
+  private static final ColumnarData DATA;
+
+  static {
+    List<DataRow> rows = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      rows.add(new DataRow(0, i * 0.1 - 5, i % 7 - 3));
+    }
+    DATA = new DataInput(rows).getColumnarData();
+  }
+
+  // (2.0*sin(x1))+(ln(x2)^0.0)
+  private static final Node PARENT = NodeInterner.intern(new PlusNode(
+      new MultiplicationNode(new ConstantNode(2.0), new SinNode(new VariableNode(0))),
+      new PowerNode(new LogNode(new VariableNode(1)), new ConstantNode(0))));
+
+  @Test
+  void evaluate() {
+    NodeColumns columns = NodeColumns.evaluate(PARENT, DATA, ScalarColumnKernels.INSTANCE,
+        List.of());
+    assertSameAsProgram(PARENT, columns.getOutput());
+    assertEquals(PARENT.getSize(), columns.getComputedCount());
+  }
+
+  @Test
+  void evaluateMutated() {
+    NodeColumns parentColumns = NodeColumns.evaluate(PARENT, DATA,
+        ScalarColumnKernels.INSTANCE, List.of());
+
+    // sin(x1) replaced by cos(x1), the path is the cosine, the multiplication and the root,
+    // x1 is shared with the parent
+    Node mutated = NodeInterner.intern(NodeUtils.replaceNode(PARENT, 3,
+        node -> new CosNode(new VariableNode(0))));
+    NodeColumns columns = NodeColumns.evaluate(mutated, DATA, ScalarColumnKernels.INSTANCE,
+        List.of(parentColumns));
+    assertSameAsProgram(mutated, columns.getOutput());
+    assertEquals(3, columns.getComputedCount());
+
+    // the untouched subtrees are taken over, so the offspring of the offspring can use them
+    Node mutatedAgain = NodeInterner.intern(NodeUtils.replaceNode(mutated, 1,
+        node -> new ToSquareNode(node)));
+    NodeColumns nextColumns = NodeColumns.evaluate(mutatedAgain, DATA,
+        ScalarColumnKernels.INSTANCE, List.of(columns));
+    assertSameAsProgram(mutatedAgain, nextColumns.getOutput());
+    assertEquals(2, nextColumns.getComputedCount());
+  }
+
+  @Test
+  void evaluateParentRoot() {
+    NodeColumns parentColumns = NodeColumns.evaluate(PARENT, DATA,
+        ScalarColumnKernels.INSTANCE, List.of());
+    NodeColumns columns = NodeColumns.evaluate(PARENT, DATA, ScalarColumnKernels.INSTANCE,
+        List.of(parentColumns));
+    assertSame(parentColumns.getOutput(), columns.getOutput());
+    assertEquals(0, columns.getComputedCount());
+  }
+
+  private static void assertSameAsProgram(Node node, double[] result) {
+    double[] expected = new double[DATA.getRowCount()];
+    ProgramCompiler.compile(node).evaluate(DATA, expected);
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(Double.doubleToLongBits(expected[i]), Double.doubleToLongBits(result[i]));
+    }
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.newtowndata.math.genetics.MutationContext;
+import com.newtowndata.math.genetics.SimplificationContext;
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.GroupConstantNode;
+import com.newtowndata.math.genetics.nodes.IntConstantNode;
+import com.newtowndata.math.genetics.nodes.LogNode;
+import com.newtowndata.math.genetics.nodes.MinusNode;
+import com.newtowndata.math.genetics.nodes.MultiplicationNode;
+import com.newtowndata.math.genetics.nodes.PlusNode;
+import com.newtowndata.math.genetics.nodes.PowerNode;
+import com.newtowndata.math.genetics.nodes.SinNode;
+import com.newtowndata.math.genetics.nodes.SpecialConstantNode;
+import com.newtowndata.math.genetics.nodes.ToSquareNode;
+import com.newtowndata.math.genetics.nodes.VariableNode;
+import com.newtowndata.math.genetics.nodes.core.LeafNode;
+import com.newtowndata.math.genetics.nodes.core.Node;
+import com.newtowndata.math.genetics.nodes.core.SimplifiedNode;
+import com.newtowndata.math.genetics.nodes.helper.Constant;
+import com.newtowndata.math.input.ColumnarData;
+import com.newtowndata.math.input.DataInput;
+import com.newtowndata.math.input.DataRow;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ProgramCompilerTest {
+
+  // 2.0*sin(2.0+x1)+(x2^2)
+  private static final Node TEST_NODE = new PlusNode(
+      new MultiplicationNode(
+          new ConstantNode(2.0),
+          new SinNode(new PlusNode(
+              new VariableNode(0),
+              new ConstantNode(2)
+          ))
+      ),
+      new ToSquareNode(new VariableNode(1))
+  );
+
+  @Test
+  void compile() {
+    Program program = ProgramCompiler.compile(TEST_NODE);
+    assertEquals(9, program.getLength());
+    assertEquals(3, program.getMaxStackSize());
+  }
+
+  @Test
+  void evaluate() {
+    Program program = ProgramCompiler.compile(TEST_NODE);
+    for (double x1 = -3; x1 < 3; x1 += 0.25) {
+      DataRow row = new DataRow(0, x1, 2 * x1 + 1);
+      assertEquals(Double.doubleToLongBits(TEST_NODE.evaluate(row)),
+          Double.doubleToLongBits(program.evaluate(row)));
+    }
+  }
+
+  @Test
+  void compileGenome() {
+    Program program = ProgramCompiler.compile(LinearGenome.encode(TEST_NODE));
+    assertEquals(9, program.getLength());
+    assertEquals(3, program.getMaxStackSize());
+    assertArrayEquals(ProgramCompiler.compile(TEST_NODE).getCode(), program.getCode());
+    assertArrayEquals(ProgramCompiler.compile(TEST_NODE).getOperands(), program.getOperands());
+  }
+
+  @Test
+  void evaluateNonCommutative() {
+    Node node = new MinusNode(new VariableNode(0), new MinusNode(new IntConstantNode(3),
+        SpecialConstantNode.of("pi")));
+    assertEquals(node.evaluate(new DataRow(0, 10)),
+        ProgramCompiler.compile(node).evaluate(new DataRow(0, 10)), 1e-12);
+  }
+
+  @Test
+  void evaluateOutOfRange() {
+    Program program = ProgramCompiler.compile(
+        new PlusNode(new ConstantNode(1), new LogNode(new VariableNode(0))));
+    assertEquals(1, program.evaluate(new DataRow(0, 1)), 1e-9);
+    assertTrue(Double.isNaN(program.evaluate(new DataRow(0, -1))));
+  }
+
+  @Test
+  void evaluateGroupConstant() {
+    Node node = new PlusNode(new VariableNode(0), new GroupConstantNode(List.of(
+        new Constant("a", 1), new Constant("b", 2))));
+    Program program = ProgramCompiler.compile(node);
+
+    assertEquals(11, program.evaluate(new DataRow(0, "a", 10)), 1e-9);
+    assertEquals(12, program.evaluate(new DataRow(0, "b", 10)), 1e-9);
+    assertTrue(Double.isNaN(program.evaluate(new DataRow(0, "c", 10))));
+    assertTrue(Double.isNaN(program.evaluate(new DataRow(0, 10))));
+  }
+
+  @Test
+  void evaluateUnknownNode() {
+    Node node = new PlusNode(new ConstantNode(1), new FailingNode());
+    Program program = ProgramCompiler.compile(node);
+
+    assertEquals(3, program.evaluate(new DataRow(0, 2)), 1e-9);
+    assertTrue(Double.isNaN(program.evaluate(new DataRow(0, -2))));
+  }
+
+  @Test
+  void evaluateColumnar() {
+    List<DataRow> rows = new ArrayList<>();
+    for (double x1 = -3; x1 < 3; x1 += 0.25) {
+      rows.add(new DataRow(0, x1, 2 * x1 + 1));
+    }
+    ColumnarData data = new DataInput(rows).getColumnarData();
+
+    Program program = ProgramCompiler.compile(TEST_NODE);
+    double[] out = new double[rows.size()];
+    program.evaluate(data, out);
+
+    for (int i = 0; i < rows.size(); i++) {
+      assertEquals(Double.doubleToLongBits(program.evaluate(rows.get(i))),
+          Double.doubleToLongBits(out[i]));
+    }
+  }
+
+  @Test
+  void evaluateColumnarRange() {
+    ColumnarData data = new DataInput(List.of(new DataRow(0, 1), new DataRow(0, 2),
+        new DataRow(0, 3), new DataRow(0, 4))).getColumnarData();
+
+    Program program = ProgramCompiler.compile(new ToSquareNode(new VariableNode(0)));
+    double[] out = new double[2];
+    program.evaluate(data, 1, 3, out, program.createBuffers(2));
+
+    assertEquals(4, out[0], 1e-9);
+    assertEquals(9, out[1], 1e-9);
+  }
+
+  @Test
+  void evaluateColumnarOutOfRange() {
+    ColumnarData data = new DataInput(List.of(new DataRow(0, "a", 1), new DataRow(0, "a", -1),
+        new DataRow(0, "c", 1), new DataRow(0, 1))).getColumnarData();
+
+    Node node = new PlusNode(new PowerNode(new LogNode(new VariableNode(0)), new ConstantNode(0)),
+        new PowerNode(new GroupConstantNode(List.of(new Constant("a", 1), new Constant("b", 2))),
+            new ConstantNode(0)));
+    double[] out = new double[4];
+    ProgramCompiler.compile(node).evaluate(data, out);
+
+    assertEquals(2, out[0], 1e-9);
+    assertTrue(Double.isNaN(out[1]));
+    assertTrue(Double.isNaN(out[2]));
+    assertTrue(Double.isNaN(out[3]));
+  }
+
+  @Test
+  void evaluateColumnarUnknownNode() {
+    ColumnarData data = new DataInput(List.of(new DataRow(0, 2), new DataRow(0, -2)))
+        .getColumnarData();
+
+    double[] out = new double[2];
+    ProgramCompiler.compile(new PlusNode(new ConstantNode(1), new FailingNode()))
+        .evaluate(data, out);
+
+    assertEquals(3, out[0], 1e-9);
+    assertTrue(Double.isNaN(out[1]));
+  }
+
+  private static class FailingNode extends LeafNode {
+
+    @Override
+    public Node mutate(MutationContext mutationContext) {
+      return this;
+    }
+
+    @Override
+    public double evaluate(DataRow x) {
+      if (x.getX()[0] < 0) {
+        throw new IllegalStateException("Negative");
+      }
+      return x.getX()[0];
+    }
+
+    @Override
+    public SimplifiedNode simplify(SimplificationContext context) {
+      return new SimplifiedNode(this, false);
+    }
+  }
+}
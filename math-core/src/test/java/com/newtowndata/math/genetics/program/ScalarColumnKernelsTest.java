@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import org.junit.jupiter.api.Test;
+
+class ScalarColumnKernelsTest {
+
+  private static final ColumnKernels KERNELS = ScalarColumnKernels.INSTANCE;
+
+  @Test
+  void binary() {
+    double[] a = {1, 2, 1e300, Double.NaN};
+    KERNELS.add(a, new double[]{2, 3, 1e308, 1}, 4);
+    assertArrayEquals(new double[]{3, 5, 1e308 + 1e300, Double.NaN}, a);
+
+    KERNELS.subtract(a, new double[]{1, 1, -Double.MAX_VALUE, 1}, 4);
+    assertArrayEquals(new double[]{2, 4, Double.NaN, Double.NaN}, a);
+
+    KERNELS.multiply(a, new double[]{3, 0.5, 1, 1}, 4);
+    assertArrayEquals(new double[]{6, 2, Double.NaN, Double.NaN}, a);
+
+    KERNELS.divide(a, new double[]{4, 0, 1, 1}, 4);
+    assertArrayEquals(new double[]{1.5, Double.NaN, Double.NaN, Double.NaN}, a);
+  }
+
+  @Test
+  void binaryLength() {
+    double[] a = {1, 2, 3};
+    KERNELS.add(a, new double[]{1, 1, 1}, 2);
+    assertArrayEquals(new double[]{2, 3, 3}, a);
+  }
+
+  @Test
+  void unary() {
+    double[] a = {4, 0, -1, 1e200};
+    KERNELS.negative(a, 4);
+    assertArrayEquals(new double[]{-4, -0.0, 1, -1e200}, a);
+
+    KERNELS.square(a, 4);
+    assertArrayEquals(new double[]{16, 0, 1, Double.NaN}, a);
+
+    KERNELS.sqrt(a, 4);
+    assertArrayEquals(new double[]{4, 0, 1, Double.NaN}, a);
+
+    KERNELS.reciprocal(a, 4);
+    assertArrayEquals(new double[]{0.25, Double.NaN, 1, Double.NaN}, a);
+
+    double[] b = {-4};
+    KERNELS.sqrt(b, 1);
+    assertArrayEquals(new double[]{Double.NaN}, b);
+  }
+}
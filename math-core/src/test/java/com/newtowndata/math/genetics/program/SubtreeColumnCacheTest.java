@@ -0,0 +1,130 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.DivisionNode;
+import com.newtowndata.math.genetics.nodes.GroupConstantNode;
+import com.newtowndata.math.genetics.nodes.LogNode;
+import com.newtowndata.math.genetics.nodes.MultiplicationNode;
+import com.newtowndata.math.genetics.nodes.PlusNode;
+import com.newtowndata.math.genetics.nodes.PowerNode;
+import com.newtowndata.math.genetics.nodes.SinNode;
+import com.newtowndata.math.genetics.nodes.SqrtNode;
+import com.newtowndata.math.genetics.nodes.ToSquareNode;
+import com.newtowndata.math.genetics.nodes.VariableNode;
+import com.newtowndata.math.genetics.nodes.core.Node;
+import com.newtowndata.math.genetics.nodes.helper.Constant;
+import com.newtowndata.math.input.ColumnarData;
+import com.newtowndata.math.input.DataInput;
+import com.newtowndata.math.input.DataRow;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SubtreeColumnCacheTest {
+
+  private static final ColumnarData DATA;
+
+  static {
+    List<DataRow> rows = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      rows.add(new DataRow(0, i % 3 == 0 ? "a" : "b", i * 0.1 - 5, i % 7 - 3));
+    }
+    DATA = new DataInput(rows).getColumnarData();
+  }
+
+  @Test
+  void evaluate() {
+    SubtreeColumnCache cache = new SubtreeColumnCache(DATA, ScalarColumnKernels.INSTANCE,
+        1 << 20);
+
+    assertSameAsProgram(cache, new PlusNode(
+        new MultiplicationNode(new ConstantNode(2.0), new SinNode(new VariableNode(0))),
+        new ToSquareNode(new VariableNode(1))));
+    assertSameAsProgram(cache, new DivisionNode(new SqrtNode(new VariableNode(0)),
+        new LogNode(new VariableNode(1))));
+    assertSameAsProgram(cache, new PowerNode(new LogNode(new VariableNode(0)),
+        new ConstantNode(0)));
+    assertSameAsProgram(cache, new PlusNode(new VariableNode(0),
+        new GroupConstantNode(List.of(new Constant("a", 1), new Constant("c", 2)))));
+    assertSameAsProgram(cache, new VariableNode(1));
+  }
+
+  @Test
+  void evaluateShared() {
+    SubtreeColumnCache cache = new SubtreeColumnCache(DATA, ScalarColumnKernels.INSTANCE,
+        1 << 20);
+    Node shared = new SinNode(new ToSquareNode(new VariableNode(0)));
+
+    // every evaluation is repeated, so the root is found in the cache once
+    assertSameAsProgram(cache, new PlusNode(shared, new VariableNode(1)));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(3, cache.getMissCount());
+
+    assertSameAsProgram(cache, new MultiplicationNode(new VariableNode(1), shared));
+    assertEquals(3, cache.getHitCount());
+    assertEquals(4, cache.getMissCount());
+    assertEquals(4L * DATA.getRowCount() * Double.BYTES, cache.getBytes());
+  }
+
+  @Test
+  void evict() {
+    // room for two columns only
+    SubtreeColumnCache cache = new SubtreeColumnCache(DATA, ScalarColumnKernels.INSTANCE,
+        2L * DATA.getRowCount() * Double.BYTES);
+    assertSameAsProgram(cache, new SinNode(new ToSquareNode(new SqrtNode(new VariableNode(0)))));
+
+    assertEquals(1, cache.getEvictionCount());
+    assertEquals(2L * DATA.getRowCount() * Double.BYTES, cache.getBytes());
+  }
+
+  @Test
+  void evaluateTooSmall() {
+    SubtreeColumnCache cache = new SubtreeColumnCache(DATA, ScalarColumnKernels.INSTANCE, 8);
+    assertSameAsProgram(cache, new SinNode(new VariableNode(0)));
+    assertEquals(0, cache.getBytes());
+  }
+
+  @Test
+  void invalidSize() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new SubtreeColumnCache(DATA, ScalarColumnKernels.INSTANCE, 0));
+  }
+
+  @Test
+  void testToString() {
+    assertNotNull(new SubtreeColumnCache(DATA, ScalarColumnKernels.INSTANCE, 1).toString());
+  }
+
+  private static void assertSameAsProgram(SubtreeColumnCache cache, Node node) {
+    double[] expected = new double[DATA.getRowCount()];
+    ProgramCompiler.compile(node).evaluate(DATA, expected);
+    double[] result = cache.evaluate(node);
+
+    assertEquals(expected.length, result.length);
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(Double.doubleToLongBits(expected[i]), Double.doubleToLongBits(result[i]));
+    }
+    // a second evaluation is answered from the cache
+    assertArrayEquals(result, cache.evaluate(node));
+    assertTrue(cache.getHitRate() >= 0);
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.genetics.program;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.function.BiConsumer;
+import org.junit.jupiter.api.Test;
+
+class VectorColumnKernelsTest {
+
+  private static final double[] VALUES = {Double.NEGATIVE_INFINITY, -1e300, -710, -2, -1, -0.5,
+      -0.0, 0, Double.MIN_VALUE, 1e-300, 0.5, 1, 2, 3.7, 710, 1e300, Double.MAX_VALUE,
+      Double.POSITIVE_INFINITY, Double.NaN};
+
+  private static final ColumnKernels SCALAR = ScalarColumnKernels.INSTANCE;
+  private static final ColumnKernels VECTOR = new VectorColumnKernels();
+
+  @Test
+  void add() {
+    assertBinary(ColumnKernels::add);
+  }
+
+  @Test
+  void subtract() {
+    assertBinary(ColumnKernels::subtract);
+  }
+
+  @Test
+  void multiply() {
+    assertBinary(ColumnKernels::multiply);
+  }
+
+  @Test
+  void divide() {
+    assertBinary(ColumnKernels::divide);
+  }
+
+  @Test
+  void negative() {
+    assertUnary(ColumnKernels::negative);
+  }
+
+  @Test
+  void square() {
+    assertUnary(ColumnKernels::square);
+  }
+
+  @Test
+  void reciprocal() {
+    assertUnary(ColumnKernels::reciprocal);
+  }
+
+  @Test
+  void sqrt() {
+    assertUnary(ColumnKernels::sqrt);
+  }
+
+  @Test
+  void partialLength() {
+    double[] a = new double[37];
+    double[] b = new double[37];
+    for (int i = 0; i < a.length; i++) {
+      a[i] = i;
+      b[i] = 1;
+    }
+    VECTOR.add(a, b, 21);
+    for (int i = 0; i < a.length; i++) {
+      assertEquals(i < 21 ? i + 1 : i, a[i]);
+    }
+  }
+
+  private interface BinaryKernel {
+
+    void apply(ColumnKernels kernels, double[] a, double[] b, int length);
+  }
+
+  private interface UnaryKernel {
+
+    void apply(ColumnKernels kernels, double[] a, int length);
+  }
+
+  private static void assertBinary(BinaryKernel kernel) {
+    // all pairs, the odd length leaves rows for the scalar tail
+    int length = VALUES.length * VALUES.length;
+    double[] a = new double[length];
+    double[] b = new double[length];
+    for (int i = 0; i < length; i++) {
+      a[i] = VALUES[i / VALUES.length];
+      b[i] = VALUES[i % VALUES.length];
+    }
+
+    assertSame(a, (scalar, vector) -> {
+      kernel.apply(SCALAR, scalar, b, length);
+      kernel.apply(VECTOR, vector, b, length);
+    });
+  }
+
+  private static void assertUnary(UnaryKernel kernel) {
+    assertSame(VALUES, (scalar, vector) -> {
+      kernel.apply(SCALAR, scalar, VALUES.length);
+      kernel.apply(VECTOR, vector, VALUES.length);
+    });
+  }
+
+  private static void assertSame(double[] input, BiConsumer<double[], double[]> run) {
+    double[] scalar = input.clone();
+    double[] vector = input.clone();
+    run.accept(scalar, vector);
+    for (int i = 0; i < input.length; i++) {
+      assertEquals(Double.doubleToRawLongBits(scalar[i]), Double.doubleToRawLongBits(vector[i]),
+          "Different result for " + input[i] + " at " + i);
+    }
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.input;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ColumnarDataTest {
+
+  @Test
+  void create() {
+    DataInput dataInput = new DataInput(List.of(
+        new DataRow(1, "b", 2, 3),
+        new DataRow(4, 5, 6),
+        new DataRow(7, "a", 8, 9)
+    ));
+
+    ColumnarData data = dataInput.getColumnarData();
+    assertSame(data, dataInput.getColumnarData());
+
+    assertEquals(3, data.getRowCount());
+    assertEquals(2, data.getXLength());
+    assertArrayEquals(new double[] {1, 4, 7}, data.getY());
+    assertArrayEquals(new double[] {2, 5, 8}, data.getColumn(0));
+    assertArrayEquals(new double[] {3, 6, 9}, data.getColumn(1));
+    assertEquals(List.of("a", "b"), data.getGroups());
+    assertArrayEquals(new int[] {1, -1, 0}, data.getGroupIndices());
+    assertEquals(new DataRow(4, 5, 6), data.getRow(1));
+  }
+
+  @Test
+  void createEmpty() {
+    ColumnarData data = new DataInput(List.of()).getColumnarData();
+    assertEquals(0, data.getRowCount());
+    assertEquals(0, data.getXLength());
+  }
+}
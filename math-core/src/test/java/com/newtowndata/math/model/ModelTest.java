@@ -0,0 +1,118 @@
+/*
+ * Copyright 2023 Voyta Krizek, https://github.com/NewTownData
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.newtowndata.math.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.newtowndata.math.genetics.NodeUtils;
+import com.newtowndata.math.genetics.nodes.ArcSinNode;
+import com.newtowndata.math.genetics.nodes.ConstantNode;
+import com.newtowndata.math.genetics.nodes.LogNode;
+import com.newtowndata.math.genetics.nodes.MinusNode;
+import com.newtowndata.math.genetics.nodes.PlusNode;
+import com.newtowndata.math.genetics.nodes.SinNode;
+import com.newtowndata.math.genetics.nodes.VariableNode;
+import com.newtowndata.math.genetics.nodes.core.Node;
+import com.newtowndata.math.genetics.program.LinearGenome;
+import com.newtowndata.math.input.DataRow;
+import org.junit.jupiter.api.Test;
+
+class ModelTest {
+
+  // sin(x1)-log(2.0)
+  private static final Node TEST_NODE = new MinusNode(new SinNode(new VariableNode(0)),
+      new LogNode(new ConstantNode(2)));
+
+  @Test
+  void linearGenome() {
+    Model tree = new Model(TEST_NODE);
+    Model linear = new Model(LinearGenome.encode(TEST_NODE));
+
+    assertNull(tree.getGenome());
+    assertNotNull(linear.getGenome());
+    assertEquals(tree, linear);
+    assertEquals(tree.getSize(), linear.getSize());
+    assertEquals(tree.getFingerprint(), linear.getFingerprint());
+    assertEquals(tree.getRoot(), linear.getRoot());
+    assertSame(linear.getRoot(), linear.getRoot());
+    assertEquals(tree.evaluate(new DataRow(0, 1.5)), linear.evaluate(new DataRow(0, 1.5)));
+  }
+
+  @Test
+  void testEquality() {
+    Model model = new Model(TEST_NODE);
+    Model sameModel = new Model(new MinusNode(new SinNode(new VariableNode(0)),
+        new LogNode(new ConstantNode(2))));
+    Model otherModel = new Model(new MinusNode(new LogNode(new ConstantNode(2)),
+        new SinNode(new VariableNode(0))));
+    Model sameLinear = new Model(LinearGenome.encode(TEST_NODE));
+
+    assertEquals(model, sameModel);
+    assertEquals(model.hashCode(), sameModel.hashCode());
+    assertNotEquals(model, otherModel);
+    assertEquals(model, sameLinear);
+    assertEquals(sameLinear, model);
+    assertEquals(model.hashCode(), sameLinear.hashCode());
+    assertEquals(sameLinear, new Model(LinearGenome.encode(TEST_NODE)));
+    assertNotEquals(sameLinear, new Model(LinearGenome.encode(otherModel.getRoot())));
+  }
+
+  @Test
+  void testToString() {
+    assertEquals(TEST_NODE.toString(), new Model(TEST_NODE).toString());
+    assertEquals(TEST_NODE.toString(), new Model(LinearGenome.encode(TEST_NODE)).toString());
+  }
+
+  @Test
+  void extractNode() {
+    Model tree = new Model(TEST_NODE);
+    Model linear = new Model(LinearGenome.encode(TEST_NODE));
+    for (int i = 0; i < tree.getSize(); i++) {
+      assertEquals(NodeUtils.extractNode(TEST_NODE, i), tree.extractNode(i));
+      assertEquals(NodeUtils.extractNode(TEST_NODE, i), linear.extractNode(i));
+    }
+  }
+
+  @Test
+  void replaceNodeCommutative() {
+    Node sum = new PlusNode(new ConstantNode(1.0), new VariableNode(0));
+    Model expected = new Model(NodeUtils.replaceNode(sum, 2, ArcSinNode::new));
+    Model linear = new Model(LinearGenome.encode(sum)).replaceNode(2, ArcSinNode::new);
+
+    assertEquals(expected, linear);
+    assertEquals(expected.getFingerprint(), linear.getFingerprint());
+    assertEquals(expected.extractNode(1), linear.extractNode(1));
+  }
+
+  @Test
+  void replaceNode() {
+    Model tree = new Model(TEST_NODE);
+    Model linear = new Model(LinearGenome.encode(TEST_NODE));
+    for (int i = 0; i < tree.getSize(); i++) {
+      Model expected = new Model(NodeUtils.replaceNode(TEST_NODE, i, SinNode::new));
+
+      Model treeOffspring = tree.replaceNode(i, SinNode::new);
+      assertEquals(expected, treeOffspring);
+      assertNull(treeOffspring.getGenome());
+
+      Model linearOffspring = linear.replaceNode(i, SinNode::new, tree);
+      assertEquals(expected, linearOffspring);
+      assertNotNull(linearOffspring.getGenome());
+    }
+  }
+}
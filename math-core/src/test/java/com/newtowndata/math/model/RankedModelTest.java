@@ -14,6 +14,8 @@
 package com.newtowndata.math.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.newtowndata.math.genetics.nodes.ConstantNode;
 import org.junit.jupiter.api.Test;
@@ -27,6 +29,17 @@ class RankedModelTest {
 
     assertEquals(model1, model2);
     assertEquals(model1.hashCode(), model2.hashCode());
+    assertFalse(model1.isPruned());
+  }
+
+  @Test
+  void pruned() {
+    RankedModel model = RankedModel.pruned(new Model(new ConstantNode(2)));
+
+    assertTrue(model.isPruned());
+    assertTrue(Double.isNaN(model.getFitness()));
+    assertEquals("{pruned, 2.0}", model.toString());
+    assertEquals(new RankedModel(new Model(new ConstantNode(2)), 1), model);
   }
 
 }
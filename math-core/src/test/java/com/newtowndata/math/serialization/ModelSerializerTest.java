@@ -15,10 +15,12 @@ package com.newtowndata.math.serialization;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.newtowndata.math.genetics.nodes.ConstantNode;
 import com.newtowndata.math.genetics.nodes.GroupConstantNode;
 import com.newtowndata.math.genetics.nodes.IntConstantNode;
+import com.newtowndata.math.genetics.nodes.MultiplicationNode;
 import com.newtowndata.math.genetics.nodes.PlusNode;
 import com.newtowndata.math.genetics.nodes.SpecialConstantNode;
 import com.newtowndata.math.genetics.nodes.SqrtNode;
@@ -27,6 +29,11 @@ import com.newtowndata.math.genetics.nodes.core.Node;
 import com.newtowndata.math.genetics.nodes.helper.Constant;
 import com.newtowndata.math.model.Model;
 import com.newtowndata.math.serialization.ModelSerializer.IndexedNode;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -142,6 +149,29 @@ class ModelSerializerTest {
         () -> serializer.serializeLeafNode(new SqrtNode(new ConstantNode(2))));
   }
 
+  @Test
+  void writeRead() throws IOException {
+    Model model = new Model(new PlusNode(
+        new MultiplicationNode(new VariableNode(1), SpecialConstantNode.of("pi")),
+        new PlusNode(new SqrtNode(new ConstantNode(2.5)), new PlusNode(new IntConstantNode(-3),
+            new GroupConstantNode(List.of(new Constant("abc", 2), new Constant("def", 4)))))));
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    serializer.write(model, new DataOutputStream(bytes));
+    Model copy = serializer.read(new DataInputStream(
+        new ByteArrayInputStream(bytes.toByteArray())));
+
+    assertEquals(model, copy);
+    assertEquals(serializer.serialize(model), serializer.serialize(copy));
+    assertTrue(bytes.size() < serializer.serialize(model).length());
+  }
+
+  @Test
+  void readInvalid() {
+    assertThrows(IllegalArgumentException.class, () -> serializer.read(
+        new DataInputStream(new ByteArrayInputStream(new byte[] {1}))));
+  }
+
   @Test
   void serializeIndex() {
     assertEquals("y000", serializer.serializeIndex(0));